@@ -46,7 +46,10 @@ import edu.claflin.cyfinder.internal.tasks.factories.EdgeBetweennessTaskFactory;
 import edu.claflin.cyfinder.internal.tasks.factories.FastGreedyTaskFactory;
 import edu.claflin.cyfinder.internal.tasks.factories.IntersectCollectionsTaskFactory;
 import edu.claflin.cyfinder.internal.tasks.factories.IntersectNetworksTaskFactory;
+import edu.claflin.cyfinder.internal.tasks.factories.KCoreTaskFactory;
 import edu.claflin.cyfinder.internal.tasks.factories.KruskalTaskFactory;
+import edu.claflin.cyfinder.internal.tasks.factories.LabelPropagationTaskFactory;
+import edu.claflin.cyfinder.internal.tasks.factories.LouvainTaskFactory;
 import edu.claflin.cyfinder.internal.tasks.factories.MakeUndirectedTaskFactory;
 import edu.claflin.cyfinder.internal.tasks.factories.PrimTaskFactory;
 import edu.claflin.cyfinder.internal.tasks.factories.ShortestPathTaskFactory;
@@ -159,6 +162,28 @@ public class CyFinderActivator extends AbstractCyActivator
 		WalktrapTaskFactory wtFactory = new WalktrapTaskFactory();
 		registerService(bc, wtFactory, NetworkTaskFactory.class, wtProps);
 
+		// Louvain
+		/////////////////////////////////////////////////////////////////////////////
+		Properties louvainProps = new Properties();
+		louvainProps.put(TITLE, "Louvain");
+		louvainProps.put(PREFERRED_MENU, "Apps.CyFinder.Community Detection");
+		louvainProps.put(MENU_GRAVITY, gravity + ".4");
+		louvainProps.put(ENABLE_FOR, "network"); // enable the task for the loaded Cytoscape graph.
+
+		LouvainTaskFactory louvainFactory = new LouvainTaskFactory();
+		registerService(bc, louvainFactory, NetworkTaskFactory.class, louvainProps);
+
+		// Label Propagation
+		/////////////////////////////////////////////////////////////////////////////
+		Properties lpProps = new Properties();
+		lpProps.put(TITLE, "Label Propagation");
+		lpProps.put(PREFERRED_MENU, "Apps.CyFinder.Community Detection");
+		lpProps.put(MENU_GRAVITY, gravity + ".5");
+		lpProps.put(ENABLE_FOR, "network"); // enable the task for the loaded Cytoscape graph.
+
+		LabelPropagationTaskFactory lpFactory = new LabelPropagationTaskFactory();
+		registerService(bc, lpFactory, NetworkTaskFactory.class, lpProps);
+
 		gravity++;
 	}
 
@@ -225,6 +250,17 @@ public class CyFinderActivator extends AbstractCyActivator
 		BronKersbochTaskFactory lcb = new BronKersbochTaskFactory(true); // creates tasks
 		registerService(bc, lcb, NetworkTaskFactory.class, maxBiCliqueProps); // registers the task
 
+		// K-Core Decomposition Service
+		/////////////////////////////////////////////////////////////////////////////
+		Properties kCoreProps = new Properties();
+		kCoreProps.put(TITLE, "K-Core Decomposition");
+		kCoreProps.put(PREFERRED_MENU, "Apps.CyFinder.Maximal Subgraphs");
+		kCoreProps.put(MENU_GRAVITY, gravity + ".4");
+		kCoreProps.put(ENABLE_FOR, "network"); // enable the task for the loaded Cytoscape graph.
+
+		KCoreTaskFactory kCoreFactory = new KCoreTaskFactory();
+		registerService(bc, kCoreFactory, NetworkTaskFactory.class, kCoreProps);
+
 		gravity++;
 	}
 
@@ -94,13 +94,12 @@ public class BipartiteLayoutTask extends AbstractTask
 				
 				for (Graph component : dfs.process(g)) 
 				{
-					if (!component.isBipartite())
+					// get partite sets, empty if the component is not bipartite.
+					ArrayList<ArrayList<Node>> bSets = component.getPartiteSets();
+					if (bSets.get(0).isEmpty() || bSets.get(1).isEmpty())
 					{
 						continue; // not biparite, skip.
 					}
-					
-					// get partite sets.
-					ArrayList<ArrayList<Node>> bSets = component.getPartiteSets();
 
 					Collections.sort(bSets, (a, b) -> b.size() - a.size());
 					Collections.sort(bSets.get(0));
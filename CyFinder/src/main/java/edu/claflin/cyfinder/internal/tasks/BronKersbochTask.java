@@ -22,10 +22,13 @@ package edu.claflin.cyfinder.internal.tasks;
 
 import java.util.HashMap;
 
+import org.cytoscape.model.CyEdge;
 import org.cytoscape.model.CyNetwork;
 
 import edu.claflin.cyfinder.internal.logic.ConfigurationBundle;
 import edu.claflin.finder.algo.Algorithm;
+import edu.claflin.finder.algo.ArgumentsBundle;
+import edu.claflin.finder.algo.BronKerbosch;
 
 public class BronKersbochTask extends GeneralAlgorithmTask
 {
@@ -55,5 +58,24 @@ public class BronKersbochTask extends GeneralAlgorithmTask
 	{
 		Algorithm algo = config.getAlgo();
 		algo.args.putBoolean("bipartite", bipartite);
+		// the bitset engine ignores edge direction, so networks with directed edges
+		// keep the classic engine, which follows it
+		algo.args.putEnum("engine", isDirected() ? BronKerbosch.Engine.CLASSIC : BronKerbosch.Engine.BITSET);
+		algo.args.putBoolean(ArgumentsBundle.COMMON_ARGS.PARALLEL.toString(), true);
+	}
+
+	/**
+	 * Determines whether the network has a directed edge.
+	 * 
+	 * @return true if some edge of the network is directed.
+	 */
+	private boolean isDirected()
+	{
+		for (CyEdge edge : network.getEdgeList())
+		{
+			if (edge.isDirected())
+				return true;
+		}
+		return false;
 	}
 }
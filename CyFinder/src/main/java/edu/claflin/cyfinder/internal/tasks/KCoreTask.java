@@ -0,0 +1,89 @@
+package edu.claflin.cyfinder.internal.tasks;
+
+import java.util.Map;
+
+import org.cytoscape.model.CyColumn;
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyTable;
+import org.cytoscape.task.AbstractNetworkTask;
+import org.cytoscape.work.TaskMonitor;
+
+import edu.claflin.cyfinder.internal.logic.CyNodeAdapter;
+import edu.claflin.cyfinder.internal.tasks.utils.GraphTaskUtils;
+import edu.claflin.finder.algo.KCoreDecomposition;
+import edu.claflin.finder.logic.Graph;
+import edu.claflin.finder.logic.Node;
+
+/**
+ * Represents a task that computes the core number of every node of a network
+ * and writes it to the {@value #COLUMN} column of the node table. Edge direction
+ * is ignored. If a column of that name holds another type, the core numbers go
+ * to the first of "{@value #COLUMN} (2)", "{@value #COLUMN} (3)" and so on that
+ * is missing or holds integers.
+ */
+public class KCoreTask extends AbstractNetworkTask
+{
+	/**
+	 * The name of the node column receiving the core numbers.
+	 */
+	public static final String COLUMN = "Core Number";
+
+	/**
+	 * Constructs the task.
+	 * 
+	 * @param network the CyNetwork to operate on.
+	 */
+	public KCoreTask(CyNetwork network)
+	{
+		super(network);
+	}
+
+	@Override
+	public void run(TaskMonitor taskMonitor)
+	{
+		taskMonitor.setTitle("Computing k-core decomposition...");
+		taskMonitor.setProgress(0D);
+
+		taskMonitor.setStatusMessage("Reading Network.");
+		Graph graph = GraphTaskUtils.convertCyNetwork(network);
+		if (cancelled)
+			return;
+
+		taskMonitor.setStatusMessage("Computing core numbers.");
+		Map<Node, Integer> cores = KCoreDecomposition.getCoreNumbers(graph);
+		if (cancelled)
+			return;
+
+		CyTable table = network.getDefaultNodeTable();
+		String name = getColumnName(table);
+		taskMonitor.setStatusMessage("Writing core numbers to column \"" + name + "\".");
+		if (table.getColumn(name) == null)
+			table.createColumn(name, Integer.class, false);
+
+		for (Map.Entry<Node, Integer> entry : cores.entrySet())
+		{
+			CyNodeAdapter node = (CyNodeAdapter) entry.getKey();
+			table.getRow(node.getCyNode().getSUID()).set(name, entry.getValue());
+		}
+		taskMonitor.setProgress(1D);
+	}
+
+	/**
+	 * Gets the name of the column to write the core numbers to, the first that is
+	 * missing from the node table or holds integers.
+	 * 
+	 * @param table the node table.
+	 * @return the column name.
+	 */
+	private static String getColumnName(CyTable table)
+	{
+		String name = COLUMN;
+		for (int suffix = 2;; suffix++)
+		{
+			CyColumn column = table.getColumn(name);
+			if (column == null || column.getType() == Integer.class)
+				return name;
+			name = COLUMN + " (" + suffix + ")";
+		}
+	}
+}
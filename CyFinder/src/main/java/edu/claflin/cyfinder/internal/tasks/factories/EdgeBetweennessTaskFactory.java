@@ -19,7 +19,7 @@ import edu.claflin.cyfinder.internal.tasks.GeneralAlgorithmTask;
 import edu.claflin.cyfinder.internal.tasks.MakeUndirectedTask;
 import edu.claflin.cyfinder.internal.tasks.config.ConfigurationTask;
 import edu.claflin.cyfinder.internal.tasks.utils.GraphTaskUtils;
-import edu.claflin.cyfinder.internal.ui.configdialog.ConfigDialog;
+import edu.claflin.cyfinder.internal.ui.configdialog.EdgeBetweennessConfigDialog;
 import edu.claflin.cyfinder.internal.ui.utils.FeatureConfig;
 import edu.claflin.finder.algo.clustering.GirvanNewman;
 
@@ -66,9 +66,8 @@ public class EdgeBetweennessTaskFactory extends AbstractNetworkTaskFactory
 			fc.setWeightSelect(true);
 
 			// start configuration window
-			return new TaskIterator(new ConfigurationTask(
-					parent, new ConfigDialog<GirvanNewman>(parent, "Configure Edge Betweeness", eAction,
-							GirvanNewman.class, fc, GraphTaskUtils.getNumericColumnsArray(cn)),
+			return new TaskIterator(new ConfigurationTask(parent, new EdgeBetweennessConfigDialog<GirvanNewman>(parent,
+					eAction, GirvanNewman.class, fc, GraphTaskUtils.getNumericColumnsArray(cn)),
 					"Edge Betweenness with Girvan Newman"));
 		}
 		else
@@ -0,0 +1,25 @@
+package edu.claflin.cyfinder.internal.tasks.factories;
+
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.task.AbstractNetworkTaskFactory;
+import org.cytoscape.work.TaskIterator;
+
+import edu.claflin.cyfinder.internal.tasks.KCoreTask;
+
+/**
+ * Constructs a KCoreTask.
+ */
+public class KCoreTaskFactory extends AbstractNetworkTaskFactory
+{
+	@Override
+	public boolean isReady(CyNetwork cn)
+	{
+		return cn.getNodeCount() >= 1;
+	}
+
+	@Override
+	public TaskIterator createTaskIterator(CyNetwork cn)
+	{
+		return new TaskIterator(new KCoreTask(cn));
+	}
+}
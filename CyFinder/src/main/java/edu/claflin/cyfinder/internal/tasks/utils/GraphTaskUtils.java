@@ -33,6 +33,7 @@ import edu.claflin.finder.io.graph.SimpleGraphIO;
 import edu.claflin.finder.io.graph.sub.GraphWriter;
 import edu.claflin.finder.logic.Edge;
 import edu.claflin.finder.logic.Graph;
+import edu.claflin.finder.logic.GraphBuilder;
 import edu.claflin.finder.logic.Node;
 
 public class GraphTaskUtils
@@ -83,37 +84,28 @@ public class GraphTaskUtils
 	 */
 	public static Graph convertCyNetwork(CyNetwork network, String weightColumnName)
 	{
-		Graph returnGraph = new Graph(network.toString());
+		GraphBuilder builder = new GraphBuilder(network.toString());
 		network.getNodeList().stream().forEach(cynode -> {
 			String name = network.getDefaultNodeTable().getRow(cynode.getSUID()).get("shared name", String.class);
 			CyNodeAdapter node = new CyNodeAdapter(cynode, name);
-			returnGraph.addNode(node);
+			builder.addNode(node);
 		});
 
 		network.getEdgeList().stream().forEach(cyedge -> {
 			String nodeName1 = network.getDefaultNodeTable().getRow(cyedge.getSource().getSUID()).get("shared name",
 					String.class);
-			CyNodeAdapter node1 = (CyNodeAdapter) returnGraph.getNodeList().stream()
-					.filter(anode -> anode.getIdentifier().equals(nodeName1)).toArray()[0];
+			CyNodeAdapter node1 = (CyNodeAdapter) builder.getNode(nodeName1);
 
 			String nodeName2 = network.getDefaultNodeTable().getRow(cyedge.getTarget().getSUID()).get("shared name",
 					String.class);
-			CyNodeAdapter node2 = (CyNodeAdapter) returnGraph.getNodeList().stream()
-					.filter(anode -> anode.getIdentifier().equals(nodeName2)).toArray()[0];
+			CyNodeAdapter node2 = (CyNodeAdapter) builder.getNode(nodeName2);
 
 			Double data = getEdgeData(network, cyedge, weightColumnName);
 
 			CyEdgeAdapter edge = new CyEdgeAdapter(node1, node2, data, cyedge);
-			returnGraph.addEdge(edge);
-
-			// Add second edge if undirected.
-//			if (!cyedge.isDirected())
-//			{
-//				edge = new CyEdgeAdapter(node2, node1, data, cyedge);
-//				returnGraph.addEdge(edge);
-//			}
+			builder.addEdge(edge);
 		});
-		return returnGraph;
+		return builder.build();
 	}
 
 	/**
@@ -125,38 +117,30 @@ public class GraphTaskUtils
 	public static Graph convertCyNetworkView(CyNetworkView networkview)
 	{
 		//CyNetwork network = networkview.getModel();
-		Graph returnGraph = new Graph(networkview.toString());
+		GraphBuilder builder = new GraphBuilder(networkview.toString());
 		networkview.getNodeViews().stream().forEach(cynode -> {
 			String name = networkview.getModel().getDefaultNodeTable().getRow(cynode.getModel().getSUID()).get("shared name", String.class);
 			CyNodeViewAdapter node = new CyNodeViewAdapter(cynode, name);
-			returnGraph.addNode(node);
+			builder.addNode(node);
 		});
 
 		networkview.getEdgeViews().stream().forEach(cyedge -> {
 			String nodeName1 = networkview.getModel().getDefaultNodeTable().getRow(cyedge.getModel().getSource().getSUID()).get("shared name",
 					String.class);
-			CyNodeViewAdapter node1 = (CyNodeViewAdapter) returnGraph.getNodeList().stream()
-					.filter(anode -> anode.getIdentifier().equals(nodeName1)).toArray()[0];
+			CyNodeViewAdapter node1 = (CyNodeViewAdapter) builder.getNode(nodeName1);
 
 			String nodeName2 = networkview.getModel().getDefaultNodeTable().getRow(cyedge.getModel().getTarget().getSUID()).get("shared name",
 					String.class);
-			CyNodeViewAdapter node2 = (CyNodeViewAdapter) returnGraph.getNodeList().stream()
-					.filter(anode -> anode.getIdentifier().equals(nodeName2)).toArray()[0];
+			CyNodeViewAdapter node2 = (CyNodeViewAdapter) builder.getNode(nodeName2);
 
 			Double data = getEdgeData(networkview.getModel(), cyedge.getModel(), null);
 
 			CyEdgeViewAdapter edge = new CyEdgeViewAdapter(node1, node2, data, cyedge);
-			returnGraph.addEdge(edge);
-
-			// Add second edge if undirected.
-//			if (!cyedge.isDirected())
-//			{
-//				edge = new CyEdgeAdapter(node2, node1, data, cyedge);
-//				returnGraph.addEdge(edge);
-//			}
+			builder.addEdge(edge);
 		});
-		return returnGraph;
+		return builder.build();
 	}
+
 	/**
 	 * Saves the results into the specified output modes.
 	 * 
@@ -241,6 +241,12 @@ public class FinderConfigDialog extends ConfigDialog implements ItemListener
 		// Set Preservative
 		argsBundle.putBoolean(ArgumentsBundle.COMMON_ARGS.EDGE_PRESERVATION.toString(), pCheckBox.isSelected());
 
+		// Set Parallel
+		argsBundle.putBoolean(ArgumentsBundle.COMMON_ARGS.PARALLEL.toString(), parCheckBox.isSelected());
+
+		// Set Root Pruning
+		argsBundle.putBoolean(ArgumentsBundle.COMMON_ARGS.ROOT_PRUNING.toString(), rCheckBox.isSelected());
+
 		// Select Algorithm
 		List selectedAlgorithms = algorithmsList.getSelectedValuesList();
 
@@ -516,10 +522,26 @@ public class FinderConfigDialog extends ConfigDialog implements ItemListener
 			+ "Warning!<p>" + "1) If DISABLED, the results might be false or might display nothing<p>"
 			+ "2) Most use comes when using with the Bi-Partite condition</html>";
 
+	/**
+	 * GUI: Checkbox for searching from several roots at once.
+	 */
+	private JCheckBox parCheckBox = new JCheckBox("Parallel Search");
+	private String parCheckBoxInfo = "<html>Select to search from several root nodes at once,<p>"
+			+ "using all available processors. The results are the same as in a sequential search.</html>";
+
+	/**
+	 * GUI: Checkbox for skipping roots whose subgraph is contained in an earlier one.
+	 */
+	private JCheckBox rCheckBox = new JCheckBox("Prune Dominated Roots");
+	private String rCheckBoxInfo = "<html>Select to skip root nodes whose subgraph is provably contained<p>"
+			+ "in a subgraph found earlier. Such subgraphs would be removed from the results anyway.</html>";
+
 	protected void addMiscConfig(Insets insets)
 	{
 		oLabel.setToolTipText(oLabelInfo);
 		pCheckBoxLabel.setToolTipText(pCheckBoxInfo);
+		parCheckBox.setToolTipText(parCheckBoxInfo);
+		rCheckBox.setToolTipText(rCheckBoxInfo);
 
 		add(oLabel, getConstraints(0, vertical_index++, 1, 1, 1, 1, GridBagConstraints.NONE,
 				GridBagConstraints.LINE_START, 0, 0, insets));
@@ -533,7 +555,11 @@ public class FinderConfigDialog extends ConfigDialog implements ItemListener
 				GridBagConstraints.LINE_START, 0, 0, insets));
 		add(pCheckBox, getConstraints(3, vertical_index - 1, 1, 1, 1, 1, GridBagConstraints.BOTH,
 				GridBagConstraints.CENTER, 0, 0, insets));
-		vertical_index++;
+		add(parCheckBox, getConstraints(3, vertical_index, 1, 1, 1, 1, GridBagConstraints.BOTH,
+				GridBagConstraints.CENTER, 0, 0, insets));
+		add(rCheckBox, getConstraints(3, vertical_index + 1, 1, 1, 1, 1, GridBagConstraints.BOTH,
+				GridBagConstraints.CENTER, 0, 0, insets));
+		vertical_index += 2;
 	}
 
 	/**
@@ -0,0 +1,334 @@
+package edu.claflin.cyfinder.internal.ui.configdialog;
+
+import static edu.claflin.cyfinder.internal.ui.GridBagBuilder.getConstraints;
+
+import java.awt.Frame;
+import java.awt.GridBagConstraints;
+import java.awt.GridBagLayout;
+import java.awt.Insets;
+import java.awt.event.ActionEvent;
+import java.lang.reflect.Constructor;
+
+import javax.swing.Action;
+import javax.swing.JCheckBox;
+import javax.swing.JComboBox;
+import javax.swing.JDialog;
+import javax.swing.JFileChooser;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JSeparator;
+import javax.swing.JTextField;
+
+import org.cytoscape.model.CyColumn;
+
+import edu.claflin.cyfinder.internal.logic.ConfigurationBundle;
+import edu.claflin.cyfinder.internal.tasks.utils.GraphTaskUtils;
+import edu.claflin.cyfinder.internal.ui.ErrorPanel;
+import edu.claflin.cyfinder.internal.ui.utils.ComboItem;
+import edu.claflin.cyfinder.internal.ui.utils.FeatureConfig;
+import edu.claflin.finder.algo.Algorithm;
+import edu.claflin.finder.algo.Algorithm.GraphSortOrder;
+import edu.claflin.finder.algo.ArgumentsBundle;
+import edu.claflin.finder.algo.clustering.LabelPropagation;
+
+public class LabelPropagationConfigDialog<T extends Algorithm> extends ConfigDialog<T>
+{
+	/**
+	 * {@inheritDoc}
+	 */
+	public LabelPropagationConfigDialog(Frame parent, String name, boolean modal)
+	{
+		super(parent, name, modal);
+		this.vertical_index = 0;
+	}
+	
+	public LabelPropagationConfigDialog(Frame parent, Action successAction, Class<T> algoType, FeatureConfig fc,
+			CyColumn[] edgeColumns)
+	{
+		super(parent, "Configure Label Propagation", true);
+
+		this.vertical_index = 0;
+		this.algoType = algoType;
+		this.successAction = successAction;
+		this.edgeColumns = edgeColumns;
+		this.fc = fc;
+
+		// listen to buttons
+		nCheckBox.addActionListener(this);
+		sCheckBox.addActionListener(this);
+		wCheckBox.addActionListener(this);
+		doneButton.addActionListener(this);
+
+		weightAttributeSelection = new JComboBox<>(edgeColumns);
+
+		sortGraphSelection.addItem(new ComboItem("None", 0));
+		if (!fc.isTiedNodeCount())
+		{
+			sortGraphSelection.addItem(new ComboItem("Ascending", 1));
+			sortGraphSelection.addItem(new ComboItem("Descending", 2));
+		}
+		sortGraphSelection.addItem(new ComboItem("Average Weight", 3));
+
+		weightAttributeSelection.setEnabled(false);
+		sortGraphSelection.setEnabled(false); // no sorting option if no new child saving
+
+		setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+		setResizable(true);
+
+		init();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void init()
+	{
+		setLayout(new GridBagLayout());
+		Insets insets = get_insets();
+
+		if (fc.isWeightSelect() && edgeColumns.length >= 1 && fc.isMinNodeCount())
+		{
+			addWeightSelector(insets);
+			addMinNodeCount(insets);
+			add(new JSeparator(JSeparator.HORIZONTAL), getConstraints(0, vertical_index++, 4, 1, 1, 0,
+					GridBagConstraints.BOTH, GridBagConstraints.CENTER, 0, 0, insets));
+		}
+		else if (fc.isWeightSelect() && edgeColumns.length >= 1)
+		{
+			addWeightSelector(insets);
+			add(new JSeparator(JSeparator.HORIZONTAL), getConstraints(0, vertical_index++, 4, 1, 1, 0,
+					GridBagConstraints.BOTH, GridBagConstraints.CENTER, 0, 0, insets));
+		}
+		else if (fc.isMinNodeCount())
+		{
+			addMinNodeCount(insets);
+			add(new JSeparator(JSeparator.HORIZONTAL), getConstraints(0, vertical_index++, 4, 1, 1, 0,
+					GridBagConstraints.BOTH, GridBagConstraints.CENTER, 0, 0, insets));
+		}
+
+		addLabelPropagationOptions(insets);
+		add(new JSeparator(JSeparator.HORIZONTAL), getConstraints(0, vertical_index++, 4, 1, 1, 0,
+				GridBagConstraints.BOTH, GridBagConstraints.CENTER, 0, 0, insets));
+
+		if (fc.isOrdered())
+		{
+			addOrderedSaveOptions(insets);
+		}
+		else
+		{
+			addSaveOptions(insets);
+		}
+
+		add(new JSeparator(JSeparator.HORIZONTAL), getConstraints(0, vertical_index++, 4, 1, 1, 0,
+				GridBagConstraints.BOTH, GridBagConstraints.CENTER, 0, 0, insets));
+		addDoneButton(insets);
+
+		pack();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ConfigurationBundle getConfigurationBundle() throws Exception
+	{
+		ConfigurationBundle configBundle = new ConfigurationBundle();
+
+		if (algoType != null)
+		{
+			ArgumentsBundle argsBundle = new ArgumentsBundle();
+			argsBundle.putBoolean("weighted", wCheckBox.isSelected());
+			argsBundle.putEnum("mode", ((ComboItem) modeSelection.getSelectedItem()).getValue() == 1
+					? LabelPropagation.Mode.SEMI_SYNCHRONOUS : LabelPropagation.Mode.ASYNCHRONOUS);
+			argsBundle.putInteger("max_sweeps", Integer.parseInt(maxSweepsField.getText()));
+			if (!seedField.getText().trim().isEmpty())
+				argsBundle.putInteger("seed", Integer.parseInt(seedField.getText().trim()));
+			argsBundle.putBoolean(ArgumentsBundle.COMMON_ARGS.PARALLEL.toString(), parCheckBox.isSelected());
+
+			Class[] args = { ArgumentsBundle.class };
+			Constructor<T> constructor = algoType.getDeclaredConstructor(args);
+			T algo = constructor.newInstance(argsBundle);
+
+			int minimumNodeCount = Integer.parseInt(minNodeCountField.getText());
+			algo.setMinNodeCount(minimumNodeCount);
+
+			int orderIndex = sortGraphSelection.getSelectedIndex();
+			if (orderIndex == 0)
+			{
+				// NONE
+				algo.setGraphSortOrder(GraphSortOrder.NONE);
+			}
+			else if (orderIndex == 1)
+			{
+				// ASCENDING
+				algo.setGraphSortOrder(GraphSortOrder.ASCENDING);
+			}
+			else if (orderIndex == 2)
+			{
+				// DESCENDING
+				algo.setGraphSortOrder(GraphSortOrder.DESCENDING);
+			}
+			else if (orderIndex == 3)
+			{
+				algo.setGraphSortOrder(GraphSortOrder.AVERAGE_WEIGHT);
+			}
+			else
+			{
+				throw new IllegalArgumentException("Order index wasn't valid for some reason.");
+			}
+
+			if (wCheckBox.isSelected())
+			{
+				String weightName = ((CyColumn) weightAttributeSelection.getSelectedItem()).getName();
+				algo.setWeightName(weightName);
+				configBundle.setWeightAttribute(weightName);
+			}
+
+			configBundle.setAlgo(algo);
+		}
+
+		configBundle.setInPlace(iCheckBox.isSelected());
+		configBundle.setNewChild(nCheckBox.isSelected());
+		configBundle.setSaveToFile(sCheckBox.isSelected());
+
+		if (configBundle.isSaveToFile())
+			configBundle.setSaveDirectory(saveDirectory);
+
+		return configBundle;
+	}
+
+	/**
+	 * {@inheritDoc }
+	 */
+	@Override
+	public void actionPerformed(ActionEvent e)
+	{
+
+		if (e.getSource() == doneButton)
+		{
+			String errorTitle = "Configuration Error";
+
+			// error if minimum Node Count is not positive integer
+			if (!GraphTaskUtils.isInteger(minNodeCountField.getText())
+					|| Integer.parseInt(minNodeCountField.getText()) < 1)
+			{
+				JOptionPane.showMessageDialog(this, "Minimum Node Count must be a positive integer!", errorTitle,
+						JOptionPane.ERROR_MESSAGE);
+			}
+			// error if the maximum number of sweeps is not positive integer
+			else if (!GraphTaskUtils.isInteger(maxSweepsField.getText())
+					|| Integer.parseInt(maxSweepsField.getText()) < 1)
+			{
+				JOptionPane.showMessageDialog(this, "Maximum Sweeps must be a positive integer!", errorTitle,
+						JOptionPane.ERROR_MESSAGE);
+			}
+			// error if the seed is given but not an integer
+			else if (!seedField.getText().trim().isEmpty() && !GraphTaskUtils.isInteger(seedField.getText().trim()))
+			{
+				JOptionPane.showMessageDialog(this, "Seed must be empty or an integer!", errorTitle,
+						JOptionPane.ERROR_MESSAGE);
+			}
+			// error if no save option was selected
+			else if (!iCheckBox.isSelected() && !nCheckBox.isSelected() && !sCheckBox.isSelected())
+			{
+				JOptionPane.showMessageDialog(this, "You must select a means of saving results!", errorTitle,
+						JOptionPane.ERROR_MESSAGE);
+			}
+			else
+			{
+				ActionEvent newEvent = null;
+
+				try // try to get the configuration bundle
+				{
+					newEvent = new ActionEvent(getConfigurationBundle(), 0, "CONFIG_BUNDLE");
+				}
+				catch (Exception ex)
+				{
+					String description = "An error occurred trying to configure the feature.";
+					ErrorPanel errorPanel = new ErrorPanel(description, ex);
+					errorPanel.display(this, errorTitle);
+				}
+				finally
+				{
+					setVisible(false);
+					if (newEvent != null)
+					{
+						successAction.actionPerformed(newEvent);
+					}
+					dispose();
+				}
+			}
+		}
+		else if (e.getSource() == wCheckBox) // enable/disable ordering for new child saving
+		{
+			weightAttributeSelection.setEnabled(wCheckBox.isSelected());
+		}
+		else if (e.getSource() == nCheckBox) // enable/disable ordering for new child saving
+		{
+			sortGraphSelection.setEnabled(nCheckBox.isSelected());
+		}
+		else if (e.getSource() == sCheckBox && sCheckBox.isSelected()) // get file path for file saving
+		{
+			JFileChooser fileChooser = new JFileChooser(System.getProperty("user.home"));
+			fileChooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+			int returnVal = fileChooser.showOpenDialog(this);
+
+			if (returnVal != JFileChooser.APPROVE_OPTION)
+			{
+				sCheckBox.setSelected(false);
+			}
+			else
+			{
+				saveDirectory = fileChooser.getSelectedFile();
+			}
+		}
+	}
+
+	// Order of the label updates
+	protected JLabel modeLabel = new JLabel("Update Order");
+	protected String modeInfo = "<html>Asynchronous updates one node at a time, each seeing the labels already updated.<br>"
+			+ "Semi-synchronous updates all nodes of one colour at once and always converges.</html>";
+	protected JComboBox<ComboItem> modeSelection = new JComboBox<>(
+			new ComboItem[] { new ComboItem("Asynchronous", 0), new ComboItem("Semi-synchronous", 1) });
+
+	// Bound on the number of sweeps
+	protected JLabel maxSweepsLabel = new JLabel("Maximum Sweeps *");
+	protected String maxSweepsInfo = "<html>Number of sweeps over the nodes after which the labels are kept<br>"
+			+ "even if some would still change.</html>";
+	protected JTextField maxSweepsField = new JTextField("100");
+
+	// Seed of the update order and tie-breaking
+	protected JLabel seedLabel = new JLabel("Seed");
+	protected String seedInfo = "<html>Seed of the random update order and tie-breaking, for other equally valid results.<br>"
+			+ "Leave empty for the default seed.</html>";
+	protected JTextField seedField = new JTextField("");
+
+	// Parallel semi-synchronous updates
+	protected JCheckBox parCheckBox = new JCheckBox("Parallel Search");
+	protected String parInfo = "<html>Find the labels of the nodes of one colour on all available processors.<br>"
+			+ "Only semi-synchronous updates run in parallel, with the same results.</html>";
+
+	protected void addLabelPropagationOptions(Insets insets)
+	{
+		modeLabel.setToolTipText(modeInfo);
+		maxSweepsLabel.setToolTipText(maxSweepsInfo);
+		seedLabel.setToolTipText(seedInfo);
+		parCheckBox.setToolTipText(parInfo);
+
+		add(modeLabel, getConstraints(0, vertical_index, 1, 1, 1, 1, GridBagConstraints.NONE,
+				GridBagConstraints.LINE_START, 0, 0, insets));
+		add(modeSelection, getConstraints(1, vertical_index++, 2, 1, 1, 1, GridBagConstraints.BOTH,
+				GridBagConstraints.LINE_END, 0, 0, insets));
+		add(maxSweepsLabel, getConstraints(0, vertical_index, 1, 1, 1, 1, GridBagConstraints.NONE,
+				GridBagConstraints.LINE_START, 0, 0, insets));
+		add(maxSweepsField, getConstraints(1, vertical_index++, 2, 1, 1, 1, GridBagConstraints.BOTH,
+				GridBagConstraints.LINE_END, 0, 0, insets));
+		add(seedLabel, getConstraints(0, vertical_index, 1, 1, 1, 1, GridBagConstraints.NONE,
+				GridBagConstraints.LINE_START, 0, 0, insets));
+		add(seedField, getConstraints(1, vertical_index++, 2, 1, 1, 1, GridBagConstraints.BOTH,
+				GridBagConstraints.LINE_END, 0, 0, insets));
+		add(parCheckBox, getConstraints(0, vertical_index++, 1, 1, 1, 1, GridBagConstraints.NONE,
+				GridBagConstraints.LINE_START, 0, 0, insets));
+	}
+}
@@ -40,10 +40,12 @@ import javax.swing.JSeparator;
 import javax.swing.JTextField;
 
 import edu.claflin.cyfinder.internal.logic.ConfigurationBundle;
+import edu.claflin.cyfinder.internal.tasks.utils.GraphTaskUtils;
 import edu.claflin.cyfinder.internal.ui.ErrorPanel;
 import edu.claflin.cyfinder.internal.ui.utils.ComboItem;
 import edu.claflin.finder.algo.Algorithm;
 import edu.claflin.finder.algo.ArgumentsBundle;
+import edu.claflin.finder.algo.shortestpath.BidirectionalShortestPath;
 import edu.claflin.finder.algo.shortestpath.DijkstraShortestPath;
 import edu.claflin.finder.algo.shortestpath.ShortestPath;
 
@@ -85,6 +87,14 @@ public class ShortestPathConfigDialog extends ConfigDialog
 	private JLabel toLabel = new JLabel("To Node: ");
 	private String toLabelInfo = "<html>" + "<p>Enter the name of the destination node.<p>" + "</html>";
 
+	/**
+	 * GUI: Number of landmarks of the ALT search
+	 */
+	private JTextField landmarksField = new JTextField(String.valueOf(BidirectionalShortestPath.DEFAULT_LANDMARKS));
+	private JLabel landmarksLabel = new JLabel("Landmarks: ");
+	private String landmarksInfo = "<html>Number of landmarks whose distances guide the ALT search.<br>"
+			+ "They are computed on the first query and reused while the network is unchanged.</html>";
+
 	// ----------------------------------------------------------------------------------------------------
 
 	/**
@@ -103,6 +113,8 @@ public class ShortestPathConfigDialog extends ConfigDialog
 		
 		algorithmSelection.addItem(new ComboItem("Dijkstra's", 0));
 		algorithmSelection.addItem(new ComboItem("Shortest Path v1.0.0", 1));
+		algorithmSelection.addItem(new ComboItem("Bidirectional Dijkstra's", 2));
+		algorithmSelection.addItem(new ComboItem("ALT (Landmarks)", 3));
 
 		fromNode = new JTextField();
 		toNode = new JTextField();
@@ -122,6 +134,7 @@ public class ShortestPathConfigDialog extends ConfigDialog
 		//
 		saveGraphOption.setToolTipText(saveGraphOptionInfo);
 		algorithmSelectionLabel.setToolTipText(algorithmSelectionInfo);
+		landmarksLabel.setToolTipText(landmarksInfo);
 		helpLabel.setToolTipText(helpInfo);
 
 		setLayout(new GridBagLayout());
@@ -138,6 +151,10 @@ public class ShortestPathConfigDialog extends ConfigDialog
 				insets));
 		add(toNode,
 				getConstraints(1, 16, 2, 1, 1, 1, GridBagConstraints.BOTH, GridBagConstraints.LINE_END, 0, 0, insets));
+		add(landmarksLabel, getConstraints(0, 17, 2, 1, 1, 1, GridBagConstraints.BOTH, GridBagConstraints.LINE_START, 0,
+				0, insets));
+		add(landmarksField,
+				getConstraints(1, 17, 2, 1, 1, 1, GridBagConstraints.BOTH, GridBagConstraints.LINE_END, 0, 0, insets));
 		add(new JSeparator(JSeparator.HORIZONTAL),
 				getConstraints(0, 18, 4, 1, 1, 0, GridBagConstraints.BOTH, GridBagConstraints.CENTER, 0, 0, insets));
 		add(saveGraphOption, getConstraints(0, 20, 4, 1, 1, 1, GridBagConstraints.NONE, GridBagConstraints.LINE_START,
@@ -184,6 +201,15 @@ public class ShortestPathConfigDialog extends ConfigDialog
 		{
 			algo = new ShortestPath(argsBundle);
 		}
+		else if (orderIndex == 2)
+		{
+			algo = new BidirectionalShortestPath(argsBundle);
+		}
+		else if (orderIndex == 3)
+		{
+			argsBundle.putInteger("landmarks", Integer.parseInt(landmarksField.getText()));
+			algo = new BidirectionalShortestPath(argsBundle);
+		}
 		else
 		{
 			throw new IllegalArgumentException("Algorithms index wasn't valid for some reason.");
@@ -242,6 +268,13 @@ public class ShortestPathConfigDialog extends ConfigDialog
 				JOptionPane.showMessageDialog(this, "Your destination node does not exist in the selected graph.", errorTitle,
 						JOptionPane.ERROR_MESSAGE);
 			}
+			// error if ALT is selected without a positive number of landmarks
+			else if (algorithmSelection.getSelectedIndex() == 3 && (!GraphTaskUtils.isInteger(landmarksField.getText())
+					|| Integer.parseInt(landmarksField.getText()) < 1))
+			{
+				JOptionPane.showMessageDialog(this, "Landmarks must be a positive integer!", errorTitle,
+						JOptionPane.ERROR_MESSAGE);
+			}
 			else
 			{
 				ActionEvent newEvent = null;
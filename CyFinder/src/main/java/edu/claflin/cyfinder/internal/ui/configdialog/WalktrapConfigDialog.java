@@ -10,6 +10,7 @@ import java.awt.event.ActionEvent;
 import java.lang.reflect.Constructor;
 
 import javax.swing.Action;
+import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
 import javax.swing.JDialog;
 import javax.swing.JFileChooser;
@@ -138,6 +139,7 @@ public class WalktrapConfigDialog<T extends Algorithm> extends ConfigDialog<T>
 			ArgumentsBundle argsBundle = new ArgumentsBundle();
 			argsBundle.putBoolean("weighted", wCheckBox.isSelected());
 			argsBundle.putInteger("steps", Integer.parseInt(walkLengthField.getText()));
+			argsBundle.putBoolean(ArgumentsBundle.COMMON_ARGS.PARALLEL.toString(), parCheckBox.isSelected());
 
 			Class[] args = { ArgumentsBundle.class };
 			Constructor<T> constructor = algoType.getDeclaredConstructor(args);
@@ -277,13 +279,21 @@ public class WalktrapConfigDialog<T extends Algorithm> extends ConfigDialog<T>
 	protected String walkLengthInfo = "<html>Length of the Walk</html>";
 	protected JTextField walkLengthField = new JTextField("4");
 
+	// Parallel walks
+	protected JCheckBox parCheckBox = new JCheckBox("Parallel Walks");
+	protected String parInfo = "<html>Compute the initial random walks on all available processors.<br>"
+			+ "The results are the same as in a sequential run.</html>";
+
 	protected void addWalkLength(Insets insets)
 	{
 		walkLengthLabel.setToolTipText(walkLengthInfo);
+		parCheckBox.setToolTipText(parInfo);
 
 		add(walkLengthLabel, getConstraints(0, vertical_index, 1, 1, 1, 1, GridBagConstraints.NONE,
 				GridBagConstraints.LINE_START, 0, 0, insets));
 		add(walkLengthField, getConstraints(1, vertical_index++, 2, 1, 1, 1, GridBagConstraints.BOTH,
 				GridBagConstraints.LINE_END, 0, 0, insets));
+		add(parCheckBox, getConstraints(0, vertical_index++, 1, 1, 1, 1, GridBagConstraints.NONE,
+				GridBagConstraints.LINE_START, 0, 0, insets));
 	}
 }
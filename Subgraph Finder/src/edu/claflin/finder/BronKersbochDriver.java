@@ -2,18 +2,23 @@ package edu.claflin.finder;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 import edu.claflin.finder.algo.Algorithm.GraphSortOrder;
 import edu.claflin.finder.algo.ArgumentsBundle;
 import edu.claflin.finder.algo.BronKerbosch;
 import edu.claflin.finder.io.graph.SimpleGraphIO;
+import edu.claflin.finder.logic.Edge;
 import edu.claflin.finder.logic.Graph;
+import edu.claflin.finder.logic.Node;
 
 public class BronKersbochDriver
 {
 	public static void main(String[] args) throws IOException 
 	{
+		checkDirectedCorePruning();
+
 		String fnames[] = {
 				"S.txt", "M.txt", "B.txt", "D.txt", "Clique_Test.txt", "BRCA.txt", "COAD.txt", "GBM.txt"
 //				"Bipartite_Test_3.txt"
@@ -53,4 +58,30 @@ public class BronKersbochDriver
 		}
 		System.out.println("END");
 	}
+
+	/**
+	 * Checks that core pruning keeps the results of the classic engine on a
+	 * mixed graph: the directed cycle A -> B -> C -> A is a triangle once
+	 * direction is ignored, but the classic engine only reports [A, B] from it,
+	 * so the undirected edge D - E must survive as a maximum clique.
+	 */
+	private static void checkDirectedCorePruning()
+	{
+		Graph g = new Graph("Directed_Core_Pruning");
+		for (String name : new String[] { "A", "B", "C", "D", "E" })
+			g.addNode(new Node(name));
+		g.addEdge(new Edge(g.getNode("A"), g.getNode("B"), 1.0, false));
+		g.addEdge(new Edge(g.getNode("B"), g.getNode("C"), 1.0, false));
+		g.addEdge(new Edge(g.getNode("C"), g.getNode("A"), 1.0, false));
+		g.addEdge(new Edge(g.getNode("D"), g.getNode("E"), 1.0, true));
+
+		List<String> found = new ArrayList<>();
+		for (Graph res : new BronKerbosch(new ArgumentsBundle()).process(g))
+			found.add(res.getNodeList().toString());
+
+		String expected = "[[A, B], [D, E]]";
+		System.out.println("Directed core pruning: " + found + (found.toString().equals(expected) ? " OK"
+				: " FAILED, expected " + expected));
+		System.out.println("===========================================\n");
+	}
 }
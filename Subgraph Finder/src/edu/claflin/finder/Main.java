@@ -81,6 +81,9 @@ public class Main {
      * 
      * {@code            <OPTIONS> : Select from one of the following options:}
      * {@code                PRESERVATIVE : Preserves edges on expansion.}
+     * {@code                PARALLEL : Searches from several roots at once.}
+     * {@code                PRUNING : Skips roots whose subgraph is contained in an earlier one.}
+     * {@code                ONLINE_CULL : Culls subgraphs as they are found.}
      * 
      * {@code        -type <OPTION> : A subgraph type to look for.}
      * 
@@ -162,6 +165,9 @@ public class Main {
             System.out.println();
             System.out.println("           <OPTIONS> : Select from one of the following options:");
             System.out.println("               PRESERVATIVE : Preserves edges on expansion.");
+            System.out.println("               PARALLEL : Searches from several roots at once.");
+            System.out.println("               PRUNING : Skips roots whose subgraph is contained in an earlier one.");
+            System.out.println("               ONLINE_CULL : Culls subgraphs as they are found.");
             System.out.println();
             System.out.println("       -type <OPTION> : A subgraph type to look for.");
             System.out.println();
@@ -197,6 +203,9 @@ public class Main {
             HashMap<String, Boolean> config = new HashMap<>();
             //FIXME - sets default to not preserve edges, can modify to either forcer true or set true as default
             config.put("PRESERVATIVE", true);
+            config.put("PARALLEL", false);
+            config.put("PRUNING", false);
+            config.put("ONLINE_CULL", false);
             
             ArrayList<Condition> conditions = new ArrayList<>();
             Comparator<Edge> ordering = null;
@@ -261,6 +270,15 @@ public class Main {
                             case "PRESERVATIVE":
                                 config.put("PRESERVATIVE", true);
                                 break;
+                            case "PARALLEL":
+                                config.put("PARALLEL", true);
+                                break;
+                            case "PRUNING":
+                                config.put("PRUNING", true);
+                                break;
+                            case "ONLINE_CULL":
+                                config.put("ONLINE_CULL", true);
+                                break;
                             default:
                                 error();
                         }
@@ -303,9 +321,6 @@ public class Main {
 
             if (manifest) {
                 File[] files = ManifestParser.parseManifest(file);
-                Graph[] graphs = new Graph[files.length];
-                for (int index = 0; index < files.length; index++)
-                    graphs[index] = reader.parseGraph(files[index], undirected);
                 
                 // Inherent difficulty in this method: memory overflow possible.
 //                ArrayList<ArrayList<Graph>> foundGraphs = 
@@ -315,16 +330,16 @@ public class Main {
 //                    writeGraphs(foundGraphs.get(index), output, writer);
 //                }
                 
-//                This solution reduces the memory overflow chance.
-                for (Graph current : graphs) {
-                    String output = current.getName();
-                    ArrayList<Graph> foundGraphs = bP.processSingular(current, algo);
-                    writeGraphs(foundGraphs, output, writer);
+//                This solution reduces the memory overflow chance.  Only one 
+//                graph is held at a time and its results are written as the 
+//                algorithm hands them out.
+                for (File current : files) {
+                    Graph graph = reader.parseGraph(current, undirected);
+                    writeGraphs(graph, algo, bP, writer);
                 }
             } else {
                 Graph graph = reader.parseGraph(new File(file), undirected);
-                ArrayList<Graph> foundGraphs = bP.processSingular(graph, algo);
-                writeGraphs(foundGraphs, graph.getName(), writer);
+                writeGraphs(graph, algo, bP, writer);
             }
 
             getLogger().destroy();
@@ -333,25 +348,26 @@ public class Main {
     
     /**
      * Writes Graph objects to memory.  Does so in a manner so as to promote 
-     * extensibility.
+     * extensibility.  The found graphs are streamed into the writer as the 
+     * algorithm hands them out, into a folder named after the processed graph.
      * 
-     * @param graphs the ArrayList object containing the graphs to write.
-     * @param output the String representing the folder in the memory to store 
-     * the graphs in.
+     * @param graph the Graph object to process.
+     * @param algo the {@link Algorithm} object to process the graph with.
+     * @param bP the BatchProcessor object to process with.
      * @param writer the {@link GraphWriter} object to use for writing the 
      * graphs.
      */
-    private static void writeGraphs(ArrayList<Graph> graphs, String output, GraphWriter writer) {
+    private static void writeGraphs(Graph graph, Algorithm algo, BatchProcessor<Graph, Graph> bP, GraphWriter writer) {
         File oldOutput = getOutput();
-        File newOutput = new File(oldOutput + File.separator, output);
+        File newOutput = new File(oldOutput + File.separator, graph.getName());
         newOutput.mkdir();
         setOutput(newOutput);
         
-        for (Graph graph : graphs) {
-            writer.writeGraph(graph);
+        try {
+            bP.processStreaming(graph, algo, writer::writeGraph);
+        } finally {
+            setOutput(oldOutput);
         }
-        
-        setOutput(oldOutput);
     }
     
     /**
@@ -399,6 +415,9 @@ public class Main {
         // checks for the "Edge Preservation" check box
         // can try to 
         bundle.putBoolean(ArgumentsBundle.COMMON_ARGS.EDGE_PRESERVATION.toString(), config.get("PRESERVATIVE"));
+        bundle.putBoolean(ArgumentsBundle.COMMON_ARGS.PARALLEL.toString(), config.get("PARALLEL"));
+        bundle.putBoolean(ArgumentsBundle.COMMON_ARGS.ROOT_PRUNING.toString(), config.get("PRUNING"));
+        bundle.putBoolean(ArgumentsBundle.COMMON_ARGS.ONLINE_CULL.toString(), config.get("ONLINE_CULL"));
         conditions.stream().forEach(cond -> bundle.addCondition(cond));
         bundle.putObject(ArgumentsBundle.COMMON_ARGS.EDGE_WEIGHT_COMPARATOR.toString(), comparator);
         
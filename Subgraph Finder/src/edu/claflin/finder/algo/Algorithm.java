@@ -5,22 +5,22 @@ import static edu.claflin.finder.Global.getLogger;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.stream.Collectors;
 
 import edu.claflin.finder.log.LogLevel;
 import edu.claflin.finder.logic.Graph;
-import edu.claflin.finder.logic.comp.GraphAverageWeightComparator;
-import edu.claflin.finder.logic.comp.GraphSizeComparator;
-import edu.claflin.finder.logic.processor.Processable;
+import edu.claflin.finder.logic.processor.CollectingSink;
+import edu.claflin.finder.logic.processor.ResultSink;
+import edu.claflin.finder.logic.processor.StreamingProcessable;
 
 /**
- * Abstraction of the algorithm classes used for finding subgraphs.
+ * Abstraction of the algorithm classes used for finding subgraphs. Algorithms
+ * implement {@link #process(Graph)}; those able to hand out their results as
+ * they are found also override {@link #process(Graph, ResultSink)}.
  * 
  * @author Charles Allen Schultz II
  * @version 3.4 February 2. 2015
  */
-public abstract class Algorithm implements Processable<Graph, Graph>
+public abstract class Algorithm implements StreamingProcessable<Graph, Graph>
 {
 
 	public enum GraphSortOrder
@@ -136,9 +136,30 @@ public abstract class Algorithm implements Processable<Graph, Graph>
 		this.partiteNumber = partiteNumber;
 	}
 
+	@Override
+	public abstract ArrayList<Graph> process(Graph graph);
+
+	/**
+	 * {@inheritDoc } <br>
+	 * Hands the results of {@link #process(Graph)} to the sink once the
+	 * processing is complete.
+	 * 
+	 * @param graph the {@link Graph} object to search through.
+	 * @param sink  the ResultSink receiving the found subgraphs.
+	 */
+	@Override
+	public void process(Graph graph, ResultSink<? super Graph> sink)
+	{
+		for (Graph subGraph : process(graph))
+			sink.accept(subGraph);
+		sink.finish();
+	}
+
 	/**
 	 * Removes duplicate subGraphs from the provided ArrayList. This ensures that
-	 * all found Graphs are unique.
+	 * all found Graphs are unique. A Graph is removed if another holds all of its
+	 * nodes and edges; of several identical Graphs the first is kept. See
+	 * {@link CullEngine}.
 	 * 
 	 * @param subGraphs the ArrayList containing the subGraphs to remove duplicates
 	 *                  from.
@@ -146,99 +167,15 @@ public abstract class Algorithm implements Processable<Graph, Graph>
 	 */
 	protected final ArrayList<Graph> cull(ArrayList<Graph> subGraphs)
 	{
-		// filter out low node count nodes
-		subGraphs = (ArrayList<Graph>) subGraphs.stream().filter(g -> g.getNodeCount() >= minNodeCount)
-				.collect(Collectors.toList());
-		
-		boolean[] duplicate = new boolean[subGraphs.size()];
+		CollectingSink<Graph> culled = new CollectingSink<>();
+		CullingSink stage = new CullingSink(culled, minNodeCount, getGraphSortOrder(), isParallel(), false);
+		subGraphs.forEach(stage::accept);
+		stage.finish();
+		subGraphs = culled.getResults();
 //        if(counter == 1){
 //            listener.gimmeUniqueSubGraphs(subGraphs);
 //            counter++;
 //        }
-		if (getLogger() != null)
-		{
-			getLogger().logAlgo(LogLevel.NORMAL, "CULL: " + subGraphs.size() + " queued for culling.");
-		}
-
-		for (int index1 = 0; index1 < subGraphs.size(); index1++)
-		{
-
-			if (duplicate[index1])
-				continue;
-
-			for (int index2 = index1 + 1; index2 < subGraphs.size(); index2++)
-			{
-				if (duplicate[index2])
-					continue;
-
-				if (getLogger() != null)
-				{
-					getLogger().logAlgo(LogLevel.VERBOSE,
-							"CULL: Comparing " + "graphs " + index1 + " and " + index2 + ".");
-				}
-
-				Graph graph1 = subGraphs.get(index1);
-				Graph graph2 = subGraphs.get(index2);
-
-				if (graph1.getNodeCount() < graph2.getNodeCount())
-				{
-					duplicate[index1] = compare(graph1, graph2);
-
-					if (duplicate[index1] && getLogger() != null)
-					{
-						getLogger().logAlgo(LogLevel.VERBOSE,
-								"CULL: Marked " + "duplicate graph at index " + index1 + ".");
-					}
-
-					break;
-				}
-				else
-				{
-					duplicate[index2] = compare(graph2, graph1);
-
-					if (duplicate[index2] && getLogger() != null)
-					{
-						getLogger().logAlgo(LogLevel.VERBOSE,
-								"CULL: Marked " + "duplicate graph at index " + index2 + ".");
-					}
-				}
-			}
-		}
-
-		for (int index = duplicate.length - 1; index >= 0; index--)
-			if (duplicate[index])
-				subGraphs.remove(index);
-
-		if (getLogger() != null)
-		{
-			getLogger().logInfo(LogLevel.NORMAL, "CULL: Culled " + (duplicate.length - subGraphs.size()) + " graphs.");
-		}
-
-		// sorting
-		GraphSortOrder gso = this.getGraphSortOrder();
-
-		if (gso == GraphSortOrder.NONE)
-		{
-			// do nothing
-		}
-		else if (gso == GraphSortOrder.AVERAGE_WEIGHT)
-		{
-			Collections.sort(subGraphs, new GraphAverageWeightComparator());
-		}
-		else
-		{
-			if (gso == GraphSortOrder.ASCENDING)
-			{
-				Collections.sort(subGraphs, new GraphSizeComparator());
-			}
-			else if (gso == GraphSortOrder.DESCENDING)
-			{
-				Collections.sort(subGraphs, new GraphSizeComparator());
-				Collections.reverse(subGraphs);
-			}
-		}
-
-		
 
 		// Evyatar & Ariel. Takes the completed subgraphs and starts the logic of
 		// assigning a group to evey node in the subgraph (A or B) for each subgraph.
@@ -252,6 +189,82 @@ public abstract class Algorithm implements Processable<Graph, Graph>
 		return subGraphs;
 	}
 
+	/**
+	 * Creates the culling and sorting stage in front of a sink. Graphs handed to
+	 * the stage reach the sink culled as in {@link #cull(java.util.ArrayList)} once
+	 * the stage is finished. With the {@link ArgumentsBundle.COMMON_ARGS#ONLINE_CULL}
+	 * boolean set, the stage culls the graphs as they arrive.
+	 * 
+	 * @param downstream the ResultSink receiving the culled graphs.
+	 * @return the CullingSink to hand the found graphs to.
+	 */
+	protected final CullingSink cullingStage(ResultSink<? super Graph> downstream)
+	{
+		Boolean online = args.getBoolean(ArgumentsBundle.COMMON_ARGS.ONLINE_CULL.toString());
+		return new CullingSink(downstream, minNodeCount, getGraphSortOrder(), isParallel(),
+				online != null && online);
+	}
+
+	/**
+	 * Reduces a graph to the nodes that may belong to a clique of at least a given
+	 * size, which all lie within the (size - 1)-core, ahead of a search for
+	 * cliques. See {@link KCoreDecomposition}. The reduction is skipped if the
+	 * {@link ArgumentsBundle.COMMON_ARGS#CORE_PRUNING} boolean is set to false.
+	 * 
+	 * @param graph the Graph to reduce.
+	 * @param size  the smallest size of the cliques searched for.
+	 * @param tag   the String prefixing the log message.
+	 * @return the reduced Graph, or the graph itself if no node was removed.
+	 */
+	protected final Graph reduceToCliqueCore(Graph graph, int size, String tag)
+	{
+		Boolean pruning = args.getBoolean(ArgumentsBundle.COMMON_ARGS.CORE_PRUNING.toString());
+		if (size <= 1 || (pruning != null && !pruning))
+			return graph;
+
+		Graph core = KCoreDecomposition.getCore(graph, size - 1);
+		if (getLogger() != null)
+		{
+			getLogger().logAlgo(LogLevel.NORMAL, tag + ": Core pruning kept " + core.getNodeCount() + " of "
+					+ graph.getNodeCount() + " nodes.");
+		}
+		return core;
+	}
+
+	/**
+	 * Indicates whether the algorithm may use several threads.
+	 * 
+	 * @return true if the {@link ArgumentsBundle.COMMON_ARGS#PARALLEL} boolean is
+	 *         set.
+	 */
+	protected final boolean isParallel()
+	{
+		Boolean parallel = args.getBoolean(ArgumentsBundle.COMMON_ARGS.PARALLEL.toString());
+		return parallel != null && parallel;
+	}
+
+	/**
+	 * Gets the number of threads to search with. Without the
+	 * {@link ArgumentsBundle.COMMON_ARGS#PARALLEL} boolean the search is
+	 * sequential; otherwise the {@link ArgumentsBundle.COMMON_ARGS#THREADS}
+	 * integer gives the number of threads, by default the number of available
+	 * processors.
+	 * 
+	 * @return the number of threads, 1 if the search is sequential.
+	 */
+	protected final int getThreadCount()
+	{
+		if (!isParallel())
+			return 1;
+
+		Integer threads = args.getInteger(ArgumentsBundle.COMMON_ARGS.THREADS.toString());
+		if (threads == null)
+			return Runtime.getRuntime().availableProcessors();
+		if (threads < 1)
+			throw new IllegalArgumentException("The number of threads must be positive!");
+		return threads;
+	}
+
 	/**
 	 * Reorders the supplied graphs so that the matrices match. The larger graph (in
 	 * terms of node count) is reordered so that the order of its nodes mirrors that
@@ -281,22 +294,7 @@ public abstract class Algorithm implements Processable<Graph, Graph>
 		return true;
 	}
 
-	/**
-	 * Compares the two graphs based on edges. Tests to see that the smaller graph
-	 * is essentially a subGraph of the larger.
-	 * 
-	 * @param base  the Graph object (smaller) to match.
-	 * @param match the Graph object (larger) to test against.
-	 * @return a boolean primitive indicating if the smaller Graph is a subgraph of
-	 *         the larger.
-	 */
-	private boolean compare(Graph base, Graph match)
-	{
-		return match.getNodeList().containsAll(base.getNodeList())
-				&& match.getEdgeList().containsAll(base.getEdgeList());
-	}
-
-	protected void setProgress(double progress)
+	protected synchronized void setProgress(double progress)
 	{
 		if (progress < 0D || progress > 1D)
 			throw new IllegalArgumentException("Progress must be between 0 and 1!");
@@ -306,6 +304,18 @@ public abstract class Algorithm implements Processable<Graph, Graph>
 		mPCS.firePropertyChange(PROP_PROGRESS, oldProgress, progress);
 	}
 
+	/**
+	 * Sets the progress unless it is already further along. Lets several threads
+	 * report their progress without moving it backwards.
+	 * 
+	 * @param progress the new progress between 0 and 1.
+	 */
+	protected synchronized void advanceProgress(double progress)
+	{
+		if (progress > this.progress)
+			setProgress(progress);
+	}
+
 	/**
 	 * Adds a PropertyChangeListener.
 	 * 
@@ -258,7 +258,8 @@ public class ArgumentsBundle
 	 */
 	public static enum COMMON_ARGS
 	{
-		EDGE_PRESERVATION("edge_preservation"), EDGE_WEIGHT_COMPARATOR("edge_weight_comparator");
+		EDGE_PRESERVATION("edge_preservation"), EDGE_WEIGHT_COMPARATOR("edge_weight_comparator"), PARALLEL("parallel"),
+		THREADS("threads"), ROOT_PRUNING("root_pruning"), ONLINE_CULL("online_cull"), CORE_PRUNING("core_pruning");
 
 		/**
 		 * A String description of the enum.
@@ -15,6 +15,7 @@ import edu.claflin.finder.logic.Edge;
 import edu.claflin.finder.logic.Graph;
 import edu.claflin.finder.logic.Node;
 import edu.claflin.finder.logic.cond.CliqueCondition;
+import edu.claflin.finder.logic.processor.ResultSink;
 import edu.claflin.finder.struct.PrioritySet;
 
 /**
@@ -24,7 +25,7 @@ import edu.claflin.finder.struct.PrioritySet;
  * @author Charles Allen Schultz II
  * @version 3.4 February 4, 2016
  */
-public class BreadthFirstTraversalSearch extends Algorithm
+public class BreadthFirstTraversalSearch extends TraversalSearch
 {
 	private Comparator<Edge> comparator;
 
@@ -76,10 +77,10 @@ public class BreadthFirstTraversalSearch extends Algorithm
 	 * groupings.
 	 * 
 	 * @param graph the {@link Graph} object to search through.
-	 * @return the Graph array holding all found subgraphs.
+	 * @param sink  the ResultSink receiving the culled subgraphs.
 	 */
 	@Override
-	public ArrayList<Graph> process(Graph graph)
+	public void process(Graph graph, ResultSink<? super Graph> sink)
 	{
 		try
 		{
@@ -98,42 +99,34 @@ public class BreadthFirstTraversalSearch extends Algorithm
 			}
 		}
 
-		ArrayList<Graph> subGraphs = new ArrayList<>();
-
 		if (getLogger() != null)
 		{
 			getLogger().logAlgo(LogLevel.NORMAL, "BFTS: Searching Graph: " + graph.getName());
 		}
 
-		for (Node node : graph.getNodeList())
-		{
-
-			if (getLogger() != null)
-			{
-				getLogger().logAlgo(LogLevel.VERBOSE, "BFTS: Setting Node as root: " + node.toString());
-			}
-
-			subGraphs.add(searchNode(graph, node));
-			setProgress(graph.getNodeIndex(node) * 1D / graph.getNodeCount());
-		}
+		CullingSink stage = cullingStage(sink);
+		int found = searchRoots(graph, "BFTS", stage);
 
 		if (getLogger() != null)
 		{
-			getLogger().logAlgo(LogLevel.NORMAL, "BFTS: Finished Searching Graph. SGs found: " + subGraphs.size());
+			getLogger().logAlgo(LogLevel.NORMAL, "BFTS: Finished Searching Graph. SGs found: " + found);
 		}
 
-		return cull(subGraphs);
+		stage.finish();
 	}
 
 	/**
+	 * {@inheritDoc } <br>
 	 * Helper method to search for the SubGraphs in Breadth First Search. Creates and manages a queue of
 	 * nodes to search through. Is called on each node in the tree.
 	 * 
-	 * @param graph the Graph object to search through.
-	 * @param node  the node to use as the root.
+	 * @param graph  the Graph object to search through.
+	 * @param node   the node to use as the root.
+	 * @param search the RootSearch tracking the search from the root.
 	 * @return the Graph object representing the found subgraph.
 	 */
-	private Graph searchNode(Graph graph, Node node)
+	@Override
+	protected Graph searchRoot(Graph graph, Node node, RootSearch search)
 	{
 		Boolean preservative = args.getBoolean(ArgumentsBundle.COMMON_ARGS.EDGE_PRESERVATION.toString());
 		boolean undirectedClique = false;
@@ -175,7 +168,7 @@ public class BreadthFirstTraversalSearch extends Algorithm
 			getLogger().logAlgo(LogLevel.DEBUG, "BFTS: Initialized queue.");
 		}
 
-		while (!queue.isEmpty())
+		while (!queue.isEmpty() && !search.isAbandoned())
 		{
 			Edge currentEdge = queue.remove();
 			Node current;
@@ -294,6 +287,9 @@ public class BreadthFirstTraversalSearch extends Algorithm
 				{
 					if (subGraph.addPartialGraph(nList, eList))
 					{
+						if (!nList.isEmpty())
+							search.added(neighbor);
+
 						Edge e1 = graph.getEdge(current, neighbor);
 
 						if (e1 != null)
@@ -3,17 +3,39 @@ package edu.claflin.finder.algo;
 import static edu.claflin.finder.Global.getLogger;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import edu.claflin.finder.algo.clique.BicliqueEnumerator;
+import edu.claflin.finder.algo.clique.BitsetBronKerbosch;
+import edu.claflin.finder.algo.clique.MaximumCliqueSolver;
 import edu.claflin.finder.log.LogLevel;
-import edu.claflin.finder.logic.Edge;
+import edu.claflin.finder.logic.CompactGraph;
 import edu.claflin.finder.logic.Graph;
 import edu.claflin.finder.logic.Node;
 
 /**
  * Bron-Kersboch Algorithm to find Maximum Cliques and Bicliques.
+ * <p>
+ * The "engine" enum argument selects the implementation searching for cliques.
+ * {@link Engine#CLASSIC} runs the original list based recursion, while
+ * {@link Engine#BITSET} runs a {@link BitsetBronKerbosch}, which scales to large
+ * sparse networks and searches on several threads when the
+ * {@link ArgumentsBundle.COMMON_ARGS#PARALLEL} boolean is set.
+ * {@link Engine#BRANCH_AND_BOUND} runs a {@link MaximumCliqueSolver}, which
+ * bounds every branch by a greedy colouring; the optional "time_budget" integer
+ * argument limits its search to a number of milliseconds, after which the
+ * largest cliques found so far are returned and {@link #isOptimal()} is false.
+ * Before cliques are searched the graph is reduced to its (s - 1)-core, where s
+ * is the larger of the minimum node count and the size of a clique found
+ * greedily, since no smaller core holds a clique that is kept; see
+ * {@link Algorithm#reduceToCliqueCore(Graph, int, String)}. Both ignore edge
+ * direction like the BITSET and BRANCH_AND_BOUND engines, so the CLASSIC engine
+ * skips this step on graphs with directed edges.
+ * Bicliques are searched directly between the two partite sets with a
+ * {@link BicliqueEnumerator}, whatever the engine.
  * 
  * @see <a href="https://en.wikipedia.org/wiki/Bron%E2%80%93Kerbosch_algorithm">Wikipedia Summary</a>
  * @see <a href="https://dl.acm.org/doi/10.1145/362342.362367">Original Paper</a>
@@ -21,8 +43,26 @@ import edu.claflin.finder.logic.Node;
  */
 public class BronKerbosch extends Algorithm
 {
+	/**
+	 * The implementations available for searching cliques.
+	 */
+	public enum Engine
+	{
+		CLASSIC, BITSET, BRANCH_AND_BOUND;
+	}
+
+	/**
+	 * The number of innermost nodes greedy cliques are grown from.
+	 */
+	private static final int GREEDY_SEEDS = 16;
+
 	private boolean bipartite;
 
+	/**
+	 * Whether the last search was proven to find all maximum cliques.
+	 */
+	private volatile boolean optimal = true;
+
 	/**
 	 * Public constructor for initializing the Bron Kersbboch with default
 	 * conditions.
@@ -100,97 +140,264 @@ public class BronKerbosch extends Algorithm
 	 */
 	private List<Graph> maximumCliques(Graph graph)
 	{
+		optimal = true;
+
+		// the classic engine follows edge direction, which neither the greedy bound
+		// nor the cores see, so it searches graphs with directed edges whole
+		if (getEngine() != Engine.CLASSIC || !hasDirectedEdge(graph))
+		{
+			graph = reduceToCliqueCore(graph, Math.max(getMinNodeCount(), greedyCliqueSize(graph)), "BronKerbosch");
+		}
+
+		if (getEngine() == Engine.BITSET)
+		{
+			return nameGraphs(bitsetMaximumCliques(graph), graph.getName(), false);
+		}
+		if (getEngine() == Engine.BRANCH_AND_BOUND)
+		{
+			return nameGraphs(branchAndBoundMaximumCliques(graph), graph.getName(), false);
+		}
+
 		List<Graph> cliques = bronKerboschClique(graph);
 		return nameGraphs(getMaximum(cliques), graph.getName(), false);
 	}
 
 	/**
-	 * Gets the Maximum Complete Bipartite Graphs by Node count from the input Graph
-	 * using Bron-Kersboch.
-	 * 
-	 * @param graph the input Graph
-	 * @return the Maximum Complete Bipartite Graphs
+	 * Determines whether a graph has an edge that is followed in one direction
+	 * only.
+	 *
+	 * @param graph the graph
+	 * @return true if some edge is directed
 	 */
-	private List<Graph> maximumBicliques(Graph graph)
+	private boolean hasDirectedEdge(Graph graph)
 	{
-		List<Graph> bicliques = bronKerboschBiclique(graph); // get candidates
-		return nameGraphs(getMaximum(bicliques), graph.getName(), true);
+		return graph.getEdgeList().stream().anyMatch(e -> !e.isUndirected());
 	}
 
 	/**
-	 * Given a graph, finds all complete subgraphs.
+	 * Grows cliques greedily from the nodes of the innermost cores, adding the
+	 * candidate of highest core number each time, to bound the size of the
+	 * maximum cliques from below.
 	 *
 	 * @param graph the graph
-	 * @return a List of complete subgraphs, unordered
+	 * @return the size of the largest clique found
 	 */
-	private List<Graph> bronKerboschClique(Graph graph)
+	private int greedyCliqueSize(Graph graph)
 	{
-		List<Graph> results = new ArrayList<>();
-		List<List<Node>> cliques = new ArrayList<>();
-		List<Node> candidates = graph.getNodeList();
-
-		bronKerbosch(cliques, new ArrayList<Node>(), candidates, new ArrayList<Node>());
-
-		for (List<Node> clique : cliques)
+		CompactGraph compact = new CompactGraph(graph, true);
+		int[] cores = KCoreDecomposition.getCoreNumbers(compact);
+		int n = compact.getNodeCount();
+
+		// seeds by descending core number
+		long[] keys = new long[n];
+		for (int v = 0; v < n; v++)
+			keys[v] = ((long) -cores[v] << 32) | v;
+		Arrays.sort(keys);
+
+		int best = n > 0 ? 1 : 0;
+		int[] mark = new int[n];
+		int[] candidates = new int[n];
+		int stamp = 0;
+		for (int seed = 0; seed < Math.min(n, GREEDY_SEEDS); seed++)
 		{
+			int v = (int) keys[seed];
+			if (cores[v] + 1 <= best)
+				break;
+
+			// candidates are marked with the current stamp
+			int count = 0;
+			stamp++;
+			for (int slot = compact.getNeighborStart(v); slot < compact.getNeighborEnd(v); slot++)
+			{
+				int w = compact.getTarget(slot);
+				if (w != v && cores[w] >= best && mark[w] != stamp)
+				{
+					mark[w] = stamp;
+					candidates[count++] = w;
+				}
+			}
 
-			if (!clique.isEmpty())
+			int size = 1;
+			while (count > 0)
 			{
-				Graph g = new Graph("Clique", clique, graph.getEdgesBack(clique));
-				results.add(g);
+				int pick = candidates[0];
+				for (int c = 1; c < count; c++)
+				{
+					if (cores[candidates[c]] > cores[pick])
+						pick = candidates[c];
+				}
+				size++;
+
+				stamp++;
+				for (int slot = compact.getNeighborStart(pick); slot < compact.getNeighborEnd(pick); slot++)
+				{
+					int w = compact.getTarget(slot);
+					if (mark[w] == stamp - 1)
+						mark[w] = stamp;
+				}
+				int kept = 0;
+				for (int c = 0; c < count; c++)
+				{
+					if (candidates[c] != pick && mark[candidates[c]] == stamp)
+						candidates[kept++] = candidates[c];
+				}
+				count = kept;
 			}
+			best = Math.max(best, size);
 		}
+		return best;
+	}
 
+	/**
+	 * Finds the maximum cliques of a graph with the {@link BitsetBronKerbosch}
+	 * engine.
+	 *
+	 * @param graph the graph
+	 * @return the maximum cliques, their nodes in the order of the graph
+	 */
+	private List<Graph> bitsetMaximumCliques(Graph graph)
+	{
+		CompactGraph compact = new CompactGraph(graph);
+		BitsetBronKerbosch engine = new BitsetBronKerbosch(compact);
+
+		if (getLogger() != null)
+		{
+			getLogger().logAlgo(LogLevel.VERBOSE, "BronKerbosch: Degeneracy of " + graph.getName() + " is "
+					+ engine.getDegeneracy() + ".");
+		}
+
+		List<Graph> results = new ArrayList<>();
+		for (int[] clique : engine.findMaximumCliques(getThreadCount()))
+			results.add(compact.getSubGraph(clique, "Clique"));
 		return results;
 	}
 
 	/**
-	 * Finds all bicliques within a bipartite graph.
+	 * Finds the maximum cliques of a graph with the {@link MaximumCliqueSolver},
+	 * within the time budget if one is set.
 	 *
-	 * This is done by adding edges between every nodes in a partite set in both
-	 * partite sets, using the above algorithm, and then removing all the added
-	 * edges from the results.
+	 * @param graph the graph
+	 * @return the maximum cliques, their nodes in the order of the graph
+	 */
+	private List<Graph> branchAndBoundMaximumCliques(Graph graph)
+	{
+		CompactGraph compact = new CompactGraph(graph);
+		MaximumCliqueSolver solver = new MaximumCliqueSolver(compact);
+
+		Integer budget = args.getInteger("time_budget");
+		if (budget != null && budget < 0)
+			throw new IllegalArgumentException("Time budget must not be negative: " + budget);
+
+		List<Graph> results = new ArrayList<>();
+		for (int[] clique : solver.findMaximumCliques(budget == null ? 0 : budget))
+			results.add(compact.getSubGraph(clique, "Clique"));
+		optimal = solver.isOptimal();
+
+		if (getLogger() != null)
+		{
+			getLogger().logAlgo(LogLevel.VERBOSE, "BronKerbosch: Expanded " + solver.getExpansionCount()
+					+ " branches of " + graph.getName() + ".");
+			if (!optimal)
+			{
+				getLogger().logAlgo(LogLevel.NORMAL, "BronKerbosch: Time budget of " + budget
+						+ " ms exceeded; the cliques found are not proven maximum.");
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Indicates whether the last search for cliques was proven to find all maximum
+	 * cliques. Only the {@link Engine#BRANCH_AND_BOUND} engine may stop early,
+	 * when its time budget runs out.
 	 *
-	 * THIS ONLY WORKS ON GRAPHS THAT ARE BIPARTITE!
+	 * @return false if the last search ran out of time.
+	 */
+	public boolean isOptimal()
+	{
+		return optimal;
+	}
+
+	/**
+	 * Gets the engine selected by the arguments.
 	 *
-	 * @param graph the bipartite graph
-	 * @return array list of bicliques
+	 * @return the selected Engine, {@link Engine#CLASSIC} by default.
 	 */
-	private List<Graph> bronKerboschBiclique(Graph graph)
+	private Engine getEngine()
+	{
+		Enum<?> engine = args.getEnum("engine");
+		if (engine == null)
+			return Engine.CLASSIC;
+		if (!(engine instanceof Engine))
+			throw new IllegalArgumentException("Unknown Bron-Kerbosch engine: " + engine);
+		return (Engine) engine;
+	}
+
+	/**
+	 * Gets the Maximum Complete Bipartite Graphs by Node count from the input Graph
+	 * using a {@link BicliqueEnumerator} over its partite sets. Edge direction is
+	 * ignored.
+	 * 
+	 * @param graph the input Graph
+	 * @return the Maximum Complete Bipartite Graphs, none if the graph is not
+	 *         bipartite
+	 */
+	private List<Graph> maximumBicliques(Graph graph)
 	{
-		// Need copy of the graph as we are going to modify this as part of the
-		// algorithm
-		Graph graphCopy = graph.uniqueCopy();
 		List<Graph> results = new ArrayList<>();
 
-		if (!graphCopy.isBipartite())
+		// the partite sets are empty if the graph is not bipartite
+		ArrayList<ArrayList<Node>> bSets = graph.getPartiteSets();
+		if (bSets.get(0).isEmpty() || bSets.get(1).isEmpty())
 		{
 			return results;
 		}
 
-		ArrayList<ArrayList<Node>> bSets = graphCopy.getPartiteSets();
+		CompactGraph compact = new CompactGraph(graph, true);
+		BicliqueEnumerator enumerator = new BicliqueEnumerator(compact, getIds(compact, bSets.get(0)),
+				getIds(compact, bSets.get(1)));
 
-		// add artificial Edges between Nodes in the same partite Sets
-		addEdgesInParititeSet(graphCopy, bSets.get(0));
-		addEdgesInParititeSet(graphCopy, bSets.get(1));
+		for (int[] biclique : enumerator.findMaximumBicliques())
+			results.add(compact.getSubGraph(biclique, "Biclique"));
+		return nameGraphs(results, graph.getName(), true);
+	}
 
-		results = bronKerboschClique(graphCopy); // call recursive method
+	/**
+	 * Gets the ids of nodes within a snapshot.
+	 *
+	 * @param compact the CompactGraph holding the nodes
+	 * @param nodes   the nodes
+	 * @return the ids of the nodes
+	 */
+	private int[] getIds(CompactGraph compact, List<Node> nodes)
+	{
+		return nodes.stream().mapToInt(compact::getId).toArray();
+	}
 
-		for (int i = 0; i < results.size(); i++)
-		{
-			Graph g = results.get(i);
+	/**
+	 * Given a graph, finds all complete subgraphs.
+	 *
+	 * @param graph the graph
+	 * @return a List of complete subgraphs, unordered
+	 */
+	private List<Graph> bronKerboschClique(Graph graph)
+	{
+		List<Graph> results = new ArrayList<>();
+		List<List<Node>> cliques = new ArrayList<>();
+		List<Node> candidates = graph.getNodeList();
+
+		bronKerbosch(cliques, new ArrayList<Node>(), candidates, new ArrayList<Node>());
 
-			// remove artificial Edges
-			removeEdgesInPartiteSet(g, bSets.get(0));
-			removeEdgesInPartiteSet(g, bSets.get(1));
+		for (List<Node> clique : cliques)
+		{
 
-			// remove cliques that consisted solely of artificial Edges
-			if (g.getNodeCount() > 1 && g.getEdgeCount() < 1)
+			if (!clique.isEmpty())
 			{
-				results.remove(i);
-				i--;
+				Graph g = new Graph("Clique", clique, graph.getEdgesBack(clique));
+				results.add(g);
 			}
 		}
+
 		return results;
 	}
 
@@ -268,70 +475,6 @@ public class BronKerbosch extends Algorithm
 		}
 	}
 
-	/**
-	 * Adds edges to a Graph between all Nodes in a partite set. Remove these edges later 
-	 * with {@link removeEdgesInPartiteSet}.
-	 *
-	 * @param graph the Graph to add the Edges to
-	 * @param list the partite set
-	 */
-	private void addEdgesInParititeSet(Graph graph, List<Node> list)
-	{
-		List<Node> nodeList = graph.getNodeList();
-
-		for (int outer = 0; outer < list.size(); outer++)
-		{
-			for (int inner = outer + 1; inner < list.size(); inner++)
-			{
-				Node first = list.get(outer);
-				Node second = list.get(inner);
-
-				if (nodeList.contains(first) && nodeList.contains(second))
-				{
-					Node s = nodeList.get(nodeList.indexOf(first));
-					Node t = nodeList.get(nodeList.indexOf(second));
-					graph.addEdge(new Edge(s, t, 0.0, true));
-				}
-			}
-		}
-	}
-
-	/**
-	 * Removes edges in a Graph between all Nodes in a partite set.
-	 *
-	 * @param graph the Graph to remove the Edges from
-	 * @param list the partite set
-	 */
-	private void removeEdgesInPartiteSet(Graph graph, List<Node> list)
-	{
-		List<Edge> edgeList = graph.getEdgeList();
-
-		for (int outer = 0; outer < list.size(); outer++)
-		{
-			for (int inner = outer + 1; inner < list.size(); inner++)
-			{
-				Edge toRemove = null;
-				for (Edge e : edgeList)
-				{
-					Node src = list.get(outer);
-					Node dest = list.get(inner);
-					if (((e.getSource().equals(src) && e.getTarget().equals(dest)
-							|| (e.getSource().equals(dest) && e.getTarget().equals(src)))))
-					{
-						toRemove = e;
-						break;
-					}
-				}
-
-				// Removal outside of the loop to prevent ConcurrentModificationException
-				if (toRemove != null)
-				{
-					graph.removeEdge(toRemove);
-				}
-			}
-		}
-	}
-
 	private List<Graph> getMaximum(List<Graph> graphs)
 	{
 		List<Graph> maximalGraphs = new ArrayList<>();
@@ -8,6 +8,8 @@ import java.util.ArrayList;
 
 import edu.claflin.finder.log.LogLevel;
 import edu.claflin.finder.logic.Graph;
+import edu.claflin.finder.logic.processor.CollectingSink;
+import edu.claflin.finder.logic.processor.ResultSink;
 
 /**
  * Processes a {@link Graph} searching for subgraphs.  Will utilize all 
@@ -55,15 +57,31 @@ public class Bundle extends Algorithm implements PropertyChangeListener {
      */
     @Override
     public ArrayList<Graph> process(Graph graph) {
-        ArrayList<Graph> subGraphs = new ArrayList<>();
+        CollectingSink<Graph> results = new CollectingSink<>();
+        process(graph, results);
+        return results.getResults();
+    }
+
+    /**
+     * {@inheritDoc }
+     * <br>
+     * Streams the results of every Algorithm object into a common culling 
+     * stage.
+     * 
+     * @param graph the {@link Graph} object to search through.
+     * @param sink the ResultSink receiving the culled subgraphs.
+     */
+    @Override
+    public void process(Graph graph, ResultSink<? super Graph> sink) {
+        CullingSink stage = cullingStage(sink);
         
         for (Algorithm algo : algorithms) {
             algo.addPropertyChangeListener(this);
-            subGraphs.addAll(algo.process(graph));
+            algo.process(graph, stage::accept);
             done++;
         }
         
-        return cull(subGraphs);
+        stage.finish();
     }
 
     @Override
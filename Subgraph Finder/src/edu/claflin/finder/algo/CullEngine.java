@@ -0,0 +1,404 @@
+package edu.claflin.finder.algo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import edu.claflin.finder.logic.Edge;
+import edu.claflin.finder.logic.Graph;
+import edu.claflin.finder.logic.Node;
+
+/**
+ * Removes the results of an algorithm that are contained in other results. A
+ * Graph is dominated by another when the other holds all of its nodes and edges;
+ * a dominated Graph is removed unless the other holds exactly the same nodes and
+ * edges and comes later, so that the first of several identical results is
+ * kept. Nodes are matched via their identifiers and edges as in
+ * {@link Edge#equals(java.lang.Object)}.
+ * <p>
+ * Every Graph is kept as a sorted array of node ids, a sorted array of edge keys
+ * and a 64 bit signature of its nodes. Candidates for containing a Graph are
+ * taken from an inverted index under the rarest of its nodes and filtered by
+ * size and signature before the exact containment check.
+ * <p>
+ * The engine works either on a complete list of results through
+ * {@link #findDominated(java.util.List)} or online, dropping dominated results
+ * as they are offered through {@link #offer(edu.claflin.finder.logic.Graph, long)}
+ * so that only the undominated ones are held at any time. An engine should be
+ * used in one of the two ways only.
+ */
+public class CullEngine
+{
+	/**
+	 * The smallest number of results checked in parallel.
+	 */
+	private static final int PARALLEL_THRESHOLD = 64;
+
+	/**
+	 * Whether large batches are checked in parallel.
+	 */
+	private final boolean parallel;
+
+	/**
+	 * The id of every node identifier seen so far.
+	 */
+	private final HashMap<String, Integer> nodeIds = new HashMap<>();
+
+	/**
+	 * The entries holding each node id.
+	 */
+	private final HashMap<Integer, List<Entry>> postings = new HashMap<>();
+
+	/**
+	 * The undominated entries offered so far, in order of arrival.
+	 */
+	private final List<Entry> kept = new ArrayList<>();
+
+	/**
+	 * Initializes an engine that checks large batches in parallel.
+	 */
+	public CullEngine()
+	{
+		this(true);
+	}
+
+	/**
+	 * Initializes an engine.
+	 *
+	 * @param parallel true if large batches should be checked in parallel.
+	 */
+	public CullEngine(boolean parallel)
+	{
+		this.parallel = parallel;
+	}
+
+	/**
+	 * Determines which graphs of a list are dominated by others of the list.
+	 *
+	 * @param graphs the List of Graphs to check.
+	 * @return an array flagging the dominated graphs by their index in the list.
+	 */
+	public boolean[] findDominated(List<Graph> graphs)
+	{
+		Entry[] entries = new Entry[graphs.size()];
+		for (int index = 0; index < entries.length; index++)
+		{
+			entries[index] = new Entry(graphs.get(index), index);
+			index(entries[index]);
+		}
+
+		boolean[] dominated = new boolean[entries.length];
+		IntStream indices = IntStream.range(0, entries.length);
+		if (parallel && entries.length >= PARALLEL_THRESHOLD)
+			indices = indices.parallel();
+		indices.forEach(index -> dominated[index] = isDominated(entries[index]));
+
+		postings.clear();
+		return dominated;
+	}
+
+	/**
+	 * Removes the graphs of a list that are dominated by others of the list.
+	 *
+	 * @param graphs the List of Graphs to cull.
+	 * @return the ArrayList of undominated graphs in the order of the list.
+	 */
+	public ArrayList<Graph> cull(List<Graph> graphs)
+	{
+		boolean[] dominated = findDominated(graphs);
+		ArrayList<Graph> result = new ArrayList<>();
+		for (int index = 0; index < dominated.length; index++)
+		{
+			if (!dominated[index])
+				result.add(graphs.get(index));
+		}
+		return result;
+	}
+
+	/**
+	 * Offers a result to the engine. The result is dropped if a result offered
+	 * earlier dominates it; otherwise it is kept and the kept results it
+	 * dominates are dropped. Among identical results the one with the lowest order
+	 * is kept regardless of when it arrives.
+	 *
+	 * @param graph the Graph to offer.
+	 * @param order the position of the result among all results.
+	 * @return true if the result was kept.
+	 */
+	public synchronized boolean offer(Graph graph, long order)
+	{
+		Entry entry = new Entry(graph, order);
+		if (isDominated(entry))
+			return false;
+
+		// Results the new one dominates hold only nodes of the new one, so each
+		// of them is counted once per node it shares with the new one.
+		HashMap<Entry, Integer> shared = new HashMap<>();
+		for (int node : entry.nodes)
+		{
+			for (Entry other : getPostings(node))
+				shared.merge(other, 1, Integer::sum);
+		}
+		shared.forEach((candidate, count) ->
+		{
+			if (count == candidate.nodes.length && dominates(entry, candidate))
+				candidate.alive = false;
+		});
+
+		kept.removeIf(other -> !other.alive);
+		index(entry);
+		kept.add(entry);
+		return true;
+	}
+
+	/**
+	 * Gets the results kept so far, ordered by the order they were offered with.
+	 *
+	 * @return the ArrayList of undominated results.
+	 */
+	public synchronized ArrayList<Graph> getResults()
+	{
+		List<Entry> entries = new ArrayList<>(kept);
+		entries.sort((a, b) -> Long.compare(a.order, b.order));
+
+		ArrayList<Graph> result = new ArrayList<>(entries.size());
+		entries.forEach(entry -> result.add(entry.graph));
+		return result;
+	}
+
+	/**
+	 * Gets the number of results kept so far.
+	 *
+	 * @return the number of undominated results.
+	 */
+	public synchronized int size()
+	{
+		return kept.size();
+	}
+
+	/**
+	 * Registers an entry in the inverted index.
+	 *
+	 * @param entry the Entry to register.
+	 */
+	private void index(Entry entry)
+	{
+		for (int node : entry.nodes)
+			postings.computeIfAbsent(node, n -> new ArrayList<>()).add(entry);
+	}
+
+	/**
+	 * Gets the live entries holding a node, dropping dead ones from the index. Only
+	 * used online, where the index is never read concurrently.
+	 *
+	 * @param node the node id.
+	 * @return the List of entries holding the node.
+	 */
+	private List<Entry> getPostings(int node)
+	{
+		List<Entry> list = postings.get(node);
+		if (list == null)
+			return new ArrayList<>();
+
+		list.removeIf(other -> !other.alive);
+		return list;
+	}
+
+	/**
+	 * Determines whether an indexed entry other than the given one dominates it.
+	 *
+	 * @param entry the Entry to check.
+	 * @return true if the entry is dominated.
+	 */
+	private boolean isDominated(Entry entry)
+	{
+		if (entry.nodes.length == 0)
+			return false;
+
+		// every candidate holds all nodes of the entry, so the rarest one suffices
+		List<Entry> candidates = postings.get(rarestNode(entry));
+		if (candidates == null)
+			return false;
+
+		for (Entry candidate : candidates)
+		{
+			if (candidate == entry || !candidate.alive)
+				continue;
+			if (dominates(candidate, entry) && (candidate.order < entry.order || !dominates(entry, candidate)))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Gets the node of an entry held by the fewest indexed entries.
+	 *
+	 * @param entry the Entry.
+	 * @return the node id.
+	 */
+	private int rarestNode(Entry entry)
+	{
+		int rarest = entry.nodes[0];
+		int count = Integer.MAX_VALUE;
+		for (int node : entry.nodes)
+		{
+			List<Entry> list = postings.get(node);
+			int size = list == null ? 0 : list.size();
+			if (size < count)
+			{
+				rarest = node;
+				count = size;
+			}
+		}
+		return rarest;
+	}
+
+	/**
+	 * Determines whether one entry holds all nodes and edges of another.
+	 *
+	 * @param match the Entry that may hold the other.
+	 * @param base  the Entry that may be held.
+	 * @return true if the match holds the base.
+	 */
+	private static boolean dominates(Entry match, Entry base)
+	{
+		if (match.nodes.length < base.nodes.length || (base.signature & ~match.signature) != 0L)
+			return false;
+
+		// merge the sorted node ids
+		int m = 0;
+		for (int node : base.nodes)
+		{
+			while (m < match.nodes.length && match.nodes[m] < node)
+				m++;
+			if (m == match.nodes.length || match.nodes[m] != node)
+				return false;
+		}
+
+		// an edge is held as it is or, if the match holds it undirected, reversed
+		for (long edge : base.edges)
+		{
+			if (Arrays.binarySearch(match.edges, edge) < 0
+					&& Arrays.binarySearch(match.undirected, reverse(edge)) < 0)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Gets the id of a node, numbering new identifiers as they appear.
+	 *
+	 * @param node the Node.
+	 * @return the id of the node.
+	 */
+	private int id(Node node)
+	{
+		return nodeIds.computeIfAbsent(node.getIdentifier(), n -> nodeIds.size());
+	}
+
+	/**
+	 * Packs an ordered pair of node ids into an edge key.
+	 *
+	 * @param source the id of the source.
+	 * @param target the id of the target.
+	 * @return the key of the edge.
+	 */
+	private static long key(int source, int target)
+	{
+		return ((long) source << 32) | (target & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Swaps the source and target of an edge key.
+	 *
+	 * @param key the key of the edge.
+	 * @return the key of the reversed edge.
+	 */
+	private static long reverse(long key)
+	{
+		return (key << 32) | (key >>> 32);
+	}
+
+	/**
+	 * A result as seen by the engine.
+	 */
+	private final class Entry
+	{
+		/**
+		 * The result.
+		 */
+		private final Graph graph;
+
+		/**
+		 * The position of the result among all results.
+		 */
+		private final long order;
+
+		/**
+		 * The sorted ids of the nodes.
+		 */
+		private final int[] nodes;
+
+		/**
+		 * The sorted keys of the edges and of the undirected edges.
+		 */
+		private final long[] edges;
+		private final long[] undirected;
+
+		/**
+		 * One bit for every node id modulo 64.
+		 */
+		private final long signature;
+
+		/**
+		 * Whether the result is still undominated, for the online mode.
+		 */
+		private boolean alive = true;
+
+		/**
+		 * Builds the entry of a result.
+		 *
+		 * @param graph the result.
+		 * @param order the position of the result among all results.
+		 */
+		private Entry(Graph graph, long order)
+		{
+			this.graph = graph;
+			this.order = order;
+
+			List<Node> nodeList = graph.getNodeList();
+			nodes = new int[nodeList.size()];
+			long bits = 0L;
+			for (int index = 0; index < nodes.length; index++)
+			{
+				nodes[index] = id(nodeList.get(index));
+				bits |= 1L << (nodes[index] & 63);
+			}
+			Arrays.sort(nodes);
+			signature = bits;
+
+			List<Edge> edgeList = graph.getEdgeList();
+			edges = new long[edgeList.size()];
+			int undirectedCount = 0;
+			for (Edge edge : edgeList)
+			{
+				if (edge.isUndirected())
+					undirectedCount++;
+			}
+			undirected = new long[undirectedCount];
+			int e = 0;
+			int u = 0;
+			for (Edge edge : edgeList)
+			{
+				long key = key(id(edge.getSource()), id(edge.getTarget()));
+				edges[e++] = key;
+				if (edge.isUndirected())
+					undirected[u++] = key;
+			}
+			Arrays.sort(edges);
+			Arrays.sort(undirected);
+		}
+	}
+}
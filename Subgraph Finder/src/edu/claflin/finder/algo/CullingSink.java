@@ -0,0 +1,216 @@
+package edu.claflin.finder.algo;
+
+import static edu.claflin.finder.Global.getLogger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import edu.claflin.finder.algo.Algorithm.GraphSortOrder;
+import edu.claflin.finder.log.LogLevel;
+import edu.claflin.finder.logic.Graph;
+import edu.claflin.finder.logic.comp.GraphAverageWeightComparator;
+import edu.claflin.finder.logic.comp.GraphSizeComparator;
+import edu.claflin.finder.logic.processor.ResultSink;
+
+/**
+ * The culling and sorting stage between an algorithm and the sink receiving its
+ * results. Drops graphs with too few nodes, removes the graphs contained in
+ * others through a {@link CullEngine}, sorts the remaining ones and hands them
+ * downstream once the stage is finished. Culling needs every result, so nothing
+ * is passed on before {@link #finish()}.
+ * <p>
+ * Results may be given an order, which decides which of several identical graphs
+ * is kept and in which order unsorted graphs are passed on; otherwise they are
+ * ordered by arrival. In online mode dominated graphs are dropped as results
+ * arrive, so that only the undominated ones are held.
+ */
+public class CullingSink implements ResultSink<Graph>
+{
+	/**
+	 * The sink receiving the culled graphs.
+	 */
+	private final ResultSink<? super Graph> downstream;
+
+	/**
+	 * The smallest number of nodes a graph needs to be kept.
+	 */
+	private final int minNodeCount;
+
+	/**
+	 * The order of the graphs passed on.
+	 */
+	private final GraphSortOrder sortOrder;
+
+	/**
+	 * The CullEngine of the stage.
+	 */
+	private final CullEngine engine;
+
+	/**
+	 * Whether graphs are culled as they arrive.
+	 */
+	private final boolean online;
+
+	/**
+	 * The graphs received in batch mode and their orders.
+	 */
+	private final List<Graph> graphs = new ArrayList<>();
+	private final List<Long> orders = new ArrayList<>();
+
+	/**
+	 * The number of graphs with enough nodes received so far.
+	 */
+	private int queued = 0;
+
+	/**
+	 * The order given to the next result without one.
+	 */
+	private long arrival = 0;
+
+	/**
+	 * Constructs the stage.
+	 *
+	 * @param downstream   the ResultSink receiving the culled graphs.
+	 * @param minNodeCount the smallest number of nodes a graph needs to be kept.
+	 * @param sortOrder    the GraphSortOrder of the graphs passed on.
+	 * @param parallel     true if batches may be culled in parallel.
+	 * @param online       true if graphs should be culled as they arrive.
+	 */
+	public CullingSink(ResultSink<? super Graph> downstream, int minNodeCount, GraphSortOrder sortOrder,
+			boolean parallel, boolean online)
+	{
+		this.downstream = downstream;
+		this.minNodeCount = minNodeCount;
+		this.sortOrder = sortOrder;
+		this.engine = new CullEngine(parallel && !online);
+		this.online = online;
+	}
+
+	/**
+	 * {@inheritDoc } <br>
+	 * The graph is ordered after every graph received so far.
+	 */
+	@Override
+	public synchronized void accept(Graph graph)
+	{
+		accept(graph, arrival);
+	}
+
+	/**
+	 * Receives a graph with a given order.
+	 *
+	 * @param graph the Graph to receive.
+	 * @param order the position of the graph among all results.
+	 */
+	public synchronized void accept(Graph graph, long order)
+	{
+		arrival = Math.max(arrival, order + 1);
+		if (graph.getNodeCount() < minNodeCount)
+			return;
+
+		queued++;
+		if (online)
+		{
+			engine.offer(graph, order);
+		}
+		else
+		{
+			graphs.add(graph);
+			orders.add(order);
+		}
+	}
+
+	/**
+	 * {@inheritDoc } <br>
+	 * Culls and sorts the graphs received, passes them on and finishes the sink
+	 * downstream.
+	 */
+	@Override
+	public void finish()
+	{
+		for (Graph graph : getCulled())
+			downstream.accept(graph);
+		downstream.finish();
+	}
+
+	/**
+	 * Culls and sorts the graphs received.
+	 *
+	 * @return the ArrayList of culled graphs.
+	 */
+	private synchronized ArrayList<Graph> getCulled()
+	{
+		if (getLogger() != null)
+		{
+			getLogger().logAlgo(LogLevel.NORMAL, "CULL: " + queued + " queued for culling.");
+		}
+
+		ArrayList<Graph> culled;
+		if (online)
+		{
+			culled = engine.getResults();
+		}
+		else
+		{
+			ArrayList<Graph> ordered = getOrdered();
+			boolean[] duplicate = engine.findDominated(ordered);
+
+			culled = new ArrayList<>();
+			for (int index = 0; index < duplicate.length; index++)
+			{
+				if (!duplicate[index])
+				{
+					culled.add(ordered.get(index));
+				}
+				else if (getLogger() != null)
+				{
+					getLogger().logAlgo(LogLevel.VERBOSE, "CULL: Marked " + "duplicate graph at index " + index + ".");
+				}
+			}
+			graphs.clear();
+			orders.clear();
+		}
+
+		if (getLogger() != null)
+		{
+			getLogger().logInfo(LogLevel.NORMAL, "CULL: Culled " + (queued - culled.size()) + " graphs.");
+		}
+
+		// sorting
+		if (sortOrder == GraphSortOrder.AVERAGE_WEIGHT)
+		{
+			Collections.sort(culled, new GraphAverageWeightComparator());
+		}
+		else if (sortOrder == GraphSortOrder.ASCENDING)
+		{
+			Collections.sort(culled, new GraphSizeComparator());
+		}
+		else if (sortOrder == GraphSortOrder.DESCENDING)
+		{
+			Collections.sort(culled, new GraphSizeComparator());
+			Collections.reverse(culled);
+		}
+
+		return culled;
+	}
+
+	/**
+	 * Gets the graphs received in batch mode, ordered by their orders. Graphs with
+	 * the same order keep the order of arrival.
+	 *
+	 * @return the ArrayList of ordered graphs.
+	 */
+	private ArrayList<Graph> getOrdered()
+	{
+		List<Integer> indices = new ArrayList<>();
+		for (int index = 0; index < graphs.size(); index++)
+			indices.add(index);
+		indices.sort((a, b) -> Long.compare(orders.get(a), orders.get(b)));
+
+		ArrayList<Graph> ordered = new ArrayList<>(indices.size());
+		for (int index : indices)
+			ordered.add(graphs.get(index));
+		return ordered;
+	}
+}
@@ -15,6 +15,7 @@ import edu.claflin.finder.logic.Edge;
 import edu.claflin.finder.logic.Graph;
 import edu.claflin.finder.logic.Node;
 import edu.claflin.finder.logic.cond.CliqueCondition;
+import edu.claflin.finder.logic.processor.ResultSink;
 import edu.claflin.finder.struct.PrioritySet;
 
 /**
@@ -24,7 +25,7 @@ import edu.claflin.finder.struct.PrioritySet;
  * @author Charles Allen Schultz II
  * @version 3.4 February 4, 2016
  */
-public class DepthFirstTraversalSearch extends Algorithm
+public class DepthFirstTraversalSearch extends TraversalSearch
 {
 	private Comparator<Edge> comparator;
 
@@ -76,10 +77,10 @@ public class DepthFirstTraversalSearch extends Algorithm
 	 * groupings.
 	 * 
 	 * @param graph the {@link Graph} object to search through.
-	 * @return the ArrayList of Graph objects holding all found subgraphs.
+	 * @param sink  the ResultSink receiving the culled subgraphs.
 	 */
 	@Override
-	public ArrayList<Graph> process(Graph graph)
+	public void process(Graph graph, ResultSink<? super Graph> sink)
 	{
 		try
 		{
@@ -98,35 +99,38 @@ public class DepthFirstTraversalSearch extends Algorithm
 			}
 		}
 
-		ArrayList<Graph> subGraphs = new ArrayList<>();
-
 		if (getLogger() != null)
 		{
 			getLogger().logAlgo(LogLevel.NORMAL, "DFTS: Searching Graph: " + graph.getName());
 		}
 
-		for (Node current : graph.getNodeList())
-		{
-
-			if (getLogger() != null)
-			{
-				getLogger().logAlgo(LogLevel.VERBOSE, "DFTS: Setting Node as root: " + current.toString());
-			}
-
-			Graph subGraph = new ConditionedGraph(graph.getName() + " DFS " + current,
-					args.getConditionsList());
-			ArrayList<Node> visited = new ArrayList<>();
-			visited.add(current);
-			subGraphs.add(searchNode(graph, subGraph, current, visited));
-			setProgress(graph.getNodeIndex(current) * 1D / graph.getNodeCount());
-		}
+		CullingSink stage = cullingStage(sink);
+		int found = searchRoots(graph, "DFTS", stage);
 
 		if (getLogger() != null)
 		{
-			getLogger().logAlgo(LogLevel.NORMAL, "DFTS: Finished Searching Graph. SGs found: " + subGraphs.size());
+			getLogger().logAlgo(LogLevel.NORMAL, "DFTS: Finished Searching Graph. SGs found: " + found);
 		}
 
-		return cull(subGraphs);
+		stage.finish();
+	}
+
+	/**
+	 * {@inheritDoc } <br>
+	 * Starts the recursive depth first search from the root.
+	 * 
+	 * @param graph  the Graph object to search through.
+	 * @param root   the node to use as the root.
+	 * @param search the RootSearch tracking the search from the root.
+	 * @return the Graph object representing the found subgraph.
+	 */
+	@Override
+	protected Graph searchRoot(Graph graph, Node root, RootSearch search)
+	{
+		Graph subGraph = new ConditionedGraph(graph.getName() + " DFS " + root, args.getConditionsList());
+		ArrayList<Node> visited = new ArrayList<>();
+		visited.add(root);
+		return searchNode(graph, subGraph, root, visited, search);
 	}
 
 	/**
@@ -139,9 +143,10 @@ public class DepthFirstTraversalSearch extends Algorithm
 	 *                 algorithm.)
 	 * @param node     the current node to search.
 	 * @param visited  the List containing the visited nodes.
+	 * @param search   the RootSearch tracking the search from the root.
 	 * @return the Graph object representing the found subgraph.
 	 */
-	private Graph searchNode(Graph graph, Graph subGraph, Node node, List<Node> visited)
+	private Graph searchNode(Graph graph, Graph subGraph, Node node, List<Node> visited, RootSearch search)
 	{
 		Boolean preservative = args.getBoolean(ArgumentsBundle.COMMON_ARGS.EDGE_PRESERVATION.toString());
 		boolean undirectedClique = false;
@@ -209,7 +214,7 @@ public class DepthFirstTraversalSearch extends Algorithm
 
 		});
 
-		while (!queue.isEmpty())
+		while (!queue.isEmpty() && !search.isAbandoned())
 		{
 			Edge currentEdge = queue.remove();
 			Node neighbor;
@@ -286,7 +291,8 @@ public class DepthFirstTraversalSearch extends Algorithm
 				if (!visited.contains(neighbor))
 				{
 					visited.add(neighbor);
-					searchNode(graph, subGraph, neighbor, visited);
+					search.added(neighbor);
+					searchNode(graph, subGraph, neighbor, visited, search);
 				}
 			}
 		}
@@ -0,0 +1,227 @@
+package edu.claflin.finder.algo;
+
+import static edu.claflin.finder.Global.getLogger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+
+import edu.claflin.finder.log.LogLevel;
+import edu.claflin.finder.logic.CompactGraph;
+import edu.claflin.finder.logic.Graph;
+import edu.claflin.finder.logic.Node;
+
+/**
+ * Decomposes a {@link Graph} into its k-cores. The k-core is the largest
+ * subgraph in which every node has at least k neighbours, and the core number
+ * of a node is the largest k for which it belongs to the k-core. Edge direction,
+ * parallel edges and self loops are ignored.
+ * <p>
+ * The core numbers are computed in linear time by the bucket algorithm of
+ * Batagelj and Zaversnik, which repeatedly removes a node of least remaining
+ * degree. A clique of s nodes lies within the (s - 1)-core, so searches for
+ * cliques use {@link #getCore(Graph, int)} to drop the nodes that cannot be part
+ * of one large enough before they start.
+ * <p>
+ * As an algorithm it finds the k-core given by the "k" integer argument, or the
+ * innermost core if the argument is absent.
+ *
+ * @see <a href="https://arxiv.org/abs/cs/0310049">Batagelj and Zaversnik</a>
+ */
+public class KCoreDecomposition extends Algorithm
+{
+	/**
+	 * Public constructor for initializing the KCoreDecomposition.
+	 *
+	 * @param bundle the ArgumentsBundle containing the instantiation arguments.
+	 */
+	public KCoreDecomposition(ArgumentsBundle bundle)
+	{
+		super(bundle);
+	}
+
+	@Override
+	public String toString()
+	{
+		return "K-Core Decomposition";
+	}
+
+	/**
+	 * {@inheritDoc } <br>
+	 * Finds the k-core of the graph for the "k" argument, or its innermost core.
+	 *
+	 * @param graph the {@link Graph} object to decompose.
+	 * @return the ArrayList holding the k-core, empty if the k-core is empty.
+	 */
+	@Override
+	public ArrayList<Graph> process(Graph graph)
+	{
+		CompactGraph compact = new CompactGraph(graph, true);
+		int[] cores = getCoreNumbers(compact);
+
+		Integer k = args.getInteger("k");
+		if (k == null)
+			k = Arrays.stream(cores).max().orElse(0);
+		else if (k < 0)
+			throw new IllegalArgumentException("The core to find must not be negative: " + k);
+
+		if (getLogger() != null)
+		{
+			getLogger().logAlgo(LogLevel.NORMAL, "K-Core: Searching " + k + "-core of Graph: " + graph.getName());
+		}
+
+		ArrayList<Graph> results = new ArrayList<>();
+		int[] members = getMembers(cores, k);
+		if (members.length > 0)
+			results.add(compact.getSubGraph(members, graph.getName() + " " + k + "-Core"));
+		setProgress(1D);
+
+		return cull(results);
+	}
+
+	/**
+	 * Gets the core number of every node of a graph.
+	 *
+	 * @param graph the Graph to decompose.
+	 * @return the LinkedHashMap of the core numbers in the order of the nodes.
+	 */
+	public static LinkedHashMap<Node, Integer> getCoreNumbers(Graph graph)
+	{
+		CompactGraph compact = new CompactGraph(graph, true);
+		int[] cores = getCoreNumbers(compact);
+
+		LinkedHashMap<Node, Integer> result = new LinkedHashMap<>();
+		for (int v = 0; v < cores.length; v++)
+			result.put(compact.getNode(v), cores[v]);
+		return result;
+	}
+
+	/**
+	 * Gets the core number of every node of a snapshot. Reverse edges are only
+	 * followed if the snapshot is symmetric.
+	 *
+	 * @param graph the CompactGraph to decompose.
+	 * @return the core numbers indexed by node id.
+	 */
+	public static int[] getCoreNumbers(CompactGraph graph)
+	{
+		int n = graph.getNodeCount();
+		int[][] neighbours = getNeighbours(graph);
+
+		int[] degree = new int[n];
+		int maxDegree = 0;
+		for (int v = 0; v < n; v++)
+		{
+			degree[v] = neighbours[v].length;
+			maxDegree = Math.max(maxDegree, degree[v]);
+		}
+
+		// nodes sorted by degree, with the start of every degree in the order
+		int[] start = new int[maxDegree + 2];
+		for (int v = 0; v < n; v++)
+			start[degree[v] + 1]++;
+		for (int d = 1; d < start.length; d++)
+			start[d] += start[d - 1];
+
+		int[] order = new int[n];
+		int[] position = new int[n];
+		int[] next = Arrays.copyOf(start, start.length);
+		for (int v = 0; v < n; v++)
+		{
+			position[v] = next[degree[v]]++;
+			order[position[v]] = v;
+		}
+
+		// removing the node of least degree moves each later neighbour one bucket
+		// down by swapping it with the first node of its bucket
+		for (int i = 0; i < n; i++)
+		{
+			int v = order[i];
+			for (int w : neighbours[v])
+			{
+				if (degree[w] > degree[v])
+				{
+					int first = start[degree[w]];
+					int u = order[first];
+					if (u != w)
+					{
+						order[first] = w;
+						order[position[w]] = u;
+						position[u] = position[w];
+						position[w] = first;
+					}
+					start[degree[w]] = first + 1;
+					degree[w]--;
+				}
+			}
+		}
+		return degree;
+	}
+
+	/**
+	 * Gets the k-core of a graph.
+	 *
+	 * @param graph the Graph to reduce.
+	 * @param k     the smallest number of neighbours of a node of the core.
+	 * @return the k-core, or the graph itself if all of its nodes belong to it.
+	 */
+	public static Graph getCore(Graph graph, int k)
+	{
+		CompactGraph compact = new CompactGraph(graph, true);
+		int[] members = getMembers(getCoreNumbers(compact), k);
+		if (members.length == compact.getNodeCount())
+			return graph;
+		return compact.getSubGraph(members, graph.getName());
+	}
+
+	/**
+	 * Gets the nodes of the k-core.
+	 *
+	 * @param cores the core numbers indexed by node id.
+	 * @param k     the core.
+	 * @return the ascending ids of the nodes with a core number of at least k.
+	 */
+	private static int[] getMembers(int[] cores, int k)
+	{
+		int[] members = new int[cores.length];
+		int count = 0;
+		for (int v = 0; v < cores.length; v++)
+		{
+			if (cores[v] >= k)
+				members[count++] = v;
+		}
+		return Arrays.copyOf(members, count);
+	}
+
+	/**
+	 * Gets the distinct neighbours of every node of a snapshot, without the node
+	 * itself.
+	 *
+	 * @param graph the CompactGraph.
+	 * @return the neighbour ids indexed by node id.
+	 */
+	private static int[][] getNeighbours(CompactGraph graph)
+	{
+		int n = graph.getNodeCount();
+		int[][] neighbours = new int[n][];
+		int[] seen = new int[n];
+		int[] mark = new int[n];
+		Arrays.fill(mark, -1);
+		for (int v = 0; v < n; v++)
+		{
+			int count = 0;
+			mark[v] = v;
+			for (int slot = graph.getNeighborStart(v); slot < graph.getNeighborEnd(v); slot++)
+			{
+				int w = graph.getTarget(slot);
+				if (mark[w] != v)
+				{
+					mark[w] = v;
+					seen[count++] = w;
+				}
+			}
+			neighbours[v] = Arrays.copyOf(seen, count);
+		}
+		return neighbours;
+	}
+}
@@ -0,0 +1,557 @@
+package edu.claflin.finder.algo;
+
+import static edu.claflin.finder.Global.getLogger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.claflin.finder.log.LogLevel;
+import edu.claflin.finder.logic.Edge;
+import edu.claflin.finder.logic.Graph;
+import edu.claflin.finder.logic.Node;
+import edu.claflin.finder.logic.cond.CliqueCondition;
+import edu.claflin.finder.logic.cond.DirectedCliqueCondition;
+import edu.claflin.finder.logic.processor.CollectingSink;
+import edu.claflin.finder.logic.processor.ResultSink;
+
+/**
+ * Abstraction of the traversal searches, which grow one subgraph from every
+ * node of a {@link Graph} taken as the root. The searches from different roots
+ * share nothing but the input graph, which they only read, so they may run on
+ * several threads at once.
+ * <p>
+ * Parallel execution is enabled through the
+ * {@link ArgumentsBundle.COMMON_ARGS#PARALLEL} boolean. The number of threads
+ * defaults to the number of available processors and may be set through the
+ * {@link ArgumentsBundle.COMMON_ARGS#THREADS} integer. The found subgraphs are
+ * ordered by their roots in either mode.
+ * <p>
+ * The {@link ArgumentsBundle.COMMON_ARGS#ROOT_PRUNING} boolean enables the
+ * pruning of roots whose subgraph is provably contained in a subgraph found
+ * earlier, which culling would discard anyway. A root is skipped when an earlier
+ * subgraph holds its whole connected component. Under a clique condition every
+ * member of a subgraph is adjacent to every other, so the subgraph can only grow
+ * within the common neighbourhood of its members; the search from a root is
+ * skipped or abandoned as soon as that neighbourhood lies within an earlier
+ * subgraph. In parallel mode the roots pruned depend on the order in which the
+ * searches finish, but the culled results do not.
+ * <p>
+ * Under a clique condition the graph is first reduced to the nodes that may
+ * belong to a clique of the minimum node count, those in its
+ * (minimum node count - 1)-core, unless the
+ * {@link ArgumentsBundle.COMMON_ARGS#CORE_PRUNING} boolean is set to false. The
+ * nodes removed could only join subgraphs too small to be kept; without them a
+ * search may instead grow a larger clique that is kept.
+ * <p>
+ * Every subgraph is handed to the culling stage as soon as its search ends, so
+ * with the {@link ArgumentsBundle.COMMON_ARGS#ONLINE_CULL} boolean set only the
+ * subgraphs not contained in others are held in memory.
+ */
+public abstract class TraversalSearch extends Algorithm
+{
+	/**
+	 * The stack size of the worker threads. The depth first search recurses once
+	 * per node of the subgraph it grows.
+	 */
+	private static final long WORKER_STACK_SIZE = 64L * 1024L * 1024L;
+
+	/**
+	 * The number of roots skipped or abandoned by the last search.
+	 */
+	private final AtomicInteger skippedRoots = new AtomicInteger();
+
+	/**
+	 * Public constructor for initializing the TraversalSearch.
+	 *
+	 * @param bundle the ArgumentsBundle containing the instantiation arguments.
+	 */
+	public TraversalSearch(ArgumentsBundle bundle)
+	{
+		super(bundle);
+	}
+
+	/**
+	 * Searches for the subgraph grown from a single root. Implementations report
+	 * every node joining the subgraph to the RootSearch and stop as soon as it is
+	 * abandoned.
+	 *
+	 * @param graph  the Graph object to search through.
+	 * @param root   the Node to use as the root.
+	 * @param search the RootSearch tracking the search from the root.
+	 * @return the Graph object representing the found subgraph.
+	 */
+	protected abstract Graph searchRoot(Graph graph, Node root, RootSearch search);
+
+	/**
+	 * Gets the number of roots the last search skipped or abandoned because their
+	 * subgraph was contained in an earlier one.
+	 *
+	 * @return the number of pruned roots.
+	 */
+	public int getSkippedRootCount()
+	{
+		return skippedRoots.get();
+	}
+
+	/**
+	 * {@inheritDoc } <br>
+	 * Collects the culled subgraphs handed out by
+	 * {@link #process(Graph, ResultSink)}.
+	 *
+	 * @param graph the {@link Graph} object to search through.
+	 * @return the ArrayList of found subgraphs.
+	 */
+	@Override
+	public ArrayList<Graph> process(Graph graph)
+	{
+		CollectingSink<Graph> results = new CollectingSink<>();
+		process(graph, results);
+		return results.getResults();
+	}
+
+	/**
+	 * Runs the search from every node of the graph, reduced to its core under a
+	 * clique condition, sequentially or in parallel depending on the arguments,
+	 * and reports the progress after every root. Every
+	 * subgraph is handed to the stage ordered by its root; the stage is not
+	 * finished.
+	 *
+	 * @param graph the Graph object to search through.
+	 * @param tag   the String prefixing the log messages.
+	 * @param stage the CullingSink receiving the found subgraphs.
+	 * @return the number of found subgraphs.
+	 */
+	protected final int searchRoots(Graph graph, String tag, CullingSink stage)
+	{
+		Graph reduced = isCliqueSearch() ? reduceToCliqueCore(graph, getMinNodeCount(), tag) : graph;
+
+		List<Node> roots = reduced.getNodeList();
+		AtomicInteger found = new AtomicInteger();
+		AtomicInteger done = new AtomicInteger();
+		Dominance dominance = isPruning() ? new Dominance(reduced) : null;
+		skippedRoots.set(0);
+
+		int threads = getThreadCount();
+		if (threads <= 1 || roots.size() <= 1)
+		{
+			for (int index = 0; index < roots.size(); index++)
+				search(reduced, roots, index, stage, found, done, dominance, tag);
+		}
+		else
+		{
+			if (getLogger() != null)
+			{
+				getLogger().logAlgo(LogLevel.NORMAL, tag + ": Searching " + roots.size() + " roots on " + threads
+						+ " threads.");
+			}
+
+			// Workers pull the next unsearched root, so that expensive roots do not
+			// hold back the others.
+			AtomicInteger next = new AtomicInteger();
+			ExecutorService pool = Executors.newFixedThreadPool(threads, runnable ->
+			{
+				Thread worker = new Thread(null, runnable, tag + " worker", WORKER_STACK_SIZE);
+				worker.setDaemon(true);
+				return worker;
+			});
+
+			try
+			{
+				List<Future<?>> workers = new ArrayList<>();
+				for (int worker = 0; worker < threads; worker++)
+				{
+					workers.add(pool.submit(() ->
+					{
+						int index;
+						while ((index = next.getAndIncrement()) < roots.size() && !Thread.currentThread().isInterrupted())
+							search(reduced, roots, index, stage, found, done, dominance, tag);
+					}));
+				}
+
+				for (Future<?> worker : workers)
+					worker.get();
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(tag + ": Interrupted while searching " + reduced.getName(), e);
+			}
+			catch (ExecutionException e)
+			{
+				if (e.getCause() instanceof RuntimeException)
+					throw (RuntimeException) e.getCause();
+				if (e.getCause() instanceof Error)
+					throw (Error) e.getCause();
+				throw new IllegalStateException(e.getCause());
+			}
+			finally
+			{
+				pool.shutdownNow();
+			}
+		}
+
+		if (dominance != null && getLogger() != null)
+		{
+			getLogger().logAlgo(LogLevel.NORMAL, tag + ": Pruned " + skippedRoots.get() + " of " + roots.size()
+					+ " roots.");
+		}
+
+		return found.get();
+	}
+
+	/**
+	 * Searches from a single root, hands the result to the stage ordered by the
+	 * index of the root and reports the progress.
+	 *
+	 * @param graph     the Graph object to search through.
+	 * @param roots     the List of roots.
+	 * @param index     the index of the root to search from.
+	 * @param stage     the CullingSink receiving the found subgraphs.
+	 * @param found     the number of subgraphs found so far.
+	 * @param done      the number of roots searched so far.
+	 * @param dominance the Dominance of the earlier subgraphs or null if roots
+	 *                  are not pruned.
+	 * @param tag       the String prefixing the log messages.
+	 */
+	private void search(Graph graph, List<Node> roots, int index, CullingSink stage, AtomicInteger found,
+			AtomicInteger done, Dominance dominance, String tag)
+	{
+		Node root = roots.get(index);
+		RootSearch search = new RootSearch(root, dominance);
+
+		if (search.isAbandoned())
+		{
+			if (getLogger() != null)
+			{
+				getLogger().logAlgo(LogLevel.VERBOSE, tag + ": Skipping dominated root: " + root.toString());
+			}
+		}
+		else
+		{
+			if (getLogger() != null)
+			{
+				getLogger().logAlgo(LogLevel.VERBOSE, tag + ": Setting Node as root: " + root.toString());
+			}
+
+			Graph subGraph = searchRoot(graph, root, search);
+			if (!search.isAbandoned())
+			{
+				found.incrementAndGet();
+				stage.accept(subGraph, index);
+				if (dominance != null)
+					dominance.record(subGraph);
+			}
+			else if (getLogger() != null)
+			{
+				getLogger().logAlgo(LogLevel.VERBOSE, tag + ": Abandoned dominated root: " + root.toString());
+			}
+		}
+
+		if (search.isAbandoned())
+			skippedRoots.incrementAndGet();
+		advanceProgress(done.incrementAndGet() * 1D / roots.size());
+	}
+
+	/**
+	 * Indicates whether a clique condition restricts the subgraphs to cliques.
+	 *
+	 * @return true if a clique condition is set.
+	 */
+	private boolean isCliqueSearch()
+	{
+		return args.getConditionsList().stream()
+				.anyMatch(c -> c instanceof CliqueCondition || c instanceof DirectedCliqueCondition);
+	}
+
+	/**
+	 * Indicates whether roots should be pruned.
+	 *
+	 * @return true if root pruning is enabled.
+	 */
+	private boolean isPruning()
+	{
+		Boolean pruning = args.getBoolean(ArgumentsBundle.COMMON_ARGS.ROOT_PRUNING.toString());
+		return pruning != null && pruning;
+	}
+
+	/**
+	 * Tracks the search from a single root. With pruning under a clique condition
+	 * it maintains the common closed neighbourhood of the members found so far,
+	 * which bounds the subgraph the search can still produce, and abandons the
+	 * search once that bound lies within an earlier subgraph.
+	 */
+	protected static final class RootSearch
+	{
+		/**
+		 * The root of the search.
+		 */
+		private final Node root;
+
+		/**
+		 * The Dominance of the earlier subgraphs or null if roots are not pruned.
+		 */
+		private final Dominance dominance;
+
+		/**
+		 * The nodes adjacent to every member, members included, or null if the
+		 * subgraph is not bounded by neighbourhoods.
+		 */
+		private Set<Node> bound;
+
+		/**
+		 * Whether the subgraph is known to be contained in an earlier one.
+		 */
+		private boolean abandoned = false;
+
+		/**
+		 * Starts tracking the search from a root and checks whether the root can be
+		 * skipped.
+		 *
+		 * @param root      the root of the search.
+		 * @param dominance the Dominance of the earlier subgraphs or null.
+		 */
+		private RootSearch(Node root, Dominance dominance)
+		{
+			this.root = root;
+			this.dominance = dominance;
+
+			if (dominance == null)
+				return;
+
+			if (dominance.isComponentCovered(root))
+			{
+				abandoned = true;
+			}
+			else if (dominance.clique)
+			{
+				bound = dominance.closedNeighbourhood(root);
+				abandoned = dominance.isDominated(root, bound);
+			}
+		}
+
+		/**
+		 * Records a node joining the subgraph.
+		 *
+		 * @param node the Node added to the subgraph.
+		 */
+		public void added(Node node)
+		{
+			if (bound == null || abandoned || !bound.contains(node))
+				return;
+
+			int size = bound.size();
+			bound.retainAll(dominance.closedNeighbourhood(node));
+			if (bound.size() < size)
+				abandoned = dominance.isDominated(root, bound);
+		}
+
+		/**
+		 * Indicates whether the search should stop because its subgraph is
+		 * contained in an earlier one.
+		 *
+		 * @return true if the search is abandoned.
+		 */
+		public boolean isAbandoned()
+		{
+			return abandoned;
+		}
+	}
+
+	/**
+	 * Holds the subgraphs found so far in a form that answers whether they
+	 * contain a given part of the graph. Safe for use by several threads.
+	 */
+	private final class Dominance
+	{
+		/**
+		 * The Graph being searched.
+		 */
+		private final Graph graph;
+
+		/**
+		 * Whether a clique condition confines every subgraph to the common
+		 * neighbourhood of its members.
+		 */
+		private final boolean clique;
+
+		/**
+		 * The connected component of each node.
+		 */
+		private final HashMap<Node, Integer> componentOf = new HashMap<>();
+
+		/**
+		 * The number of nodes and edges of each connected component.
+		 */
+		private final List<int[]> componentSizes = new ArrayList<>();
+
+		/**
+		 * The components held entirely by an earlier subgraph.
+		 */
+		private final Set<Integer> coveredComponents = ConcurrentHashMap.newKeySet();
+
+		/**
+		 * The earlier subgraphs holding each node.
+		 */
+		private final ConcurrentHashMap<Node, Queue<Graph>> holders = new ConcurrentHashMap<>();
+
+		/**
+		 * Indexes the components of the graph.
+		 *
+		 * @param graph the Graph being searched.
+		 */
+		private Dominance(Graph graph)
+		{
+			this.graph = graph;
+			this.clique = isCliqueSearch();
+
+			for (Node start : graph.getNodeList())
+			{
+				if (componentOf.containsKey(start))
+					continue;
+
+				int component = componentSizes.size();
+				int[] sizes = new int[2];
+				componentSizes.add(sizes);
+
+				Queue<Node> queue = new LinkedList<>();
+				componentOf.put(start, component);
+				queue.add(start);
+				while (!queue.isEmpty())
+				{
+					Node node = queue.remove();
+					sizes[0]++;
+					for (Edge edge : graph.getNodeEdges(node))
+					{
+						if (edge.getSource().equals(node))
+							sizes[1]++;
+						Node other = edge.getSource().equals(node) ? edge.getTarget() : edge.getSource();
+						if (!componentOf.containsKey(other))
+						{
+							componentOf.put(other, component);
+							queue.add(other);
+						}
+					}
+				}
+			}
+		}
+
+		/**
+		 * Records a finished subgraph.
+		 *
+		 * @param subGraph the Graph found by a search.
+		 */
+		private void record(Graph subGraph)
+		{
+			List<Node> nodes = subGraph.getNodeList();
+			if (nodes.isEmpty())
+				return;
+
+			for (Node node : nodes)
+				holders.computeIfAbsent(node, n -> new ConcurrentLinkedQueue<>()).add(subGraph);
+
+			Integer component = componentOf.get(nodes.get(0));
+			int[] sizes = componentSizes.get(component);
+			if (subGraph.getNodeCount() == sizes[0] && subGraph.getEdgeCount() == sizes[1])
+				coveredComponents.add(component);
+		}
+
+		/**
+		 * Determines whether an earlier subgraph holds the whole connected
+		 * component of a node.
+		 *
+		 * @param node the Node.
+		 * @return true if the component is covered.
+		 */
+		private boolean isComponentCovered(Node node)
+		{
+			return coveredComponents.contains(componentOf.get(node));
+		}
+
+		/**
+		 * Gets a node together with every node sharing an edge with it, regardless
+		 * of direction.
+		 *
+		 * @param node the Node.
+		 * @return the Set of nodes.
+		 */
+		private Set<Node> closedNeighbourhood(Node node)
+		{
+			Set<Node> neighbourhood = new HashSet<>();
+			neighbourhood.add(node);
+			for (Edge edge : graph.getNodeEdges(node))
+			{
+				neighbourhood.add(edge.getSource());
+				neighbourhood.add(edge.getTarget());
+			}
+			return neighbourhood;
+		}
+
+		/**
+		 * Determines whether an earlier subgraph holding the root holds a set of
+		 * nodes together with every edge of the graph between them.
+		 *
+		 * @param root  the root, which the set contains.
+		 * @param nodes the Set of nodes.
+		 * @return true if the part of the graph spanned by the nodes is contained
+		 *         in an earlier subgraph.
+		 */
+		private boolean isDominated(Node root, Set<Node> nodes)
+		{
+			Queue<Graph> candidates = holders.get(root);
+			if (candidates == null)
+				return false;
+
+			for (Graph candidate : candidates)
+			{
+				if (candidate.getNodeCount() >= nodes.size() && contains(candidate, nodes))
+					return true;
+			}
+			return false;
+		}
+
+		/**
+		 * Determines whether a subgraph holds a set of nodes together with every
+		 * edge of the graph between them.
+		 *
+		 * @param subGraph the Graph to test.
+		 * @param nodes    the Set of nodes.
+		 * @return true if the subgraph holds the nodes and their edges.
+		 */
+		private boolean contains(Graph subGraph, Set<Node> nodes)
+		{
+			for (Node node : nodes)
+			{
+				if (!subGraph.containsNode(node))
+					return false;
+			}
+
+			for (Node node : nodes)
+			{
+				for (Edge edge : graph.getNodeEdges(node))
+				{
+					Node source = edge.getSource();
+					Node target = edge.getTarget();
+					if (!source.equals(node) || !nodes.contains(target))
+						continue;
+
+					Edge held = subGraph.getEdge(source, target);
+					if (held == null || !held.getSource().equals(source) || !held.getTarget().equals(target))
+						return false;
+				}
+			}
+			return true;
+		}
+	}
+}
@@ -0,0 +1,342 @@
+package edu.claflin.finder.algo.clique;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import edu.claflin.finder.logic.CompactGraph;
+
+/**
+ * Enumerates the maximal bicliques between the two partite sets of a bipartite
+ * graph in the style of MBEA and iMBEA. A biclique is a pair of non-empty node
+ * sets, one from each partite set, with every node of one adjacent to every node
+ * of the other; it is maximal when no node can be added to either side. Edge
+ * direction is ignored and edges within a partite set are ignored.
+ * <p>
+ * The larger partite set is kept as bitsets, so that the common neighbours of a
+ * set of nodes of the smaller one are found by word-wise intersection. The
+ * search grows the smaller side one candidate at a time, narrowing the larger
+ * side to the common neighbours; candidates adjacent to all of those join the
+ * biclique at once, and are not expanded on their own when they have no other
+ * neighbours. A branch is dropped as soon as an excluded node proves it not
+ * maximal. Candidates with the fewest common neighbours are expanded
+ * first.
+ *
+ * @see <a href="https://doi.org/10.1186/1471-2105-15-110">Zhang et al.
+ *      (iMBEA)</a>
+ */
+public class BicliqueEnumerator
+{
+	/**
+	 * The graph ids of the partite set held as bitsets, by local id.
+	 */
+	private final int[] wideIds;
+
+	/**
+	 * The graph ids of the partite set searched over, by local id.
+	 */
+	private final int[] narrowIds;
+
+	/**
+	 * The number of 64 bit words of every bitset.
+	 */
+	private final int words;
+
+	/**
+	 * The neighbours of every searched node within the set held as bitsets.
+	 */
+	private final long[][] adjacency;
+
+	/**
+	 * The bicliques found by the current search.
+	 */
+	private final List<int[]> bicliques = new ArrayList<>();
+
+	/**
+	 * Whether the current search keeps only the bicliques with most nodes.
+	 */
+	private boolean maximumOnly;
+
+	/**
+	 * The number of nodes of the largest biclique found by the current search.
+	 */
+	private int best;
+
+	/**
+	 * Builds the enumerator for two partite sets of a graph.
+	 *
+	 * @param graph  the CompactGraph holding the sets, best built symmetric.
+	 * @param first  the ids of the nodes of one partite set.
+	 * @param second the ids of the nodes of the other partite set.
+	 */
+	public BicliqueEnumerator(CompactGraph graph, int[] first, int[] second)
+	{
+		wideIds = (first.length >= second.length ? first : second).clone();
+		narrowIds = (first.length >= second.length ? second : first).clone();
+		words = (wideIds.length + 63) >>> 6;
+
+		int[] local = new int[graph.getNodeCount()];
+		Arrays.fill(local, -1);
+		for (int i = 0; i < wideIds.length; i++)
+			local[wideIds[i]] = i;
+
+		adjacency = new long[narrowIds.length][words];
+		for (int v = 0; v < narrowIds.length; v++)
+		{
+			int id = narrowIds[v];
+			for (int slot = graph.getNeighborStart(id); slot < graph.getNeighborEnd(id); slot++)
+			{
+				int w = local[graph.getTarget(slot)];
+				if (w >= 0)
+					adjacency[v][w >>> 6] |= 1L << w;
+			}
+		}
+	}
+
+	/**
+	 * Finds every maximal biclique.
+	 *
+	 * @return the List of maximal bicliques as sorted node ids of both sides, in
+	 *         lexicographic order.
+	 */
+	public List<int[]> findMaximalBicliques()
+	{
+		return search(false);
+	}
+
+	/**
+	 * Finds the bicliques with most nodes.
+	 *
+	 * @return the List of maximum bicliques as sorted node ids of both sides, in
+	 *         lexicographic order.
+	 */
+	public List<int[]> findMaximumBicliques()
+	{
+		return search(true);
+	}
+
+	/**
+	 * Runs the search from the full set held as bitsets.
+	 *
+	 * @param maximumOnly true to keep only the bicliques with most nodes.
+	 * @return the List of bicliques found, in lexicographic order.
+	 */
+	private List<int[]> search(boolean maximumOnly)
+	{
+		this.maximumOnly = maximumOnly;
+		this.best = 0;
+		bicliques.clear();
+
+		long[] wide = new long[words];
+		for (int i = 0; i < wideIds.length; i++)
+			wide[i >>> 6] |= 1L << i;
+
+		int[] candidates = new int[narrowIds.length];
+		int[] counts = new int[narrowIds.length];
+		int size = 0;
+		for (int v = 0; v < narrowIds.length; v++)
+		{
+			int count = common(adjacency[v], wide);
+			if (count > 0)
+			{
+				candidates[size] = v;
+				counts[size++] = count;
+			}
+		}
+
+		expand(wide, new int[0], sortByCount(candidates, counts, size), new int[0]);
+
+		List<int[]> result = new ArrayList<>(bicliques);
+		result.sort(BicliqueEnumerator::compare);
+		bicliques.clear();
+		return result;
+	}
+
+	/**
+	 * Extends a biclique by each of the candidates in turn.
+	 *
+	 * @param wide       the common neighbours of the searched side.
+	 * @param narrow     the local ids of the searched side.
+	 * @param candidates the candidates adjacent to some of the common neighbours.
+	 * @param excluded   the nodes already expanded, adjacent to some of the common
+	 *                   neighbours.
+	 */
+	private void expand(long[] wide, int[] narrow, int[] candidates, int[] excluded)
+	{
+		int[] seen = Arrays.copyOf(excluded, excluded.length + candidates.length);
+		int seenSize = excluded.length;
+		boolean[] taken = new boolean[candidates.length];
+
+		for (int i = 0; i < candidates.length; i++)
+		{
+			if (taken[i])
+				continue;
+			int x = candidates[i];
+			taken[i] = true;
+
+			long[] nextWide = new long[words];
+			int wideCount = 0;
+			for (int w = 0; w < words; w++)
+			{
+				nextWide[w] = wide[w] & adjacency[x][w];
+				wideCount += Long.bitCount(nextWide[w]);
+			}
+
+			// a node expanded earlier and adjacent to all common neighbours
+			// extends every biclique of the branch
+			boolean maximal = wideCount > 0;
+			int[] nextExcluded = new int[seenSize];
+			int excludedSize = 0;
+			for (int q = 0; q < seenSize && maximal; q++)
+			{
+				int count = common(adjacency[seen[q]], nextWide);
+				if (count == wideCount)
+					maximal = false;
+				else if (count > 0)
+					nextExcluded[excludedSize++] = seen[q];
+			}
+
+			int[] closed = new int[candidates.length];
+			int closedSize = 0;
+			if (maximal)
+			{
+				int[] nextNarrow = Arrays.copyOf(narrow, narrow.length + candidates.length - i);
+				int narrowSize = narrow.length;
+				nextNarrow[narrowSize++] = x;
+
+				int[] nextCandidates = new int[candidates.length - i];
+				int[] counts = new int[candidates.length - i];
+				int candidateSize = 0;
+				for (int j = i + 1; j < candidates.length; j++)
+				{
+					if (taken[j])
+						continue;
+					int count = common(adjacency[candidates[j]], nextWide);
+					if (count == wideCount)
+					{
+						nextNarrow[narrowSize++] = candidates[j];
+
+						// without other neighbours its bicliques all hold x as well
+						if (common(adjacency[candidates[j]], wide) == wideCount)
+						{
+							closed[closedSize++] = candidates[j];
+							taken[j] = true;
+						}
+					}
+					else if (count > 0)
+					{
+						nextCandidates[candidateSize] = candidates[j];
+						counts[candidateSize++] = count;
+					}
+				}
+
+				report(nextWide, wideCount, nextNarrow, narrowSize);
+
+				// no biclique of the branch is larger than all its nodes together
+				if (candidateSize > 0 && (!maximumOnly || wideCount + narrowSize + candidateSize >= best))
+				{
+					expand(nextWide, Arrays.copyOf(nextNarrow, narrowSize),
+							sortByCount(nextCandidates, counts, candidateSize),
+							Arrays.copyOf(nextExcluded, excludedSize));
+				}
+			}
+
+			seen[seenSize++] = x;
+			for (int c = 0; c < closedSize; c++)
+				seen[seenSize++] = closed[c];
+		}
+	}
+
+	/**
+	 * Records a biclique.
+	 *
+	 * @param wide       the nodes of the side held as bitsets.
+	 * @param wideCount  the number of those nodes.
+	 * @param narrow     the local ids of the searched side.
+	 * @param narrowSize the number of those nodes.
+	 */
+	private void report(long[] wide, int wideCount, int[] narrow, int narrowSize)
+	{
+		int size = wideCount + narrowSize;
+		if (maximumOnly)
+		{
+			if (size < best)
+				return;
+			if (size > best)
+			{
+				bicliques.clear();
+				best = size;
+			}
+		}
+
+		int[] biclique = new int[size];
+		int index = 0;
+		for (int w = 0; w < words; w++)
+		{
+			long bits = wide[w];
+			while (bits != 0L)
+			{
+				biclique[index++] = wideIds[(w << 6) + Long.numberOfTrailingZeros(bits)];
+				bits &= bits - 1;
+			}
+		}
+		for (int v = 0; v < narrowSize; v++)
+			biclique[index++] = narrowIds[narrow[v]];
+		Arrays.sort(biclique);
+		bicliques.add(biclique);
+	}
+
+	/**
+	 * Counts the nodes two bitsets have in common.
+	 *
+	 * @param a the first bitset.
+	 * @param b the second bitset.
+	 * @return the number of common bits.
+	 */
+	private int common(long[] a, long[] b)
+	{
+		int count = 0;
+		for (int w = 0; w < words; w++)
+			count += Long.bitCount(a[w] & b[w]);
+		return count;
+	}
+
+	/**
+	 * Orders nodes by ascending count, ties by ascending id.
+	 *
+	 * @param nodes  the local ids of the nodes.
+	 * @param counts the count of every node.
+	 * @param size   the number of nodes to order.
+	 * @return the ordered local ids.
+	 */
+	private static int[] sortByCount(int[] nodes, int[] counts, int size)
+	{
+		long[] keys = new long[size];
+		for (int i = 0; i < size; i++)
+			keys[i] = ((long) counts[i] << 32) | nodes[i];
+		Arrays.sort(keys);
+
+		int[] sorted = new int[size];
+		for (int i = 0; i < size; i++)
+			sorted[i] = (int) keys[i];
+		return sorted;
+	}
+
+	/**
+	 * Compares two arrays of node ids lexicographically.
+	 *
+	 * @param a the first array.
+	 * @param b the second array.
+	 * @return a negative number, zero or a positive number as the first array
+	 *         comes before, equals or comes after the second.
+	 */
+	private static int compare(int[] a, int[] b)
+	{
+		for (int i = 0; i < Math.min(a.length, b.length); i++)
+		{
+			if (a[i] != b[i])
+				return Integer.compare(a[i], b[i]);
+		}
+		return Integer.compare(a.length, b.length);
+	}
+}
@@ -0,0 +1,593 @@
+package edu.claflin.finder.algo.clique;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.claflin.finder.logic.CompactGraph;
+
+/**
+ * Bron-Kerbosch clique search over word-packed bitsets. Edge direction is
+ * ignored and self loops do not count as adjacency.
+ * <p>
+ * The outer level visits the nodes in a degeneracy ordering. The search from a
+ * node only considers the neighbours of that node, taking the later ones as
+ * candidates and the earlier ones as excluded, so every maximal clique is found
+ * exactly once and the bitsets of a search only span the neighbourhood of its
+ * node. Within a search the candidates P and the excluded nodes X are bitsets over
+ * local ids and the pivot is the node of P or X with the most neighbours in P, as
+ * proposed by Tomita et al., counted with popcount.
+ * <p>
+ * Searching for maximum cliques additionally skips every branch whose clique
+ * cannot reach the size of the largest clique found so far.
+ * <p>
+ * The searches may run on a ForkJoinPool. Every node of the outer level starts
+ * a task and the large branches near the top of a search are split into further
+ * tasks, which idle threads steal. The tasks share the size of the largest
+ * clique found so far and hand their cliques to a lock-free queue. The cliques
+ * are returned in a canonical order, so the result does not depend on the
+ * number of threads.
+ *
+ * @see <a href="https://doi.org/10.1016/j.tcs.2006.06.015">Tomita et al.</a>
+ * @see <a href="https://arxiv.org/abs/1006.5440">Eppstein et al.</a>
+ */
+public class BitsetBronKerbosch
+{
+	/**
+	 * The adjacency and degeneracy ordering of the graph.
+	 */
+	private final DegeneracyOrder ordering;
+
+	/**
+	 * Builds the engine for a snapshot of a graph.
+	 *
+	 * @param graph the CompactGraph to search.
+	 */
+	public BitsetBronKerbosch(CompactGraph graph)
+	{
+		ordering = new DegeneracyOrder(graph);
+	}
+
+	/**
+	 * Gets the degeneracy of the graph, the largest k such that the graph has a
+	 * subgraph in which every node has at least k neighbours. No clique holds more
+	 * than the degeneracy plus one nodes.
+	 *
+	 * @return the degeneracy.
+	 */
+	public int getDegeneracy()
+	{
+		return ordering.getDegeneracy();
+	}
+
+	/**
+	 * Finds every maximum clique, i.e. every clique with the largest number of
+	 * nodes.
+	 *
+	 * @return the List of maximum cliques as sorted node ids, in lexicographic
+	 *         order.
+	 */
+	public List<int[]> findMaximumCliques()
+	{
+		return findMaximumCliques(1);
+	}
+
+	/**
+	 * Finds every maximum clique on several threads. The searches share the size
+	 * of the largest clique found so far to cut branches that cannot reach it.
+	 *
+	 * @param threads the number of threads to search with.
+	 * @return the List of maximum cliques as sorted node ids, in lexicographic
+	 *         order.
+	 */
+	public List<int[]> findMaximumCliques(int threads)
+	{
+		return search(new Collector(true, 1), threads);
+	}
+
+	/**
+	 * Finds every maximal clique with at least a given number of nodes.
+	 *
+	 * @param minSize the smallest number of nodes of a reported clique.
+	 * @return the List of maximal cliques as sorted node ids, in lexicographic
+	 *         order.
+	 */
+	public List<int[]> findMaximalCliques(int minSize)
+	{
+		return findMaximalCliques(minSize, 1);
+	}
+
+	/**
+	 * Finds every maximal clique with at least a given number of nodes on several
+	 * threads.
+	 *
+	 * @param minSize the smallest number of nodes of a reported clique.
+	 * @param threads the number of threads to search with.
+	 * @return the List of maximal cliques as sorted node ids, in lexicographic
+	 *         order.
+	 */
+	public List<int[]> findMaximalCliques(int minSize, int threads)
+	{
+		return search(new Collector(false, Math.max(1, minSize)), threads);
+	}
+
+	/**
+	 * Runs the search from every node, sequentially or on a ForkJoinPool. In
+	 * parallel every node starts a task of its own, and large branches close to
+	 * the top of a search are split into further tasks, so that idle threads can
+	 * steal them.
+	 *
+	 * @param collector the Collector receiving the cliques.
+	 * @param threads   the number of threads to search with.
+	 * @return the cliques kept by the collector.
+	 */
+	private List<int[]> search(Collector collector, int threads)
+	{
+		if (threads < 1)
+			throw new IllegalArgumentException("The number of threads must be positive!");
+
+		if (threads == 1)
+		{
+			for (int index = 0; index < ordering.size(); index++)
+				searchFrom(ordering.getNode(index), collector, false);
+			return collector.getCliques();
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try
+		{
+			List<RecursiveAction> roots = new ArrayList<>(ordering.size());
+			for (int index = 0; index < ordering.size(); index++)
+			{
+				int v = ordering.getNode(index);
+				roots.add(new RecursiveAction()
+				{
+					@Override
+					protected void compute()
+					{
+						searchFrom(v, collector, true);
+					}
+				});
+			}
+			pool.invoke(new RecursiveAction()
+			{
+				@Override
+				protected void compute()
+				{
+					invokeAll(roots);
+				}
+			});
+		}
+		finally
+		{
+			pool.shutdownNow();
+		}
+		return collector.getCliques();
+	}
+
+	/**
+	 * Runs the search for the cliques whose earliest node in the order is v.
+	 *
+	 * @param v         the node id.
+	 * @param collector the Collector receiving the cliques.
+	 * @param split     true if large branches should be split into tasks.
+	 */
+	private void searchFrom(int v, Collector collector, boolean split)
+	{
+		int[] neighbours = ordering.getNeighbours(v);
+		int later = 0;
+		for (int u : neighbours)
+		{
+			if (ordering.getPosition(u) > ordering.getPosition(v))
+				later++;
+		}
+		if (later + 1 < collector.bound())
+			return;
+
+		new LocalSearch(v, neighbours, collector, split).run();
+	}
+
+	/**
+	 * Receives the cliques of the searches. Safe for use by several threads
+	 * without locking.
+	 */
+	private static final class Collector
+	{
+		/**
+		 * Whether only the largest cliques are kept.
+		 */
+		private final boolean maximumOnly;
+
+		/**
+		 * The smallest size of a clique worth reporting, which grows with the
+		 * largest clique found when only those are kept.
+		 */
+		private final AtomicInteger minSize;
+
+		/**
+		 * The cliques kept so far, possibly with some that fell below the size
+		 * bound since.
+		 */
+		private final ConcurrentLinkedQueue<int[]> cliques = new ConcurrentLinkedQueue<>();
+
+		/**
+		 * Creates the collector.
+		 *
+		 * @param maximumOnly true if only the largest cliques should be kept.
+		 * @param minSize     the smallest size of a clique worth reporting.
+		 */
+		private Collector(boolean maximumOnly, int minSize)
+		{
+			this.maximumOnly = maximumOnly;
+			this.minSize = new AtomicInteger(minSize);
+		}
+
+		/**
+		 * Gets the smallest size a clique needs to be reported.
+		 *
+		 * @return the size bound.
+		 */
+		private int bound()
+		{
+			return minSize.get();
+		}
+
+		/**
+		 * Receives a maximal clique.
+		 *
+		 * @param clique the node ids of the clique.
+		 */
+		private void report(int[] clique)
+		{
+			if (maximumOnly)
+			{
+				int bound = minSize.get();
+				while (clique.length > bound)
+				{
+					if (minSize.compareAndSet(bound, clique.length))
+					{
+						int raised = clique.length;
+						cliques.removeIf(other -> other.length < raised);
+						break;
+					}
+					bound = minSize.get();
+				}
+			}
+
+			if (clique.length >= minSize.get())
+				cliques.add(clique);
+		}
+
+		/**
+		 * Gets the cliques kept in canonical order.
+		 *
+		 * @return the List of cliques as sorted node ids, in lexicographic order.
+		 */
+		private List<int[]> getCliques()
+		{
+			int bound = minSize.get();
+			List<int[]> result = new ArrayList<>();
+			for (int[] clique : cliques)
+			{
+				if (clique.length >= bound)
+				{
+					int[] sorted = clique.clone();
+					Arrays.sort(sorted);
+					result.add(sorted);
+				}
+			}
+			result.sort(BitsetBronKerbosch::compare);
+			return result;
+		}
+	}
+
+	/**
+	 * Compares two arrays of node ids lexicographically.
+	 *
+	 * @param a the first array.
+	 * @param b the second array.
+	 * @return a negative number, zero or a positive number as the first array
+	 *         comes before, equals or comes after the second.
+	 */
+	private static int compare(int[] a, int[] b)
+	{
+		for (int i = 0; i < Math.min(a.length, b.length); i++)
+		{
+			if (a[i] != b[i])
+				return Integer.compare(a[i], b[i]);
+		}
+		return Integer.compare(a.length, b.length);
+	}
+
+	/**
+	 * The search for the cliques whose earliest node in the order is a given
+	 * node. Works on local ids, which number the neighbours of that node, and is
+	 * shared by the tasks the search is split into.
+	 */
+	private final class LocalSearch
+	{
+		/**
+		 * The node all cliques of the search contain.
+		 */
+		private final int root;
+
+		/**
+		 * The node id of every local id.
+		 */
+		private final int[] nodes;
+
+		/**
+		 * The number of 64 bit words of every bitset.
+		 */
+		private final int words;
+
+		/**
+		 * The local neighbours of every local id.
+		 */
+		private final long[][] neighbours;
+
+		/**
+		 * The Collector receiving the cliques.
+		 */
+		private final Collector collector;
+
+		/**
+		 * Whether large branches are split into tasks.
+		 */
+		private final boolean split;
+
+		/**
+		 * Prepares the search.
+		 *
+		 * @param root       the node all cliques of the search contain.
+		 * @param candidates the neighbours of the root.
+		 * @param collector  the Collector receiving the cliques.
+		 * @param split      true if large branches should be split into tasks.
+		 */
+		private LocalSearch(int root, int[] candidates, Collector collector, boolean split)
+		{
+			this.root = root;
+			this.nodes = candidates;
+			this.collector = collector;
+			this.split = split;
+			this.words = (nodes.length + 63) >>> 6;
+			this.neighbours = ordering.getLocalAdjacency(nodes);
+		}
+
+		/**
+		 * Runs the search with the later neighbours of the root as candidates and
+		 * the earlier ones as excluded.
+		 */
+		private void run()
+		{
+			long[] p = new long[words];
+			long[] x = new long[words];
+			for (int i = 0; i < nodes.length; i++)
+			{
+				if (ordering.getPosition(nodes[i]) > ordering.getPosition(root))
+					p[i >>> 6] |= 1L << i;
+				else
+					x[i >>> 6] |= 1L << i;
+			}
+			new Frame(this, new int[0]).expand(0, p, x);
+		}
+
+		/**
+		 * Chooses the node of P or X with the most neighbours in P.
+		 *
+		 * @param p the candidates.
+		 * @param x the excluded nodes.
+		 * @return the local id of the pivot.
+		 */
+		private int choosePivot(long[] p, long[] x)
+		{
+			int best = -1;
+			int bestCount = -1;
+			for (int w = 0; w < words; w++)
+			{
+				long members = p[w] | x[w];
+				while (members != 0L)
+				{
+					int u = (w << 6) + Long.numberOfTrailingZeros(members);
+					members &= members - 1;
+
+					long[] adjacent = neighbours[u];
+					int shared = 0;
+					for (int k = 0; k < words; k++)
+						shared += Long.bitCount(p[k] & adjacent[k]);
+					if (shared > bestCount)
+					{
+						best = u;
+						bestCount = shared;
+					}
+				}
+			}
+			return best;
+		}
+	}
+
+	/**
+	 * The state of a single thread working on a LocalSearch: the clique grown so
+	 * far and the bitsets of every depth below it.
+	 */
+	private static final class Frame
+	{
+		/**
+		 * The largest depth at which branches are split into tasks.
+		 */
+		private static final int SPLIT_DEPTH = 2;
+
+		/**
+		 * The smallest number of candidates worth splitting into tasks.
+		 */
+		private static final int SPLIT_SIZE = 32;
+
+		/**
+		 * The LocalSearch worked on.
+		 */
+		private final LocalSearch search;
+
+		/**
+		 * The local ids of the clique being grown, after the root.
+		 */
+		private final int[] clique;
+
+		/**
+		 * The candidates and excluded nodes of every depth, allocated on first use.
+		 */
+		private final long[][] pStack;
+		private final long[][] xStack;
+
+		/**
+		 * Creates the state of a thread.
+		 *
+		 * @param search the LocalSearch to work on.
+		 * @param prefix the local ids already in the clique.
+		 */
+		private Frame(LocalSearch search, int[] prefix)
+		{
+			this.search = search;
+			this.clique = Arrays.copyOf(prefix, search.nodes.length);
+			this.pStack = new long[search.nodes.length + 1][];
+			this.xStack = new long[search.nodes.length + 1][];
+		}
+
+		/**
+		 * Extends the clique by every candidate not adjacent to the pivot.
+		 *
+		 * @param size the number of local ids in the clique.
+		 * @param p    the candidates, which the call consumes.
+		 * @param x    the excluded nodes, which the call consumes.
+		 */
+		private void expand(int size, long[] p, long[] x)
+		{
+			Collector collector = search.collector;
+			int candidates = count(p);
+			if (candidates == 0)
+			{
+				if (isEmpty(x))
+					report(size);
+				return;
+			}
+
+			// the root and the clique come on top of the candidates
+			if (size + 1 + candidates < collector.bound())
+				return;
+
+			boolean splitting = search.split && size < SPLIT_DEPTH && candidates >= SPLIT_SIZE
+					&& ForkJoinTask.inForkJoinPool();
+			List<RecursiveAction> branches = splitting ? new ArrayList<>() : null;
+
+			int words = search.words;
+			long[] pivotNeighbours = search.neighbours[search.choosePivot(p, x)];
+			branching:
+			for (int w = 0; w < words; w++)
+			{
+				long branch = p[w] & ~pivotNeighbours[w];
+				while (branch != 0L)
+				{
+					int v = (w << 6) + Long.numberOfTrailingZeros(branch);
+					branch &= branch - 1;
+
+					long[] adjacent = search.neighbours[v];
+					long[] nextP = splitting ? new long[words] : stack(pStack, size + 1);
+					long[] nextX = splitting ? new long[words] : stack(xStack, size + 1);
+					for (int k = 0; k < words; k++)
+					{
+						nextP[k] = p[k] & adjacent[k];
+						nextX[k] = x[k] & adjacent[k];
+					}
+
+					clique[size] = v;
+					if (splitting)
+					{
+						int[] prefix = Arrays.copyOf(clique, size + 1);
+						branches.add(new RecursiveAction()
+						{
+							@Override
+							protected void compute()
+							{
+								new Frame(search, prefix).expand(prefix.length, nextP, nextX);
+							}
+						});
+					}
+					else
+					{
+						expand(size + 1, nextP, nextX);
+					}
+
+					p[w] &= ~(1L << v);
+					x[w] |= 1L << v;
+					if (size + 1 + count(p) < collector.bound())
+						break branching;
+				}
+			}
+
+			if (splitting)
+				ForkJoinTask.invokeAll(branches);
+		}
+
+		/**
+		 * Gets the bitset of a depth, allocating it on first use.
+		 *
+		 * @param stack the bitsets by depth.
+		 * @param depth the depth.
+		 * @return the bitset of the depth.
+		 */
+		private long[] stack(long[][] stack, int depth)
+		{
+			if (stack[depth] == null)
+				stack[depth] = new long[search.words];
+			return stack[depth];
+		}
+
+		/**
+		 * Reports the clique of the root and the local ids grown so far.
+		 *
+		 * @param size the number of local ids in the clique.
+		 */
+		private void report(int size)
+		{
+			int[] found = new int[size + 1];
+			found[0] = search.root;
+			for (int i = 0; i < size; i++)
+				found[i + 1] = search.nodes[clique[i]];
+			search.collector.report(found);
+		}
+
+		/**
+		 * Counts the members of a bitset.
+		 *
+		 * @param bits the bitset.
+		 * @return the number of set bits.
+		 */
+		private static int count(long[] bits)
+		{
+			int total = 0;
+			for (long word : bits)
+				total += Long.bitCount(word);
+			return total;
+		}
+
+		/**
+		 * Determines whether a bitset is empty.
+		 *
+		 * @param bits the bitset.
+		 * @return true if no bit is set.
+		 */
+		private static boolean isEmpty(long[] bits)
+		{
+			for (long word : bits)
+			{
+				if (word != 0L)
+					return false;
+			}
+			return true;
+		}
+	}
+}
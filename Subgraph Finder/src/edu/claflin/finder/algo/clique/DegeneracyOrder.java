@@ -0,0 +1,277 @@
+package edu.claflin.finder.algo.clique;
+
+import java.util.Arrays;
+
+import edu.claflin.finder.logic.CompactGraph;
+
+/**
+ * The undirected adjacency of a graph together with a degeneracy ordering of its
+ * nodes, shared by the clique engines. Edge direction is ignored and self loops
+ * do not count as adjacency. Searching every node only among its neighbours later
+ * in the ordering visits every clique exactly once, from its earliest node, with
+ * at most the degeneracy of the graph as candidates.
+ */
+final class DegeneracyOrder
+{
+	/**
+	 * The sorted, distinct neighbour ids of every node.
+	 */
+	private final int[][] adjacency;
+
+	/**
+	 * The nodes in degeneracy order.
+	 */
+	private final int[] order;
+
+	/**
+	 * The position of every node within the order.
+	 */
+	private final int[] position;
+
+	/**
+	 * The degeneracy of the graph.
+	 */
+	private final int degeneracy;
+
+	/**
+	 * Builds the adjacency and ordering of a snapshot of a graph.
+	 *
+	 * @param graph the CompactGraph to order.
+	 */
+	DegeneracyOrder(CompactGraph graph)
+	{
+		int n = graph.getNodeCount();
+		adjacency = buildAdjacency(graph);
+		order = new int[n];
+		position = new int[n];
+		degeneracy = orderByDegeneracy();
+	}
+
+	/**
+	 * Gets the degeneracy of the graph.
+	 *
+	 * @return the degeneracy.
+	 */
+	int getDegeneracy()
+	{
+		return degeneracy;
+	}
+
+	/**
+	 * Gets the number of nodes.
+	 *
+	 * @return the number of nodes.
+	 */
+	int size()
+	{
+		return order.length;
+	}
+
+	/**
+	 * Gets the node at a position of the order.
+	 *
+	 * @param index the position.
+	 * @return the node id.
+	 */
+	int getNode(int index)
+	{
+		return order[index];
+	}
+
+	/**
+	 * Gets the position of a node within the order.
+	 *
+	 * @param v the node id.
+	 * @return the position.
+	 */
+	int getPosition(int v)
+	{
+		return position[v];
+	}
+
+	/**
+	 * Gets the sorted neighbour ids of a node. The array must not be modified.
+	 *
+	 * @param v the node id.
+	 * @return the neighbour ids.
+	 */
+	int[] getNeighbours(int v)
+	{
+		return adjacency[v];
+	}
+
+	/**
+	 * Gets the sorted neighbour ids of a node that come later in the order.
+	 *
+	 * @param v the node id.
+	 * @return the later neighbour ids.
+	 */
+	int[] getLaterNeighbours(int v)
+	{
+		int[] neighbours = adjacency[v];
+		int count = 0;
+		for (int u : neighbours)
+		{
+			if (position[u] > position[v])
+				count++;
+		}
+
+		int[] later = new int[count];
+		int fill = 0;
+		for (int u : neighbours)
+		{
+			if (position[u] > position[v])
+				later[fill++] = u;
+		}
+		return later;
+	}
+
+	/**
+	 * Builds the adjacency among a set of nodes as bitsets over local ids, which
+	 * number the nodes in the order given.
+	 *
+	 * @param nodes the sorted node ids.
+	 * @return the local neighbours of every local id.
+	 */
+	long[][] getLocalAdjacency(int[] nodes)
+	{
+		int words = (nodes.length + 63) >>> 6;
+		long[][] local = new long[nodes.length][words];
+
+		// both lists are sorted, so the local neighbours follow from a merge
+		for (int i = 0; i < nodes.length; i++)
+		{
+			long[] bits = local[i];
+			int j = 0;
+			for (int u : adjacency[nodes[i]])
+			{
+				while (j < nodes.length && nodes[j] < u)
+					j++;
+				if (j == nodes.length)
+					break;
+				if (nodes[j] == u)
+					bits[j >>> 6] |= 1L << j;
+			}
+		}
+		return local;
+	}
+
+	/**
+	 * Builds the sorted, distinct and symmetric neighbour ids of every node.
+	 *
+	 * @param graph the CompactGraph to read.
+	 * @return the neighbour ids indexed by node id.
+	 */
+	private static int[][] buildAdjacency(CompactGraph graph)
+	{
+		int n = graph.getNodeCount();
+		int[] degree = new int[n];
+		for (int e = 0; e < graph.getEdgeCount(); e++)
+		{
+			int s = graph.getEdgeSource(e);
+			int t = graph.getEdgeTarget(e);
+			if (s != t)
+			{
+				degree[s]++;
+				degree[t]++;
+			}
+		}
+
+		int[][] lists = new int[n][];
+		for (int v = 0; v < n; v++)
+			lists[v] = new int[degree[v]];
+		int[] fill = new int[n];
+		for (int e = 0; e < graph.getEdgeCount(); e++)
+		{
+			int s = graph.getEdgeSource(e);
+			int t = graph.getEdgeTarget(e);
+			if (s != t)
+			{
+				lists[s][fill[s]++] = t;
+				lists[t][fill[t]++] = s;
+			}
+		}
+
+		// parallel and reciprocal edges leave duplicates behind
+		for (int v = 0; v < n; v++)
+		{
+			int[] list = lists[v];
+			Arrays.sort(list);
+			int size = 0;
+			for (int i = 0; i < list.length; i++)
+			{
+				if (i == 0 || list[i] != list[i - 1])
+					list[size++] = list[i];
+			}
+			lists[v] = size == list.length ? list : Arrays.copyOf(list, size);
+		}
+		return lists;
+	}
+
+	/**
+	 * Orders the nodes by repeatedly removing a node of smallest remaining degree,
+	 * keeping the nodes sorted by remaining degree as proposed by Batagelj and
+	 * Zaversnik.
+	 *
+	 * @return the degeneracy of the graph.
+	 */
+	private int orderByDegeneracy()
+	{
+		int n = adjacency.length;
+		int maxDegree = 0;
+		int[] degree = new int[n];
+		for (int v = 0; v < n; v++)
+		{
+			degree[v] = adjacency[v].length;
+			maxDegree = Math.max(maxDegree, degree[v]);
+		}
+
+		// the start of every degree within the sorted nodes
+		int[] bins = new int[maxDegree + 1];
+		for (int v = 0; v < n; v++)
+			bins[degree[v]]++;
+		int start = 0;
+		for (int d = 0; d <= maxDegree; d++)
+		{
+			int count = bins[d];
+			bins[d] = start;
+			start += count;
+		}
+		for (int v = 0; v < n; v++)
+		{
+			position[v] = bins[degree[v]]++;
+			order[position[v]] = v;
+		}
+		for (int d = maxDegree; d > 0; d--)
+			bins[d] = bins[d - 1];
+		bins[0] = 0;
+
+		int result = 0;
+		for (int i = 0; i < n; i++)
+		{
+			int v = order[i];
+			result = Math.max(result, degree[v]);
+
+			for (int u : adjacency[v])
+			{
+				if (degree[u] <= degree[v])
+					continue;
+
+				// swap u with the first node of its degree, which then starts later
+				int d = degree[u];
+				int first = bins[d];
+				int w = order[first];
+				if (w != u)
+				{
+					order[position[u]] = w;
+					position[w] = position[u];
+					order[first] = u;
+					position[u] = first;
+				}
+				bins[d]++;
+				degree[u]--;
+			}
+		}
+		return result;
+	}
+}
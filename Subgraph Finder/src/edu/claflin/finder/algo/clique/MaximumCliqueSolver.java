@@ -0,0 +1,414 @@
+package edu.claflin.finder.algo.clique;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import edu.claflin.finder.logic.CompactGraph;
+
+/**
+ * Branch and bound search for the maximum cliques of a graph in the style of
+ * MCQ and MCS. Edge direction is ignored and self loops do not count as
+ * adjacency.
+ * <p>
+ * Every node is searched among its neighbours later in a degeneracy ordering,
+ * starting with the nodes of the densest cores, where large cliques are found
+ * early. Within a search the candidates are greedily coloured over bitsets: nodes
+ * of one colour are pairwise non-adjacent, so a clique takes at most one node of
+ * every colour and the number of colours bounds how far the clique can still
+ * grow. Candidates are expanded from the highest colour down, and the search
+ * stops as soon as the bound falls below the largest clique found so far, the
+ * incumbent. Ties with the incumbent are still explored, so every maximum clique
+ * is found.
+ * <p>
+ * An optional time budget ends the search early. The result then holds the
+ * largest cliques found so far and {@link #isOptimal()} is false.
+ *
+ * @see <a href="https://doi.org/10.1007/3-540-45066-1_22">Tomita and Seki
+ *      (MCQ)</a>
+ * @see <a href="https://doi.org/10.1007/978-3-642-11440-3_18">Tomita et al.
+ *      (MCS)</a>
+ */
+public class MaximumCliqueSolver
+{
+	/**
+	 * The number of expansions between two checks of the clock.
+	 */
+	private static final int CLOCK_INTERVAL = 1024;
+
+	/**
+	 * The adjacency and degeneracy ordering of the graph.
+	 */
+	private final DegeneracyOrder ordering;
+
+	/**
+	 * The largest cliques found by the last search.
+	 */
+	private final List<int[]> cliques = new ArrayList<>();
+
+	/**
+	 * The size of the incumbent.
+	 */
+	private int best;
+
+	/**
+	 * The time at which the search gives up, or Long.MAX_VALUE without a budget.
+	 */
+	private long deadline;
+
+	/**
+	 * The number of expansions of the last search.
+	 */
+	private long expansions;
+
+	/**
+	 * Whether the last search ran out of time.
+	 */
+	private boolean timedOut;
+
+	/**
+	 * Builds the solver for a snapshot of a graph.
+	 *
+	 * @param graph the CompactGraph to search.
+	 */
+	public MaximumCliqueSolver(CompactGraph graph)
+	{
+		ordering = new DegeneracyOrder(graph);
+	}
+
+	/**
+	 * Finds every maximum clique without a time budget.
+	 *
+	 * @return the List of maximum cliques as sorted node ids, in lexicographic
+	 *         order.
+	 */
+	public List<int[]> findMaximumCliques()
+	{
+		return findMaximumCliques(0);
+	}
+
+	/**
+	 * Finds every maximum clique within a time budget.
+	 *
+	 * @param budgetMillis the time budget in milliseconds, 0 or less for none.
+	 * @return the List of maximum cliques as sorted node ids, in lexicographic
+	 *         order, or the largest cliques found if the budget ran out.
+	 */
+	public List<int[]> findMaximumCliques(long budgetMillis)
+	{
+		cliques.clear();
+		best = 0;
+		expansions = 0;
+		timedOut = false;
+		deadline = budgetMillis > 0 ? System.nanoTime() + budgetMillis * 1000000L : Long.MAX_VALUE;
+
+		for (int index = ordering.size() - 1; index >= 0 && !timedOut; index--)
+		{
+			int root = ordering.getNode(index);
+			int[] later = ordering.getLaterNeighbours(root);
+
+			// every clique of the root holds at most its later neighbours and itself
+			if (later.length + 1 >= best)
+				new LocalSearch(root, later).run();
+		}
+
+		List<int[]> result = new ArrayList<>();
+		for (int[] clique : cliques)
+		{
+			int[] sorted = clique.clone();
+			Arrays.sort(sorted);
+			result.add(sorted);
+		}
+		result.sort(MaximumCliqueSolver::compare);
+		return result;
+	}
+
+	/**
+	 * Indicates whether the last search completed, so that its cliques are proven
+	 * to be all maximum cliques.
+	 *
+	 * @return false if the last search ran out of time.
+	 */
+	public boolean isOptimal()
+	{
+		return !timedOut;
+	}
+
+	/**
+	 * Gets the number of branches the last search expanded.
+	 *
+	 * @return the number of expansions.
+	 */
+	public long getExpansionCount()
+	{
+		return expansions;
+	}
+
+	/**
+	 * Records a clique as a candidate for the result.
+	 *
+	 * @param clique the node ids of the clique.
+	 */
+	private void report(int[] clique)
+	{
+		if (clique.length < best)
+			return;
+
+		if (clique.length > best)
+		{
+			cliques.clear();
+			best = clique.length;
+		}
+		cliques.add(clique);
+	}
+
+	/**
+	 * Compares two arrays of node ids lexicographically.
+	 *
+	 * @param a the first array.
+	 * @param b the second array.
+	 * @return a negative number, zero or a positive number as the first array
+	 *         comes before, equals or comes after the second.
+	 */
+	private static int compare(int[] a, int[] b)
+	{
+		for (int i = 0; i < Math.min(a.length, b.length); i++)
+		{
+			if (a[i] != b[i])
+				return Integer.compare(a[i], b[i]);
+		}
+		return Integer.compare(a.length, b.length);
+	}
+
+	/**
+	 * The search for the maximum cliques whose earliest node in the order is a
+	 * given node. Works on local ids, which number the later neighbours of that
+	 * node.
+	 */
+	private final class LocalSearch
+	{
+		/**
+		 * The node all cliques of the search contain.
+		 */
+		private final int root;
+
+		/**
+		 * The node id of every local id.
+		 */
+		private final int[] nodes;
+
+		/**
+		 * The number of 64 bit words of every bitset.
+		 */
+		private final int words;
+
+		/**
+		 * The local neighbours of every local id.
+		 */
+		private final long[][] neighbours;
+
+		/**
+		 * The local ids of the clique being grown, after the root.
+		 */
+		private final int[] clique;
+
+		/**
+		 * The candidates, the uncoloured and the colourable nodes of every depth,
+		 * allocated on first use.
+		 */
+		private final long[][] candidateStack;
+		private final long[][] uncolouredStack;
+		private final long[][] colourableStack;
+
+		/**
+		 * The candidates of every depth in colouring order and their colours.
+		 */
+		private final int[][] orderStack;
+		private final int[][] colourStack;
+
+		/**
+		 * Prepares the search.
+		 *
+		 * @param root  the node all cliques of the search contain.
+		 * @param later the sorted later neighbours of the root.
+		 */
+		private LocalSearch(int root, int[] later)
+		{
+			this.root = root;
+			this.nodes = later;
+			this.words = (nodes.length + 63) >>> 6;
+			this.neighbours = ordering.getLocalAdjacency(nodes);
+			this.clique = new int[nodes.length];
+
+			int depths = nodes.length + 1;
+			candidateStack = new long[depths][];
+			uncolouredStack = new long[depths][];
+			colourableStack = new long[depths][];
+			orderStack = new int[depths][];
+			colourStack = new int[depths][];
+		}
+
+		/**
+		 * Runs the search with every later neighbour of the root as candidate.
+		 */
+		private void run()
+		{
+			// a root without later neighbours is a clique on its own, which only
+			// counts while no edge has been found
+			if (nodes.length == 0)
+			{
+				reportClique(0);
+				return;
+			}
+
+			long[] candidates = bits(candidateStack, 0);
+			for (int i = 0; i < nodes.length; i++)
+				candidates[i >>> 6] |= 1L << i;
+			expand(0, candidates);
+		}
+
+		/**
+		 * Extends the clique by the candidates, highest colour first.
+		 *
+		 * @param size       the number of local ids in the clique.
+		 * @param candidates the candidates, which the call consumes.
+		 */
+		private void expand(int size, long[] candidates)
+		{
+			if (++expansions % CLOCK_INTERVAL == 0 && System.nanoTime() > deadline)
+				timedOut = true;
+			if (timedOut)
+				return;
+
+			int count = colour(size, candidates);
+			int[] order = orderStack[size];
+			int[] colours = colourStack[size];
+
+			for (int i = count - 1; i >= 0; i--)
+			{
+				// the root, the clique and one node per remaining colour
+				if (size + 1 + colours[i] < best || timedOut)
+					return;
+
+				int v = order[i];
+				clique[size] = v;
+
+				long[] adjacent = neighbours[v];
+				long[] next = bits(candidateStack, size + 1);
+				boolean empty = true;
+				for (int w = 0; w < words; w++)
+				{
+					next[w] = candidates[w] & adjacent[w];
+					empty &= next[w] == 0L;
+				}
+
+				if (empty)
+					reportClique(size + 1);
+				else
+					expand(size + 1, next);
+
+				candidates[v >>> 6] &= ~(1L << v);
+			}
+		}
+
+		/**
+		 * Colours the candidates greedily, each colour class taking every node not
+		 * adjacent to the nodes already in it. Fills the order and colours of the
+		 * depth, sorted by colour.
+		 *
+		 * @param depth      the depth.
+		 * @param candidates the candidates to colour.
+		 * @return the number of candidates.
+		 */
+		private int colour(int depth, long[] candidates)
+		{
+			long[] uncoloured = bits(uncolouredStack, depth);
+			long[] colourable = bits(colourableStack, depth);
+			System.arraycopy(candidates, 0, uncoloured, 0, words);
+
+			if (orderStack[depth] == null)
+			{
+				orderStack[depth] = new int[nodes.length];
+				colourStack[depth] = new int[nodes.length];
+			}
+			int[] order = orderStack[depth];
+			int[] colours = colourStack[depth];
+
+			int count = 0;
+			int colour = 0;
+			boolean remaining = !isEmpty(uncoloured);
+			while (remaining)
+			{
+				colour++;
+				System.arraycopy(uncoloured, 0, colourable, 0, words);
+				for (int w = 0; w < words; w++)
+				{
+					while (colourable[w] != 0L)
+					{
+						int v = (w << 6) + Long.numberOfTrailingZeros(colourable[w]);
+						colourable[w] &= colourable[w] - 1;
+						uncoloured[w] &= ~(1L << v);
+
+						// later nodes adjacent to v need another colour
+						long[] adjacent = neighbours[v];
+						for (int k = w; k < words; k++)
+							colourable[k] &= ~adjacent[k];
+
+						order[count] = v;
+						colours[count] = colour;
+						count++;
+					}
+				}
+				remaining = !isEmpty(uncoloured);
+			}
+			return count;
+		}
+
+		/**
+		 * Reports the clique of the root and the local ids grown so far.
+		 *
+		 * @param size the number of local ids in the clique.
+		 */
+		private void reportClique(int size)
+		{
+			if (size + 1 < best)
+				return;
+
+			int[] found = new int[size + 1];
+			found[0] = root;
+			for (int i = 0; i < size; i++)
+				found[i + 1] = nodes[clique[i]];
+			report(found);
+		}
+
+		/**
+		 * Gets the bitset of a depth, allocating it on first use.
+		 *
+		 * @param stack the bitsets by depth.
+		 * @param depth the depth.
+		 * @return the bitset of the depth.
+		 */
+		private long[] bits(long[][] stack, int depth)
+		{
+			if (stack[depth] == null)
+				stack[depth] = new long[words];
+			return stack[depth];
+		}
+
+		/**
+		 * Determines whether a bitset is empty.
+		 *
+		 * @param bits the bitset.
+		 * @return true if no bit is set.
+		 */
+		private boolean isEmpty(long[] bits)
+		{
+			for (long word : bits)
+			{
+				if (word != 0L)
+					return false;
+			}
+			return true;
+		}
+	}
+}
@@ -1,6 +1,8 @@
 package edu.claflin.finder.algo.clustering;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 
 import edu.claflin.finder.algo.Algorithm;
@@ -28,12 +30,33 @@ public abstract class ClusteringAlgorithm extends Algorithm
 	{	
 		ArrayList<Graph> communities = new ArrayList<>();
 
+		// the edges within every community, in a single pass over the edges
+		HashMap<Node, Integer> index = new HashMap<>();
+		List<List<Edge>> edges = new ArrayList<>(cs.size());
+		for (int c = 0; c < cs.size(); c++)
+		{
+			for (Node v : cs.get(c))
+			{
+				index.put(v, c);
+			}
+			edges.add(new ArrayList<>());
+		}
+		for (Edge e : graph.getEdgeList())
+		{
+			Integer c = index.get(e.getSource());
+			if (c != null && c.equals(index.get(e.getTarget())))
+			{
+				edges.get(c).add(e);
+			}
+		}
+
 		int count = 0;
-		for (List<Node> V : cs)
+		for (int c = 0; c < cs.size(); c++)
 		{
+			List<Node> V = cs.get(c);
 			if (!V.isEmpty())
 			{
-				List<Edge> E = graph.getEdgesBack(V);
+				List<Edge> E = edges.get(c);
 				String communityName = graph.getName() + " " + algo_name + " Community " + ++count + (weighted ? (" on attribute " + getWeightName()) : "");
 				Graph h = new Graph(communityName, V, E);
 				communities.add(h);
@@ -42,4 +65,58 @@ public abstract class ClusteringAlgorithm extends Algorithm
 
 		return communities;
 	}
+
+	/**
+	 * Colours the nodes of a graph in compressed sparse rows greedily in their
+	 * order, so that no two adjacent nodes share a colour. The nodes of one colour
+	 * may then be updated at once from the state of their neighbours.
+	 *
+	 * @param offsets the start of the neighbours of every node, one more than the
+	 *                nodes
+	 * @param targets the neighbours of every node
+	 * @return the ascending nodes of every colour
+	 */
+	protected static int[][] getColourClasses(int[] offsets, int[] targets)
+	{
+		int size = offsets.length - 1;
+		int[] colour = new int[size];
+		int[] used = new int[size + 1]; // the last node a colour was seen next to
+		Arrays.fill(used, -1);
+		int colours = 0;
+		for (int v = 0; v < size; v++)
+		{
+			for (int slot = offsets[v]; slot < offsets[v + 1]; slot++)
+			{
+				int w = targets[slot];
+				if (w < v)
+				{
+					used[colour[w]] = v;
+				}
+			}
+			int c = 0;
+			while (used[c] == v)
+			{
+				c++;
+			}
+			colour[v] = c;
+			colours = Math.max(colours, c + 1);
+		}
+
+		int[] count = new int[colours];
+		for (int v = 0; v < size; v++)
+		{
+			count[colour[v]]++;
+		}
+		int[][] classes = new int[colours][];
+		for (int c = 0; c < colours; c++)
+		{
+			classes[c] = new int[count[c]];
+			count[c] = 0;
+		}
+		for (int v = 0; v < size; v++)
+		{
+			classes[colour[v]][count[colour[v]]++] = v;
+		}
+		return classes;
+	}
 }
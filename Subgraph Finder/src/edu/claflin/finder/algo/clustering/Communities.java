@@ -6,59 +6,93 @@
 package edu.claflin.finder.algo.clustering;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.Map;
 
-import edu.claflin.finder.logic.Edge;
+import edu.claflin.finder.logic.CompactGraph;
 import edu.claflin.finder.logic.Graph;
 import edu.claflin.finder.logic.Node;
 
 /**
+ * A clustering of the Nodes of a Graph into communities keyed by integers. The
+ * community of every node is held in an array, and every community keeps its
+ * members in a linked list together with twice the weight of the edges within it
+ * and the total degree of its nodes, or their total weight if weighted. The
+ * modularity is kept up to date as communities merge and nodes move, in constant
+ * time given the weight between the communities involved.
  *
  * @author Cesar Martin
  */
 public class Communities
 {
-	private HashMap<Integer, List<Node>> list;
+	/**
+	 * The difference below which two modularities count as equal, as running
+	 * updates round differently than computing them from scratch.
+	 */
+	public static final double TOLERANCE = 1e-12;
+
 	private Graph g;
 	private boolean weighted;
 	private double m2; // number of 1s in adjacency matrix
 
+	private CompactGraph compact; // symmetric snapshot of g, shared by copies
+	private Node[] nodes; // the Node of every node id, as given
+	private double[] strength; // degree or weight of every node id
+
+	private int[] community; // community of every node id, -1 if none
+	private int[] next; // next member of the same community, -1 if last
+	private int[] previous; // previous member of the same community, -1 if first
+	private int[] first; // first member of every community, -1 if empty
+	private int[] last; // last member of every community, -1 if empty
+	private int[] size; // number of members of every community
+
+	private double[] inner; // twice the weight of the edges within every community
+	private double[] total; // total degree or weight of every community
+	private int count; // number of non-empty communities
+	private double modularity;
+
 	public Communities(List<Node> nodes, Graph g, boolean weighted)
 	{
-		this.list = new HashMap<>();
-		this.g = g;
-		this.weighted = weighted;
+		this(g, weighted, nodes.size());
 
 		Collections.sort(nodes);
 
 		for (int index = 0; index < nodes.size(); index++)
 		{
-			List<Node> emptyList = new ArrayList<>();
-			emptyList.add(nodes.get(index));
-			list.put(index, emptyList);
+			add(nodes.get(index), index);
 		}
+		computeModularity();
+	}
+	
+	public Communities(HashMap<Integer, List<Node>> list, Graph g, boolean weighted) 
+	{
+		this(g, weighted, list.keySet().stream().mapToInt(i -> i + 1).max().orElse(0));
 
-		if (weighted)
+		for (Map.Entry<Integer, List<Node>> entry : list.entrySet())
 		{
-			m2 = 2 * this.g.getGraphWeight();
-		}
-		else
-		{
-			m2 = 2 * this.g.getEdgeCount();
+			for (Node n : entry.getValue())
+			{
+				add(n, entry.getKey());
+			}
 		}
+		computeModularity();
 	}
-	
-	public Communities(HashMap<Integer, List<Node>> list, Graph g, boolean weighted) 
+
+	/**
+	 * Prepares an empty clustering.
+	 *
+	 * @param g        the Graph.
+	 * @param weighted whether to use edge weights.
+	 * @param keys     the number of community keys, 0 to keys - 1.
+	 */
+	private Communities(Graph g, boolean weighted, int keys)
 	{
-		this.list = list;
 		this.g = g;
 		this.weighted = weighted;
-		
+
 		if (weighted)
 		{
 			m2 = 2 * this.g.getGraphWeight();
@@ -67,33 +101,66 @@ public class Communities
 		{
 			m2 = 2 * this.g.getEdgeCount();
 		}
+
+		compact = new CompactGraph(g, true);
+		int n = compact.getNodeCount();
+		int capacity = Math.max(n, keys);
+
+		nodes = new Node[n];
+		strength = new double[n];
+		for (int v = 0; v < n; v++)
+		{
+			Node node = compact.getNode(v);
+			strength[v] = weighted ? node.getWeight() : node.getDegree();
+		}
+
+		community = new int[n];
+		next = new int[n];
+		previous = new int[n];
+		Arrays.fill(community, -1);
+		first = new int[capacity];
+		last = new int[capacity];
+		size = new int[capacity];
+		Arrays.fill(first, -1);
+		Arrays.fill(last, -1);
+		inner = new double[capacity];
+		total = new double[capacity];
 	}
 
-	private Communities(HashMap<Integer, List<Node>> list, Graph g, boolean weighted, double m2)
+	/**
+	 * Copies a clustering.
+	 *
+	 * @param other the Communities to copy.
+	 */
+	private Communities(Communities other)
 	{
-		this.list = list;
-		this.g = g;
-		this.weighted = weighted;
-		this.m2 = m2;
+		g = other.g;
+		weighted = other.weighted;
+		m2 = other.m2;
+		compact = other.compact;
+		nodes = other.nodes;
+		strength = other.strength;
+
+		community = other.community.clone();
+		next = other.next.clone();
+		previous = other.previous.clone();
+		first = other.first.clone();
+		last = other.last.clone();
+		size = other.size.clone();
+		inner = other.inner.clone();
+		total = other.total.clone();
+		count = other.count;
+		modularity = other.modularity;
 	}
 
 	public Communities copy()
 	{
-		HashMap<Integer, List<Node>> l = new HashMap<>();
-
-		for (Integer i : this.list.keySet())
-		{
-			List<Node> c = this.list.get(i);
-			List<Node> nl = new ArrayList<>(c);
-			l.put(i, nl);
-		}
-
-		return new Communities(l, g, weighted, m2);
+		return new Communities(this);
 	}
 
 	public int size()
 	{
-		return list.size();
+		return count;
 	}
 
 	public boolean isWeighted()
@@ -106,26 +173,62 @@ public class Communities
 		return m2;
 	}
 
+	/**
+	 * Gets the members of a community.
+	 *
+	 * @param key the community key
+	 * @return a new List of the members in the order they joined, null if the
+	 *         community is empty
+	 */
 	public List<Node> get(Integer key)
 	{
-		return list.get(key);
+		if (!containsKey(key))
+		{
+			return null;
+		}
+
+		List<Node> members = new ArrayList<>(size[key]);
+		for (int v = first[key]; v >= 0; v = next[v])
+		{
+			members.add(nodes[v]);
+		}
+		return members;
+	}
+
+	/**
+	 * Gets the number of members of a community.
+	 *
+	 * @param key the community key
+	 * @return the number of members, 0 if the community is empty
+	 */
+	public int getSize(int key)
+	{
+		return key >= 0 && key < size.length ? size[key] : 0;
 	}
 
 	public List<Integer> keys()
 	{
-		return new ArrayList<>(list.keySet());
+		List<Integer> keys = new ArrayList<>(count);
+		for (int key = 0; key < size.length; key++)
+		{
+			if (size[key] > 0)
+			{
+				keys.add(key);
+			}
+		}
+		return keys;
 	}
 
 	public boolean containsKey(Integer key)
 	{
-		return list.containsKey(key);
+		return key != null && getSize(key) > 0;
 	}
 
 	public List<List<Node>> getList()
 	{
 		List<List<Node>> copy = new ArrayList<>();
 
-		for (Integer i : list.keySet())
+		for (Integer i : keys())
 		{
 			copy.add(this.get(i));
 		}
@@ -134,15 +237,8 @@ public class Communities
 
 	public int indexOfNode(Node n)
 	{
-		for (Integer i : this.list.keySet())
-		{
-			List<Node> community = this.get(i);
-			if (community.contains(n))
-			{
-				return i;
-			}
-		}
-		return -1;
+		int v = compact.getId(n);
+		return v < 0 ? -1 : community[v];
 	}
 
 	/**
@@ -155,99 +251,148 @@ public class Communities
 	 */
 	public int NodesInSameCommunity(Node n1, Node n2)
 	{
-		for (Integer i : this.list.keySet())
+		int c = indexOfNode(n1);
+		return c >= 0 && c == indexOfNode(n2) ? 1 : 0;
+	}
+
+	/**
+	 * Determine if an edge joins two different communities.
+	 *
+	 * @param i the key of community 1
+	 * @param j the key of community 2
+	 * @return true if the communities are different and adjacent
+	 */
+	public boolean connectedCommunities(int i, int j)
+	{
+		if (i == j || !containsKey(i) || !containsKey(j))
+		{
+			return false;
+		}
+
+		// scan the smaller community
+		int from = size[i] <= size[j] ? i : j;
+		int to = from == i ? j : i;
+		for (int v = first[from]; v >= 0; v = next[v])
 		{
-			List<Node> community = this.get(i);
-			if (community.contains(n1) && community.contains(n2))
+			for (int slot = compact.getNeighborStart(v); slot < compact.getNeighborEnd(v); slot++)
 			{
-				return 1;
+				if (community[compact.getTarget(slot)] == to)
+				{
+					return true;
+				}
 			}
 		}
-
-		return 0;
+		return false;
 	}
 
-	public boolean connectedCommunities(List<Node> c1, List<Node> c2)
+	/**
+	 * Gets the communities adjacent to a community.
+	 *
+	 * @param key the community key
+	 * @return the ascending keys of the other communities an edge leads to
+	 */
+	public int[] getAdjacentCommunities(int key)
 	{
-		HashSet<Node> adjacent1 = new HashSet<>(); // stores all Nodes that can be reached from c1
+		if (!containsKey(key))
+		{
+			return new int[0];
+		}
 
-		for (Node n : c1)
+		// sort the communities of all neighbours and drop the repeated ones
+		int slots = 0;
+		for (int v = first[key]; v >= 0; v = next[v])
 		{
-			adjacent1.addAll(n.getNeighbors());
+			slots += compact.getNeighborEnd(v) - compact.getNeighborStart(v);
 		}
+		int[] found = new int[slots];
+		int length = 0;
+		for (int v = first[key]; v >= 0; v = next[v])
+		{
+			for (int slot = compact.getNeighborStart(v); slot < compact.getNeighborEnd(v); slot++)
+			{
+				int c = community[compact.getTarget(slot)];
+				if (c >= 0 && c != key)
+				{
+					found[length++] = c;
+				}
+			}
+		}
+		Arrays.sort(found, 0, length);
 
-		// remove destinations of c1 that are not members of c2
-		adjacent1.retainAll(c2);
-		
-		return !adjacent1.isEmpty(); // any destinations of c1 were members of c2?
+		int distinct = 0;
+		for (int k = 0; k < length; k++)
+		{
+			if (distinct == 0 || found[k] != found[distinct - 1])
+			{
+				found[distinct++] = found[k];
+			}
+		}
+		return Arrays.copyOf(found, distinct);
 	}
 
-	public double a(List<Node> c)
+	/**
+	 * The total degree of a community over the number of 1s in the adjacency
+	 * matrix.
+	 *
+	 * @param c the community key
+	 * @return the fraction of edge ends in the community
+	 */
+	public double a(int c)
 	{
 		if (m2 <= 0) 
 		{
 			return Double.NEGATIVE_INFINITY;
 		}
-		
-		double sum = 0.0;
 
-		for (Node v : c)
-		{
-			sum += weighted ? v.getWeight() : v.getDegree();
-		}
-
-		return sum / m2;
+		return total[c] / m2;
 	}
 
-	public double e(List<Node> c1, List<Node> c2)
+	/**
+	 * The weight of the edges between two communities over the number of 1s in the
+	 * adjacency matrix, counting edges within a community twice.
+	 *
+	 * @param c1 the key of community 1
+	 * @param c2 the key of community 2
+	 * @return the fraction of edge ends between the communities
+	 */
+	public double e(int c1, int c2)
 	{
 		if (m2 <= 0) 
 		{
 			return Double.NEGATIVE_INFINITY;
 		}
-		
-		double sum = 0.0;
 
-		Set<Edge> edge_collection = new HashSet<>();
-		c1.stream().forEach(n ->
-		{
-			edge_collection.addAll(n.getEdges());
-		});
-		c2.stream().forEach(n ->
-		{
-			edge_collection.addAll(n.getEdges());
-		});
-		Set<Edge> edges = edge_collection.stream().filter(e ->
-		{
-			Node source = e.getSource();
-			Node target = e.getTarget();
+		return (c1 == c2 ? inner[c1] : crossWeight(c1, c2)) / m2;
+	}
 
-			return (c1.contains(source) && c2.contains(target)) || (c1.contains(target) && c2.contains(source));
-		}).collect(Collectors.toSet());		
-		
-		for (Edge e : edges)
+	public double modularity()
+	{
+		if (m2 <= 0)
 		{
-			// count twice when the communities are the same
-			sum += (weighted ? e.getData() : 1) * (c1 == c2 ? 2 : 1);
+			return count > 0 ? Double.NEGATIVE_INFINITY : 0.0;
 		}
 
-		return sum / m2;
+		return modularity;
 	}
 
-	public double modularity()
+	/**
+	 * Computes the modularity the clustering would have after merging two
+	 * communities, without merging them.
+	 *
+	 * @param j the community that would store the result
+	 * @param i the community that would offer its Nodes
+	 * @return the modularity after the merge
+	 */
+	public double getMergedModularity(int j, int i)
 	{
-		double sum = 0.0;
-
-		for (Integer i : this.list.keySet())
+		if (m2 <= 0 || i == j || !containsKey(i) || !containsKey(j))
 		{
-			List<Node> community = list.get(i);
-			if (!community.isEmpty())
-			{
-				sum += e(community, community) - Math.pow(a(community), 2);
-			}
+			return modularity();
 		}
 
-		return sum;
+		double merged = inner[j] + inner[i] + 2 * crossWeight(j, i);
+		return modularity - share(inner[i], total[i]) - share(inner[j], total[j])
+				+ share(merged, total[j] + total[i]);
 	}
 
 	/**
@@ -258,12 +403,94 @@ public class Communities
 	 */
 	public void mergeCommunities(int j, int i)
 	{
-		if (this.list.containsKey(j) && this.list.containsKey(i))
+		if (i == j || !containsKey(i) || !containsKey(j))
+		{
+			return;
+		}
+
+		// the same arithmetic as getMergedModularity
+		double merged = inner[j] + inner[i] + 2 * crossWeight(j, i);
+		modularity = modularity - share(inner[i], total[i]) - share(inner[j], total[j])
+				+ share(merged, total[j] + total[i]);
+		inner[j] = merged;
+		total[j] += total[i];
+
+		for (int v = first[i]; v >= 0; v = next[v])
+		{
+			community[v] = j;
+		}
+		next[last[j]] = first[i];
+		previous[first[i]] = last[j];
+		last[j] = last[i];
+		size[j] += size[i];
+
+		first[i] = -1;
+		last[i] = -1;
+		size[i] = 0;
+		inner[i] = 0;
+		total[i] = 0;
+		count--;
+	}
+
+	/**
+	 * Move a Node into another community, which may be empty.
+	 *
+	 * @param n   the Node to move
+	 * @param key the key of the community to move it to
+	 */
+	public void moveNode(Node n, int key)
+	{
+		int v = compact.getId(n);
+		if (v < 0 || community[v] < 0)
 		{
-			this.list.get(j).addAll(this.list.get(i));
-			this.list.remove(i);
+			throw new IllegalArgumentException("The Node is not clustered: " + n);
+		}
+		if (key < 0 || key >= size.length)
+		{
+			throw new IllegalArgumentException("The community key is out of range: " + key);
+		}
+
+		int from = community[v];
+		if (from == key)
+		{
+			return;
+		}
+
+		// the weight of the node's edges to either community, self loops on their own
+		double toFrom = 0;
+		double toKey = 0;
+		double loops = 0;
+		for (int slot = compact.getNeighborStart(v); slot < compact.getNeighborEnd(v); slot++)
+		{
+			int w = compact.getTarget(slot);
+			double weight = weighted ? compact.getWeight(slot) : 1;
+			if (w == v)
+			{
+				loops += weight;
+			}
+			else if (community[w] == from)
+			{
+				toFrom += weight;
+			}
+			else if (community[w] == key)
+			{
+				toKey += weight;
+			}
 		}
 
+		modularity -= share(inner[from], total[from]) + share(inner[key], total[key]);
+		inner[from] -= 2 * (toFrom + loops);
+		total[from] -= strength[v];
+		inner[key] += 2 * (toKey + loops);
+		total[key] += strength[v];
+		modularity += share(inner[from], total[from]) + share(inner[key], total[key]);
+
+		unlink(v);
+		if (size[from] == 0)
+		{
+			count--;
+		}
+		link(v, key);
 	}
 
 	public String toStringSorted()
@@ -272,10 +499,11 @@ public class Communities
 
 		List<String> coms = new ArrayList<>();
 
-		for (Integer i : list.keySet())
+		for (Integer i : keys())
 		{
-			Collections.sort(list.get(i));
-			coms.add(list.get(i).toString());
+			List<Node> community = get(i);
+			Collections.sort(community);
+			coms.add(community.toString());
 		}
 
 		Collections.sort(coms);
@@ -293,16 +521,152 @@ public class Communities
 	{
 		String result = "";
 
-		for (Integer i : this.list.keySet())
+		for (Integer i : keys())
 		{
-			List<Node> community = new ArrayList<>(this.get(i));
+			List<Node> community = get(i);
 			Collections.sort(community);
-			if (!community.isEmpty())
+			result += i + ": " + community + "\n";
+		}
+		return result + "Modularity: " + this.modularity();
+	}
+
+	/**
+	 * Adds a Node to a community while building the clustering.
+	 *
+	 * @param n   the Node
+	 * @param key the community key
+	 */
+	private void add(Node n, int key)
+	{
+		int v = compact.getId(n);
+		if (v < 0)
+		{
+			throw new IllegalArgumentException("The Node is not in the Graph: " + n);
+		}
+		if (community[v] >= 0)
+		{
+			throw new IllegalArgumentException("The Node is in two communities: " + n);
+		}
+
+		nodes[v] = n;
+		link(v, key);
+		total[key] += strength[v];
+	}
+
+	/**
+	 * Computes the weight within every community and the modularity from
+	 * scratch.
+	 */
+	private void computeModularity()
+	{
+		for (int e = 0; e < compact.getEdgeCount(); e++)
+		{
+			int c = community[compact.getEdgeSource(e)];
+			if (c >= 0 && c == community[compact.getEdgeTarget(e)])
 			{
-				result += i + ": " + community + "\n";
+				// count twice as every edge is in the matrix twice
+				inner[c] += (weighted ? compact.getEdge(e).getData() : 1) * 2;
 			}
 		}
-		return result + "Modularity: " + this.modularity();
+
+		modularity = 0.0;
+		for (int c = 0; c < size.length; c++)
+		{
+			if (size[c] > 0)
+			{
+				modularity += share(inner[c], total[c]);
+			}
+		}
+	}
+
+	/**
+	 * The share of a community in the modularity, for a positive m2.
+	 *
+	 * @param in  twice the weight within the community
+	 * @param tot the total degree or weight of the community
+	 * @return e(c, c) - a(c)^2 of the community
+	 */
+	private double share(double in, double tot)
+	{
+		return in / m2 - Math.pow(tot / m2, 2);
 	}
 
+	/**
+	 * The weight of the edges between two different communities.
+	 *
+	 * @param i the key of community 1
+	 * @param j the key of community 2
+	 * @return the total weight of the edges between them
+	 */
+	private double crossWeight(int i, int j)
+	{
+		// scan the smaller community
+		int from = size[i] <= size[j] ? i : j;
+		int to = from == i ? j : i;
+
+		double weight = 0.0;
+		for (int v = first[from]; v >= 0; v = next[v])
+		{
+			for (int slot = compact.getNeighborStart(v); slot < compact.getNeighborEnd(v); slot++)
+			{
+				if (community[compact.getTarget(slot)] == to)
+				{
+					weight += weighted ? compact.getWeight(slot) : 1;
+				}
+			}
+		}
+		return weight;
+	}
+
+	/**
+	 * Appends a node to the members of a community.
+	 *
+	 * @param v   the node id
+	 * @param key the community key
+	 */
+	private void link(int v, int key)
+	{
+		if (size[key] == 0)
+		{
+			count++;
+			first[key] = v;
+		}
+		else
+		{
+			next[last[key]] = v;
+		}
+		previous[v] = last[key];
+		next[v] = -1;
+		last[key] = v;
+		size[key]++;
+		community[v] = key;
+	}
+
+	/**
+	 * Removes a node from the members of its community.
+	 *
+	 * @param v the node id
+	 */
+	private void unlink(int v)
+	{
+		int key = community[v];
+		if (previous[v] >= 0)
+		{
+			next[previous[v]] = next[v];
+		}
+		else
+		{
+			first[key] = next[v];
+		}
+		if (next[v] >= 0)
+		{
+			previous[next[v]] = previous[v];
+		}
+		else
+		{
+			last[key] = previous[v];
+		}
+		size[key]--;
+		community[v] = -1;
+	}
 }
@@ -8,23 +8,33 @@ package edu.claflin.finder.algo.clustering;
 import static edu.claflin.finder.Global.getLogger;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 
 import edu.claflin.finder.algo.ArgumentsBundle;
-import edu.claflin.finder.algo.clustering.struct.fast_greedy_struct.HeapNodeFG;
-import edu.claflin.finder.algo.clustering.struct.fast_greedy_struct.IndexedHeapNode;
 import edu.claflin.finder.algo.clustering.struct.fast_greedy_struct.IndexedHeapQueue;
 import edu.claflin.finder.algo.clustering.struct.fast_greedy_struct.SparseMatrix;
-import edu.claflin.finder.algo.clustering.struct.fast_greedy_struct.VectorValue;
 import edu.claflin.finder.log.LogLevel;
-import edu.claflin.finder.logic.Edge;
+import edu.claflin.finder.logic.CompactGraph;
 import edu.claflin.finder.logic.Graph;
 import edu.claflin.finder.logic.Node;
 
 /**
  * FastGreedy Algorithm for Community Detection. Based on python's igraph library.
+ * <p>
+ * Every community keeps a sparse row of the modularity change dQ of merging it
+ * with each adjacent community, and a heap indexed by community holds the
+ * largest dQ of every row. A merge only updates the rows of the communities
+ * adjacent to the two merged, raising or lowering their keys in the heap, and is
+ * written to a log that is replayed once at the end to build the communities.
+ * <p>
+ * The rows are sorted arrays rather than the balanced trees with heaps of their
+ * own of Clauset, Newman and Moore, so the O(m d log n) time of the paper is not
+ * reached. A merge takes time linear in the two merged rows, and for every
+ * adjacent community linear in its row, to move the column and find its largest
+ * dQ again when that drops, plus O(log n) for its key in the heap. Rows stay
+ * short on sparse networks, but in the worst case the merges take O(m n) time.
  * 
  * @see <a href="https://ece-research.unm.edu/ifis/papers/community-moore.pdf">Original Paper</a> 
  * @see <a href="https://www.uvm.edu/pdodds/files/papers/others/2004/newman2004d.pdf">For Weighted Networks</a>  
@@ -74,62 +84,74 @@ public class FastGreedy extends ClusteringAlgorithm
 		}
 
 		List<Node> nList = graph.getNodeList();
-		List<Edge> eList = graph.getEdgeList(); // original edges
-
 		Collections.sort(nList);
+		int n = nList.size();
 
-		Communities cms = new Communities(nList, graph, isWeighted());
-		double m2 = cms.getM2(); // size of adjacency matrix (not sparse matrix)
+		// communities are keyed by the index of their first Node in nList
+		CompactGraph compact = new CompactGraph(graph, true);
+		int[] index = new int[n];
+		for (int i = 0; i < n; i++)
+		{
+			index[compact.getId(nList.get(i))] = i;
+		}
 
-		SparseMatrix matrix = new SparseMatrix(nList.size()); // matrix with rows as trees and maxheaps
-		IndexedHeapQueue H = new IndexedHeapQueue(); // maxheap that stores maximums of the row maxheaps
-		HashMap<Integer, VectorValue> ai = new HashMap<>(); // vector that stores the communities a' values
+		double m2 = isWeighted() ? 2 * graph.getGraphWeight() : 2 * graph.getEdgeCount(); // number of 1s in adjacency matrix
 
-		// intialize matrix delta Qij
-		for (Edge e : eList)
+		double[] a = new double[n]; // share of every community in the ends of the edges
+		for (int i = 0; i < n; i++)
 		{
-			Node n1 = e.getSource();
-			Node n2 = e.getTarget();
-
-			int i = cms.indexOfNode(n1);
-			int j = cms.indexOfNode(n2);
-			List<Node> c1 = cms.get(i);
-			List<Node> c2 = cms.get(j);
-			
-			Node ns1 = c1.get(0);
-			Node ns2 = c2.get(0);
-			
-			double deg1 = isWeighted() ? ns1.getWeight() : ns1.getDegree();
-			double deg2 = isWeighted() ? ns2.getWeight() : ns2.getDegree();
-			
-			double value = cms.e(c1, c2) - deg1 * deg2 / (Math.pow(m2, 2));
-
-			matrix.add(i, j, value);
-			matrix.add(j, i, value);
+			Node node = nList.get(i);
+			a[i] = (isWeighted() ? node.getWeight() : node.getDegree()) / m2;
 		}
 
-		// fill the MaxHeap (reversed Priority Queue) with the largest element of each
-		// row of the matrix
-		for (Integer row : cms.keys())
+		SparseMatrix matrix = new SparseMatrix(n); // matrix delta Qij of adjacent communities
+		IndexedHeapQueue H = new IndexedHeapQueue(n); // maxheap that stores maximums of the rows
+
+		// intialize matrix delta Qij = 2 (eij - ai aj)
+		double[] weights = new double[n];
+		int[] near = new int[n];
+		int[] seen = new int[n];
+		Arrays.fill(seen, -1);
+		for (int i = 0; i < n && m2 > 0; i++)
 		{
-			if (matrix.getMax(row) != null)
+			int v = compact.getId(nList.get(i));
+			int count = 0;
+			for (int slot = compact.getNeighborStart(v); slot < compact.getNeighborEnd(v); slot++)
 			{
-				HeapNodeFG h = matrix.getMax(row);
-				H.add(row, h.getJ(), h.getQ());
+				int j = index[compact.getTarget(slot)];
+				if (j == i)
+				{
+					continue;
+				}
+				if (seen[j] != i)
+				{
+					seen[j] = i;
+					near[count++] = j;
+				}
+				weights[j] += isWeighted() ? compact.getWeight(slot) : 1;
 			}
 
-		}
+			int[] columns = Arrays.copyOf(near, count);
+			Arrays.sort(columns);
+			double[] values = new double[count];
+			for (int k = 0; k < count; k++)
+			{
+				int j = columns[k];
+				values[k] = 2 * (weights[j] / m2 - a[i] * a[j]);
+				weights[j] = 0;
+			}
+			matrix.setRow(i, columns, values, count);
 
-		// initialize vector ai with a values of the 1 Node communities
-		for (Integer i : cms.keys())
-		{
-			List<Node> cns = cms.get(i);
-			ai.put(i, new VectorValue(cns, cms.a(cns)));
+			if (count > 0)
+			{
+				H.set(i, matrix.getMax(i));
+			}
 		}
 
-		// stop when modularity first decreases, need old communities to compare
-		Communities oldcs = cms.copy();
-		boolean compare = true; // ignore modularity comparison in the first iteration
+		// merge log, community from[k] joining community into[k]
+		int[] from = new int[n];
+		int[] into = new int[n];
+		int merges = 0;
 
 		if (getLogger() != null)
 		{
@@ -137,124 +159,161 @@ public class FastGreedy extends ClusteringAlgorithm
 		}
 
 		setProgress(0D);
-		// while don't end up with 1 community and queue not empty (more merges to do)
-		// and modularity does not decrease
-		while (cms.size() > 1 && !H.isEmpty() && (compare || (oldcs.modularity() < cms.modularity())))
+		// while the queue is not empty (more merges to do) and modularity increases
+		while (!H.isEmpty())
 		{
-			compare = false; // no longer first iteration
-			oldcs = cms.copy(); // store old communities for the next comparison
+			int i = H.peek(); // community to "delete"
+			int j = matrix.getMaxColumn(i); // community that absorbs the "deleted" one
+			double q = matrix.getMax(i);
 
-			IndexedHeapNode max = H.poll(); // get max delta Q
-			int i = max.getI();
-			int j = max.getJ();
-			//double q = max.getQ();
-
-			// check the Heapn Node is not bogus
-			if (!cms.keys().contains(i) || !cms.keys().contains(j))
+			// keep the communities if the merge would decrease the modularity
+			if (q < -Communities.TOLERANCE)
 			{
-				compare = true;
-				continue;
+				break;
 			}
 
-			List<Node> ci = cms.get(i); // community to "delete"
-			List<Node> cj = cms.get(j); // community that absorbs the "deleted" one
+			merge(matrix, H, a, j, i);
+			from[merges] = i;
+			into[merges++] = j;
+			setProgress(1D * merges / n);
 
-			// "delete" column i (to be deleted) from row j by making it -1
-			Double ji = matrix.get(j, i);
-			if (ji != null) // delete column i in row j
+			// stop when modularity first stops increasing
+			if (q <= Communities.TOLERANCE)
 			{
-				matrix.set(j, i, -1);
+				break;
 			}
+		}
 
-			// merge trees of j and i into j (Qjk = Qik + Qjk)
-			matrix.mergeTrees(j, i);
+		String algo_name = "FastGreedy";
+		ArrayList<Graph> communities = this.buildCommunityGraphs(replay(nList, from, into, merges), graph, algo_name);
 
-			// updates trees of j to reflect its increased size
-			for (Integer k : cms.keys())
-			{
-				List<Node> c = cms.get(k);
+		if (getLogger() != null)
+		{
+			getLogger().logAlgo(LogLevel.NORMAL,
+					"FastGreedy: Finished Searching. Found: " + communities.size() + " Communities");
+		}
 
-				if (k != i && k != j && !c.isEmpty())
-				{
-					if (cms.connectedCommunities(c, ci) && !cms.connectedCommunities(c, cj))
-					{
-						matrix.setTree(j, k, matrix.get(i, k) - 2 * ai.get(j).getA() * ai.get(k).getA());
-					}
-					else if (!cms.connectedCommunities(c, ci) && cms.connectedCommunities(c, cj))
-					{
-						matrix.setTree(j, k, matrix.get(j, k) - 2 * ai.get(i).getA() * ai.get(k).getA());
-					}
-				}
-			}
+		return cull(communities);
+	}
 
-			// update trees of remaining communities k
-			for (Integer k : cms.keys())
+	/**
+	 * Merges community i into community j. The rows of i and j are merged in
+	 * column order, and only the communities adjacent to either have their rows
+	 * and their keys in the heap updated.
+	 *
+	 * @param matrix the matrix delta Qij
+	 * @param H      the maxheap of the maximums of the rows
+	 * @param a      the a values of the communities
+	 * @param j      the community that absorbs the other
+	 * @param i      the community to "delete"
+	 */
+	private static void merge(SparseMatrix matrix, IndexedHeapQueue H, double[] a, int j, int i)
+	{
+		int sizeI = matrix.size(i);
+		int sizeJ = matrix.size(j);
+		int[] columns = new int[sizeI + sizeJ];
+		double[] values = new double[sizeI + sizeJ];
+		int count = 0;
+
+		int x = 0;
+		int y = 0;
+		while (x < sizeI || y < sizeJ)
+		{
+			int ki = x < sizeI ? matrix.getColumn(i, x) : Integer.MAX_VALUE;
+			int kj = y < sizeJ ? matrix.getColumn(j, y) : Integer.MAX_VALUE;
+			int k = Math.min(ki, kj);
+			double q;
+			if (ki == kj) // Qjk = Qik + Qjk
 			{
-				if (k != i && k != j && !cms.get(k).isEmpty())
-				{
-					Double jk = matrix.get(j, k);
-					if (jk != null) // make kj into jk
-					{
-						matrix.set(k, j, jk);
-					}
-
-					// delete column i (to be deleted) of k by making it -1
-					Double ki = matrix.get(k, i);
-					if (ki != null)
-					{
-						matrix.set(k, i, -1);
-					}
-				}
+				q = matrix.getValue(i, x++) + matrix.getValue(j, y++);
 			}
-
-			matrix.rebuildHeap(j); // rebuild j's heap from its tree
-
-			H.set(j, matrix.getMax(j)); // update max of row j in H
-
-			// update max values of ks in H
-			for (Integer k : cms.keys())
+			else if (ki < kj) // k adjacent to i only
 			{
-				List<Node> c = cms.get(k);
-
-				if (k != i && k != j && !c.isEmpty())
-				{
-					if ((cms.connectedCommunities(c, ci) || cms.connectedCommunities(c, cj)))
-					{
-						H.set(k, matrix.getMax(k));
-					}
-				}
+				q = matrix.getValue(i, x++) - 2 * a[j] * a[k];
+			}
+			else // k adjacent to j only
+			{
+				q = matrix.getValue(j, y++) - 2 * a[i] * a[k];
 			}
 
-			ai.get(j).setA(ai.get(j).getA() + ai.get(i).getA()); // aj = aj + ai
-			ai.remove(i);
-
-			matrix.clearRow(i); // clear row i (does not actually change the matrix dimensions)
+			if (k != i && k != j)
+			{
+				columns[count] = k;
+				values[count++] = q;
+			}
+		}
 
-			cms.mergeCommunities(j, i); // merge communities j and i into j
-			setProgress(1D * (((double)graph.getNodeCount() - cms.size()) / graph.getNodeCount()));
-		}		
+		matrix.clearRow(i);
+		H.remove(i);
+		matrix.setRow(j, columns, values, count);
+		if (count > 0)
+		{
+			H.set(j, matrix.getMax(j));
+		}
+		else
+		{
+			H.remove(j);
+		}
 
-		ArrayList<Graph> communities;
+		// column i of the other rows becomes column j
+		for (int c = 0; c < count; c++)
+		{
+			int k = columns[c];
+			matrix.remove(k, i);
+			matrix.set(k, j, values[c]);
+			H.set(k, matrix.getMax(k));
+		}
 
-		String algo_name = "FastGreedy";
+		a[j] += a[i]; // aj = aj + ai
+		a[i] = 0;
+	}
 
-		if (oldcs.modularity() > cms.modularity())
+	/**
+	 * Replays the merge log on the singleton communities.
+	 *
+	 * @param nList  the sorted Nodes, one community each
+	 * @param from   the communities merged into another, in order
+	 * @param into   the communities they were merged into
+	 * @param merges the number of merges
+	 * @return the non-empty communities in key order
+	 */
+	private static List<List<Node>> replay(List<Node> nList, int[] from, int[] into, int merges)
+	{
+		int n = nList.size();
+		int[] first = new int[n];
+		int[] last = new int[n];
+		int[] next = new int[n];
+		for (int i = 0; i < n; i++)
 		{
-			communities = this.buildCommunityGraphs(oldcs.getList(), graph, algo_name);
+			first[i] = i;
+			last[i] = i;
+			next[i] = -1;
 		}
 
-		else
+		// append the members of every merged community to the absorbing one
+		for (int k = 0; k < merges; k++)
 		{
-			communities = this.buildCommunityGraphs(cms.getList(), graph, algo_name);
+			int i = from[k];
+			int j = into[k];
+			next[last[j]] = first[i];
+			last[j] = last[i];
+			first[i] = -1;
 		}
 
-		if (getLogger() != null)
+		List<List<Node>> result = new ArrayList<>();
+		for (int j = 0; j < n; j++)
 		{
-			getLogger().logAlgo(LogLevel.NORMAL,
-					"FastGreedy: Finished Searching. Found: " + communities.size() + " Communities");
+			if (first[j] >= 0)
+			{
+				List<Node> community = new ArrayList<>();
+				for (int v = first[j]; v >= 0; v = next[v])
+				{
+					community.add(nList.get(v));
+				}
+				result.add(community);
+			}
 		}
-
-		return cull(communities);
+		return result;
 	}
 
 }
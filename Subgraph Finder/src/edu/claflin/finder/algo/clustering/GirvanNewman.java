@@ -6,20 +6,36 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Random;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 import edu.claflin.finder.algo.ArgumentsBundle;
-import edu.claflin.finder.algo.clustering.struct.girvan_newman_struct.BetweennessCentrality;
+import edu.claflin.finder.algo.clustering.struct.girvan_newman_struct.BrandesBetweenness;
+import edu.claflin.finder.algo.clustering.struct.girvan_newman_struct.DecrementalComponents;
 import edu.claflin.finder.algo.clustering.struct.girvan_newman_struct.WeakComponentClusterer;
 import edu.claflin.finder.log.LogLevel;
-import edu.claflin.finder.logic.Edge;
+import edu.claflin.finder.logic.CompactGraph;
 import edu.claflin.finder.logic.Graph;
 import edu.claflin.finder.logic.Node;
+import edu.claflin.finder.struct.IndexedMinHeap;
 
 /**
  * Girvan-Newman Algorithm for Community Detection. Based on python's igraph
  * library and JUNG's graph library.
+ * <p>
+ * After an edge is removed only the betweenness of its component is
+ * recomputed, and only its edges are requeued in the heap that yields the next
+ * edge to remove. The components are split as they fall apart and the modularity
+ * is updated as the nodes split off move to a community of their own. The optional
+ * "early_stop" integer argument ends the search once the modularity has
+ * declined over that many consecutive splits.
+ * <p>
+ * For large networks the optional "sample_size" integer argument estimates the
+ * betweenness of every component from at most that many randomly sampled pivot
+ * sources instead of all of its nodes, see
+ * {@link BrandesBetweenness#estimate(int, int[], int, Random)}. The "seed"
+ * integer argument makes the sampling reproducible.
  * 
  * @see <a href="https://en.wikipedia.org/wiki/Girvan%E2%80%93Newman_algorithm">Wikipedia Summary</a>
  * @see <a href="https://www.pnas.org/content/99/12/7821">Original Paper</a>
@@ -96,57 +112,127 @@ public class GirvanNewman extends ClusteringAlgorithm
 //			NodeStats cst = communitiesStats.get(index);
 //			graphToCommunitiesStats.put(gst, cst);
 
-		Communities maxCommunities = null;
+		Integer earlyStop = args.getInteger("early_stop");
+		if (earlyStop != null && earlyStop < 0)
+			throw new IllegalArgumentException("The number of declining splits to stop after must not be negative: " + earlyStop);
+
+		Integer samples = args.getInteger("sample_size");
+		if (samples != null && samples < 1)
+			throw new IllegalArgumentException("The sample size must be positive: " + samples);
+		Integer seed = args.getInteger("seed");
+		Random random = seed == null ? new Random() : new Random(seed);
+
+		// the snapshot is taken once, removed edges are masked out of it
+		CompactGraph compact = new CompactGraph(algoGraph, true);
+		BrandesBetweenness betweenness = new BrandesBetweenness(compact, isWeighted());
+		DecrementalComponents components = new DecrementalComponents(compact);
+		int threads = getThreadCount();
+
+		// the remaining edges keyed by their negated betweenness, ties to the first
+		IndexedMinHeap highest = new IndexedMinHeap(compact.getEdgeCount());
+
+		// the components as communities, keyed by component id
+		HashMap<Integer, List<Node>> initial = new HashMap<>();
+		for (int c = 0; c < components.getComponentCount(); c++)
+			initial.put(c, compact.getNodes(components.getMembers(c)));
+		Communities tracked = new Communities(initial, algoGraph, isWeighted());
+
+		int[] removals = new int[compact.getEdgeCount()];
+		int removed = 0;
+		int bestRemoved = -1;
 		double maxModularity = Double.NEGATIVE_INFINITY;
-		int clusterCount = -1;
+		double lastModularity = Double.NEGATIVE_INFINITY;
+		int declines = 0;
 
-		setProgress(0D);
-		while (algoGraph.getEdgeCount() > 0)
+		try
 		{
-			BetweennessCentrality bc = new BetweennessCentrality(algoGraph, isWeighted());
-
-			Edge to_remove = null;
-			double score = 0;
-			for (Edge e : algoGraph.getEdgeList())
+			setProgress(0D);
+			if (samples == null)
 			{
-				if (bc.getEdgeScore(e) > score)
-				{
-					to_remove = e;
-					score = bc.getEdgeScore(e);
-				}
+				betweenness.compute(threads);
+			}
+			else
+			{
+				for (int c = 0; c < components.getComponentCount(); c++)
+					betweenness.estimate(threads, components.getMembers(c), samples, random);
 			}
+			for (int e = 0; e < compact.getEdgeCount(); e++)
+				highest.set(e, -betweenness.getEdgeScore(e));
+			while (removed < compact.getEdgeCount())
+			{
+				// the first edge of highest betweenness, or the first remaining one
+				int toRemove = highest.poll();
 
-			algoGraph.removeEdge(to_remove);
+				// only the component of the edge changes its shortest paths
+				int component = components.getComponent(compact.getEdgeSource(toRemove));
+				int[] affected = components.getMembers(component);
+				betweenness.removeEdge(toRemove);
+				int split = components.removeEdge(toRemove);
+				removals[removed++] = toRemove;
+				if (samples == null)
+					betweenness.compute(threads, affected);
+				else
+					betweenness.estimate(threads, affected, samples, random);
+				rescore(compact, betweenness, affected, highest);
 
-			WeakComponentClusterer wcSearch = new WeakComponentClusterer();
-			Set<Set<Node>> clusterSet = wcSearch.apply(algoGraph.getNodeList());
+				if (split >= 0 || removed == 1)
+				{
+					if (split >= 0)
+					{
+						for (int v : components.getMembers(split))
+							tracked.moveNode(compact.getNode(v), split);
+					}
 
-			if (clusterSet.size() != clusterCount)
-			{
-				HashMap<Integer, List<Node>> map = new HashMap<>();
+					double modularity = tracked.modularity();
 
-				int index = 0;
-				for (Set<Node> cNodesAlgo : clusterSet)
-				{
-					Set<Node> cNodesCom = cNodesAlgo.stream().map(nAlgo -> communityGraph.getNode(nAlgo.getIdentifier()))
-							.collect(Collectors.toSet());
-					map.put(index, new ArrayList<Node>(cNodesCom));
-					index++;
+					if (modularity > maxModularity + Communities.TOLERANCE)
+					{
+						maxModularity = modularity;
+						bestRemoved = removed;
+					}
+
+					declines = modularity < lastModularity ? declines + 1 : 0;
+					lastModularity = modularity;
+					if (earlyStop != null && earlyStop > 0 && declines >= earlyStop)
+					{
+						if (getLogger() != null)
+						{
+							getLogger().logAlgo(LogLevel.NORMAL, "EdgeBetweenness: Modularity declined for " + declines
+									+ " splits. Stopping after " + removed + " of " + compact.getEdgeCount() + " edges.");
+						}
+						break;
+					}
 				}
 
-				Communities cms = new Communities(map, communityGraph, isWeighted());
+				setProgress(1D * removed / compact.getEdgeCount());
+			}
+		}
+		finally
+		{
+			betweenness.shutdown();
+		}
+
+		Communities maxCommunities = null;
+		if (bestRemoved >= 0)
+		{
+			// the clustering with maximum modularity, from the edges removed up to it
+			for (int i = 0; i < bestRemoved; i++)
+				algoGraph.removeEdge(compact.getEdge(removals[i]));
 
-				double modularity = cms.modularity();
-				if (modularity > maxModularity)
-				{
-					maxModularity = modularity;
-					maxCommunities = cms;
-				}
+			WeakComponentClusterer wcSearch = new WeakComponentClusterer();
+			Set<Set<Node>> clusterSet = wcSearch.apply(algoGraph.getNodeList());
+			HashMap<Integer, List<Node>> map = new HashMap<>();
 
-				clusterCount = clusterSet.size();
+			int index = 0;
+			for (Set<Node> cNodesAlgo : clusterSet)
+			{
+				Set<Node> cNodesCom = cNodesAlgo.stream().map(nAlgo -> communityGraph.getNode(nAlgo.getIdentifier()))
+						.collect(Collectors.toSet());
+				map.put(index, new ArrayList<Node>(cNodesCom));
+				index++;
 			}
 
-			setProgress(1D * (((double) graph.getEdgeCount() - algoGraph.getEdgeCount()) / graph.getEdgeCount()));
+			maxCommunities = new Communities(map, communityGraph, isWeighted());
 		}
 
 		if (getLogger() != null)
@@ -165,4 +251,26 @@ public class GirvanNewman extends ClusteringAlgorithm
 		return cull(communities);
 	}
 
+	/**
+	 * Updates the keys of the remaining edges of a recomputed component.
+	 *
+	 * @param compact     the snapshot of the graph.
+	 * @param betweenness the betweenness of its edges.
+	 * @param affected    the ascending ids of all nodes of the component.
+	 * @param highest     the remaining edges keyed by their negated betweenness.
+	 */
+	private static void rescore(CompactGraph compact, BrandesBetweenness betweenness, int[] affected,
+			IndexedMinHeap highest)
+	{
+		for (int v : affected)
+		{
+			for (int slot = compact.getNeighborStart(v); slot < compact.getNeighborEnd(v); slot++)
+			{
+				int edge = compact.getEdgeIndex(slot);
+				if (compact.getEdgeSource(edge) == v && !betweenness.isRemoved(edge))
+					highest.set(edge, -betweenness.getEdgeScore(edge));
+			}
+		}
+	}
+
 }
@@ -0,0 +1,457 @@
+package edu.claflin.finder.algo.clustering;
+
+import static edu.claflin.finder.Global.getLogger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import edu.claflin.finder.algo.ArgumentsBundle;
+import edu.claflin.finder.log.LogLevel;
+import edu.claflin.finder.logic.CompactGraph;
+import edu.claflin.finder.logic.Graph;
+import edu.claflin.finder.logic.Node;
+
+/**
+ * Label Propagation Algorithm for Community Detection. Every node starts out
+ * with a label of its own and repeatedly takes the label shared by most of its
+ * neighbours, or by the largest weight to them if weighted, until no label
+ * changes. The nodes left with the same label form a community. A sweep over
+ * the nodes takes O(m) time, and few sweeps are needed, which makes it a fast
+ * first clustering of large networks.
+ * <p>
+ * The "mode" enum argument selects the order of the updates.
+ * {@link Mode#ASYNCHRONOUS} updates the nodes one at a time in a random order
+ * drawn anew every sweep, every node seeing the labels already updated in the
+ * sweep. {@link Mode#SEMI_SYNCHRONOUS} colours the nodes so that no two
+ * adjacent nodes share a colour and updates all nodes of one colour at once,
+ * which always converges; their labels are found in parallel when the
+ * {@link ArgumentsBundle.COMMON_ARGS#PARALLEL} boolean is set. A node keeps its
+ * label when it is among the most frequent, and otherwise takes one of them at
+ * random. A fixed order or tie rule would favour some labels, which then flood
+ * across communities.
+ * <p>
+ * The random choices follow the optional "seed" integer argument, 0 by default,
+ * so the result is reproducible and does not depend on the number of threads.
+ * The optional "max_sweeps" integer argument bounds the number of sweeps,
+ * 100 by default.
+ *
+ * @see <a href="https://arxiv.org/abs/0709.2938">Raghavan et al.: Near linear
+ *      time algorithm to detect community structures</a>
+ * @see <a href="https://arxiv.org/abs/1103.4550">Cordasco and Gargano: Label
+ *      propagation algorithm, a semi-synchronous approach</a>
+ */
+public class LabelPropagation extends ClusteringAlgorithm
+{
+	/**
+	 * The orders the labels may be updated in.
+	 */
+	public enum Mode
+	{
+		ASYNCHRONOUS, SEMI_SYNCHRONOUS;
+	}
+
+	/**
+	 * The number of sweeps after which the labels are kept even if some would
+	 * still change.
+	 */
+	private static final int MAX_SWEEPS = 100;
+
+	/**
+	 * The seed of the random choices when none is given.
+	 */
+	private static final int SEED = 0;
+
+	/**
+	 * The number of nodes of one colour below which their labels are found on
+	 * the calling thread.
+	 */
+	private static final int MIN_PARALLEL = 1024;
+
+	public LabelPropagation(ArgumentsBundle args)
+	{
+		super(args);
+
+		if (getLogger() != null)
+		{
+			getLogger().logInfo(LogLevel.DEBUG, "Label Propagation algorithm initialized.");
+		}
+	}
+
+	@Override
+	public String toString()
+	{
+		return "Label Propagation Algorithm";
+	}
+
+	/**
+	 * Performs label propagation on a given Graph, returning the nodes sharing
+	 * every label once no label changes.
+	 *
+	 * @param graph the Graph to perform label propagation on
+	 * @return the list of Graphs representing the clustering
+	 */
+	@Override
+	public ArrayList<Graph> process(Graph graph)
+	{
+		if (getLogger() != null)
+		{
+			getLogger().logAlgo(LogLevel.NORMAL,
+					"Label Propagation: Searching Graph: " + graph.getName() + "\nInitializing Data Structures");
+		}
+
+		if (graph.getNodeCount() < 1)
+		{
+			return new ArrayList<Graph>();
+		}
+
+		Mode mode = getMode();
+		Integer maxSweeps = args.getInteger("max_sweeps");
+		if (maxSweeps == null)
+		{
+			maxSweeps = MAX_SWEEPS;
+		}
+		else if (maxSweeps < 1)
+		{
+			throw new IllegalArgumentException("The maximum number of sweeps must be positive: " + maxSweeps);
+		}
+		Integer seed = args.getInteger("seed");
+		Random random = new Random(seed == null ? SEED : seed);
+		int threads = mode == Mode.SEMI_SYNCHRONOUS ? getThreadCount() : 1;
+
+		List<Node> nList = graph.getNodeList();
+		Collections.sort(nList);
+		int n = nList.size();
+
+		// the neighbours of every node i, the Node at index i of nList, without itself
+		CompactGraph compact = new CompactGraph(graph, true);
+		int[] index = new int[n];
+		for (int i = 0; i < n; i++)
+		{
+			index[compact.getId(nList.get(i))] = i;
+		}
+		int[] offsets = new int[n + 1];
+		int[] targets = new int[compact.getSlotCount()];
+		double[] weights = new double[compact.getSlotCount()];
+		int slots = 0;
+		for (int i = 0; i < n; i++)
+		{
+			int v = compact.getId(nList.get(i));
+			for (int slot = compact.getNeighborStart(v); slot < compact.getNeighborEnd(v); slot++)
+			{
+				int j = index[compact.getTarget(slot)];
+				if (j != i)
+				{
+					targets[slots] = j;
+					weights[slots++] = isWeighted() ? compact.getWeight(slot) : 1;
+				}
+			}
+			offsets[i + 1] = slots;
+		}
+
+		int[] label = new int[n];
+		for (int i = 0; i < n; i++)
+		{
+			label[i] = i;
+		}
+
+		if (getLogger() != null)
+		{
+			getLogger().logAlgo(LogLevel.NORMAL, "Label Propagation: Running " + mode + " Sweeps");
+		}
+
+		setProgress(0D);
+		int sweeps = 0;
+		ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+		try
+		{
+			Sweeper sweeper = new Sweeper(offsets, targets, weights, label, random, pool, threads);
+			int[][] classes = mode == Mode.SEMI_SYNCHRONOUS ? getColourClasses(offsets, targets) : null;
+			boolean changed = true;
+			while (changed && sweeps < maxSweeps)
+			{
+				changed = classes == null ? sweeper.sweep() : sweeper.sweep(classes);
+				sweeps++;
+				setProgress(1D * sweeps / maxSweeps);
+			}
+		}
+		finally
+		{
+			if (pool != null)
+			{
+				pool.shutdownNow();
+			}
+		}
+
+		// the communities in the order of their first Node
+		int[] key = new int[n];
+		Arrays.fill(key, -1);
+		List<List<Node>> cms = new ArrayList<>();
+		for (int i = 0; i < n; i++)
+		{
+			if (key[label[i]] < 0)
+			{
+				key[label[i]] = cms.size();
+				cms.add(new ArrayList<>());
+			}
+			cms.get(key[label[i]]).add(nList.get(i));
+		}
+		setProgress(1D);
+
+		String algo_name = "LabelPropagation";
+		ArrayList<Graph> communities = this.buildCommunityGraphs(cms, graph, algo_name);
+
+		if (getLogger() != null)
+		{
+			getLogger().logAlgo(LogLevel.NORMAL, "Label Propagation: Finished Searching after " + sweeps
+					+ " Sweeps. Found: " + communities.size() + " Communities");
+		}
+
+		return cull(communities);
+	}
+
+	/**
+	 * Gets the mode selected by the arguments.
+	 *
+	 * @return the selected Mode, {@link Mode#ASYNCHRONOUS} by default.
+	 */
+	private Mode getMode()
+	{
+		Enum<?> mode = args.getEnum("mode");
+		if (mode == null)
+		{
+			return Mode.ASYNCHRONOUS;
+		}
+		if (!(mode instanceof Mode))
+		{
+			throw new IllegalArgumentException("Unknown label propagation mode: " + mode);
+		}
+		return (Mode) mode;
+	}
+
+	/**
+	 * The sweeps over the labels of the nodes.
+	 */
+	private static final class Sweeper
+	{
+		private final int[] offsets;
+		private final int[] targets;
+		private final double[] weights;
+		private final int[] label;
+		private final int[] next; // the label found for every node of a colour
+		private final int[] order; // the order of the asynchronous updates
+		private final Random random;
+		private final ForkJoinPool pool;
+		private final Worker[] workers;
+		private long salt; // the tie-breaking of the current sweep
+
+		private Sweeper(int[] offsets, int[] targets, double[] weights, int[] label, Random random, ForkJoinPool pool,
+				int threads)
+		{
+			this.offsets = offsets;
+			this.targets = targets;
+			this.weights = weights;
+			this.label = label;
+			this.random = random;
+			this.pool = pool;
+			next = new int[label.length];
+			order = new int[label.length];
+			for (int v = 0; v < order.length; v++)
+			{
+				order[v] = v;
+			}
+			workers = new Worker[threads];
+			for (int r = 0; r < threads; r++)
+			{
+				workers[r] = new Worker(label.length);
+			}
+		}
+
+		/**
+		 * Updates the nodes one at a time in a random order.
+		 *
+		 * @return true if a label changed
+		 */
+		private boolean sweep()
+		{
+			salt = random.nextLong();
+			for (int i = order.length - 1; i > 0; i--)
+			{
+				int j = random.nextInt(i + 1);
+				int v = order[i];
+				order[i] = order[j];
+				order[j] = v;
+			}
+
+			boolean changed = false;
+			for (int v : order)
+			{
+				int l = workers[0].find(v);
+				if (l != label[v])
+				{
+					label[v] = l;
+					changed = true;
+				}
+			}
+			return changed;
+		}
+
+		/**
+		 * Updates the nodes one colour at a time, all nodes of a colour at once.
+		 *
+		 * @param classes the ascending nodes of every colour
+		 * @return true if a label changed
+		 */
+		private boolean sweep(int[][] classes)
+		{
+			salt = random.nextLong();
+			boolean changed = false;
+			for (int[] nodes : classes)
+			{
+				find(nodes);
+				for (int v : nodes)
+				{
+					if (next[v] != label[v])
+					{
+						label[v] = next[v];
+						changed = true;
+					}
+				}
+			}
+			return changed;
+		}
+
+		/**
+		 * Finds the labels of nodes of one colour, in parallel if there are enough
+		 * of them.
+		 *
+		 * @param nodes the nodes
+		 */
+		private void find(int[] nodes)
+		{
+			if (pool == null || nodes.length < MIN_PARALLEL)
+			{
+				workers[0].find(nodes, 0, nodes.length);
+				return;
+			}
+
+			int ranges = workers.length;
+			List<RecursiveAction> tasks = new ArrayList<>(ranges);
+			for (int r = 0; r < ranges; r++)
+			{
+				Worker worker = workers[r];
+				int from = r * nodes.length / ranges;
+				int to = (r + 1) * nodes.length / ranges;
+				tasks.add(new RecursiveAction()
+				{
+					private static final long serialVersionUID = 1L;
+
+					@Override
+					protected void compute()
+					{
+						worker.find(nodes, from, to);
+					}
+				});
+			}
+			pool.invoke(new RecursiveAction()
+			{
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void compute()
+				{
+					invokeAll(tasks);
+				}
+			});
+		}
+
+		/**
+		 * The scratch space of one thread.
+		 */
+		private final class Worker
+		{
+			private final double[] score; // weight to every label
+			private final boolean[] seen;
+			private final int[] touched;
+
+			private Worker(int size)
+			{
+				score = new double[size];
+				seen = new boolean[size];
+				touched = new int[size];
+			}
+
+			private void find(int[] nodes, int from, int to)
+			{
+				for (int k = from; k < to; k++)
+				{
+					next[nodes[k]] = find(nodes[k]);
+				}
+			}
+
+			/**
+			 * Finds the label of a node from those of its neighbours.
+			 *
+			 * @param v the node
+			 * @return its current label if it is among the most frequent, else the
+			 *         one of them ranked first by the tie-breaking of the sweep
+			 */
+			private int find(int v)
+			{
+				int near = 0;
+				for (int slot = offsets[v]; slot < offsets[v + 1]; slot++)
+				{
+					int l = label[targets[slot]];
+					if (!seen[l])
+					{
+						seen[l] = true;
+						touched[near++] = l;
+					}
+					score[l] += weights[slot];
+				}
+
+				int best = label[v];
+				double max = seen[best] ? score[best] : 0;
+				long rank = 0;
+				for (int t = 0; t < near; t++)
+				{
+					int l = touched[t];
+					if (score[l] > max || (score[l] == max && best != label[v] && rank(v, l) > rank))
+					{
+						best = l;
+						max = score[l];
+						rank = rank(v, l);
+					}
+				}
+
+				for (int t = 0; t < near; t++)
+				{
+					score[touched[t]] = 0;
+					seen[touched[t]] = false;
+				}
+				return best;
+			}
+
+			/**
+			 * Ranks a label for a node in the tie-breaking of the current sweep, by
+			 * scrambling both with the salt of the sweep (the finalizer of
+			 * SplitMix64), so that the rank does not depend on the thread.
+			 *
+			 * @param v the node
+			 * @param l the label
+			 * @return the rank, higher first
+			 */
+			private long rank(int v, int l)
+			{
+				long x = salt ^ ((long) v << 32 | l);
+				x = (x ^ (x >>> 30)) * 0xbf58476d1ce4e5b9L;
+				x = (x ^ (x >>> 27)) * 0x94d049bb133111ebL;
+				return x ^ (x >>> 31);
+			}
+		}
+	}
+}
@@ -0,0 +1,754 @@
+package edu.claflin.finder.algo.clustering;
+
+import static edu.claflin.finder.Global.getLogger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import edu.claflin.finder.algo.ArgumentsBundle;
+import edu.claflin.finder.log.LogLevel;
+import edu.claflin.finder.logic.CompactGraph;
+import edu.claflin.finder.logic.Graph;
+import edu.claflin.finder.logic.Node;
+
+/**
+ * Louvain Algorithm for Community Detection, with the optional refinement of the
+ * Leiden algorithm.
+ * <p>
+ * Every level moves nodes to the adjacent community that increases the
+ * modularity the most until no pass over the nodes helps, and then aggregates
+ * every community into a single node of the next level. The nodes of a level are
+ * coloured so that no two adjacent nodes share a colour. The best moves of the
+ * nodes of one colour are found in parallel, as none of them changes the
+ * neighbourhood of another, and are then applied in the order of the nodes, each
+ * only if it still increases the modularity. The result therefore does not
+ * depend on the number of threads.
+ * <p>
+ * With the "leiden" boolean argument every community is refined before it is
+ * aggregated: its nodes start out on their own and greedily join well connected
+ * subcommunities, which become the nodes of the next level while starting out in
+ * the community they were refined from. Communities are then connected. The
+ * "resolution" double argument scales the null model of the modularity, larger
+ * values giving smaller communities; it defaults to 1.
+ *
+ * @see <a href="https://arxiv.org/abs/0803.0476">Blondel et al. (Louvain)</a>
+ * @see <a href="https://doi.org/10.1038/s41598-019-41695-z">Traag et al.
+ *      (Leiden)</a>
+ * @see <a href="https://doi.org/10.1016/j.parco.2015.03.003">Lu et al.: Parallel
+ *      heuristics for scalable community detection</a>
+ */
+public class Louvain extends ClusteringAlgorithm
+{
+	/**
+	 * The increase of the modularity below which a level stops moving nodes.
+	 */
+	private static final double MIN_GAIN = 1e-7;
+
+	/**
+	 * The number of nodes of one colour below which their moves are found on the
+	 * calling thread.
+	 */
+	private static final int MIN_PARALLEL = 1024;
+
+	public Louvain(ArgumentsBundle args)
+	{
+		super(args);
+
+		if (getLogger() != null)
+		{
+			getLogger().logInfo(LogLevel.DEBUG, "Louvain algorithm initialized.");
+		}
+	}
+
+	@Override
+	public String toString()
+	{
+		return "Louvain Algorithm";
+	}
+
+	/**
+	 * Performs Louvain community detection on a given Graph, refined as in Leiden
+	 * if asked to, returning the clustering of the last level.
+	 *
+	 * @param graph the Graph to perform Louvain on
+	 * @return the list of Graphs representing the clustering
+	 */
+	@Override
+	public ArrayList<Graph> process(Graph graph)
+	{
+		if (getLogger() != null)
+		{
+			getLogger().logAlgo(LogLevel.NORMAL,
+					"Louvain: Searching Graph: " + graph.getName() + "\nInitializing Data Structures");
+		}
+
+		if (graph.getNodeCount() < 1)
+		{
+			return new ArrayList<Graph>();
+		}
+
+		Double resolution = args.getDouble("resolution");
+		if (resolution == null)
+		{
+			resolution = 1.0;
+		}
+		else if (!(resolution > 0) || resolution.isInfinite())
+		{
+			throw new IllegalArgumentException("The resolution must be positive: " + resolution);
+		}
+		boolean leiden = Boolean.TRUE.equals(args.getBoolean("leiden"));
+		int threads = getThreadCount();
+
+		List<Node> nList = graph.getNodeList();
+		Collections.sort(nList);
+		int n = nList.size();
+		double m2 = isWeighted() ? 2 * graph.getGraphWeight() : 2 * graph.getEdgeCount(); // number of 1s in adjacency matrix
+
+		Level level = new Level(new CompactGraph(graph, true), nList, isWeighted());
+		int[] membership = identity(n); // node of the level of every Node of nList
+		int[] community = identity(n); // community of every node of the level
+		int levels = 0;
+
+		setProgress(0D);
+		ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+		try
+		{
+			while (m2 > 0)
+			{
+				levels++;
+				if (getLogger() != null)
+				{
+					getLogger().logAlgo(LogLevel.VERBOSE, "Louvain: Level " + levels + " with " + level.size + " nodes");
+				}
+
+				new LocalMoving(level, community, m2, resolution, pool, threads).run();
+				int communities = renumber(community);
+
+				// the nodes of the next level, refined communities for Leiden
+				int[] groups = community;
+				int count = communities;
+				if (leiden)
+				{
+					groups = refine(level, community, communities, m2, resolution);
+					count = renumber(groups);
+				}
+				if (count == level.size)
+				{
+					break;
+				}
+
+				int[] start = new int[count];
+				for (int v = 0; v < level.size; v++)
+				{
+					start[groups[v]] = community[v];
+				}
+				for (int i = 0; i < n; i++)
+				{
+					membership[i] = groups[membership[i]];
+				}
+
+				level = aggregate(level, groups, count);
+				community = start;
+				setProgress(1D - (double) count / n);
+			}
+		}
+		finally
+		{
+			if (pool != null)
+			{
+				pool.shutdownNow();
+			}
+		}
+
+		// the communities in the order of their first Node
+		int[] key = new int[level.size];
+		Arrays.fill(key, -1);
+		List<List<Node>> cms = new ArrayList<>();
+		for (int i = 0; i < n; i++)
+		{
+			int c = community[membership[i]];
+			if (key[c] < 0)
+			{
+				key[c] = cms.size();
+				cms.add(new ArrayList<>());
+			}
+			cms.get(key[c]).add(nList.get(i));
+		}
+		setProgress(1D);
+
+		String algo_name = "Louvain";
+		ArrayList<Graph> communities = this.buildCommunityGraphs(cms, graph, algo_name);
+
+		if (getLogger() != null)
+		{
+			getLogger().logAlgo(LogLevel.NORMAL, "Louvain: Finished Searching after " + levels + " Levels. Found: "
+					+ communities.size() + " Communities");
+		}
+
+		return cull(communities);
+	}
+
+	/**
+	 * Refines the communities of a level for Leiden. Every node that is still on
+	 * its own and well connected to the rest of its community joins the well
+	 * connected subcommunity of that community that increases the modularity the
+	 * most, if any does not decrease it.
+	 *
+	 * @param level       the level
+	 * @param community   the community of every node
+	 * @param communities the number of communities
+	 * @param m2          the number of 1s in the adjacency matrix
+	 * @param resolution  the resolution
+	 * @return the subcommunity of every node, keyed by a node of it
+	 */
+	private static int[] refine(Level level, int[] community, int communities, double m2, double resolution)
+	{
+		int n = level.size;
+		int[] refined = identity(n);
+		int[] size = new int[n];
+		double[] tot = level.strength.clone(); // total of every subcommunity
+		double[] cross = new double[n]; // weight from every subcommunity to the rest of its community
+		double[] communityTot = new double[communities];
+		Arrays.fill(size, 1);
+
+		for (int v = 0; v < n; v++)
+		{
+			communityTot[community[v]] += level.strength[v];
+			for (int slot = level.offsets[v]; slot < level.offsets[v + 1]; slot++)
+			{
+				if (community[level.targets[slot]] == community[v])
+				{
+					cross[v] += level.weights[slot];
+				}
+			}
+		}
+		double[] external = cross.clone(); // weight from every node to the rest of its community
+
+		double[] weightTo = new double[n];
+		boolean[] seen = new boolean[n];
+		int[] touched = new int[n];
+		for (int v = 0; v < n; v++)
+		{
+			int c = community[v];
+			double k = level.strength[v];
+			if (size[v] != 1 || refined[v] != v
+					|| external[v] < resolution * k * (communityTot[c] - k) / m2)
+			{
+				continue;
+			}
+
+			int count = 0;
+			for (int slot = level.offsets[v]; slot < level.offsets[v + 1]; slot++)
+			{
+				int w = level.targets[slot];
+				if (community[w] != c)
+				{
+					continue;
+				}
+				int r = refined[w];
+				if (!seen[r])
+				{
+					seen[r] = true;
+					touched[count++] = r;
+				}
+				weightTo[r] += level.weights[slot];
+			}
+
+			// the gain over staying alone, which changes nothing
+			int best = -1;
+			double bestGain = 0;
+			for (int t = 0; t < count; t++)
+			{
+				int r = touched[t];
+				if (cross[r] >= resolution * tot[r] * (communityTot[c] - tot[r]) / m2)
+				{
+					double gain = weightTo[r] - resolution * k * tot[r] / m2;
+					if (gain > bestGain || (gain == bestGain && (best < 0 || r < best)))
+					{
+						best = r;
+						bestGain = gain;
+					}
+				}
+			}
+
+			if (best >= 0)
+			{
+				refined[v] = best;
+				size[best]++;
+				size[v] = 0;
+				tot[best] += k;
+				tot[v] = 0;
+				cross[best] += external[v] - 2 * weightTo[best];
+			}
+
+			for (int t = 0; t < count; t++)
+			{
+				weightTo[touched[t]] = 0;
+				seen[touched[t]] = false;
+			}
+		}
+		return refined;
+	}
+
+	/**
+	 * Aggregates the groups of a level into the nodes of the next.
+	 *
+	 * @param level  the level
+	 * @param groups the group of every node, from 0 to count - 1
+	 * @param count  the number of groups
+	 * @return the next level
+	 */
+	private static Level aggregate(Level level, int[] groups, int count)
+	{
+		// the members of every group in the order of the nodes
+		int[] start = new int[count + 1];
+		for (int v = 0; v < level.size; v++)
+		{
+			start[groups[v] + 1]++;
+		}
+		for (int c = 0; c < count; c++)
+		{
+			start[c + 1] += start[c];
+		}
+		int[] members = new int[level.size];
+		int[] next = Arrays.copyOf(start, count);
+		for (int v = 0; v < level.size; v++)
+		{
+			members[next[groups[v]]++] = v;
+		}
+
+		Level result = new Level(count, level.targets.length);
+		double[] weightTo = new double[count];
+		boolean[] seen = new boolean[count];
+		int[] touched = new int[count];
+		int slots = 0;
+		for (int c = 0; c < count; c++)
+		{
+			int near = 0;
+			for (int m = start[c]; m < start[c + 1]; m++)
+			{
+				int v = members[m];
+				result.strength[c] += level.strength[v];
+				result.loops[c] += level.loops[v];
+				for (int slot = level.offsets[v]; slot < level.offsets[v + 1]; slot++)
+				{
+					int d = groups[level.targets[slot]];
+					if (d == c)
+					{
+						result.loops[c] += level.weights[slot];
+					}
+					else
+					{
+						if (!seen[d])
+						{
+							seen[d] = true;
+							touched[near++] = d;
+						}
+						weightTo[d] += level.weights[slot];
+					}
+				}
+			}
+
+			for (int t = 0; t < near; t++)
+			{
+				int d = touched[t];
+				result.targets[slots] = d;
+				result.weights[slots++] = weightTo[d];
+				weightTo[d] = 0;
+				seen[d] = false;
+			}
+			result.offsets[c + 1] = slots;
+		}
+		result.trim(slots);
+		return result;
+	}
+
+	/**
+	 * Computes the modularity of the communities of a level.
+	 *
+	 * @param level      the level
+	 * @param community  the community of every node
+	 * @param m2         the number of 1s in the adjacency matrix
+	 * @param resolution the resolution
+	 * @return the modularity
+	 */
+	private static double modularity(Level level, int[] community, double m2, double resolution)
+	{
+		double[] inner = new double[level.size];
+		double[] tot = new double[level.size];
+		for (int v = 0; v < level.size; v++)
+		{
+			int c = community[v];
+			inner[c] += level.loops[v];
+			tot[c] += level.strength[v];
+			for (int slot = level.offsets[v]; slot < level.offsets[v + 1]; slot++)
+			{
+				if (community[level.targets[slot]] == c)
+				{
+					inner[c] += level.weights[slot];
+				}
+			}
+		}
+
+		double modularity = 0.0;
+		for (int c = 0; c < level.size; c++)
+		{
+			modularity += inner[c] / m2 - resolution * Math.pow(tot[c] / m2, 2);
+		}
+		return modularity;
+	}
+
+	/**
+	 * Renumbers keys densely in the order they first occur.
+	 *
+	 * @param keys the keys, each below the number of keys, renumbered in place
+	 * @return the number of distinct keys
+	 */
+	private static int renumber(int[] keys)
+	{
+		int[] number = new int[keys.length];
+		Arrays.fill(number, -1);
+		int count = 0;
+		for (int v = 0; v < keys.length; v++)
+		{
+			if (number[keys[v]] < 0)
+			{
+				number[keys[v]] = count++;
+			}
+			keys[v] = number[keys[v]];
+		}
+		return count;
+	}
+
+	private static int[] identity(int n)
+	{
+		int[] result = new int[n];
+		for (int v = 0; v < n; v++)
+		{
+			result[v] = v;
+		}
+		return result;
+	}
+
+	/**
+	 * The nodes of one level as compressed sparse rows, without self loops and
+	 * with parallel edges merged.
+	 */
+	private static final class Level
+	{
+		private final int size;
+		private final int[] offsets;
+		private int[] targets;
+		private double[] weights;
+		private final double[] strength; // degree or weight of every node
+		private final double[] loops; // twice the weight within every node
+
+		/**
+		 * Builds the first level, node i being the Node at index i of the list.
+		 *
+		 * @param compact  the symmetric snapshot of the Graph
+		 * @param nList    the sorted Nodes
+		 * @param weighted whether to use edge weights
+		 */
+		private Level(CompactGraph compact, List<Node> nList, boolean weighted)
+		{
+			this(nList.size(), compact.getSlotCount());
+
+			int[] index = new int[size];
+			for (int i = 0; i < size; i++)
+			{
+				index[compact.getId(nList.get(i))] = i;
+				strength[i] = weighted ? nList.get(i).getWeight() : nList.get(i).getDegree();
+			}
+			for (int e = 0; e < compact.getEdgeCount(); e++)
+			{
+				if (compact.getEdgeSource(e) == compact.getEdgeTarget(e))
+				{
+					// count twice as every edge is in the matrix twice
+					loops[index[compact.getEdgeSource(e)]] += (weighted ? compact.getEdge(e).getData() : 1) * 2;
+				}
+			}
+
+			double[] weightTo = new double[size];
+			boolean[] seen = new boolean[size];
+			int[] touched = new int[size];
+			int slots = 0;
+			for (int i = 0; i < size; i++)
+			{
+				int v = compact.getId(nList.get(i));
+				int near = 0;
+				for (int slot = compact.getNeighborStart(v); slot < compact.getNeighborEnd(v); slot++)
+				{
+					int j = index[compact.getTarget(slot)];
+					if (j == i)
+					{
+						continue;
+					}
+					if (!seen[j])
+					{
+						seen[j] = true;
+						touched[near++] = j;
+					}
+					weightTo[j] += weighted ? compact.getWeight(slot) : 1;
+				}
+
+				for (int t = 0; t < near; t++)
+				{
+					int j = touched[t];
+					targets[slots] = j;
+					weights[slots++] = weightTo[j];
+					weightTo[j] = 0;
+					seen[j] = false;
+				}
+				offsets[i + 1] = slots;
+			}
+			trim(slots);
+		}
+
+		/**
+		 * Allocates an empty level.
+		 *
+		 * @param size  the number of nodes
+		 * @param slots the largest number of slots
+		 */
+		private Level(int size, int slots)
+		{
+			this.size = size;
+			offsets = new int[size + 1];
+			targets = new int[slots];
+			weights = new double[slots];
+			strength = new double[size];
+			loops = new double[size];
+		}
+
+		private void trim(int slots)
+		{
+			targets = Arrays.copyOf(targets, slots);
+			weights = Arrays.copyOf(weights, slots);
+		}
+	}
+
+	/**
+	 * The local moving of the nodes of one level, one colour at a time.
+	 */
+	private static final class LocalMoving
+	{
+		private final Level level;
+		private final int[] community;
+		private final double[] tot; // total of every community
+		private final double m2;
+		private final double resolution;
+		private final ForkJoinPool pool;
+		private final Worker[] workers;
+
+		// the best community found for every node, with its weight to it and to its own
+		private final int[] target;
+		private final double[] weightTo;
+		private final double[] weightFrom;
+
+		private LocalMoving(Level level, int[] community, double m2, double resolution, ForkJoinPool pool,
+				int threads)
+		{
+			this.level = level;
+			this.community = community;
+			this.m2 = m2;
+			this.resolution = resolution;
+			this.pool = pool;
+
+			tot = new double[level.size];
+			for (int v = 0; v < level.size; v++)
+			{
+				tot[community[v]] += level.strength[v];
+			}
+
+			workers = new Worker[pool == null ? 1 : threads];
+			for (int w = 0; w < workers.length; w++)
+			{
+				workers[w] = new Worker(level.size);
+			}
+			target = new int[level.size];
+			weightTo = new double[level.size];
+			weightFrom = new double[level.size];
+		}
+
+		/**
+		 * Moves nodes until a pass moves none or hardly increases the modularity.
+		 */
+		private void run()
+		{
+			int[][] classes = getColourClasses(level.offsets, level.targets);
+			double modularity = modularity(level, community, m2, resolution);
+			while (true)
+			{
+				boolean moved = false;
+				for (int[] nodes : classes)
+				{
+					find(nodes);
+					for (int v : nodes)
+					{
+						moved |= apply(v);
+					}
+				}
+
+				double next = modularity(level, community, m2, resolution);
+				if (!moved || next - modularity < MIN_GAIN)
+				{
+					break;
+				}
+				modularity = next;
+			}
+		}
+
+		/**
+		 * Finds the best moves of nodes of one colour, in parallel if there are
+		 * enough of them.
+		 *
+		 * @param nodes the nodes
+		 */
+		private void find(int[] nodes)
+		{
+			if (pool == null || nodes.length < MIN_PARALLEL)
+			{
+				workers[0].find(nodes, 0, nodes.length);
+				return;
+			}
+
+			int ranges = workers.length;
+			List<RecursiveAction> tasks = new ArrayList<>(ranges);
+			for (int r = 0; r < ranges; r++)
+			{
+				Worker worker = workers[r];
+				int from = r * nodes.length / ranges;
+				int to = (r + 1) * nodes.length / ranges;
+				tasks.add(new RecursiveAction()
+				{
+					private static final long serialVersionUID = 1L;
+
+					@Override
+					protected void compute()
+					{
+						worker.find(nodes, from, to);
+					}
+				});
+			}
+			pool.invoke(new RecursiveAction()
+			{
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void compute()
+				{
+					invokeAll(tasks);
+				}
+			});
+		}
+
+		/**
+		 * Moves a node to the community found for it if that still increases the
+		 * modularity. The weights found stay valid as no neighbour of the node has
+		 * moved since.
+		 *
+		 * @param v the node
+		 * @return true if the node moved
+		 */
+		private boolean apply(int v)
+		{
+			int from = community[v];
+			int to = target[v];
+			if (to == from)
+			{
+				return false;
+			}
+
+			double k = level.strength[v];
+			double stay = weightFrom[v] - resolution * k * (tot[from] - k) / m2;
+			double move = weightTo[v] - resolution * k * tot[to] / m2;
+			if (move <= stay)
+			{
+				return false;
+			}
+
+			tot[from] -= k;
+			tot[to] += k;
+			community[v] = to;
+			return true;
+		}
+
+		/**
+		 * The scratch space of one thread.
+		 */
+		private final class Worker
+		{
+			private final double[] weights;
+			private final boolean[] seen;
+			private final int[] touched;
+
+			private Worker(int size)
+			{
+				weights = new double[size];
+				seen = new boolean[size];
+				touched = new int[size];
+			}
+
+			/**
+			 * Finds the community adjacent to every node that increases the
+			 * modularity the most, ties going to the smaller community, or its own
+			 * if none does.
+			 *
+			 * @param nodes the nodes
+			 * @param from  the index of the first node
+			 * @param to    the index after the last node
+			 */
+			private void find(int[] nodes, int from, int to)
+			{
+				for (int index = from; index < to; index++)
+				{
+					int v = nodes[index];
+					int own = community[v];
+					int count = 0;
+					for (int slot = level.offsets[v]; slot < level.offsets[v + 1]; slot++)
+					{
+						int c = community[level.targets[slot]];
+						if (!seen[c])
+						{
+							seen[c] = true;
+							touched[count++] = c;
+						}
+						weights[c] += level.weights[slot];
+					}
+
+					double k = level.strength[v];
+					int best = own;
+					double bestGain = weights[own] - resolution * k * (tot[own] - k) / m2;
+					for (int t = 0; t < count; t++)
+					{
+						int c = touched[t];
+						if (c == own)
+						{
+							continue;
+						}
+						double gain = weights[c] - resolution * k * tot[c] / m2;
+						if (gain > bestGain || (gain == bestGain && best != own && c < best))
+						{
+							best = c;
+							bestGain = gain;
+						}
+					}
+
+					target[v] = best;
+					weightTo[v] = weights[best];
+					weightFrom[v] = weights[own];
+					for (int t = 0; t < count; t++)
+					{
+						weights[touched[t]] = 0;
+						seen[touched[t]] = false;
+					}
+				}
+			}
+		}
+	}
+}
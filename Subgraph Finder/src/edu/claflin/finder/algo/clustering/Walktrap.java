@@ -4,21 +4,33 @@ import static edu.claflin.finder.Global.getLogger;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.PriorityQueue;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import edu.claflin.finder.algo.ArgumentsBundle;
-import edu.claflin.finder.algo.clustering.struct.walk_trap_struct.HeapNodeWT;
+import edu.claflin.finder.algo.clustering.struct.fast_greedy_struct.SparseMatrix;
+import edu.claflin.finder.algo.clustering.struct.walk_trap_struct.ProbabilityVector;
+import edu.claflin.finder.algo.clustering.struct.walk_trap_struct.SigmaHeap;
+import edu.claflin.finder.algo.clustering.struct.walk_trap_struct.WalkGraph;
 import edu.claflin.finder.log.LogLevel;
-import edu.claflin.finder.logic.Edge;
 import edu.claflin.finder.logic.Graph;
 import edu.claflin.finder.logic.Node;
 
 /**
  * Walktrap Algorithm for Community Detection. Random walks from a Node in
  * a community tend to stay in the same Node. Based on python's igraph library.
+ * <p>
+ * The probability vectors of the walks are sparse while few nodes are reached,
+ * and the delta sigma of every pair of adjacent communities is kept both in a
+ * sparse row per community and in a heap. A merge only recomputes the row of
+ * the merged community and leaves the outdated entries of the heap to be
+ * skipped when they reach the top. The merges are logged and the clustering
+ * with the maximum modularity is replayed once at the end.
+ * <p>
+ * The walks from every node and the initial delta sigmas are independent of
+ * each other, and may be computed on a ForkJoinPool, every thread walking a
+ * range of sources over the transitions in compressed sparse rows.
  * 
  * @see <a href="https://homepage.cs.uiowa.edu/~ghosh/communities.pdf">Original Paper</a>
  * @see <a href="https://github.com/igraph/igraph/tree/master/src/community/walktrap">Original igraph implementation</a>
@@ -28,20 +40,18 @@ import edu.claflin.finder.logic.Node;
  */
 public class Walktrap extends ClusteringAlgorithm
 {
-	private int steps; // length of the walk
-	/*
-	 * Probability vectors. The Integer index corresponds to the community with
-	 * index in the list instance variable. The vector stores the probability of
-	 * going from the community to a given Node in a walk of length steps instance
-	 * variable.
+	/**
+	 * The number of nodes below which the walks are computed on the calling
+	 * thread.
 	 */
-	private HashMap<Integer, HashMap<Node, Double>> Pv; // store
+	private static final int MIN_PARALLEL = 1024;
+
+	private int steps; // length of the walk
 
 	public Walktrap(ArgumentsBundle args)
 	{
 		super(args);
 		steps = args.getInteger("steps") == null ? 4 : args.getInteger("steps"); // length of the walk
-		Pv = new HashMap<>();
 
 		if (getLogger() != null)
 		{
@@ -68,42 +78,122 @@ public class Walktrap extends ClusteringAlgorithm
 
 		List<Node> nList = graph.getNodeList();
 		Collections.sort(nList);
+		int n = nList.size();
 
 		// initialize 1-node communities
 		Communities cms = new Communities(nList, graph, isWeighted());
 
-		// store initial probabilities for 1-node communities
-		for (int i = 0; i < nList.size(); i++)
-		{
-			Pv.put(i, cprobs(cms.get(i), graph, nList));
-		}
+		/*
+		 * Probability vectors. The index corresponds to the community with the same
+		 * key. The vector stores the probability of going from the community to every
+		 * Node in a walk of length steps instance variable.
+		 */
+		ProbabilityVector[] Pv = new ProbabilityVector[n];
 
-		PriorityQueue<HeapNodeWT> q = new PriorityQueue<>(); // stores delta sigmas
+		/*
+		 * Delta sigmas of the 1-node communities to their adjacent communities, only
+		 * computed for "j > i" so that every pair is computed once
+		 */
+		int[][] adjacent = new int[n][];
+		double[][] initial = new double[n][];
 
 		/*
-		 * Store initial delta sigmas for 1-node communities. "j > i" means we store as
-		 * an adjacency list format (rather than matrix) because we don't want loops to
-		 * self and reverse duplicates
+		 * Store initial probabilities for 1-node communities, then their delta sigmas.
+		 * Every range of sources walks with its own scratch space, in parallel if
+		 * there are enough of them.
 		 */
+		WalkGraph walks = new WalkGraph(nList, isWeighted());
+		int threads = n < MIN_PARALLEL ? 1 : getThreadCount();
+		List<RecursiveAction> walkTasks = new ArrayList<>(threads);
+		List<RecursiveAction> sigmaTasks = new ArrayList<>(threads);
+		for (int r = 0; r < threads; r++)
+		{
+			int from = r * n / threads;
+			int to = (r + 1) * n / threads;
+			walkTasks.add(new RecursiveAction()
+			{
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void compute()
+				{
+					WalkGraph.Walker walker = walks.getWalker();
+					for (int i = from; i < to; i++)
+					{
+						Pv[i] = walker.walk(i, steps);
+					}
+				}
+			});
+			sigmaTasks.add(new RecursiveAction()
+			{
+				private static final long serialVersionUID = 1L;
 
-		List<Integer> keys = cms.keys();
+				@Override
+				protected void compute()
+				{
+					for (int i = from; i < to; i++)
+					{
+						adjacent[i] = cms.getAdjacentCommunities(i);
+						initial[i] = new double[adjacent[i].length];
+						for (int c = 0; c < adjacent[i].length; c++)
+						{
+							int j = adjacent[i][c];
+							if (j > i)
+							{
+								initial[i][c] = delta_sigma(Pv[i], 1, Pv[j], 1);
+							}
+						}
+					}
+				}
+			});
+		}
 
-		for (int outer = 0; outer < keys.size(); outer++)
+		ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+		try
 		{
-			int outerKey = keys.get(outer);
-
-			for (int inner = outer + 1; inner < keys.size(); inner++)
+			invoke(pool, walkTasks);
+			invoke(pool, sigmaTasks);
+		}
+		finally
+		{
+			if (pool != null)
 			{
-				int innerKey = keys.get(inner);
+				pool.shutdownNow();
+			}
+		}
 
-				if (cms.connectedCommunities(cms.get(outerKey), cms.get(innerKey)))
+		int[] versions = new int[n]; // incremented whenever a community changes
+		SigmaHeap q = new SigmaHeap(versions); // stores delta sigmas
+		SparseMatrix sigmas = new SparseMatrix(n); // delta sigmas of adjacent communities
+		int pairs = 0; // number of adjacent pairs
+
+		/*
+		 * Store initial delta sigmas for 1-node communities, taking those of "j < i"
+		 * from the row of j
+		 */
+		for (int i = 0; i < n; i++)
+		{
+			for (int c = 0; c < adjacent[i].length; c++)
+			{
+				int j = adjacent[i][c];
+				if (j > i)
+				{
+					q.add(i, j, initial[i][c]);
+					pairs++;
+				}
+				else
 				{
-					q.add(new HeapNodeWT(outerKey, innerKey, delta_sigma(outerKey, innerKey, nList, cms)));
+					initial[i][c] = sigmas.get(j, i);
 				}
 			}
+			sigmas.setRow(i, adjacent[i], initial[i], adjacent[i].length);
 		}
 
-		Communities maxCommunities = cms.copy(); // stores the community with the max modularity
+		// merge log, community from[k] joining community into[k]
+		int[] from = new int[n];
+		int[] into = new int[n];
+		int merges = 0;
+		int maxMerges = 0; // merges up to the clustering with the max modularity
 		double maxModularity = cms.modularity(); // stores max modularity to avoid computations
 
 		setProgress(0D);
@@ -111,455 +201,150 @@ public class Walktrap extends ClusteringAlgorithm
 		// to do)
 		while (cms.size() > 1 && !q.isEmpty())
 		{
-			HeapNodeWT min = q.poll(); // get min delta sigma
+			// get min delta sigma
+			int index1 = q.getIndex1();
+			int index2 = q.getIndex2();
+			double sigma = q.getValue();
+			q.poll();
 
-			if (min == null)
-				continue;
+			int size1 = cms.getSize(index1);
+			int size2 = cms.getSize(index2);
 
-			int index1 = min.getIndex1();
-			int index2 = min.getIndex2();
-			double sigma = min.getValue();
+			/*
+			 * merge probabilities of index1 and index2 communities into index1 delete
+			 * index2 community probabilities.
+			 */
+			Pv[index1] = Pv[index1].merge(size1, Pv[index2], size2);
+			Pv[index2] = null;
 
-			List<Node> C1 = new ArrayList<>(cms.get(index1));
-			List<Node> C2 = new ArrayList<>(cms.get(index2));
+			// merge C1 and C2 into the C1
+			cms.mergeCommunities(index1, index2);
+			versions[index1]++;
+			versions[index2] = -1;
+			from[merges] = index2;
+			into[merges++] = index1;
 
-			// only merge adjacent communities
-			if (index1 != index2 && cms.connectedCommunities(C1, C2))
+			/*
+			 * Find all communities C adjacent to the merged community C1 union C2, in
+			 * key order, from the rows of C1 and C2.
+			 */
+			int length1 = sigmas.size(index1);
+			int length2 = sigmas.size(index2);
+			pairs -= length1 + length2 - 1;
+			int[] columns = new int[length1 + length2];
+			double[] values = new double[length1 + length2];
+			int count = 0;
+
+			int x = 0;
+			int y = 0;
+			while (x < length1 || y < length2)
 			{
-				/*
-				 * merge probabilities of index1 and index2 communities into index1 delete
-				 * index2 community probabilities. communities 1 and 2 must have not been merged
-				 * by this point.
-				 */
-				Pv.put(index1, merge_probs(index1, index2, cms));
-				Pv.remove(index2);
-
-				/*
-				 * Find all communities C adjacent to the merged community C1 union C2. For
-				 * example: 
-				 * C1 -> C|              | C3 -> C   
-				 * .......|              | .......
-				 * .......| This becomes | .......
-				 * C -> C2|              | (removed cause don't need duplicates (C -> C3 is a duplicate)
-				 * .......|              | .......
-				 */
-				List<HeapNodeWT> tree_nodes = new ArrayList<>(q);
-				HashMap<Integer, MutualConnectionsRecord> mcs = new HashMap<>();
-
-				for (HeapNodeWT info : tree_nodes)
+				int k1 = x < length1 ? sigmas.getColumn(index1, x) : Integer.MAX_VALUE;
+				int k2 = y < length2 ? sigmas.getColumn(index2, y) : Integer.MAX_VALUE;
+				int k = Math.min(k1, k2);
+				double c1sigma = k1 == k ? sigmas.getValue(index1, x++) : 0.0;
+				double c2sigma = k2 == k ? sigmas.getValue(index2, y++) : 0.0;
+				if (k == index1 || k == index2)
 				{
-					int k = -1;
-
-					// C1 to C
-					if (info.getIndex1() == index1)
-					{
-						k = info.getIndex2();
-
-						if (mcs.containsKey(k)) // already got C in the list?
-						{
-							/*
-							 * this means C was added because of C2, so set the C1 that is currently null.
-							 */
-							mcs.get(k).setc1(info.getValue());
-						}
-						else // C is new detected neighbour of the merge
-						{
-							MutualConnectionsRecord r = new MutualConnectionsRecord(k);
-							r.setc1(info.getValue());
-							mcs.put(k, r);
-						}
-
-					}
-					// C2 to C
-					else if (info.getIndex1() == index2)
-					{
-						k = info.getIndex2();
-
-						if (mcs.containsKey(k)) // already got C in the list?
-						{
-							/*
-							 * this means C was added because of C1, so set the C2 that is currently null.
-							 */
-							mcs.get(k).setc2(info.getValue());
-						}
-						else // C is new detected neighbour of the merge
-						{
-							MutualConnectionsRecord r = new MutualConnectionsRecord(k);
-							r.setc2(info.getValue());
-							mcs.put(k, r);
-						}
-					}
-					// C to C1
-					else if (info.getIndex2() == index1 && cms.containsKey(info.getIndex1()))
-					{
-						k = info.getIndex1();
-
-						if (mcs.containsKey(k)) // already got C in the list?
-						{
-							/*
-							 * this means C was added because of C2, so set the C1 that is currently null.
-							 */
-							mcs.get(k).setc1(info.getValue());
-						}
-						else // C is new detected neighbor of the merge
-						{
-							MutualConnectionsRecord r = new MutualConnectionsRecord(k);
-							r.setc1(info.getValue());
-							mcs.put(k, r);
-						}
-					}
-					// C to C2
-					else if (info.getIndex2() == index2 && cms.containsKey(info.getIndex1()))
-					{
-						k = info.getIndex1();
-
-						if (mcs.containsKey(k)) // already got C in the list?
-						{
-							/*
-							 * this means C was added because of C1, so set the C2 that is currently null.
-							 */
-							mcs.get(k).setc2(info.getValue());
-						}
-						else // C is new detected neighbour of the merge
-						{
-							MutualConnectionsRecord r = new MutualConnectionsRecord(k);
-							r.setc2(info.getValue());
-							mcs.put(k, r);
-						}
-					}
-
-					// current C was detected as a neighbour?
-					if (k != -1)
-					{
-						// remove its sigma from the Queue since it needs to be updated
-						remove_node(info, q);
-					}
-
+					continue;
 				}
 
-				// merge C1 and C2 into the C1
-				cms.mergeCommunities(index1, index2);
-
-				// add new delta sigmas of adjacent communities to the heap
-				for (Integer k : mcs.keySet())
+				int size = cms.getSize(k);
+				double value;
+				// community was adjacent to both C1 and C2, use constant time calculation
+				if (k1 == k2)
 				{
-					MutualConnectionsRecord m = mcs.get(k);
-					List<Node> C = cms.get(k);
-
-					// community was adjacent to both C1 and C2, use constant time calculation
-					if (m.hasc1() && m.hasc2())
-					{
-						// LanceWilliamsJambu
-						q.add(new HeapNodeWT(Math.min(index1, k), Math.max(index1, k),
-								((C1.size() + C.size()) * m.get_c1sigma() + (C2.size() + C.size()) * m.get_c2sigma()
-										- C.size() * sigma) / (C1.size() + C2.size() + C.size())));
-					}
-					else if (m.hasc1()) // only adjacent to C1, need to calculate from scratch
-					{
-						q.add(new HeapNodeWT(Math.min(index1, k), Math.max(index1, k),
-								delta_sigma(index1, k, nList, cms)));//
-					}
-					else if (m.hasc2()) // only adjacent to C2, need to calculate from scratch
-					{
-						q.add(new HeapNodeWT(Math.min(index1, k), Math.max(index1, k),
-								delta_sigma(index1, k, nList, cms)));//
-					}
+					// LanceWilliamsJambu
+					value = ((size1 + size) * c1sigma + (size2 + size) * c2sigma - size * sigma) / (size1 + size2 + size);
+				}
+				else // only adjacent to C1 or C2, need to calculate from scratch
+				{
+					value = delta_sigma(Pv[index1], size1 + size2, Pv[k], size);
 				}
+				columns[count] = k;
+				values[count++] = value;
 			}
 
+			// add new delta sigmas of adjacent communities to the heap
+			sigmas.clearRow(index2);
+			sigmas.setRow(index1, columns, values, count);
+			for (int c = 0; c < count; c++)
+			{
+				int k = columns[c];
+				sigmas.remove(k, index2);
+				sigmas.set(k, index1, values[c]);
+				q.add(index1, k, values[c]);
+			}
+			pairs += count;
+			q.trim(pairs);
+
 			/*
 			 * Record the current clustering as the one with the maximum modularity
 			 */
 			double modularity = cms.modularity();
 
-			if (modularity > maxModularity)
+			if (modularity > maxModularity + Communities.TOLERANCE)
 			{
-				maxCommunities = cms.copy();
+				maxMerges = merges;
 				maxModularity = modularity;
 			}
 
 			setProgress(1D * (((double) graph.getNodeCount() - cms.size()) / graph.getNodeCount()));
 		}
 
+		// replay the merges up to the max modularity
+		Communities maxCommunities = new Communities(nList, graph, isWeighted());
+		for (int k = 0; k < maxMerges; k++)
+		{
+			maxCommunities.mergeCommunities(into[k], from[k]);
+		}
+
 		communities = buildCommunityGraphs(maxCommunities.getList(), graph, "Walktrap"); // get Graphs from communities
 		return cull(communities);
 	}
 
 	/**
-	 * Remove a HeapNode from the Queue.
+	 * Runs tasks on a pool, or one after another on the calling thread if there is
+	 * no pool.
 	 * 
-	 * @param info the node to remove
-	 * @param q    the priority queue to remove from
+	 * @param pool  the pool, null to run on the calling thread
+	 * @param tasks the tasks
 	 */
-	private void remove_node(HeapNodeWT info, PriorityQueue<HeapNodeWT> q)
+	private static void invoke(ForkJoinPool pool, List<RecursiveAction> tasks)
 	{
-		boolean found = false;
-		List<HeapNodeWT> auxiliary = new ArrayList<>();
-
-		while (!q.isEmpty() && !found)
+		if (pool == null)
 		{
-			HeapNodeWT n = q.poll();
-
-			if (n.getIndex1() == info.getIndex1() && n.getIndex2() == info.getIndex2())
-			{
-				found = true;
-			}
-			else
+			for (RecursiveAction task : tasks)
 			{
-				auxiliary.add(n);
+				task.invoke();
 			}
+			return;
 		}
 
-		for (HeapNodeWT n : auxiliary)
+		pool.invoke(new RecursiveAction()
 		{
-			q.add(n);
-		}
-	}
+			private static final long serialVersionUID = 1L;
 
-	/**
-	 * Calculate delta sigma from communities C1 and C2 according to Section 4.2
-	 * Theorem 5 in the paper.
-	 * 
-	 * @param C1index the index of community C1 in the list
-	 * @param C2index the index of community C2 in the list
-	 * @param nList   the sorted Node list
-	 * @param cms     the Communities
-	 * @return the delta sigma between C1 and C2
-	 */
-	private double delta_sigma(int C1index, int C2index, List<Node> nList, Communities cms)
-	{
-		return distance(C1index, C2index, nList) * ((double) cms.get(C1index).size() * cms.get(C2index).size())
-				/ (cms.get(C1index).size() + cms.get(C2index).size());
-	}
-
-	/**
-	 * Get the Node degree. The algorithm counts the node itself as a degree.
-	 * 
-	 * @param n the Node to get the degree of
-	 * @return the degree of the Node counting itself
-	 */
-	private int getDegree(Node n)
-	{
-		return n.getDegree() + 1;
-	}
-
-	/**
-	 * Get the Node weight. The algorithm counts the node itself as having a weight
-	 * of weight/degree.
-	 * 
-	 * @param n the Node to get the weight of
-	 * @return the weight of the Node counting its own
-	 */
-	private double getWeight(Node n)
-	{
-		return n.getWeight() + n.getWeight() / n.getDegree();
-	}
-
-	/**
-	 * Get a probability vector for a community. The probabilities are of going from
-	 * the community to all Nodes in a random walk of length steps instance
-	 * variable. This is an adaptation of the int constructor of the Probabilities
-	 * class in igraph master's walktrap_communities.cpp
-	 * 
-	 * @param C     the community
-	 * @param graph the original graph
-	 * @param nList the sorted list of Nodes
-	 * @return the probability vector
-	 */
-	private HashMap<Node, Double> cprobs(List<Node> C, Graph graph, List<Node> nList)
-	{
-		HashMap<Node, Double> P = new HashMap<>();
-
-		double[] tmp_vector1 = new double[nList.size()];
-		double[] tmp_vector2 = new double[nList.size()];
-
-		/*
-		 * initialize vector with probabilities for in community Nodes. 1 if 1-Node
-		 * community.
-		 */
-		for (Node n : C)
-		{
-			tmp_vector1[nList.indexOf(n)] = 1.0 / C.size();
-		}
-
-		// "perform" the random walk of length this.steps
-		for (int step = 0; step < this.steps; step++)
-		{
-			// reset vector2
-			for (int i = 0; i < nList.size(); i++)
+			@Override
+			protected void compute()
 			{
-				tmp_vector2[i] = 0.0;
+				invokeAll(tasks);
 			}
-
-			/*
-			 * use degrees for unweighted, weights for weighted
-			 */
-
-			for (Node i : nList)
-			{
-				double prob = tmp_vector1[nList.indexOf(i)] / (isWeighted() ? this.getWeight(i) : this.getDegree(i));
-
-				/*
-				 * update the probability from Node i to itself. if weighted multiply by self
-				 * edge weight defined as weight (not counting self edge) / degree (not counting
-				 * self)
-				 */
-				tmp_vector2[nList.indexOf(i)] += prob * (isWeighted() ? i.getWeight() / i.getDegree() : 1);
-
-				for (Node j : i.getNeighbors())
-				{
-					Edge e = i.getEdges().stream().filter(edge -> edge.includes(j)).collect(Collectors.toList()).get(0);
-
-					/*
-					 * update the probability from Node i to j. if weighted multiply by edge weight.
-					 */
-					tmp_vector2[nList.indexOf(j)] += prob * (isWeighted() ? e.getData() : 1.0);
-				}
-
-			}
-
-			// swap vectors so vector1 has the results of this iteration for the next one
-			double[] swap = tmp_vector1;
-			tmp_vector1 = tmp_vector2;
-			tmp_vector2 = swap;
-		}
-
-		// store the probability vector
-		// use weight if weighted, degrees otherwise
-		for (Node n : nList)
-		{
-			P.put(n,
-					tmp_vector1[nList.indexOf(n)] / Math.sqrt(isWeighted() ? this.getWeight(n) : this.getDegree(n)));
-		}
-
-		return P;
+		});
 	}
 
 	/**
-	 * Calculate the probability vectors of joining 2 communities. Equation in
-	 * section 4.4 of the paper (first bullet point). This is an adaptation of the 2
-	 * ints constructor of the Probabilities class in igraph master's
-	 * walktrap_communities.cpp
-	 * 
-	 * @param i   index of community 1
-	 * @param j   index of community 2
-	 * @param cms the Communities
-	 * @return the new probability vector
-	 */
-	private HashMap<Node, Double> merge_probs(int i, int j, Communities cms)
-	{
-		List<Node> C1 = cms.get(i);
-		List<Node> C2 = cms.get(j);
-		HashMap<Node, Double> P1 = Pv.get(i);
-		HashMap<Node, Double> P2 = Pv.get(j);
-
-		double w1 = (double) C1.size() / ((double) (C1.size() + C2.size()));
-		double w2 = (double) C2.size() / ((double) (C1.size() + C2.size()));
-
-		HashMap<Node, Double> P = new HashMap<>();
-
-		for (Node n : P1.keySet())
-		{
-			P.put(n, P1.get(n) * w1 + P2.get(n) * w2);
-		}
-
-		return P;
-	}
-
-	/**
-	 * Compute the distance between community i and community j. This is an
-	 * adaptation of the 2 ints constructor of the compute_distance of the
-	 * Probabilities class in igraph master's walktrap_communities.cpp
-	 * 
-	 * @param i     index of community 1
-	 * @param j     index of community 2
-	 * @param nList the sorted list of nodes
-	 * @return the distance between the communities
-	 */
-	private double distance(int i, int j, List<Node> nList)
-	{
-		double sum = 0.0;
-		for (Node n : nList)
-		{
-			sum += Math.pow(Pv.get(i).get(n) - Pv.get(j).get(n), 2);
-		}
-		return sum;
-	}
-
-	/**
-	 * Stores the delta sigmas between a Community C connected to community 1 or
-	 * community 2. "or" because C may only be connected to 1 or both. C c1sigma / \
-	 * c2sigma C1 C2
+	 * Calculate delta sigma from communities C1 and C2 according to Section 4.2
+	 * Theorem 5 in the paper.
 	 * 
-	 * @author Adolfo Perera
+	 * @param P1    the probability vector of community C1
+	 * @param size1 the size of community C1
+	 * @param P2    the probability vector of community C2
+	 * @param size2 the size of community C2
+	 * @return the delta sigma between C1 and C2
 	 */
-	private class MutualConnectionsRecord
+	private static double delta_sigma(ProbabilityVector P1, int size1, ProbabilityVector P2, int size2)
 	{
-		private int mutual_index; // index of C
-
-		private double c1sigma;
-		private double c2sigma;
-
-		public MutualConnectionsRecord(int m)
-		{
-			mutual_index = m;
-
-			c1sigma = -1;
-			c2sigma = -1;
-		}
-
-		public int get_mutual_index()
-		{
-			return mutual_index;
-		}
-
-		public double get_c1sigma()
-		{
-			return c1sigma;
-		}
-
-		public double get_c2sigma()
-		{
-			return c2sigma;
-		}
-
-		public void setc1(double sigma)
-		{
-			c1sigma = sigma;
-		}
-
-		public void setc2(double sigma)
-		{
-			c2sigma = sigma;
-		}
-
-		public boolean hasc1()
-		{
-			return c1sigma != -1;
-		}
-
-		public boolean hasc2()
-		{
-			return c2sigma != -1;
-		}
-
-		@Override
-		public boolean equals(Object o)
-		{
-			if (o instanceof MutualConnectionsRecord)
-			{
-				return this.get_mutual_index() == ((MutualConnectionsRecord) o).get_mutual_index();
-			}
-			else
-			{
-				return false;
-			}
-		}
-
-		@Override
-		public int hashCode()
-		{
-			return mutual_index;
-		}
+		return P1.distance(P2) * ((double) size1 * size2) / (size1 + size2);
 	}
 }
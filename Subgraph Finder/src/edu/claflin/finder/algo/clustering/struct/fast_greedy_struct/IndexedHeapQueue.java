@@ -5,77 +5,188 @@
  */
 package edu.claflin.finder.algo.clustering.struct.fast_greedy_struct;
 
-import java.util.ArrayList;
-import java.util.PriorityQueue;
+import java.util.Arrays;
 
 /**
+ * A binary max-heap of the rows of a {@link SparseMatrix} keyed by their maximum
+ * q value, ties going to the smaller row. The position of every row in the heap
+ * is indexed, so that the key of a row is raised or lowered and the row removed
+ * in logarithmic time.
  *
  * @author Cesar Martin
  */
 public class IndexedHeapQueue
 {
-	private PriorityQueue<IndexedHeapNode> q;
+	private final int[] heap; // the rows in heap order
+	private final int[] positions; // position of every row in the heap, -1 if absent
+	private final double[] keys; // key of every row in the heap
+	private int size;
 
-	public IndexedHeapQueue()
+	/**
+	 * Creates an empty heap for the given number of rows.
+	 *
+	 * @param rows the number of rows, 0 to rows - 1
+	 */
+	public IndexedHeapQueue(int rows)
 	{
-		q = new PriorityQueue<>();
+		heap = new int[rows];
+		positions = new int[rows];
+		keys = new double[rows];
+		Arrays.fill(positions, -1);
 	}
 
 	public int size()
 	{
-		return q.size();
+		return size;
 	}
 
 	public boolean isEmpty()
 	{
-		return q.isEmpty();
+		return size == 0;
 	}
 
-	public void add(int i, int j, double a)
+	public boolean contains(int i)
 	{
-		q.add(new IndexedHeapNode(i, j, a));
+		return positions[i] >= 0;
 	}
 
-	public IndexedHeapNode peek()
+	/**
+	 * Get the row with the largest key without removing it.
+	 *
+	 * @return the row, or -1 if the heap is empty
+	 */
+	public int peek()
 	{
-		return q.peek();
+		return size == 0 ? -1 : heap[0];
 	}
 
-	public IndexedHeapNode poll()
+	/**
+	 * Get the key of a row in the heap.
+	 *
+	 * @param i the row
+	 * @return the key of the row
+	 */
+	public double getQ(int i)
 	{
-		return q.poll();
+		return keys[i];
 	}
 
-	public void set(int i, HeapNodeFG hnn)
+	/**
+	 * Add a row or change its key.
+	 *
+	 * @param i the row
+	 * @param q the new key
+	 */
+	public void set(int i, double q)
 	{
-		ArrayList<IndexedHeapNode> hl = new ArrayList<>();
-		boolean found = false;
+		if (positions[i] < 0)
+		{
+			heap[size] = i;
+			positions[i] = size++;
+			keys[i] = q;
+			siftUp(positions[i]);
+			return;
+		}
 
-		while (!q.isEmpty() && !found)
+		double old = keys[i];
+		keys[i] = q;
+		if (q > old)
 		{
-			IndexedHeapNode hn = q.poll();
+			siftUp(positions[i]);
+		}
+		else if (q < old)
+		{
+			siftDown(positions[i]);
+		}
+	}
 
-			if (hn.getI() == i)
-			{
-				hn.setInfo(hnn.getJ(), hnn.getQ());
-				q.add(hn);
-				found = true;
-			}
-			else
+	/**
+	 * Remove a row if it is in the heap.
+	 *
+	 * @param i the row
+	 */
+	public void remove(int i)
+	{
+		int position = positions[i];
+		if (position < 0)
+		{
+			return;
+		}
+
+		int moved = heap[--size];
+		positions[i] = -1;
+		if (position == size)
+		{
+			return;
+		}
+
+		heap[position] = moved;
+		positions[moved] = position;
+		siftDown(position);
+		siftUp(positions[moved]);
+	}
+
+	private void siftUp(int position)
+	{
+		while (position > 0)
+		{
+			int parent = (position - 1) / 2;
+			if (!before(heap[position], heap[parent]))
 			{
-				hl.add(hn);
+				break;
 			}
+			swap(position, parent);
+			position = parent;
 		}
+	}
 
-		for (IndexedHeapNode hn : hl)
+	private void siftDown(int position)
+	{
+		while (true)
 		{
-			q.add(hn);
+			int child = 2 * position + 1;
+			if (child >= size)
+			{
+				break;
+			}
+			if (child + 1 < size && before(heap[child + 1], heap[child]))
+			{
+				child++;
+			}
+			if (!before(heap[child], heap[position]))
+			{
+				break;
+			}
+			swap(position, child);
+			position = child;
 		}
 	}
 
+	/**
+	 * Whether row i goes before row j, by higher key and then smaller row.
+	 */
+	private boolean before(int i, int j)
+	{
+		return keys[i] > keys[j] || (keys[i] == keys[j] && i < j);
+	}
+
+	private void swap(int a, int b)
+	{
+		int row = heap[a];
+		heap[a] = heap[b];
+		heap[b] = row;
+		positions[heap[a]] = a;
+		positions[heap[b]] = b;
+	}
+
 	@Override
 	public String toString()
 	{
-		return q.toString();
+		String result = "[";
+		for (int position = 0; position < size; position++)
+		{
+			result += (position > 0 ? ", " : "") + heap[position] + ": " + keys[heap[position]];
+		}
+		return result + "]";
 	}
 }
@@ -1,19 +1,20 @@
 package edu.claflin.finder.algo.clustering.struct.fast_greedy_struct;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.PriorityQueue;
-
-import edu.claflin.finder.algo.clustering.struct.BinarySearchTree;
+import java.util.Arrays;
 
 /**
- * SparseMatrix is a sparse matrix with row format.
+ * SparseMatrix is a sparse matrix with row format. Every row keeps its columns in
+ * ascending order next to their values, so that two rows are merged in linear
+ * time, together with the position of its largest value, ties going to the
+ * smaller column. The largest value of a row is only searched for again when it
+ * decreases or is removed.
  */
 public class SparseMatrix
 {
-	public HashMap<Integer, PriorityQueue<HeapNodeFG>> heaps;
-	public HashMap<Integer, BinarySearchTree<TreeNodeInfoFG>> trees;
-	private int rows;
+	private final int[][] columns;
+	private final double[][] values;
+	private final int[] lengths;
+	private final int[] maxima; // position of the largest value of every row, -1 if empty
 
 	/**
 	 * empty sparse matrix with allocated number of rows
@@ -22,9 +23,11 @@ public class SparseMatrix
 	 */
 	public SparseMatrix(int rows)
 	{
-		trees = new HashMap<>(rows);
-		heaps = new HashMap<>(rows);
-		this.rows = rows;
+		columns = new int[rows][0];
+		values = new double[rows][0];
+		lengths = new int[rows];
+		maxima = new int[rows];
+		Arrays.fill(maxima, -1);
 	}
 
 	/**
@@ -34,65 +37,42 @@ public class SparseMatrix
 	 */
 	public int rows()
 	{
-		return rows;
+		return lengths.length;
 	}
 
 	/**
-	 * Add the given j index, q value pair to the ith tree and heap
+	 * get the number of values set in row i
 	 *
-	 * @param i the row to add
-	 * @param j the j index
-	 * @param q the q value
+	 * @param i the row
+	 * @return the number of values in the row
 	 */
-	public void add(int i, int j, double q)
+	public int size(int i)
 	{
-		addTree(i, j, q);
-		addHeap(i, j, q);
+		return lengths[i];
 	}
 
 	/**
-	 * Add the given j index, q value pair to the ith tree.
+	 * get the column at a position of row i
 	 *
-	 * @param i the row to add
-	 * @param j the j index
-	 * @param q the q value
+	 * @param i        the row
+	 * @param position the position, below the size of the row
+	 * @return the column, ascending with the position
 	 */
-	public void addTree(int i, int j, double q)
+	public int getColumn(int i, int position)
 	{
-
-		if (trees.containsKey(i))
-		{
-			trees.get(i).add(new TreeNodeInfoFG(j, q));
-		}
-		else
-		{
-			BinarySearchTree<TreeNodeInfoFG> bst = new BinarySearchTree<>();
-			bst.add(new TreeNodeInfoFG(j, q));
-			trees.put(i, bst);
-		}
+		return columns[i][position];
 	}
 
 	/**
-	 * Add the given j index, q value pair to the ith heap.
+	 * get the value at a position of row i
 	 *
-	 * @param i the row to add
-	 * @param j the j index
-	 * @param q the q value
+	 * @param i        the row
+	 * @param position the position, below the size of the row
+	 * @return the value
 	 */
-	public void addHeap(int i, int j, double q)
+	public double getValue(int i, int position)
 	{
-
-		if (heaps.containsKey(i))
-		{
-			heaps.get(i).add(new HeapNodeFG(j, q));
-		}
-		else
-		{
-			PriorityQueue<HeapNodeFG> mh = new PriorityQueue<>();
-			mh.add(new HeapNodeFG(j, q));
-			heaps.put(i, mh);
-		}
-
+		return values[i][position];
 	}
 
 	/**
@@ -104,180 +84,174 @@ public class SparseMatrix
 	 */
 	public Double get(int i, int j)
 	{
-		if (!trees.containsKey(i))
-		{
-			return null;
-		}
-		return trees.get(i).getVal(new TreeNodeInfoFG(j, -1.0));
+		int position = Arrays.binarySearch(columns[i], 0, lengths[i], j);
+		return position >= 0 ? values[i][position] : null;
 	}
 
 	/**
-	 * Set value q and the ith tree's j column. add it if it's not there.
+	 * Set value q at the ith row's j column. add it if it's not there.
 	 *
 	 * @param i the row to set in
 	 * @param j the column to set in
 	 * @param q the new q value
-	 *
 	 */
-	public void setTree(int i, int j, double q)
+	public void set(int i, int j, double q)
 	{
+		int position = Arrays.binarySearch(columns[i], 0, lengths[i], j);
+		if (position >= 0)
+		{
+			double old = values[i][position];
+			values[i][position] = q;
+			if (position == maxima[i] && q < old)
+			{
+				findMax(i);
+			}
+			else if (before(i, position, maxima[i]))
+			{
+				maxima[i] = position;
+			}
+			return;
+		}
 
-		Double b = get(i, j);
+		// shift the later columns to insert j in order
+		position = -position - 1;
+		int length = lengths[i];
+		if (length == columns[i].length)
+		{
+			columns[i] = Arrays.copyOf(columns[i], Math.max(4, 2 * length));
+			values[i] = Arrays.copyOf(values[i], columns[i].length);
+		}
+		System.arraycopy(columns[i], position, columns[i], position + 1, length - position);
+		System.arraycopy(values[i], position, values[i], position + 1, length - position);
+		columns[i][position] = j;
+		values[i][position] = q;
+		lengths[i]++;
 
-		if (b != null)
+		if (maxima[i] >= position)
 		{
-			trees.get(i).set(new TreeNodeInfoFG(j, q));
+			maxima[i]++;
 		}
-		else
+		if (maxima[i] < 0 || before(i, position, maxima[i]))
 		{
-			addTree(i, j, q);
+			maxima[i] = position;
 		}
-
 	}
 
 	/**
-	 * Set the value q and the ith heap's j column. add it if it's not there.
-	 *
-	 * @param i the row to set in
-	 * @param j the column to set in
-	 * @param q the new q value
+	 * Remove column j from the row i if it is there.
 	 *
+	 * @param i the row to remove in
+	 * @param j the column to remove
 	 */
-	public void setHeap(int i, int j, double q)
+	public void remove(int i, int j)
 	{
-		if (heaps.containsKey(i))
+		int position = Arrays.binarySearch(columns[i], 0, lengths[i], j);
+		if (position < 0)
 		{
-			PriorityQueue<HeapNodeFG> qh = heaps.get(i);
-			ArrayList<HeapNodeFG> hl = new ArrayList<>();
-
-			boolean found = false;
-			while (!qh.isEmpty() && !found)
-			{
-				HeapNodeFG hn = qh.poll();
-
-				if (hn.getJ() == j)
-				{
-					hn.setQ(q);
-					qh.add(hn);
-					found = true;
-				}
-				else
-				{
-					hl.add(hn);
-				}
-			}
+			return;
+		}
 
-			for (HeapNodeFG hn : hl)
-			{
-				qh.add(hn);
-			}
+		int length = --lengths[i];
+		System.arraycopy(columns[i], position + 1, columns[i], position, length - position);
+		System.arraycopy(values[i], position + 1, values[i], position, length - position);
 
-			if (!found)
-			{
-				this.addHeap(i, j, q);
-			}
+		if (maxima[i] == position)
+		{
+			findMax(i);
 		}
-		else
+		else if (maxima[i] > position)
 		{
-			this.addHeap(i, j, q);
+			maxima[i]--;
 		}
-
 	}
 
 	/**
-	 * Set the q value at the ith tree and heap's j column.
+	 * Replace row i by the given values.
 	 *
-	 * @param i the row to set in
-	 * @param j the column to set in
-	 * @param q the new q value
+	 * @param i       the row to replace
+	 * @param columns the columns in ascending order, kept by the matrix
+	 * @param values  the values of the columns, kept by the matrix
+	 * @param length  the number of columns to use
 	 */
-	public void set(int i, int j, double q)
+	public void setRow(int i, int[] columns, double[] values, int length)
 	{
-		this.setTree(i, j, q);
-		this.setHeap(i, j, q);
+		this.columns[i] = columns;
+		this.values[i] = values;
+		this.lengths[i] = length;
+		findMax(i);
 	}
 
-	/*
-	 * Remove column j from the tree i
+	/**
+	 * Get the column of the maximum q value at row i
 	 *
-	 * @param i the tree to remove in
-	 * 
-	 * @param j the column to remove
+	 * @param i the row to search in
+	 * @return the column of the maximum, the smallest on ties, or -1 if the row is
+	 *         empty
 	 */
-	private void removeFromTree(int i, int j)
+	public int getMaxColumn(int i)
 	{
-		Double b = get(i, j);
-
-		if (b != null)
-		{
-			trees.get(i).remove(new TreeNodeInfoFG(j, -1.0));
-		}
+		return maxima[i] < 0 ? -1 : columns[i][maxima[i]];
 	}
 
 	/**
 	 * Get the maximum q value at row i
 	 *
 	 * @param i the row to search in
-	 * @return the maximum q value
+	 * @return the maximum q value, or null if the row is empty
 	 */
-	public HeapNodeFG getMax(int i)
+	public Double getMax(int i)
 	{
-		if (heaps.containsKey(i))
-		{
-			return heaps.get(i).peek();
-		}
-		return null;
+		return maxima[i] < 0 ? null : values[i][maxima[i]];
 	}
 
 	/**
-	 * Clear the ith tree and heap
+	 * Clear the ith row
 	 *
 	 * @param i the row to clear in
 	 */
 	public void clearRow(int i)
 	{
-		if (heaps.containsKey(i) && trees.containsKey(i))
-		{
-			this.heaps.remove(i);
-			this.trees.remove(i);
-			rows--;
-		}
+		columns[i] = new int[0];
+		values[i] = new double[0];
+		lengths[i] = 0;
+		maxima[i] = -1;
 	}
 
 	/**
-	 * Merge Trees j and i into j, summing values if the same column occurs.
+	 * Search row i for the position of its largest value.
 	 *
-	 * @param j the tree to expand
-	 * @param i the tree that offers its Nodes
+	 * @param i the row
 	 */
-	public void mergeTrees(int j, int i)
+	private void findMax(int i)
 	{
-		if (trees.containsKey(i) && trees.containsKey(j))
+		maxima[i] = -1;
+		for (int position = 0; position < lengths[i]; position++)
 		{
-			this.removeFromTree(i, j); // remove col j from tree i to not add j,j
-			trees.get(j).mergeTrees(trees.get(i)); // merge trees j and i into j
+			if (maxima[i] < 0 || values[i][position] > values[i][maxima[i]])
+			{
+				maxima[i] = position;
+			}
 		}
 	}
 
 	/**
-	 * Rebuild heap j with the tree j
+	 * Whether a value of row i goes before another, by higher value and then
+	 * smaller column.
 	 *
-	 * @param j the heap to rebuild
+	 * @param i        the row
+	 * @param position the position of the value
+	 * @param other    the position of the other value, or -1
+	 * @return true if the value goes before the other
 	 */
-	public void rebuildHeap(int j)
+	private boolean before(int i, int position, int other)
 	{
-		if (heaps.containsKey(j) && trees.containsKey(j))
+		if (other < 0)
 		{
-			heaps.get(j).clear();
-
-			for (TreeNodeInfoFG t : trees.get(j).asList())
-			{
-				TreeNodeInfoFG inf = t;
-				HeapNodeFG h = new HeapNodeFG(inf.getIndex(), inf.getValue());
-				heaps.get(j).add(h);
-			}
+			return true;
 		}
-
+		double q1 = values[i][position];
+		double q2 = values[i][other];
+		return q1 > q2 || (q1 == q2 && columns[i][position] < columns[i][other]);
 	}
 
 	@Override
@@ -285,13 +259,13 @@ public class SparseMatrix
 	{
 		String result = "";
 
-		for (Integer i : trees.keySet())
+		for (int i = 0; i < lengths.length; i++)
 		{
-			if (!trees.get(i).isEmpty())
+			if (lengths[i] > 0)
 			{
 				result += i + "\n";
-				result += "Heap: " + heaps.get(i) + "\n";
-				result += "Tree: " + trees.get(i) + "\n";
+				result += "Columns: " + Arrays.toString(Arrays.copyOf(columns[i], lengths[i])) + "\n";
+				result += "Values: " + Arrays.toString(Arrays.copyOf(values[i], lengths[i])) + "\n";
 			}
 		}
 		return result;
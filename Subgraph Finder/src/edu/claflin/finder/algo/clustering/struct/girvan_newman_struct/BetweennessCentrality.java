@@ -18,8 +18,10 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
+import java.util.Random;
 import java.util.Stack;
 
+import edu.claflin.finder.logic.CompactGraph;
 import edu.claflin.finder.logic.Edge;
 import edu.claflin.finder.logic.Graph;
 import edu.claflin.finder.logic.Node;
@@ -61,6 +63,35 @@ public class BetweennessCentrality
 
 	}
 
+	/**
+	 * Estimates betweenness scores from at most a number of randomly sampled pivot
+	 * sources in every weak component of the graph, scaled to be unbiased.
+	 * 
+	 * @param graph the the graph to calculate betweenness centrality
+	 * @param weighted whether to consider edge weights
+	 * @param samples the largest number of pivot sources per component
+	 * @param seed the seed of the sampling
+	 * @see BrandesBetweenness#estimate(int, int[], int, Random)
+	 */
+	public BetweennessCentrality(Graph graph, boolean weighted, int samples, long seed)
+	{
+		this.graph = graph;
+		this.weighted = weighted;
+		initialize();
+
+		CompactGraph compact = new CompactGraph(graph, true);
+		BrandesBetweenness betweenness = new BrandesBetweenness(compact, weighted);
+		DecrementalComponents components = new DecrementalComponents(compact);
+		Random random = new Random(seed);
+		for (int c = 0; c < components.getComponentCount(); c++)
+			betweenness.estimate(1, components.getMembers(c), samples, random);
+
+		for (int v = 0; v < compact.getNodeCount(); v++)
+			vertex_scores.put(compact.getNode(v), betweenness.getNodeScore(v));
+		for (int e = 0; e < compact.getEdgeCount(); e++)
+			edge_scores.merge(compact.getEdge(e), betweenness.getEdgeScore(e), Double::sum);
+	}
+
 	protected void initialize()
 	{
 		this.vertex_scores = new HashMap<Node, Double>();
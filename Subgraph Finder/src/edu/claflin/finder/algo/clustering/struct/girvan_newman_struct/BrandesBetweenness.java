@@ -0,0 +1,730 @@
+package edu.claflin.finder.algo.clustering.struct.girvan_newman_struct;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import edu.claflin.finder.logic.CompactGraph;
+
+/**
+ * Computes the betweenness of every node and edge of a {@link CompactGraph}
+ * with Brandes' algorithm, over node ids, edge indices and primitive arrays.
+ * Every edge reachable in the snapshot is followed, so a symmetric snapshot
+ * treats the graph as undirected. Self loops are ignored and parallel edges
+ * each carry their own shortest paths. Unweighted distances count edges;
+ * weighted distances add up the data of the edges, which must not be negative.
+ * <p>
+ * Edges may be removed from the computation, so that one instance serves every
+ * step of Girvan-Newman. As shortest paths never leave a component, the scores
+ * of some components can be recomputed while those of the others are kept.
+ * <p>
+ * The single source passes may run on a ForkJoinPool. The sources are split
+ * into one contiguous range per thread and every range accumulates into score
+ * arrays of its own, which are added up in the order of the ranges at the end.
+ * On one thread the scores are therefore summed source by source in the order of
+ * the nodes, and recomputing a component gives the same scores as recomputing
+ * the whole graph. The pool is started by the first parallel computation and
+ * serves the later ones, so that recomputing a small component does not start
+ * new threads, until {@link #shutdown()} stops it.
+ * <p>
+ * Instead of running a pass from every node, the scores of a component can be
+ * estimated from randomly sampled pivot sources and scaled by the size of the
+ * component over the number of pivots, which makes the estimates unbiased.
+ * Pivots are drawn in batches until the highest edge accumulates a dependency of
+ * {@link #ADAPTIVE_FACTOR} times the size of the component, the adaptive rule of
+ * Bader et al., or until the sample size is reached.
+ *
+ * @see <a href="https://doi.org/10.1080/0022250X.2001.9990249">Brandes: A
+ *      Faster Algorithm for Betweenness Centrality</a>
+ * @see <a href="https://doi.org/10.1007/978-3-540-77004-6_10">Bader et al.:
+ *      Approximating Betweenness Centrality</a>
+ */
+public class BrandesBetweenness
+{
+	/**
+	 * The dependency of the highest edge, relative to the size of its component,
+	 * that ends the sampling of pivots.
+	 */
+	public static final double ADAPTIVE_FACTOR = 5.0;
+
+	/**
+	 * The smallest number of pivots drawn between two checks of the adaptive rule.
+	 */
+	private static final int BATCH_SIZE = 8;
+
+	/**
+	 * The snapshot of the graph.
+	 */
+	private final CompactGraph graph;
+
+	/**
+	 * Whether distances add up edge data rather than count edges.
+	 */
+	private final boolean weighted;
+
+	/**
+	 * Whether each edge is removed from the computation.
+	 */
+	private final boolean[] removed;
+
+	/**
+	 * The scores of the last computation, indexed by node id and edge index.
+	 */
+	private final double[] nodeScores;
+	private final double[] edgeScores;
+
+	/**
+	 * One worker per thread, kept for the later computations.
+	 */
+	private Worker[] workers = new Worker[0];
+
+	/**
+	 * The number of ranges of sources of the last computation, run by the first
+	 * workers.
+	 */
+	private int ranges;
+
+	/**
+	 * The pool running the workers, null until a computation needs more than one
+	 * thread.
+	 */
+	private ForkJoinPool pool;
+
+	/**
+	 * Prepares the computation for a snapshot.
+	 *
+	 * @param graph    the CompactGraph, symmetric to ignore edge direction.
+	 * @param weighted true if distances should add up the data of the edges.
+	 */
+	public BrandesBetweenness(CompactGraph graph, boolean weighted)
+	{
+		this.graph = graph;
+		this.weighted = weighted;
+		this.removed = new boolean[graph.getEdgeCount()];
+		this.nodeScores = new double[graph.getNodeCount()];
+		this.edgeScores = new double[graph.getEdgeCount()];
+	}
+
+	/**
+	 * Removes an edge from later computations.
+	 *
+	 * @param edgeIndex the index of the edge.
+	 */
+	public void removeEdge(int edgeIndex)
+	{
+		removed[edgeIndex] = true;
+	}
+
+	/**
+	 * Determines whether an edge was removed.
+	 *
+	 * @param edgeIndex the index of the edge.
+	 * @return true if the edge is removed.
+	 */
+	public boolean isRemoved(int edgeIndex)
+	{
+		return removed[edgeIndex];
+	}
+
+	/**
+	 * Computes the betweenness over the edges not removed.
+	 *
+	 * @param threads the number of threads to compute with.
+	 */
+	public void compute(int threads)
+	{
+		int[] sources = new int[graph.getNodeCount()];
+		for (int v = 0; v < sources.length; v++)
+			sources[v] = v;
+		compute(threads, sources);
+	}
+
+	/**
+	 * Recomputes the betweenness within some components over the edges not
+	 * removed, keeping the scores of the other nodes and edges.
+	 *
+	 * @param threads the number of threads to compute with.
+	 * @param sources the ascending ids of all nodes of the components.
+	 */
+	public void compute(int threads, int[] sources)
+	{
+		if (threads < 1)
+			throw new IllegalArgumentException("The number of threads must be positive!");
+
+		prepare(threads, sources, sources.length);
+		run(sources, 0, sources.length);
+
+		// every shortest path is counted from both of its ends
+		store(sources, 0.5);
+	}
+
+	/**
+	 * Estimates the betweenness within some components over the edges not
+	 * removed from a sample of pivot sources, keeping the scores of the other
+	 * nodes and edges. Components no larger than the sample are computed exactly.
+	 *
+	 * @param threads the number of threads to compute with.
+	 * @param sources the ascending ids of all nodes of the components.
+	 * @param samples the largest number of pivots to draw.
+	 * @param random  the Random drawing the pivots.
+	 */
+	public void estimate(int threads, int[] sources, int samples, Random random)
+	{
+		if (threads < 1)
+			throw new IllegalArgumentException("The number of threads must be positive!");
+		if (samples < 1)
+			throw new IllegalArgumentException("The number of samples must be positive!");
+
+		if (samples >= sources.length)
+		{
+			compute(threads, sources);
+			return;
+		}
+
+		prepare(threads, sources, samples);
+
+		// the pivots drawn so far lead a partial shuffle of the sources
+		int[] pivots = sources.clone();
+		int drawn = 0;
+		double threshold = ADAPTIVE_FACTOR * sources.length;
+		while (drawn < samples)
+		{
+			int end = Math.min(samples, drawn + Math.max(ranges, BATCH_SIZE));
+			for (int i = drawn; i < end; i++)
+			{
+				int j = i + random.nextInt(pivots.length - i);
+				int pivot = pivots[j];
+				pivots[j] = pivots[i];
+				pivots[i] = pivot;
+			}
+			run(pivots, drawn, end);
+			drawn = end;
+
+			if (getHighestEdgeDependency(sources) >= threshold)
+				break;
+		}
+
+		store(sources, sources.length / (2.0 * drawn));
+	}
+
+	/**
+	 * Stops the threads of the computations. A later parallel computation starts
+	 * them anew.
+	 */
+	public void shutdown()
+	{
+		if (pool != null)
+		{
+			pool.shutdownNow();
+			pool = null;
+		}
+	}
+
+	/**
+	 * Gets the betweenness of a node.
+	 *
+	 * @param id the node id.
+	 * @return the score of the last computation.
+	 */
+	public double getNodeScore(int id)
+	{
+		return nodeScores[id];
+	}
+
+	/**
+	 * Gets the betweenness of an edge.
+	 *
+	 * @param edgeIndex the index of the edge.
+	 * @return the score of the last computation, 0 for removed edges.
+	 */
+	public double getEdgeScore(int edgeIndex)
+	{
+		return edgeScores[edgeIndex];
+	}
+
+	/**
+	 * Provides a worker for every range of sources and a pool of the threads to
+	 * run them on, and clears their scores within the components of a
+	 * computation. The workers are only allocated when the number of threads
+	 * changes, and a computation with fewer passes than threads uses the first
+	 * of them, so that the cost of recomputing a component stays linear in its
+	 * size.
+	 *
+	 * @param threads the number of threads to compute with.
+	 * @param sources the ascending ids of all nodes of the components.
+	 * @param passes  the number of single source passes to come.
+	 */
+	private void prepare(int threads, int[] sources, int passes)
+	{
+		if (workers.length != threads)
+		{
+			workers = new Worker[threads];
+			for (int w = 0; w < threads; w++)
+				workers[w] = new Worker();
+		}
+		ranges = Math.max(1, Math.min(threads, passes));
+		for (int r = 0; r < ranges; r++)
+			workers[r].clear(sources);
+
+		if (ranges > 1 && (pool == null || pool.getParallelism() != threads))
+		{
+			shutdown();
+			pool = new ForkJoinPool(threads);
+		}
+	}
+
+	/**
+	 * Runs the passes of some sources, split into one range per worker.
+	 *
+	 * @param sources the sources.
+	 * @param from    the index of the first source to run.
+	 * @param to      the index after the last source to run.
+	 */
+	private void run(int[] sources, int from, int to)
+	{
+		for (int r = 0; r < ranges; r++)
+			workers[r].assign(sources, from + r * (to - from) / ranges, from + (r + 1) * (to - from) / ranges);
+
+		if (ranges == 1)
+		{
+			workers[0].run();
+			return;
+		}
+
+		List<RecursiveAction> tasks = new ArrayList<>(ranges);
+		for (int r = 0; r < ranges; r++)
+		{
+			Worker worker = workers[r];
+			tasks.add(new RecursiveAction()
+			{
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void compute()
+				{
+					worker.run();
+				}
+			});
+		}
+		pool.invoke(new RecursiveAction()
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void compute()
+			{
+				invokeAll(tasks);
+			}
+		});
+	}
+
+	/**
+	 * Adds up the scores of the workers within the components of a computation in
+	 * the order of their ranges and stores them scaled.
+	 *
+	 * @param sources the ascending ids of all nodes of the components.
+	 * @param scale   the factor to scale the sums by.
+	 */
+	private void store(int[] sources, double scale)
+	{
+		for (int v : sources)
+		{
+			double score = 0;
+			for (int r = 0; r < ranges; r++)
+				score += workers[r].nodeScores[v];
+			nodeScores[v] = score * scale;
+
+			for (int slot = graph.getNeighborStart(v); slot < graph.getNeighborEnd(v); slot++)
+			{
+				int edge = graph.getEdgeIndex(slot);
+				if (graph.getEdgeSource(edge) != v)
+					continue;
+
+				score = 0;
+				for (int r = 0; r < ranges; r++)
+					score += workers[r].edgeScores[edge];
+				edgeScores[edge] = score * scale;
+			}
+		}
+	}
+
+	/**
+	 * Gets the highest dependency the workers have accumulated on an edge within
+	 * the components of a computation.
+	 *
+	 * @param sources the ascending ids of all nodes of the components.
+	 * @return the highest sum of the dependencies of an edge.
+	 */
+	private double getHighestEdgeDependency(int[] sources)
+	{
+		double highest = 0;
+		for (int v : sources)
+		{
+			for (int slot = graph.getNeighborStart(v); slot < graph.getNeighborEnd(v); slot++)
+			{
+				int edge = graph.getEdgeIndex(slot);
+				if (graph.getEdgeSource(edge) != v)
+					continue;
+
+				double score = 0;
+				for (int r = 0; r < ranges; r++)
+					score += workers[r].edgeScores[edge];
+				highest = Math.max(highest, score);
+			}
+		}
+		return highest;
+	}
+
+	/**
+	 * Runs the single source passes of a range of sources and accumulates their
+	 * scores.
+	 */
+	private final class Worker
+	{
+		/**
+		 * The sources and the range of them to run next, the end exclusive.
+		 */
+		private int[] sources;
+		private int from;
+		private int to;
+
+		/**
+		 * The scores accumulated by the worker.
+		 */
+		private final double[] nodeScores;
+		private final double[] edgeScores;
+
+		/**
+		 * The distance, number of shortest paths and dependency of every node in
+		 * the current pass. Unreached nodes have an infinite distance.
+		 */
+		private final double[] distance;
+		private final double[] paths;
+		private final double[] dependency;
+
+		/**
+		 * The reached nodes in order of non-decreasing distance.
+		 */
+		private final int[] order;
+
+		/**
+		 * The queue of weighted passes.
+		 */
+		private final DistanceHeap heap;
+
+		/**
+		 * Allocates the state of the worker.
+		 */
+		private Worker()
+		{
+			int n = graph.getNodeCount();
+			this.nodeScores = new double[n];
+			this.edgeScores = new double[graph.getEdgeCount()];
+			this.distance = new double[n];
+			this.paths = new double[n];
+			this.dependency = new double[n];
+			this.order = new int[n];
+			this.heap = weighted ? new DistanceHeap(distance) : null;
+			Arrays.fill(distance, Double.POSITIVE_INFINITY);
+		}
+
+		/**
+		 * Clears the scores within the components of a computation.
+		 *
+		 * @param sources the ascending ids of all nodes of the components.
+		 */
+		private void clear(int[] sources)
+		{
+			for (int v : sources)
+			{
+				nodeScores[v] = 0;
+				for (int slot = graph.getNeighborStart(v); slot < graph.getNeighborEnd(v); slot++)
+					edgeScores[graph.getEdgeIndex(slot)] = 0;
+			}
+		}
+
+		/**
+		 * Assigns the range of sources to run next.
+		 *
+		 * @param sources the sources.
+		 * @param from    the index of the first source of the range.
+		 * @param to      the index after the last source of the range.
+		 */
+		private void assign(int[] sources, int from, int to)
+		{
+			this.sources = sources;
+			this.from = from;
+			this.to = to;
+		}
+
+		/**
+		 * Runs the passes of every source of the range.
+		 */
+		private void run()
+		{
+			for (int index = from; index < to; index++)
+			{
+				int source = sources[index];
+				int count = weighted ? searchWeighted(source) : searchUnweighted(source);
+				accumulate(source, count);
+
+				for (int i = 0; i < count; i++)
+				{
+					int v = order[i];
+					distance[v] = Double.POSITIVE_INFINITY;
+					paths[v] = 0;
+					dependency[v] = 0;
+				}
+			}
+		}
+
+		/**
+		 * Counts the shortest paths from a source by breadth first search.
+		 *
+		 * @param source the source.
+		 * @return the number of nodes reached.
+		 */
+		private int searchUnweighted(int source)
+		{
+			distance[source] = 0;
+			paths[source] = 1;
+			order[0] = source;
+			int count = 1;
+
+			for (int head = 0; head < count; head++)
+			{
+				int w = order[head];
+				double next = distance[w] + 1;
+				for (int slot = graph.getNeighborStart(w); slot < graph.getNeighborEnd(w); slot++)
+				{
+					int x = graph.getTarget(slot);
+					if (x == w || removed[graph.getEdgeIndex(slot)])
+						continue;
+
+					if (distance[x] == Double.POSITIVE_INFINITY)
+					{
+						distance[x] = next;
+						order[count++] = x;
+					}
+					if (distance[x] == next)
+						paths[x] += paths[w];
+				}
+			}
+			return count;
+		}
+
+		/**
+		 * Counts the shortest paths from a source with Dijkstra's algorithm.
+		 *
+		 * @param source the source.
+		 * @return the number of nodes reached.
+		 */
+		private int searchWeighted(int source)
+		{
+			distance[source] = 0;
+			paths[source] = 1;
+			heap.push(source);
+			int count = 0;
+
+			while (!heap.isEmpty())
+			{
+				int w = heap.pop();
+				order[count++] = w;
+				for (int slot = graph.getNeighborStart(w); slot < graph.getNeighborEnd(w); slot++)
+				{
+					int x = graph.getTarget(slot);
+					if (x == w || removed[graph.getEdgeIndex(slot)])
+						continue;
+
+					double next = distance[w] + graph.getWeight(slot);
+					if (distance[x] == Double.POSITIVE_INFINITY)
+					{
+						distance[x] = next;
+						paths[x] = paths[w];
+						heap.push(x);
+					}
+					else if (next < distance[x])
+					{
+						// a shorter path replaces the ones counted so far
+						distance[x] = next;
+						paths[x] = paths[w];
+						heap.decrease(x);
+					}
+					else if (next == distance[x])
+					{
+						paths[x] += paths[w];
+					}
+				}
+			}
+			return count;
+		}
+
+		/**
+		 * Accumulates the dependencies of a pass from the farthest node back to
+		 * the source.
+		 *
+		 * @param source the source.
+		 * @param count  the number of nodes reached.
+		 */
+		private void accumulate(int source, int count)
+		{
+			for (int i = count - 1; i >= 0; i--)
+			{
+				int x = order[i];
+				for (int slot = graph.getNeighborStart(x); slot < graph.getNeighborEnd(x); slot++)
+				{
+					int w = graph.getTarget(slot);
+					int edge = graph.getEdgeIndex(slot);
+					if (w == x || removed[edge])
+						continue;
+
+					// w precedes x on the shortest paths through the edge
+					double before = distance[w] + (weighted ? graph.getWeight(slot) : 1);
+					if (before == distance[x])
+					{
+						double share = paths[w] / paths[x] * (1.0 + dependency[x]);
+						dependency[w] += share;
+						edgeScores[edge] += share;
+					}
+				}
+				if (x != source)
+					nodeScores[x] += dependency[x];
+			}
+		}
+	}
+
+	/**
+	 * A binary min-heap of node ids keyed by their distance, which supports
+	 * lowering the distance of a queued node.
+	 */
+	private static final class DistanceHeap
+	{
+		/**
+		 * The distance of every node.
+		 */
+		private final double[] distance;
+
+		/**
+		 * The queued nodes as an implicit binary tree.
+		 */
+		private final int[] heap;
+
+		/**
+		 * The index of every queued node within the heap.
+		 */
+		private final int[] position;
+
+		/**
+		 * The number of queued nodes.
+		 */
+		private int size = 0;
+
+		/**
+		 * Creates an empty heap.
+		 *
+		 * @param distance the distances keying the nodes.
+		 */
+		private DistanceHeap(double[] distance)
+		{
+			this.distance = distance;
+			this.heap = new int[distance.length];
+			this.position = new int[distance.length];
+		}
+
+		/**
+		 * Determines whether no node is queued.
+		 *
+		 * @return true if the heap is empty.
+		 */
+		private boolean isEmpty()
+		{
+			return size == 0;
+		}
+
+		/**
+		 * Queues a node.
+		 *
+		 * @param v the node id.
+		 */
+		private void push(int v)
+		{
+			heap[size] = v;
+			position[v] = size;
+			up(size++);
+		}
+
+		/**
+		 * Removes the node of least distance.
+		 *
+		 * @return the node id.
+		 */
+		private int pop()
+		{
+			int top = heap[0];
+			heap[0] = heap[--size];
+			position[heap[0]] = 0;
+			if (size > 0)
+				down(0);
+			return top;
+		}
+
+		/**
+		 * Restores the order after the distance of a queued node was lowered.
+		 *
+		 * @param v the node id.
+		 */
+		private void decrease(int v)
+		{
+			up(position[v]);
+		}
+
+		/**
+		 * Moves the node at an index towards the top.
+		 *
+		 * @param index the index within the heap.
+		 */
+		private void up(int index)
+		{
+			int v = heap[index];
+			while (index > 0)
+			{
+				int parent = (index - 1) >>> 1;
+				if (distance[heap[parent]] <= distance[v])
+					break;
+				heap[index] = heap[parent];
+				position[heap[index]] = index;
+				index = parent;
+			}
+			heap[index] = v;
+			position[v] = index;
+		}
+
+		/**
+		 * Moves the node at an index towards the bottom.
+		 *
+		 * @param index the index within the heap.
+		 */
+		private void down(int index)
+		{
+			int v = heap[index];
+			while (true)
+			{
+				int child = 2 * index + 1;
+				if (child >= size)
+					break;
+				if (child + 1 < size && distance[heap[child + 1]] < distance[heap[child]])
+					child++;
+				if (distance[v] <= distance[heap[child]])
+					break;
+				heap[index] = heap[child];
+				position[heap[index]] = index;
+				index = child;
+			}
+			heap[index] = v;
+			position[v] = index;
+		}
+	}
+}
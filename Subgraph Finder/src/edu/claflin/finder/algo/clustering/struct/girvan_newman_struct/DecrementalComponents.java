@@ -0,0 +1,199 @@
+package edu.claflin.finder.algo.clustering.struct.girvan_newman_struct;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import edu.claflin.finder.logic.CompactGraph;
+
+/**
+ * Tracks the weak components of a {@link CompactGraph} while its edges are
+ * removed one at a time. Every node carries the id of its component and every
+ * component keeps its members in ascending order. Removing an edge searches the
+ * component of its source from there; only if the target is no longer reached is
+ * the component split, the nodes reached keeping the old id and the others taking
+ * the next one. A removal therefore costs time linear in the size of the
+ * component it hits, not of the graph.
+ * <p>
+ * The snapshot should be symmetric, so that edges join their nodes both ways.
+ */
+public class DecrementalComponents
+{
+	/**
+	 * The snapshot of the graph.
+	 */
+	private final CompactGraph graph;
+
+	/**
+	 * Whether each edge is removed.
+	 */
+	private final boolean[] removed;
+
+	/**
+	 * The component id of every node.
+	 */
+	private final int[] component;
+
+	/**
+	 * The ascending node ids of every component, indexed by component id.
+	 */
+	private final List<int[]> members = new ArrayList<>();
+
+	/**
+	 * The marks and queue of the searches.
+	 */
+	private final boolean[] reached;
+	private final int[] queue;
+
+	/**
+	 * Finds the components of a snapshot with all of its edges.
+	 *
+	 * @param graph the CompactGraph, best built symmetric.
+	 */
+	public DecrementalComponents(CompactGraph graph)
+	{
+		int n = graph.getNodeCount();
+		this.graph = graph;
+		this.removed = new boolean[graph.getEdgeCount()];
+		this.component = new int[n];
+		this.reached = new boolean[n];
+		this.queue = new int[n];
+
+		Arrays.fill(component, -1);
+		for (int v = 0; v < n; v++)
+		{
+			if (component[v] >= 0)
+				continue;
+
+			int count = search(v);
+			int[] nodes = Arrays.copyOf(queue, count);
+			Arrays.sort(nodes);
+			for (int w : nodes)
+			{
+				component[w] = members.size();
+				reached[w] = false;
+			}
+			members.add(nodes);
+		}
+	}
+
+	/**
+	 * Removes an edge and splits its component if it falls apart.
+	 *
+	 * @param edgeIndex the index of the edge.
+	 * @return the id of the component split off, or -1 if none was.
+	 */
+	public int removeEdge(int edgeIndex)
+	{
+		if (removed[edgeIndex])
+			return -1;
+		removed[edgeIndex] = true;
+
+		int source = graph.getEdgeSource(edgeIndex);
+		int target = graph.getEdgeTarget(edgeIndex);
+		int count = search(source);
+		boolean split = !reached[target];
+
+		int result = -1;
+		if (split)
+		{
+			// the members in ascending order, divided by whether they were reached
+			int old = component[source];
+			int[] nodes = members.get(old);
+			int[] kept = new int[count];
+			int[] moved = new int[nodes.length - count];
+			int keptSize = 0;
+			int movedSize = 0;
+			for (int v : nodes)
+			{
+				if (reached[v])
+				{
+					kept[keptSize++] = v;
+				}
+				else
+				{
+					moved[movedSize++] = v;
+					component[v] = members.size();
+				}
+			}
+			members.set(old, kept);
+			members.add(moved);
+			result = members.size() - 1;
+		}
+
+		for (int i = 0; i < count; i++)
+			reached[queue[i]] = false;
+		return result;
+	}
+
+	/**
+	 * Determines whether an edge was removed.
+	 *
+	 * @param edgeIndex the index of the edge.
+	 * @return true if the edge is removed.
+	 */
+	public boolean isRemoved(int edgeIndex)
+	{
+		return removed[edgeIndex];
+	}
+
+	/**
+	 * Gets the number of components.
+	 *
+	 * @return the number of components.
+	 */
+	public int getComponentCount()
+	{
+		return members.size();
+	}
+
+	/**
+	 * Gets the component of a node.
+	 *
+	 * @param id the node id.
+	 * @return the component id.
+	 */
+	public int getComponent(int id)
+	{
+		return component[id];
+	}
+
+	/**
+	 * Gets the members of a component.
+	 *
+	 * @param componentId the component id.
+	 * @return the ascending node ids of its members, not to be modified.
+	 */
+	public int[] getMembers(int componentId)
+	{
+		return members.get(componentId);
+	}
+
+	/**
+	 * Marks the nodes reachable from a node over the edges not removed. Leaves them
+	 * marked and at the front of the queue.
+	 *
+	 * @param start the node to search from.
+	 * @return the number of nodes reached.
+	 */
+	private int search(int start)
+	{
+		reached[start] = true;
+		queue[0] = start;
+		int count = 1;
+		for (int head = 0; head < count; head++)
+		{
+			int w = queue[head];
+			for (int slot = graph.getNeighborStart(w); slot < graph.getNeighborEnd(w); slot++)
+			{
+				int x = graph.getTarget(slot);
+				if (!reached[x] && !removed[graph.getEdgeIndex(slot)])
+				{
+					reached[x] = true;
+					queue[count++] = x;
+				}
+			}
+		}
+		return count;
+	}
+}
@@ -0,0 +1,167 @@
+package edu.claflin.finder.algo.clustering.struct.walk_trap_struct;
+
+import java.util.Arrays;
+
+/**
+ * The probabilities of a random walk from a community reaching every node, each
+ * divided by the square root of the degree of the node, as in the Probabilities
+ * class of igraph's walktrap. A vector with few non-zero entries keeps their
+ * ascending node ids next to their values, any other keeps a value for every node.
+ * Either form is read in ascending id order, so the distance between two vectors
+ * adds up the same terms in the same order whatever their form.
+ */
+public class ProbabilityVector
+{
+	/**
+	 * The ascending node ids of the entries, or null if the vector is dense.
+	 */
+	private final int[] ids;
+
+	/**
+	 * The values of the entries.
+	 */
+	private final double[] values;
+
+	/**
+	 * The number of nodes.
+	 */
+	private final int nodes;
+
+	/**
+	 * Builds a vector from its entries, sparse if less than half of the nodes
+	 * have one.
+	 *
+	 * @param ids    the ascending node ids of the entries.
+	 * @param values the values of the entries.
+	 * @param count  the number of entries.
+	 * @param nodes  the number of nodes.
+	 */
+	public ProbabilityVector(int[] ids, double[] values, int count, int nodes)
+	{
+		this.nodes = nodes;
+		if (2 * count < nodes)
+		{
+			this.ids = Arrays.copyOf(ids, count);
+			this.values = Arrays.copyOf(values, count);
+		}
+		else
+		{
+			this.ids = null;
+			this.values = new double[nodes];
+			for (int k = 0; k < count; k++)
+				this.values[ids[k]] = values[k];
+		}
+	}
+
+	private ProbabilityVector(int[] ids, double[] values, int nodes)
+	{
+		this.ids = ids;
+		this.values = values;
+		this.nodes = nodes;
+	}
+
+	/**
+	 * Gets the number of stored entries.
+	 *
+	 * @return the number of entries, that of the nodes if dense.
+	 */
+	public int size()
+	{
+		return values.length;
+	}
+
+	/**
+	 * Determines whether the vector keeps a value for every node.
+	 *
+	 * @return true if dense.
+	 */
+	public boolean isDense()
+	{
+		return ids == null;
+	}
+
+	/**
+	 * Computes the vector of the union of two communities, the average of both
+	 * weighted by their sizes. Equation in section 4.4 of the paper (first bullet
+	 * point).
+	 *
+	 * @param size  the size of this community.
+	 * @param other the vector of the other community.
+	 * @param size2 the size of the other community.
+	 * @return the vector of the union.
+	 */
+	public ProbabilityVector merge(int size, ProbabilityVector other, int size2)
+	{
+		double w1 = (double) size / ((double) (size + size2));
+		double w2 = (double) size2 / ((double) (size + size2));
+
+		if (isDense() || other.isDense())
+		{
+			double[] merged = new double[nodes];
+			for (int k = 0; k < values.length; k++)
+				merged[id(k)] = values[k] * w1;
+			for (int k = 0; k < other.values.length; k++)
+				merged[other.id(k)] += other.values[k] * w2;
+			return new ProbabilityVector(null, merged, nodes);
+		}
+
+		int[] mergedIds = new int[values.length + other.values.length];
+		double[] merged = new double[mergedIds.length];
+		int count = 0;
+		int a = 0;
+		int b = 0;
+		while (a < values.length || b < other.values.length)
+		{
+			int id1 = a < values.length ? ids[a] : Integer.MAX_VALUE;
+			int id2 = b < other.values.length ? other.ids[b] : Integer.MAX_VALUE;
+			mergedIds[count] = Math.min(id1, id2);
+			merged[count++] = (id1 <= id2 ? values[a++] * w1 : 0.0) + (id2 <= id1 ? other.values[b++] * w2 : 0.0);
+		}
+		return new ProbabilityVector(mergedIds, merged, count, nodes);
+	}
+
+	/**
+	 * Computes the squared Euclidean distance to another vector. This is an
+	 * adaptation of compute_distance of the Probabilities class in igraph's
+	 * walktrap.
+	 *
+	 * @param other the other vector.
+	 * @return the distance.
+	 */
+	public double distance(ProbabilityVector other)
+	{
+		double sum = 0.0;
+		if (isDense() && other.isDense())
+		{
+			for (int k = 0; k < nodes; k++)
+			{
+				double d = values[k] - other.values[k];
+				sum += d * d;
+			}
+			return sum;
+		}
+
+		int a = 0;
+		int b = 0;
+		while (a < values.length || b < other.values.length)
+		{
+			int id1 = a < values.length ? id(a) : Integer.MAX_VALUE;
+			int id2 = b < other.values.length ? other.id(b) : Integer.MAX_VALUE;
+			double p1 = id1 <= id2 ? values[a++] : 0.0;
+			double p2 = id2 <= id1 ? other.values[b++] : 0.0;
+			sum += (p1 - p2) * (p1 - p2);
+		}
+		return sum;
+	}
+
+	/**
+	 * Gets the node id of an entry.
+	 *
+	 * @param k the index of the entry.
+	 * @return the node id.
+	 */
+	private int id(int k)
+	{
+		return ids == null ? k : ids[k];
+	}
+}
@@ -0,0 +1,267 @@
+package edu.claflin.finder.algo.clustering.struct.walk_trap_struct;
+
+import java.util.Arrays;
+
+/**
+ * A binary min-heap of the delta sigmas between adjacent communities, ties going
+ * to the smaller pair of indices. Entries are never searched for: every entry
+ * carries the versions both of its communities had when it was added, and once
+ * either community has changed the entry is skipped when it reaches the top.
+ * As skipped entries only leave the heap at the top, {@link #trim(int)} drops
+ * them all at once when they outnumber the valid ones, which caps the number of
+ * stored distances at twice the number of adjacent pairs.
+ */
+public class SigmaHeap
+{
+	/**
+	 * The version of every community, -1 once it is merged into another. Shared
+	 * with the caller, which increments the version of a community whenever it
+	 * changes.
+	 */
+	private final int[] versions;
+
+	private double[] sigmas = new double[16];
+	private int[] indices1 = new int[16];
+	private int[] indices2 = new int[16];
+	private int[] versions1 = new int[16];
+	private int[] versions2 = new int[16];
+	private int size;
+
+	/**
+	 * Creates an empty heap.
+	 *
+	 * @param versions the version of every community, updated by the caller.
+	 */
+	public SigmaHeap(int[] versions)
+	{
+		this.versions = versions;
+	}
+
+	/**
+	 * Gets the number of stored entries, valid or not.
+	 *
+	 * @return the number of entries.
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Determines whether the heap holds no valid entry, dropping the invalid
+	 * entries at the top.
+	 *
+	 * @return true if no valid entry remains.
+	 */
+	public boolean isEmpty()
+	{
+		while (size > 0 && !isValid(0))
+		{
+			removeTop();
+		}
+		return size == 0;
+	}
+
+	/**
+	 * Adds the delta sigma of two communities at their current versions.
+	 *
+	 * @param i     the index of one community.
+	 * @param j     the index of the other community.
+	 * @param sigma the delta sigma.
+	 */
+	public void add(int i, int j, double sigma)
+	{
+		if (size == sigmas.length)
+		{
+			int capacity = 2 * size;
+			sigmas = Arrays.copyOf(sigmas, capacity);
+			indices1 = Arrays.copyOf(indices1, capacity);
+			indices2 = Arrays.copyOf(indices2, capacity);
+			versions1 = Arrays.copyOf(versions1, capacity);
+			versions2 = Arrays.copyOf(versions2, capacity);
+		}
+
+		int position = size++;
+		sigmas[position] = sigma;
+		indices1[position] = Math.min(i, j);
+		indices2[position] = Math.max(i, j);
+		versions1[position] = versions[indices1[position]];
+		versions2[position] = versions[indices2[position]];
+		siftUp(position);
+	}
+
+	/**
+	 * Gets the smaller community index of the smallest valid entry. Only
+	 * defined after {@link #isEmpty()} returned false.
+	 *
+	 * @return the smaller index.
+	 */
+	public int getIndex1()
+	{
+		return indices1[0];
+	}
+
+	/**
+	 * Gets the larger community index of the smallest valid entry. Only defined
+	 * after {@link #isEmpty()} returned false.
+	 *
+	 * @return the larger index.
+	 */
+	public int getIndex2()
+	{
+		return indices2[0];
+	}
+
+	/**
+	 * Gets the delta sigma of the smallest valid entry. Only defined after
+	 * {@link #isEmpty()} returned false.
+	 *
+	 * @return the delta sigma.
+	 */
+	public double getValue()
+	{
+		return sigmas[0];
+	}
+
+	/**
+	 * Removes the smallest valid entry.
+	 */
+	public void poll()
+	{
+		if (!isEmpty())
+		{
+			removeTop();
+		}
+	}
+
+	/**
+	 * Drops every invalid entry if they outnumber the valid ones.
+	 *
+	 * @param valid the number of valid entries, that is of adjacent pairs.
+	 */
+	public void trim(int valid)
+	{
+		if (size <= 2 * valid)
+		{
+			return;
+		}
+
+		int kept = 0;
+		for (int position = 0; position < size; position++)
+		{
+			if (isValid(position))
+			{
+				move(position, kept++);
+			}
+		}
+		size = kept;
+		for (int position = size / 2 - 1; position >= 0; position--)
+		{
+			siftDown(position);
+		}
+	}
+
+	private boolean isValid(int position)
+	{
+		return versions[indices1[position]] == versions1[position] && versions[indices2[position]] == versions2[position];
+	}
+
+	private void removeTop()
+	{
+		move(--size, 0);
+		siftDown(0);
+	}
+
+	private void siftUp(int position)
+	{
+		while (position > 0)
+		{
+			int parent = (position - 1) / 2;
+			if (!before(position, parent))
+			{
+				break;
+			}
+			swap(position, parent);
+			position = parent;
+		}
+	}
+
+	private void siftDown(int position)
+	{
+		while (true)
+		{
+			int child = 2 * position + 1;
+			if (child >= size)
+			{
+				break;
+			}
+			if (child + 1 < size && before(child + 1, child))
+			{
+				child++;
+			}
+			if (!before(child, position))
+			{
+				break;
+			}
+			swap(position, child);
+			position = child;
+		}
+	}
+
+	/**
+	 * Whether an entry goes before another, by smaller delta sigma and then
+	 * smaller indices.
+	 */
+	private boolean before(int a, int b)
+	{
+		if (sigmas[a] != sigmas[b])
+		{
+			return sigmas[a] < sigmas[b];
+		}
+		if (indices1[a] != indices1[b])
+		{
+			return indices1[a] < indices1[b];
+		}
+		return indices2[a] < indices2[b];
+	}
+
+	private void move(int from, int to)
+	{
+		sigmas[to] = sigmas[from];
+		indices1[to] = indices1[from];
+		indices2[to] = indices2[from];
+		versions1[to] = versions1[from];
+		versions2[to] = versions2[from];
+	}
+
+	private void swap(int a, int b)
+	{
+		double sigma = sigmas[a];
+		sigmas[a] = sigmas[b];
+		sigmas[b] = sigma;
+		int index = indices1[a];
+		indices1[a] = indices1[b];
+		indices1[b] = index;
+		index = indices2[a];
+		indices2[a] = indices2[b];
+		indices2[b] = index;
+		int version = versions1[a];
+		versions1[a] = versions1[b];
+		versions1[b] = version;
+		version = versions2[a];
+		versions2[a] = versions2[b];
+		versions2[b] = version;
+	}
+
+	@Override
+	public String toString()
+	{
+		String result = "";
+		for (int position = 0; position < size; position++)
+		{
+			result += "[ i: " + indices1[position] + " j: " + indices2[position] + " Sigma: " + sigmas[position]
+					+ (isValid(position) ? "" : " stale") + " ] ";
+		}
+		return result;
+	}
+}
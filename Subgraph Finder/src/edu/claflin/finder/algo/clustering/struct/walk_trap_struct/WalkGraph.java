@@ -0,0 +1,201 @@
+package edu.claflin.finder.algo.clustering.struct.walk_trap_struct;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import edu.claflin.finder.logic.Edge;
+import edu.claflin.finder.logic.Node;
+
+/**
+ * The transitions of the random walks of Walktrap over int node ids. Node i is
+ * the Node at index i of the list it is built from, and every node steps to
+ * itself and to each of its neighbours. The degree of a node counts the node
+ * itself; if weighted, the weight of a node counts a step to itself of its
+ * weight over its degree, and the weight of the step to a neighbour is that of
+ * the first edge to it.
+ */
+public class WalkGraph
+{
+	private final int nodes;
+	private final int[] offsets; // start of the neighbours of every node, one more than the nodes
+	private final int[] targets; // ids of the neighbours
+	private final double[] weights; // weight of the step to every neighbour
+	private final double[] degrees; // degree or weight of every node, counting itself
+	private final double[] loops; // weight of the step of every node to itself
+
+	/**
+	 * Builds the transitions between the Nodes of a list. Neighbours outside the
+	 * list are left out.
+	 *
+	 * @param nList    the sorted Nodes
+	 * @param weighted whether to use edge weights
+	 */
+	public WalkGraph(List<Node> nList, boolean weighted)
+	{
+		nodes = nList.size();
+		HashMap<Node, Integer> index = new HashMap<>(nodes * 2);
+		for (int i = 0; i < nodes; i++)
+		{
+			index.put(nList.get(i), i);
+		}
+
+		offsets = new int[nodes + 1];
+		degrees = new double[nodes];
+		loops = new double[nodes];
+		int[] ids = new int[0];
+		double[] steps = new double[0];
+		int slots = 0;
+		for (int i = 0; i < nodes; i++)
+		{
+			Node n = nList.get(i);
+			degrees[i] = weighted ? n.getWeight() + n.getWeight() / n.getDegree() : n.getDegree() + 1;
+			loops[i] = weighted ? n.getWeight() / n.getDegree() : 1;
+
+			// the weight of the first edge to every neighbour
+			HashMap<Node, Double> first = new HashMap<>();
+			for (Edge e : weighted ? n.getEdges() : Collections.<Edge>emptyList())
+			{
+				first.putIfAbsent(n.equals(e.getSource()) ? e.getTarget() : e.getSource(), e.getData());
+			}
+
+			List<Node> neighbors = n.getNeighbors();
+			if (slots + neighbors.size() > ids.length)
+			{
+				ids = Arrays.copyOf(ids, Math.max(2 * ids.length, slots + neighbors.size()));
+				steps = Arrays.copyOf(steps, ids.length);
+			}
+			for (Node j : neighbors)
+			{
+				Integer id = index.get(j);
+				if (id != null)
+				{
+					ids[slots] = id;
+					steps[slots++] = weighted ? first.get(j) : 1.0;
+				}
+			}
+			offsets[i + 1] = slots;
+		}
+		targets = Arrays.copyOf(ids, slots);
+		weights = Arrays.copyOf(steps, slots);
+	}
+
+	/**
+	 * Gets the number of nodes.
+	 *
+	 * @return the number of nodes.
+	 */
+	public int getNodeCount()
+	{
+		return nodes;
+	}
+
+	/**
+	 * Creates the scratch space to walk from single nodes. A walker must only be
+	 * used by one thread at a time.
+	 *
+	 * @return the Walker.
+	 */
+	public Walker getWalker()
+	{
+		return new Walker();
+	}
+
+	/**
+	 * Walks from single nodes. Only the nodes the walk has reached are visited
+	 * at each step, in ascending order, so the probabilities add up exactly as
+	 * over all nodes.
+	 */
+	public class Walker
+	{
+		private double[] current = new double[nodes];
+		private double[] next = new double[nodes];
+		private int[] reached = new int[nodes];
+		private int[] reachedNext = new int[nodes];
+		private final boolean[] marked = new boolean[nodes];
+		private final double[] values = new double[nodes];
+
+		private Walker()
+		{
+		}
+
+		/**
+		 * Gets the probability vector of a single node community. This is an
+		 * adaptation of the int constructor of the Probabilities class in igraph's
+		 * walktrap.
+		 *
+		 * @param source the node id.
+		 * @param steps  the length of the walk.
+		 * @return the probability vector.
+		 */
+		public ProbabilityVector walk(int source, int steps)
+		{
+			current[source] = 1.0;
+			reached[0] = source;
+			int count = 1;
+
+			// "perform" the random walk of length steps
+			for (int step = 0; step < steps; step++)
+			{
+				Arrays.sort(reached, 0, count);
+				int countNext = 0;
+				for (int r = 0; r < count; r++)
+				{
+					int i = reached[r];
+					double prob = current[i] / degrees[i];
+					current[i] = 0.0;
+
+					// to itself, then to every neighbour
+					countNext = add(i, prob * loops[i], countNext);
+					for (int slot = offsets[i]; slot < offsets[i + 1]; slot++)
+					{
+						countNext = add(targets[slot], prob * weights[slot], countNext);
+					}
+				}
+
+				for (int r = 0; r < countNext; r++)
+				{
+					marked[reachedNext[r]] = false;
+				}
+
+				// swap vectors so current has the results of this step for the next one
+				double[] swap = current;
+				current = next;
+				next = swap;
+				int[] swapReached = reached;
+				reached = reachedNext;
+				reachedNext = swapReached;
+				count = countNext;
+			}
+
+			Arrays.sort(reached, 0, count);
+			for (int r = 0; r < count; r++)
+			{
+				int i = reached[r];
+				values[r] = current[i] / Math.sqrt(degrees[i]);
+				current[i] = 0.0;
+			}
+			return new ProbabilityVector(reached, values, count, nodes);
+		}
+
+		/**
+		 * Adds to the probability of reaching a node at the next step.
+		 *
+		 * @param j     the node id.
+		 * @param prob  the probability to add.
+		 * @param count the number of nodes reached so far.
+		 * @return the number of nodes reached.
+		 */
+		private int add(int j, double prob, int count)
+		{
+			if (!marked[j])
+			{
+				marked[j] = true;
+				reachedNext[count++] = j;
+			}
+			next[j] += prob;
+			return count;
+		}
+	}
+}
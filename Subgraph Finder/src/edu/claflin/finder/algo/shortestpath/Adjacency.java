@@ -0,0 +1,151 @@
+package edu.claflin.finder.algo.shortestpath;
+
+import java.util.Arrays;
+
+import edu.claflin.finder.logic.CompactGraph;
+import edu.claflin.finder.struct.IndexedMinHeap;
+
+/**
+ * The slots of a {@link CompactGraph} walked in one direction. The forward
+ * adjacency of a node holds its slots in the compact graph. The backward
+ * adjacency holds every slot leading to the node, pointing back at the node the
+ * slot leaves, so that a search over it follows the edges against their
+ * direction.
+ */
+final class Adjacency
+{
+	private final int[] offsets; // start of the slots of every node, one more than the nodes
+	private final int[] targets; // id of the node every slot leads to
+	private final double[] weights; // data of the edge behind every slot
+	private final int[] edges; // index of the edge behind every slot
+
+	/**
+	 * Builds the adjacency of a compact graph in one direction.
+	 *
+	 * @param compact  the CompactGraph.
+	 * @param backward true to follow the edges against their direction.
+	 */
+	Adjacency(CompactGraph compact, boolean backward)
+	{
+		int n = compact.getNodeCount();
+		int slots = compact.getSlotCount();
+		offsets = new int[n + 1];
+		targets = new int[slots];
+		weights = new double[slots];
+		edges = new int[slots];
+
+		if (!backward)
+		{
+			for (int v = 0; v < n; v++)
+			{
+				for (int slot = compact.getNeighborStart(v); slot < compact.getNeighborEnd(v); slot++)
+				{
+					targets[slot] = compact.getTarget(slot);
+					weights[slot] = compact.getWeight(slot);
+					edges[slot] = compact.getEdgeIndex(slot);
+				}
+				offsets[v + 1] = compact.getNeighborEnd(v);
+			}
+			return;
+		}
+
+		for (int slot = 0; slot < slots; slot++)
+			offsets[compact.getTarget(slot) + 1]++;
+		for (int v = 0; v < n; v++)
+			offsets[v + 1] += offsets[v];
+
+		int[] fill = Arrays.copyOf(offsets, n);
+		for (int v = 0; v < n; v++)
+		{
+			for (int slot = compact.getNeighborStart(v); slot < compact.getNeighborEnd(v); slot++)
+			{
+				int reverse = fill[compact.getTarget(slot)]++;
+				targets[reverse] = v;
+				weights[reverse] = compact.getWeight(slot);
+				edges[reverse] = compact.getEdgeIndex(slot);
+			}
+		}
+	}
+
+	/**
+	 * Determines whether some edge of a compact graph may only be followed in
+	 * one direction, in which case its backward adjacency differs from the
+	 * forward one.
+	 *
+	 * @param compact the CompactGraph.
+	 * @return true if an edge other than a loop is directed.
+	 */
+	static boolean isDirected(CompactGraph compact)
+	{
+		for (int e = 0; e < compact.getEdgeCount(); e++)
+		{
+			if (!compact.getEdge(e).isUndirected() && compact.getEdgeSource(e) != compact.getEdgeTarget(e))
+				return true;
+		}
+		return false;
+	}
+
+	int getNodeCount()
+	{
+		return offsets.length - 1;
+	}
+
+	int getStart(int id)
+	{
+		return offsets[id];
+	}
+
+	int getEnd(int id)
+	{
+		return offsets[id + 1];
+	}
+
+	int getTarget(int slot)
+	{
+		return targets[slot];
+	}
+
+	double getWeight(int slot)
+	{
+		return weights[slot];
+	}
+
+	int getEdgeIndex(int slot)
+	{
+		return edges[slot];
+	}
+
+	/**
+	 * Computes the distance from a node to every node by Dijkstra's Algorithm.
+	 *
+	 * @param source the id of the node to start from.
+	 * @return the distance to every node, positive infinity if unreachable.
+	 */
+	double[] getDistances(int source)
+	{
+		int n = getNodeCount();
+		double[] distance = new double[n];
+		boolean[] settled = new boolean[n];
+		Arrays.fill(distance, Double.POSITIVE_INFINITY);
+
+		IndexedMinHeap heap = new IndexedMinHeap(n);
+		distance[source] = 0.0;
+		heap.set(source, 0.0);
+		while (!heap.isEmpty())
+		{
+			int v = heap.poll();
+			settled[v] = true;
+			for (int slot = offsets[v]; slot < offsets[v + 1]; slot++)
+			{
+				int w = targets[slot];
+				double d = distance[v] + weights[slot];
+				if (!settled[w] && d < distance[w])
+				{
+					distance[w] = d;
+					heap.set(w, d);
+				}
+			}
+		}
+		return distance;
+	}
+}
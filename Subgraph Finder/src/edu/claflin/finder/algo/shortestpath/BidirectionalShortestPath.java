@@ -0,0 +1,280 @@
+package edu.claflin.finder.algo.shortestpath;
+
+import static edu.claflin.finder.Global.getLogger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import edu.claflin.finder.algo.Algorithm;
+import edu.claflin.finder.algo.ArgumentsBundle;
+import edu.claflin.finder.log.LogLevel;
+import edu.claflin.finder.logic.CompactGraph;
+import edu.claflin.finder.logic.Edge;
+import edu.claflin.finder.logic.Graph;
+import edu.claflin.finder.logic.Node;
+import edu.claflin.finder.struct.IndexedMinHeap;
+
+/**
+ * Bidirectional Dijkstra's Algorithm for the shortest path between two Nodes,
+ * optionally guided by landmarks (ALT). One search grows from the origin along
+ * the edges and another from the destination against them, on directed graphs
+ * over a reversed copy of the adjacency, always advancing the search with fewer
+ * nodes waiting. Whenever a node is reached by both, the path through it is
+ * remembered, and the searches stop once no shorter one can be found.
+ * <p>
+ * With the optional "landmarks" integer argument greater than 0, the distances
+ * between that many landmark nodes and every node are computed first and give
+ * lower bounds on the distance left to go, used as A* potentials so that both
+ * searches head for each other. The landmarks cost a few full searches and are
+ * cached per graph, so the many queries made on the same network settle only a
+ * small part of it.
+ *
+ * @see <a href="https://doi.org/10.1145/1070432.1070455">Goldberg and
+ *      Harrelson: Computing the shortest path: A* search meets graph theory</a>
+ */
+public class BidirectionalShortestPath extends Algorithm
+{
+	/**
+	 * The number of landmarks offered by default, enough for tight bounds on most
+	 * networks.
+	 */
+	public static final int DEFAULT_LANDMARKS = 8;
+
+	public BidirectionalShortestPath(ArgumentsBundle bundle)
+	{
+		super(bundle);
+		if (getLogger() != null)
+		{
+			getLogger().logInfo(LogLevel.DEBUG, "Bidirectional Shortest Path search algorithm instantiated.");
+		}
+	}
+
+	@Override
+	public String toString()
+	{
+		return getLandmarkCount() > 0 ? "ALT Algorithm" : "Bidirectional Dijkstra Algorithm";
+	}
+
+	/**
+	 * Finds a shortest path from the "fromNode" to the "toNode" argument. Edges
+	 * are followed from their source to their target, undirected edges both
+	 * ways, and their weights must not be negative.
+	 *
+	 * @param graph the Graph to search
+	 * @return the path as a Graph, nothing if the nodes are not connected
+	 */
+	@Override
+	public ArrayList<Graph> process(Graph graph)
+	{
+		Node from = graph.getNode(this.args.getObject("fromNode").toString());
+		Node to = graph.getNode(this.args.getObject("toNode").toString());
+		ArrayList<Graph> results = new ArrayList<>();
+		int landmarks = getLandmarkCount();
+
+		if (from == null || to == null)
+		{
+			if (getLogger() != null)
+				getLogger().logAlgo(LogLevel.VERBOSE,
+						"ShortestPath ERROR: Origin node and/or destination node not found in graph.");
+			return results;
+		}
+
+		// Return if origin Node is equals to destination Node.
+		if (from.getIdentifier().equals(to.getIdentifier()))
+		{
+			Graph subgraph = new Graph("");
+			subgraph.addNode(from);
+			return new ArrayList<Graph>(Arrays.asList(subgraph));
+		}
+
+		CompactGraph compact = new CompactGraph(graph);
+		Adjacency forward = new Adjacency(compact, false);
+		Adjacency backward = Adjacency.isDirected(compact) ? new Adjacency(compact, true) : forward;
+		LandmarkTable table = null;
+		if (landmarks > 0)
+		{
+			table = LandmarkTable.get(compact, forward, backward, landmarks);
+			if (getLogger() != null)
+				getLogger().logAlgo(LogLevel.VERBOSE, "ShortestPath: Using " + table.size() + " landmarks");
+		}
+
+		Search search = new Search(forward, backward, table, compact.getId(from), compact.getId(to));
+		search.run();
+
+		if (search.meet == -1)
+		{
+			if (getLogger() != null)
+				getLogger().logAlgo(LogLevel.VERBOSE, "ShortestPath: Shortest path not found, there is not path");
+			return results;
+		}
+
+		// from the meeting node back to the origin, then on to the destination
+		List<Node> nodes = new ArrayList<>();
+		List<Edge> edges = new ArrayList<>();
+		for (int v = search.meet; v != search.source; v = search.parent[0][v])
+		{
+			nodes.add(compact.getNode(v));
+			edges.add(compact.getEdge(search.via[0][v]));
+		}
+		nodes.add(from);
+		Collections.reverse(nodes);
+		Collections.reverse(edges);
+		for (int v = search.meet; v != search.target; v = search.parent[1][v])
+		{
+			nodes.add(compact.getNode(search.parent[1][v]));
+			edges.add(compact.getEdge(search.via[1][v]));
+		}
+
+		if (getLogger() != null)
+			getLogger().logAlgo(LogLevel.VERBOSE, "ShortestPath: Shortest path found after settling " + search.settled
+					+ " of " + compact.getNodeCount() + " nodes");
+
+		results.add(new Graph("Shortest Path from " + from.getIdentifier() + " to " + to.getIdentifier() + " W(T) = "
+				+ search.best, nodes, edges));
+		return results;
+	}
+
+	/**
+	 * Gets the number of landmarks selected by the arguments.
+	 *
+	 * @return the number of landmarks, 0 for a plain bidirectional search.
+	 */
+	private int getLandmarkCount()
+	{
+		Integer landmarks = args.getInteger("landmarks");
+		if (landmarks == null)
+			return 0;
+		if (landmarks < 0)
+			throw new IllegalArgumentException("The number of landmarks must not be negative: " + landmarks);
+		return landmarks;
+	}
+
+	/**
+	 * The two searches of a query. Index 0 of every pair of arrays belongs to the
+	 * search from the origin, index 1 to the one from the destination.
+	 * <p>
+	 * With landmarks, the forward search keys a node v by its distance plus
+	 * (b(v, t) - b(s, v)) / 2 and the backward search by its distance minus that,
+	 * b being the landmark lower bound. Both potentials are consistent and add up
+	 * to 0, so the searches may stop as soon as the smallest keys of both add up
+	 * to the length of the best path found, as without landmarks.
+	 */
+	private static final class Search
+	{
+		private final Adjacency[] adjacency;
+		private final LandmarkTable table;
+		private final int source;
+		private final int target;
+
+		private final double[][] distance = new double[2][];
+		private final int[][] parent = new int[2][]; // node every node was reached from
+		private final int[][] via = new int[2][]; // index of the edge every node was reached by
+		private final boolean[][] done = new boolean[2][];
+		private final IndexedMinHeap[] heaps = new IndexedMinHeap[2];
+		private final double[] potential; // forward potential of every node, NaN until computed
+
+		private double best = Double.POSITIVE_INFINITY; // length of the shortest path found
+		private int meet = -1; // node the shortest path found goes through
+		private int settled;
+
+		private Search(Adjacency forward, Adjacency backward, LandmarkTable table, int source, int target)
+		{
+			this.adjacency = new Adjacency[] { forward, backward };
+			this.table = table;
+			this.source = source;
+			this.target = target;
+
+			int n = forward.getNodeCount();
+			for (int side = 0; side < 2; side++)
+			{
+				distance[side] = new double[n];
+				parent[side] = new int[n];
+				via[side] = new int[n];
+				done[side] = new boolean[n];
+				heaps[side] = new IndexedMinHeap(n);
+				Arrays.fill(distance[side], Double.POSITIVE_INFINITY);
+			}
+			potential = table == null ? null : new double[n];
+			if (potential != null)
+				Arrays.fill(potential, Double.NaN);
+		}
+
+		private void run()
+		{
+			reach(0, source, -1, -1, 0.0);
+			reach(1, target, -1, -1, 0.0);
+			while (!heaps[0].isEmpty() && !heaps[1].isEmpty())
+			{
+				if (heaps[0].peekKey() + heaps[1].peekKey() >= best)
+					break;
+
+				int side = heaps[0].size() <= heaps[1].size() ? 0 : 1;
+				int v = heaps[side].poll();
+				done[side][v] = true;
+				settled++;
+
+				Adjacency adj = adjacency[side];
+				for (int slot = adj.getStart(v); slot < adj.getEnd(v); slot++)
+				{
+					int w = adj.getTarget(slot);
+					double d = distance[side][v] + adj.getWeight(slot);
+					if (!done[side][w] && d < distance[side][w])
+						reach(side, w, v, adj.getEdgeIndex(slot), d);
+				}
+			}
+		}
+
+		/**
+		 * Records a shorter distance to a node, unless the landmarks show it lies on
+		 * no path between the origin and the destination.
+		 *
+		 * @param side the search reaching the node.
+		 * @param w    the node.
+		 * @param v    the node it is reached from, -1 for the start.
+		 * @param edge the index of the edge it is reached by.
+		 * @param d    the distance.
+		 */
+		private void reach(int side, int w, int v, int edge, double d)
+		{
+			double p = getPotential(w);
+			if (p == Double.POSITIVE_INFINITY)
+				return;
+
+			distance[side][w] = d;
+			parent[side][w] = v;
+			via[side][w] = edge;
+			heaps[side].set(w, d + (side == 0 ? p : -p));
+
+			double through = d + distance[1 - side][w];
+			if (through < best)
+			{
+				best = through;
+				meet = w;
+			}
+		}
+
+		/**
+		 * Gets the forward potential of a node.
+		 *
+		 * @param v the node.
+		 * @return the potential, 0 without landmarks and positive infinity if the
+		 *         node cannot be on a path from the origin to the destination.
+		 */
+		private double getPotential(int v)
+		{
+			if (potential == null)
+				return 0.0;
+			if (potential[v] != potential[v])
+			{
+				double toTarget = table.getLowerBound(v, target);
+				double fromSource = table.getLowerBound(source, v);
+				potential[v] = toTarget == Double.POSITIVE_INFINITY || fromSource == Double.POSITIVE_INFINITY
+						? Double.POSITIVE_INFINITY
+						: (toTarget - fromSource) / 2;
+			}
+			return potential[v];
+		}
+	}
+}
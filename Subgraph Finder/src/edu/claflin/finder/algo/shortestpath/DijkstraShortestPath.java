@@ -4,20 +4,25 @@ import static edu.claflin.finder.Global.getLogger;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 import edu.claflin.finder.algo.Algorithm;
 import edu.claflin.finder.algo.ArgumentsBundle;
 import edu.claflin.finder.log.LogLevel;
+import edu.claflin.finder.logic.CompactGraph;
 import edu.claflin.finder.logic.Edge;
 import edu.claflin.finder.logic.Graph;
 import edu.claflin.finder.logic.Node;
-
-
-
+import edu.claflin.finder.struct.IndexedMinHeap;
+
+/**
+ * Dijkstra's Algorithm for the shortest path between two Nodes. The search runs
+ * over the int ids of a {@link CompactGraph} with an {@link IndexedMinHeap},
+ * decreasing the key of a node whenever a shorter path to it is found, and
+ * stops as soon as the destination leaves the heap. Every node remembers the
+ * node and edge it was reached by, so the path is rebuilt in time proportional
+ * to its length. A query takes O((N + E) log N) time.
+ */
 public class DijkstraShortestPath extends Algorithm {
 
     /**
@@ -40,176 +45,101 @@ public class DijkstraShortestPath extends Algorithm {
 		return "Dijkstra Algorithm";
 	}
 
+    /**
+     * Finds a shortest path from the "fromNode" to the "toNode" argument. Edges
+     * are followed from their source to their target, undirected edges both
+     * ways, and their weights must not be negative.
+     *
+     * @param graph the Graph to search
+     * @return the path as a Graph, nothing if the nodes are not connected
+     */
     @Override
     public ArrayList<Graph> process(Graph graph) {
-        //return new ArrayList<Graph>(Arrays.asList(graph));
-    	
-        Set<String> visited = new HashSet<String>();
         Node   from = graph.getNode(this.args.getObject("fromNode").toString());
         Node   to = graph.getNode(this.args.getObject("toNode").toString());
-        Edge   currentEdge;
         Graph subgraph = new Graph("");
         ArrayList<Graph> results = new ArrayList<>();
-        Node parent;
-        
-        boolean undirected = false;
-        
-        List<Node> nodes; // where subgraph node list will be stored
-		List<Edge> edges = graph.getEdgeList(); //graph edges
 
-		
+        if (from == null || to == null)
+        {
+            if (getLogger() != null)
+                getLogger().logAlgo(LogLevel.VERBOSE, "ShortestPath ERROR: Origin node and/or destination node not found in graph.");
+            return results;
+        }
 
-		for (Edge e : graph.getEdgeList())
-		{
-			
-			if (e.isUndirected())
-			{
-				undirected = true;
-				
-			}
-			
-		}
-		
-		
         // Return if origin Node is equals to destination Node.
         if (from.getIdentifier().equals(to.getIdentifier())){
             subgraph.addNode(from);
             return new ArrayList<Graph>(Arrays.asList(subgraph));
         }
 
-       
-        HashMap<Node, Node> changedAt = new HashMap<>();
-        changedAt.put(from, null);
+		CompactGraph compact = new CompactGraph(graph);
+		int source = compact.getId(from);
+		int target = compact.getId(to);
+		int n = compact.getNodeCount();
+
+		double[] distance = new double[n]; // shortest distance found so far to every node
+		int[] parent = new int[n]; // node every node was reached from, -1 if none
+		int[] via = new int[n]; // index of the edge every node was reached by
+		boolean[] settled = new boolean[n];
+		Arrays.fill(distance, Double.POSITIVE_INFINITY);
+		Arrays.fill(parent, -1);
+
+		IndexedMinHeap heap = new IndexedMinHeap(n);
+		distance[source] = 0.0;
+		heap.set(source, 0.0);
+		while (!heap.isEmpty())
+		{
+			int v = heap.poll();
+			settled[v] = true;
 
-        // Keeps track of the shortest path we've found so far for every node
-        HashMap<Node, Double> shortestPathMap = new HashMap<>();
+			// the distance to a node is final once it leaves the heap
+			if (v == target)
+			{
+				break;
+			}
 
-        // Setting every node's shortest path weight to positive infinity to start
-        // except the starting node, whose shortest path weight is 0
-        for (Node node : graph.getNodeList()) {
-            if (node == from)
-                shortestPathMap.put(from, 0.0);
-            else shortestPathMap.put(node, Double.POSITIVE_INFINITY);
-        }
+			for (int slot = compact.getNeighborStart(v); slot < compact.getNeighborEnd(v); slot++)
+			{
+				int w = compact.getTarget(slot);
+				double d = distance[v] + compact.getWeight(slot);
+				if (!settled[w] && d < distance[w])
+				{
+					distance[w] = d;
+					parent[w] = v;
+					via[w] = compact.getEdgeIndex(slot);
+					heap.set(w, d);
+				}
+			}
+		}
 
-        // go through all neighbors
-        List<Node> neighbors = graph.getAdjacencyList(from);
-        for (Node node : neighbors) {
-        	currentEdge = graph.getEdge(from, node);
-            shortestPathMap.put(node,currentEdge.getData() );
-            changedAt.put(node, from);
-        }
-        
-        visited.add(from.getIdentifier());
-       
-        while (true) {
-            Node currentNode = closestReachableUnvisited(shortestPathMap,graph,visited);
-            // If we haven't reached the to node yet, and there isn't another
-            // reachable node the path between start and to doesn't exist
-            // (they aren't connected)
-            if (currentNode == null) {
-            	if (getLogger() != null)
-                    getLogger().logAlgo(LogLevel.VERBOSE, "ShortestPath: Shortest path not found, there is not path");
-            
-                return results;
-            }
-
-           
-            if (currentNode == to) {
-                Node child = to;
-
-        
-                parent = changedAt.get(child);
-                
-                while (parent != null) {
-                    parent = changedAt.get(child);
-                    
-
-                    // Since our changedAt map keeps track of child -> parent relations
-                   
-                    
-                    subgraph.addNode(child);
-                    
-                    
-                    
-                    
-                    
-                    child = parent;
-                }
-                
-                nodes = subgraph.getNodeList();
-                
-                for(int i =1;i<subgraph.getNodeCount();i++)
-                {
-                	for(Edge e: edges) 
-                    {
-                		if( e.getSource() == nodes.get(i) && e.getTarget() == currentNode )
-                			subgraph.addEdge(e);
-                		if(undirected && e.getSource() == currentNode && e.getTarget() == nodes.get(i))
-                			subgraph.addEdge(e);
-                    }
-                	currentNode = nodes.get(i);
-                }
-              
-                
-                
-                if (getLogger() != null)
-                        getLogger().logAlgo(LogLevel.VERBOSE, "ShortestPath: Shortest path found");
-                
-                if(!subgraph.getEdgeList().isEmpty() && !subgraph.getNodeList().isEmpty()) 
-                {
-                	graph = new Graph("Shortest Path from " + from.getIdentifier() + " to " + to.getIdentifier() +" W(T) = " 
-                			+ getWeight(subgraph.getEdgeList()), subgraph.getNodeList(), subgraph.getEdgeList());                	
-                	results.add(graph);
-                	
-                }
-                
-                return results;
-            }
-            
-            visited.add(currentNode.getIdentifier());
-
-            // Now we go through all the unvisited nodes our current node has an edge to
-            // and check whether its shortest path value is better when going through our
-            // current node than whatever we had before
-            
-            
-            for (Node node : graph.getAdjacencyList(currentNode)) {
-            	currentEdge = graph.getEdge(currentNode,node );
-                if (visited.contains(node.getIdentifier()))
-                    continue;
-                
-                if (shortestPathMap.get(currentNode)
-                   + currentEdge.getData()
-                   < shortestPathMap.get(node)) {
-                    shortestPathMap.put(node,
-                                       shortestPathMap.get(currentNode) + currentEdge.getData());
-                    changedAt.put(node, currentNode);
-                }
-            }
-        }
-        
-    }
-    private Node closestReachableUnvisited(HashMap<Node, Double> shortestPathMap,Graph graph,Set<String> visited) {
-
-        double shortestDistance = Double.POSITIVE_INFINITY;
-        Node closestReachableNode = null;
-        for (Node node : graph.getNodeList()) {
-            if (visited.contains(node.getIdentifier()))
-                continue;
-
-            double currentDistance = shortestPathMap.get(node);
-            if (currentDistance == Double.POSITIVE_INFINITY)
-                continue;
-
-            if (currentDistance < shortestDistance) {
-                shortestDistance = currentDistance;
-                closestReachableNode = node;
-            }
-        }
-        return closestReachableNode;
+		// If the to node was never reached the path between start and to doesn't
+		// exist (they aren't connected)
+		if (!settled[target])
+		{
+			if (getLogger() != null)
+				getLogger().logAlgo(LogLevel.VERBOSE, "ShortestPath: Shortest path not found, there is not path");
+			return results;
+		}
+
+		// follow the parents back from the to node
+		List<Node> nodes = new ArrayList<>();
+		List<Edge> edges = new ArrayList<>();
+		nodes.add(to);
+		for (int v = target; v != source; v = parent[v])
+		{
+			nodes.add(compact.getNode(parent[v]));
+			edges.add(compact.getEdge(via[v]));
+		}
+
+		if (getLogger() != null)
+			getLogger().logAlgo(LogLevel.VERBOSE, "ShortestPath: Shortest path found");
+
+		results.add(new Graph("Shortest Path from " + from.getIdentifier() + " to " + to.getIdentifier() + " W(T) = "
+				+ getWeight(edges), nodes, edges));
+		return results;
     }
-    
+
     private double getWeight(List<Edge> E)
     {
     	double total = 0;
@@ -0,0 +1,260 @@
+package edu.claflin.finder.algo.shortestpath;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import edu.claflin.finder.logic.CompactGraph;
+import edu.claflin.finder.logic.Edge;
+
+/**
+ * The distances between a few landmark nodes and every node of a graph, from
+ * which lower bounds on the distance between any two nodes follow by the
+ * triangle inequality. The landmarks are picked one at a time as the node
+ * farthest from those already picked, so that they lie on the outskirts of the
+ * graph where the bounds are tightest.
+ * <p>
+ * Picking the landmarks takes two full searches per landmark, so the tables of
+ * the last few graphs are cached. A graph is recognised by its contents, that
+ * is the identifiers of its nodes and the ends, direction and data of its edges
+ * in order, so that a network converted anew for every query still hits the
+ * cache while any change to it does not.
+ */
+final class LandmarkTable
+{
+	/**
+	 * The number of graphs whose tables are kept.
+	 */
+	private static final int CACHE_SIZE = 4;
+
+	/**
+	 * The cached tables by the hash of their graph, least recently used first.
+	 */
+	private static final Map<Long, LandmarkTable> CACHE = new LinkedHashMap<Long, LandmarkTable>(16, 0.75f, true)
+	{
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, LandmarkTable> eldest)
+		{
+			return size() > CACHE_SIZE;
+		}
+	};
+
+	// the contents of the graph the table belongs to
+	private final String[] names;
+	private final int[] sources;
+	private final int[] targets;
+	private final double[] data;
+	private final boolean[] undirected;
+
+	private final int count; // number of landmarks asked for
+	private final int[] landmarks; // ids of the landmarks
+	private final double[][] from; // distance from every landmark to every node
+	private final double[][] to; // distance from every node to every landmark
+
+	/**
+	 * Gets the table of a graph, from the cache if it holds one with as many
+	 * landmarks for the same graph.
+	 *
+	 * @param compact  the CompactGraph of the graph.
+	 * @param forward  its forward Adjacency.
+	 * @param backward its backward Adjacency.
+	 * @param count    the number of landmarks.
+	 * @return the LandmarkTable.
+	 */
+	static LandmarkTable get(CompactGraph compact, Adjacency forward, Adjacency backward, int count)
+	{
+		LandmarkTable table = new LandmarkTable(compact);
+		long key = table.hash() * 31 + count;
+		synchronized (CACHE)
+		{
+			LandmarkTable cached = CACHE.get(key);
+			if (cached != null && cached.count == count && cached.matches(table))
+				return cached;
+		}
+
+		table = new LandmarkTable(table, forward, backward, count);
+		synchronized (CACHE)
+		{
+			CACHE.put(key, table);
+		}
+		return table;
+	}
+
+	/**
+	 * Records the contents of a graph, without landmarks.
+	 *
+	 * @param compact the CompactGraph of the graph.
+	 */
+	private LandmarkTable(CompactGraph compact)
+	{
+		int n = compact.getNodeCount();
+		int m = compact.getEdgeCount();
+		names = new String[n];
+		for (int v = 0; v < n; v++)
+			names[v] = compact.getNode(v).getIdentifier();
+
+		sources = new int[m];
+		targets = new int[m];
+		data = new double[m];
+		undirected = new boolean[m];
+		for (int e = 0; e < m; e++)
+		{
+			Edge edge = compact.getEdge(e);
+			sources[e] = compact.getEdgeSource(e);
+			targets[e] = compact.getEdgeTarget(e);
+			data[e] = edge.getData();
+			undirected[e] = edge.isUndirected();
+		}
+
+		count = 0;
+		landmarks = new int[0];
+		from = new double[0][];
+		to = new double[0][];
+	}
+
+	/**
+	 * Picks the landmarks of a graph and computes their distances.
+	 *
+	 * @param graph    the contents of the graph.
+	 * @param forward  its forward Adjacency.
+	 * @param backward its backward Adjacency, the same object if no edge is
+	 *                 directed.
+	 * @param count    the number of landmarks.
+	 */
+	private LandmarkTable(LandmarkTable graph, Adjacency forward, Adjacency backward, int count)
+	{
+		names = graph.names;
+		sources = graph.sources;
+		targets = graph.targets;
+		data = graph.data;
+		undirected = graph.undirected;
+		this.count = count;
+
+		int n = forward.getNodeCount();
+		int[] picked = new int[Math.min(count, n)];
+		double[][] fromPicked = new double[picked.length][];
+		double[][] toPicked = new double[picked.length][];
+
+		// the distance of every node to the nearest landmark in either direction,
+		// measured from the node of highest degree until the first one is picked
+		int start = 0;
+		for (int v = 1; v < n; v++)
+		{
+			if (forward.getEnd(v) - forward.getStart(v) > forward.getEnd(start) - forward.getStart(start))
+				start = v;
+		}
+		double[] nearest = new double[n];
+		Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+		update(nearest, forward.getDistances(start), backward == forward ? null : backward.getDistances(start));
+		boolean[] isLandmark = new boolean[n];
+
+		int k = 0;
+		while (k < picked.length)
+		{
+			// the reachable node farthest from the landmarks, ties to the smaller id
+			int next = -1;
+			for (int v = 0; v < n; v++)
+			{
+				if (!isLandmark[v] && nearest[v] != Double.POSITIVE_INFINITY
+						&& (next == -1 || nearest[v] > nearest[next]))
+					next = v;
+			}
+			if (next == -1)
+				break;
+
+			picked[k] = next;
+			isLandmark[next] = true;
+			fromPicked[k] = forward.getDistances(next);
+			toPicked[k] = backward == forward ? fromPicked[k] : backward.getDistances(next);
+			update(nearest, fromPicked[k], toPicked[k]);
+			k++;
+		}
+
+		landmarks = Arrays.copyOf(picked, k);
+		from = Arrays.copyOf(fromPicked, k);
+		to = Arrays.copyOf(toPicked, k);
+	}
+
+	/**
+	 * Lowers the distance of every node to the nearest landmark.
+	 *
+	 * @param nearest the distances to lower.
+	 * @param from    the distances from a node.
+	 * @param to      the distances to the node, null if the same.
+	 */
+	private static void update(double[] nearest, double[] from, double[] to)
+	{
+		for (int v = 0; v < nearest.length; v++)
+		{
+			nearest[v] = Math.min(nearest[v], from[v]);
+			if (to != null)
+				nearest[v] = Math.min(nearest[v], to[v]);
+		}
+	}
+
+	/**
+	 * Gets the number of landmarks. It is smaller than requested if fewer nodes
+	 * are connected to the node of highest degree.
+	 *
+	 * @return the number of landmarks.
+	 */
+	int size()
+	{
+		return landmarks.length;
+	}
+
+	/**
+	 * Computes a lower bound on the distance between two nodes. For every
+	 * landmark L, d(v, w) is at least d(v, L) - d(w, L) and d(L, w) - d(L, v).
+	 * The bound is infinite when a landmark shows that w cannot be reached from
+	 * v, and as a node has a smaller bound than its neighbours plus the length of
+	 * the edge to them, it is a consistent A* potential.
+	 *
+	 * @param v the id of the node to start from.
+	 * @param w the id of the node to reach.
+	 * @return the lower bound, at least 0.
+	 */
+	double getLowerBound(int v, int w)
+	{
+		double bound = 0.0;
+		for (int l = 0; l < landmarks.length; l++)
+		{
+			double wTo = to[l][w];
+			if (wTo != Double.POSITIVE_INFINITY)
+			{
+				// w reaches L but v does not, so v cannot reach w
+				if (to[l][v] == Double.POSITIVE_INFINITY)
+					return Double.POSITIVE_INFINITY;
+				bound = Math.max(bound, to[l][v] - wTo);
+			}
+
+			double vFrom = from[l][v];
+			if (vFrom != Double.POSITIVE_INFINITY)
+			{
+				// L reaches v but not w, so v cannot reach w
+				if (from[l][w] == Double.POSITIVE_INFINITY)
+					return Double.POSITIVE_INFINITY;
+				bound = Math.max(bound, from[l][w] - vFrom);
+			}
+		}
+		return bound;
+	}
+
+	private long hash()
+	{
+		long hash = Arrays.hashCode(names);
+		hash = hash * 31 + Arrays.hashCode(sources);
+		hash = hash * 31 + Arrays.hashCode(targets);
+		hash = hash * 31 + Arrays.hashCode(data);
+		return hash * 31 + Arrays.hashCode(undirected);
+	}
+
+	private boolean matches(LandmarkTable that)
+	{
+		return Arrays.equals(names, that.names) && Arrays.equals(sources, that.sources)
+				&& Arrays.equals(targets, that.targets) && Arrays.equals(data, that.data)
+				&& Arrays.equals(undirected, that.undirected);
+	}
+}
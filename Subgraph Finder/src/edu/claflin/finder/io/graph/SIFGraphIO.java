@@ -15,7 +15,7 @@ import edu.claflin.finder.io.graph.sub.GraphWriter;
 import edu.claflin.finder.log.LogLevel;
 import edu.claflin.finder.logic.Edge;
 import edu.claflin.finder.logic.Graph;
-import edu.claflin.finder.logic.Node;
+import edu.claflin.finder.logic.GraphBuilder;
 
 /**
  * A class for reading and writing graphs in the SIF format.
@@ -63,7 +63,8 @@ public final class SIFGraphIO implements GraphReader, GraphWriter
 		if (!testFile(source))
 			return null;
 
-		Graph graph = new Graph(source.getName().split("\\.")[0]);
+		GraphBuilder builder = new GraphBuilder(source.getName().split("\\.")[0]);
+		Graph graph = null;
 
 		if (getLogger() != null)
 		{
@@ -82,26 +83,16 @@ public final class SIFGraphIO implements GraphReader, GraphWriter
 				{
 					String[] nodeString = line.split(" ");
 
-					// Add nodes to Graph.
-					Node[] nodes = new Node[nodeString.length - 1];
-					if (nodes.length < 2 && getLogger() != null)
+					// A SIF line holds the source, the relationship and the targets.
+					if (nodeString.length < 3)
 					{
-						getLogger().logError(LogLevel.NORMAL, "GraphIO: Error: malformed SIF line: " + line);
+						if (getLogger() != null)
+						{
+							getLogger().logError(LogLevel.NORMAL, "GraphIO: Error: malformed SIF line: " + line);
+						}
 						throw new IOException();
 					}
 
-					for (int nodeIndex = 0; nodeIndex < nodes.length; nodeIndex++)
-					{
-						if (nodeIndex == 1)
-							continue;
-						nodes[nodeIndex] = new Node(nodeString[nodeIndex]);
-					}
-					for (Node node : nodes)
-					{
-						if (!graph.getNodeList().contains(node))
-							graph.addNode(node);
-					}
-
 					Double data = 0.0;
 
 					try
@@ -113,13 +104,16 @@ public final class SIFGraphIO implements GraphReader, GraphWriter
 
 					}
 
-					for (int nodeIndex = 1; nodeIndex < nodes.length; nodeIndex++)
+					// Add nodes and edges to Graph.
+					for (int nodeIndex = 2; nodeIndex < nodeString.length; nodeIndex++)
 					{
-						graph.addEdge(new Edge(nodes[0], nodes[nodeIndex], data, false));
+						builder.addEdge(nodeString[0], nodeString[nodeIndex], data, false);
 					}
 				}
 			}
 			while (line != null);
+
+			graph = builder.build();
 		}
 		catch (IOException ioe)
 		{
@@ -15,7 +15,7 @@ import edu.claflin.finder.io.graph.sub.GraphWriter;
 import edu.claflin.finder.log.LogLevel;
 import edu.claflin.finder.logic.Edge;
 import edu.claflin.finder.logic.Graph;
-import edu.claflin.finder.logic.Node;
+import edu.claflin.finder.logic.GraphBuilder;
 
 /**
  * A class for reading and writing graphs.
@@ -54,7 +54,8 @@ public final class SimpleGraphIO implements GraphReader, GraphWriter
 			return null;
 		}
 
-		Graph graph = new Graph(source.getName().split("\\.")[0]);
+		GraphBuilder builder = new GraphBuilder(source.getName().split("\\.")[0]);
+		Graph graph = null;
 
 		if (getLogger() != null)
 		{
@@ -84,22 +85,13 @@ public final class SimpleGraphIO implements GraphReader, GraphWriter
 						continue;
 					}
 
-					// Add nodes to Graph.
-					Node[] nodes = new Node[2];
-					for (int nodeIndex = 0; nodeIndex < 2; nodeIndex++)
-					{
-						nodes[nodeIndex] = new Node(nodeString[nodeIndex]);
-					}
-					for (Node node : nodes)
-					{
-						if (!graph.getNodeList().contains(node))
-							graph.addNode(node);
-					}
-
-					graph.addEdge(new Edge(nodes[0], nodes[1], Double.parseDouble(nodeString[2]), undirected));
+					// Add nodes and edge to Graph.
+					builder.addEdge(nodeString[0], nodeString[1], weight, undirected);
 				}
 			}
 			while (line != null);
+
+			graph = builder.build();
 		}
 		catch (IOException ioe)
 		{
@@ -196,7 +196,7 @@ public class LogUtil {
      * message is.
      * @param detail the String representing the data to be logged.
      */
-    private void log(LogType type, LogLevel granularity, String detail) {
+    private synchronized void log(LogType type, LogLevel granularity, String detail) {
         if (granularity.compareTo(maxGranularity) <= 0) {
             if (logToFile && fileLogs.get(type)) {
                 try {
@@ -0,0 +1,372 @@
+package edu.claflin.finder.logic;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Read-only compressed sparse row (CSR) snapshot of a {@link Graph}. Nodes are
+ * numbered densely from 0 in the order of the graph's node list and edges in the
+ * order of its edge list. The adjacency of node v occupies the slots
+ * [getNeighborStart(v), getNeighborEnd(v)) of the targets, weights and edge
+ * index arrays.
+ * <p>
+ * The adjacency mirrors {@link Node#getNeighbors()}: every edge is reachable
+ * from its source and undirected edges are reachable from their target as well.
+ * A symmetric snapshot additionally makes directed edges reachable from their
+ * target, which suits algorithms that ignore edge direction.
+ * <p>
+ * The snapshot holds the Node and Edge objects of the graph so that results
+ * computed on ids can be mapped back at the end, but it does not observe later
+ * changes made to the graph or to the data of its edges.
+ */
+public final class CompactGraph
+{
+	/**
+	 * The nodes of the snapshot indexed by id.
+	 */
+	private final Node[] nodes;
+
+	/**
+	 * The id of each node of the snapshot.
+	 */
+	private final HashMap<Node, Integer> ids;
+
+	/**
+	 * The edges of the snapshot indexed by edge index.
+	 */
+	private final Edge[] edges;
+
+	/**
+	 * The source and target ids of each edge.
+	 */
+	private final int[] edgeSources;
+	private final int[] edgeTargets;
+
+	/**
+	 * The start of the adjacency of each node within the slot arrays. Holds one
+	 * more entry than there are nodes.
+	 */
+	private final int[] offsets;
+
+	/**
+	 * The id of the adjacent node of each slot.
+	 */
+	private final int[] targets;
+
+	/**
+	 * The data of the edge behind each slot.
+	 */
+	private final double[] weights;
+
+	/**
+	 * The edge index of the edge behind each slot.
+	 */
+	private final int[] edgeIndices;
+
+	/**
+	 * Whether directed edges are reachable from their target.
+	 */
+	private final boolean symmetric;
+
+	/**
+	 * Builds the snapshot of a graph following the adjacency of its nodes.
+	 *
+	 * @param graph the Graph to snapshot.
+	 */
+	public CompactGraph(Graph graph)
+	{
+		this(graph, false);
+	}
+
+	/**
+	 * Builds the snapshot of a graph.
+	 *
+	 * @param graph     the Graph to snapshot.
+	 * @param symmetric true if directed edges should also be reachable from their
+	 *                  target.
+	 */
+	public CompactGraph(Graph graph, boolean symmetric)
+	{
+		this(graph.getNodeList(), graph.getEdgeList(), symmetric);
+	}
+
+	/**
+	 * Builds a snapshot over a list of nodes and a list of edges between them.
+	 * Edges must not repeat and their endpoints must be in the node list.
+	 *
+	 * @param nodeList  the List&lt;Node&gt; to number.
+	 * @param edgeList  the List&lt;Edge&gt; connecting the nodes.
+	 * @param symmetric true if directed edges should also be reachable from their
+	 *                  target.
+	 */
+	CompactGraph(List<Node> nodeList, List<Edge> edgeList, boolean symmetric)
+	{
+		int n = nodeList.size();
+		int m = edgeList.size();
+		this.symmetric = symmetric;
+
+		nodes = nodeList.toArray(new Node[n]);
+		ids = new HashMap<>(n * 2);
+		for (int i = 0; i < n; i++)
+			ids.put(nodes[i], i);
+
+		edges = edgeList.toArray(new Edge[m]);
+		edgeSources = new int[m];
+		edgeTargets = new int[m];
+
+		offsets = new int[n + 1];
+		for (int e = 0; e < m; e++)
+		{
+			int s = getId(edges[e].getSource());
+			int t = getId(edges[e].getTarget());
+			if (s == -1 || t == -1)
+				throw new IllegalArgumentException(edges[e] + " connects nodes outside of the graph!");
+
+			edgeSources[e] = s;
+			edgeTargets[e] = t;
+			offsets[s + 1]++;
+			if (isReversible(e))
+				offsets[t + 1]++;
+		}
+		for (int v = 0; v < n; v++)
+			offsets[v + 1] += offsets[v];
+
+		targets = new int[offsets[n]];
+		weights = new double[offsets[n]];
+		edgeIndices = new int[offsets[n]];
+
+		int[] fill = new int[n];
+		System.arraycopy(offsets, 0, fill, 0, n);
+		for (int e = 0; e < m; e++)
+		{
+			int s = edgeSources[e];
+			int t = edgeTargets[e];
+			double data = edges[e].getData();
+
+			int slot = fill[s]++;
+			targets[slot] = t;
+			weights[slot] = data;
+			edgeIndices[slot] = e;
+
+			if (isReversible(e))
+			{
+				slot = fill[t]++;
+				targets[slot] = s;
+				weights[slot] = data;
+				edgeIndices[slot] = e;
+			}
+		}
+	}
+
+	/**
+	 * Determines whether an edge is reachable from its target as well.
+	 *
+	 * @param e the edge index.
+	 * @return true if the edge needs a slot in the adjacency of its target.
+	 */
+	private boolean isReversible(int e)
+	{
+		return edgeSources[e] != edgeTargets[e] && (symmetric || edges[e].isUndirected());
+	}
+
+	/**
+	 * Gets the number of nodes in the snapshot.
+	 *
+	 * @return the number of nodes.
+	 */
+	public int getNodeCount()
+	{
+		return nodes.length;
+	}
+
+	/**
+	 * Gets the number of edges in the snapshot.
+	 *
+	 * @return the number of edges.
+	 */
+	public int getEdgeCount()
+	{
+		return edges.length;
+	}
+
+	/**
+	 * Gets the total number of adjacency slots in the snapshot.
+	 *
+	 * @return the number of slots.
+	 */
+	public int getSlotCount()
+	{
+		return targets.length;
+	}
+
+	/**
+	 * Indicates whether directed edges are reachable from their target.
+	 *
+	 * @return true if the snapshot is symmetric.
+	 */
+	public boolean isSymmetric()
+	{
+		return symmetric;
+	}
+
+	/**
+	 * Gets the node with the given id.
+	 *
+	 * @param id the id of the node.
+	 * @return the Node object.
+	 */
+	public Node getNode(int id)
+	{
+		return nodes[id];
+	}
+
+	/**
+	 * Gets the id of a node. Nodes are matched via their equals() implementation.
+	 *
+	 * @param node the Node to search for.
+	 * @return the id of the node or -1 if the node is not in the snapshot.
+	 */
+	public int getId(Node node)
+	{
+		Integer id = ids.get(node);
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * Maps a set of ids back to their nodes.
+	 *
+	 * @param nodeIds the ids to map.
+	 * @return the List&lt;Node&gt; holding the nodes in the order of the ids.
+	 */
+	public List<Node> getNodes(int[] nodeIds)
+	{
+		List<Node> result = new ArrayList<>(nodeIds.length);
+		for (int id : nodeIds)
+			result.add(nodes[id]);
+		return result;
+	}
+
+	/**
+	 * Gets the number of adjacency slots of a node.
+	 *
+	 * @param id the id of the node.
+	 * @return the degree of the node within the snapshot.
+	 */
+	public int getDegree(int id)
+	{
+		return offsets[id + 1] - offsets[id];
+	}
+
+	/**
+	 * Gets the first adjacency slot of a node.
+	 *
+	 * @param id the id of the node.
+	 * @return the index of the first slot.
+	 */
+	public int getNeighborStart(int id)
+	{
+		return offsets[id];
+	}
+
+	/**
+	 * Gets the end of the adjacency slots of a node.
+	 *
+	 * @param id the id of the node.
+	 * @return the index one past the last slot.
+	 */
+	public int getNeighborEnd(int id)
+	{
+		return offsets[id + 1];
+	}
+
+	/**
+	 * Gets the id of the adjacent node of a slot.
+	 *
+	 * @param slot the adjacency slot.
+	 * @return the id of the adjacent node.
+	 */
+	public int getTarget(int slot)
+	{
+		return targets[slot];
+	}
+
+	/**
+	 * Gets the edge data behind a slot.
+	 *
+	 * @param slot the adjacency slot.
+	 * @return the data of the edge.
+	 */
+	public double getWeight(int slot)
+	{
+		return weights[slot];
+	}
+
+	/**
+	 * Gets the edge index behind a slot.
+	 *
+	 * @param slot the adjacency slot.
+	 * @return the index of the edge.
+	 */
+	public int getEdgeIndex(int slot)
+	{
+		return edgeIndices[slot];
+	}
+
+	/**
+	 * Gets the edge with the given edge index.
+	 *
+	 * @param edgeIndex the index of the edge.
+	 * @return the Edge object.
+	 */
+	public Edge getEdge(int edgeIndex)
+	{
+		return edges[edgeIndex];
+	}
+
+	/**
+	 * Gets the id of the source of an edge.
+	 *
+	 * @param edgeIndex the index of the edge.
+	 * @return the id of the source node.
+	 */
+	public int getEdgeSource(int edgeIndex)
+	{
+		return edgeSources[edgeIndex];
+	}
+
+	/**
+	 * Gets the id of the target of an edge.
+	 *
+	 * @param edgeIndex the index of the edge.
+	 * @return the id of the target node.
+	 */
+	public int getEdgeTarget(int edgeIndex)
+	{
+		return edgeTargets[edgeIndex];
+	}
+
+	/**
+	 * Builds a Graph holding the given nodes and every edge of the snapshot
+	 * between them.
+	 *
+	 * @param nodeIds the ids of the nodes to include.
+	 * @param name    the name of the new Graph.
+	 * @return the Graph induced by the nodes.
+	 */
+	public Graph getSubGraph(int[] nodeIds, String name)
+	{
+		boolean[] included = new boolean[nodes.length];
+		for (int id : nodeIds)
+			included[id] = true;
+
+		List<Edge> edgeList = new ArrayList<>();
+		for (int e = 0; e < edges.length; e++)
+		{
+			if (included[edgeSources[e]] && included[edgeTargets[e]])
+				edgeList.add(edges[e]);
+		}
+
+		return new Graph(name, getNodes(nodeIds), edgeList);
+	}
+}
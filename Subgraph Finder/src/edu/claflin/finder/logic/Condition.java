@@ -18,4 +18,18 @@ public abstract class Condition {
      * @return a boolean indicating if the requirements satisfy the condition.
      */
     public abstract boolean satisfies(Graph existingGraph);
+
+    /**
+     * Creates the incremental state of this condition for the supplied graph.
+     * A ConditionedGraph keeps the state alongside itself and asks it whether
+     * additions keep the condition satisfied instead of testing a copy of the
+     * extended graph.  Conditions without an incremental implementation return
+     * null and are tested through {@link #satisfies(Graph)}.
+     *
+     * @param existingGraph the Graph to summarize.
+     * @return the ConditionState of the graph or null if unsupported.
+     */
+    public ConditionState createState(Graph existingGraph) {
+        return null;
+    }
 }
@@ -0,0 +1,39 @@
+package edu.claflin.finder.logic;
+
+import java.util.List;
+
+/**
+ * Represents the incremental state of a Condition for a single graph.  Created
+ * through {@link Condition#createState(edu.claflin.finder.logic.Graph)}, it
+ * summarizes the graph well enough to decide whether a small extension keeps
+ * the condition satisfied without re-examining the whole graph.
+ * <p>
+ * Extensions are supplied as deltas.  The new nodes are absent from the graph
+ * and unique, while the new edges are unique, absent from the graph and
+ * connect nodes of the graph or of the delta.
+ */
+public interface ConditionState {
+
+    /**
+     * Determines whether the graph extended by the delta would satisfy the
+     * condition.  Gives the same answer as running
+     * {@link Condition#satisfies(edu.claflin.finder.logic.Graph)} on the
+     * extended graph.
+     *
+     * @param current the Graph the state was created for.
+     * @param newNodes the List&lt;Node&gt; of nodes the delta adds.
+     * @param newEdges the List&lt;Edge&gt; of edges the delta adds.
+     * @return true if the extended graph satisfies the condition.
+     */
+    boolean canExtend(Graph current, List<Node> newNodes, List<Edge> newEdges);
+
+    /**
+     * Records a delta that is about to be added to the graph.  Invoked right
+     * before the graph is extended, so the graph does not hold the delta yet.
+     *
+     * @param current the Graph the state was created for.
+     * @param newNodes the List&lt;Node&gt; of nodes the delta adds.
+     * @param newEdges the List&lt;Edge&gt; of edges the delta adds.
+     */
+    void commit(Graph current, List<Node> newNodes, List<Edge> newEdges);
+}
@@ -4,7 +4,13 @@ import static edu.claflin.finder.Global.getLogger;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import edu.claflin.finder.log.LogLevel;
 
@@ -29,6 +35,14 @@ public class ConditionedGraph extends Graph {
      * afterwards.
      */
     private boolean forceSatisfactionOnAdd = true;
+    /**
+     * The incremental state of each condition for this graph.  Created lazily
+     * when an addition is checked and discarded whenever the graph changes
+     * without being checked.  Conditions without incremental support map to
+     * null.
+     */
+    private final Map<Condition, ConditionState> states =
+            new IdentityHashMap<>();
 
     /**
      * Public constructor for creating a simple ConditionedGraph.  Has no 
@@ -87,6 +101,7 @@ public class ConditionedGraph extends Graph {
      */
     public void removeCondition(Condition condition) {
         conditions.remove(condition);
+        states.remove(condition);
     }
     /**
      * Returns an accessible list of conditions.  It CAN be manipulated outside 
@@ -132,10 +147,12 @@ public class ConditionedGraph extends Graph {
     /**
      * {@inheritDoc }
      * <p>
-     * Runs a simulation if the ConditionedGraph is configured to check first 
-     * that additions will be adhered to.  Allows a user to incrementally build 
-     * a graph and determine at which point the graph no longer abides by its 
-     * conditions.
+     * Checks first that additions will be adhered to if the ConditionedGraph 
+     * is configured to do so.  Allows a user to incrementally build a graph 
+     * and determine at which point the graph no longer abides by its 
+     * conditions.  Conditions providing a {@link ConditionState} are asked 
+     * about the delta alone; the remaining ones are tested by simulating the 
+     * addition on a copy of the graph.
      * 
      * @param nodes the List&lt;Node&gt; containing the nodes to add.
      * @param edges the List&lt;Edge&gt; containing the edges to add.
@@ -143,12 +160,39 @@ public class ConditionedGraph extends Graph {
      */
     @Override
     public boolean addPartialGraph(List<Node> nodes, List<Edge> edges) {
+        List<Node> newNodes = nodes == null ? Collections.emptyList() : nodes;
+        List<Edge> newEdges = null;
+        
         if (forceSatisfactionOnAdd) {
-            ConditionedGraph copy = copy();
-            copy.suppressLog = true;
-            copy.superAddPartialGraph(nodes, edges);
-            if (!copy.querySatisfaction())
-                return false;
+            boolean simulate = !areNewNodes(newNodes);
+            if (!simulate) {
+                newEdges = getNewEdges(newNodes, edges);
+                for (Condition condition : conditions) {
+                    ConditionState state = getState(condition);
+                    if (state == null)
+                        simulate = true;
+                    else if (!state.canExtend(this, newNodes, newEdges))
+                        return false;
+                }
+            }
+            
+            if (simulate) {
+                ConditionedGraph copy = copy();
+                copy.suppressLog = true;
+                copy.superAddPartialGraph(nodes, edges);
+                if (!copy.querySatisfaction())
+                    return false;
+            }
+        }
+        
+        if (newEdges != null) {
+            for (Condition condition : conditions) {
+                ConditionState state = states.get(condition);
+                if (state != null)
+                    state.commit(this, newNodes, newEdges);
+            }
+        } else {
+            states.clear();
         }
         
         superAddPartialGraph(nodes, edges);
@@ -159,6 +203,95 @@ public class ConditionedGraph extends Graph {
         
         return true;
     }
+    /**
+     * {@inheritDoc }
+     * <p>
+     * Discards the incremental condition states of the graph.
+     * 
+     * @param e the Edge to remove.
+     */
+    @Override
+    public void removeEdge(Edge e) {
+        states.clear();
+        super.removeEdge(e);
+    }
+    /**
+     * {@inheritDoc }
+     * <p>
+     * Discards the incremental condition states of the graph.
+     * 
+     * @param node the node to remove
+     */
+    @Override
+    public void removeNode(Node node) {
+        states.clear();
+        super.removeNode(node);
+    }
+    
+    /**
+     * Gets the incremental state of a condition for this graph, creating it if 
+     * needed.
+     * 
+     * @param condition the Condition to get the state for.
+     * @return the ConditionState or null if the condition is not incremental.
+     */
+    private ConditionState getState(Condition condition) {
+        if (!states.containsKey(condition))
+            states.put(condition, condition.createState(this));
+        return states.get(condition);
+    }
+    /**
+     * Determines whether the supplied nodes are unique and absent from the 
+     * graph.  Additions failing this test are left to the simulation, which 
+     * reports them the same way the graph does.
+     * 
+     * @param nodes the List&lt;Node&gt; containing the nodes to add.
+     * @return true if every node is new to the graph.
+     */
+    private boolean areNewNodes(List<Node> nodes) {
+        Set<Node> seen = new HashSet<>();
+        for (Node node : nodes) {
+            if (containsNode(node) || !seen.add(node))
+                return false;
+        }
+        return true;
+    }
+    /**
+     * Filters the supplied edges down to those the graph would actually add 
+     * along with the new nodes: edges whose nodes are present afterwards and 
+     * which are not equivalent to an edge of the graph or to an earlier edge 
+     * of the list.
+     * 
+     * @param newNodes the List&lt;Node&gt; containing the new nodes.
+     * @param edges the List&lt;Edge&gt; containing the edges to add.
+     * @return the List&lt;Edge&gt; of edges that would be added.
+     */
+    private List<Edge> getNewEdges(List<Node> newNodes, List<Edge> edges) {
+        if (edges == null || edges.isEmpty())
+            return Collections.emptyList();
+        
+        Set<Node> nodeSet = new HashSet<>(newNodes);
+        Map<Node, Map<Node, Edge>> pending = new HashMap<>();
+        List<Edge> newEdges = new ArrayList<>();
+        for (Edge edge : edges) {
+            Node s = edge.getSource();
+            Node t = edge.getTarget();
+            if (!(containsNode(s) || nodeSet.contains(s)) 
+                    || !(containsNode(t) || nodeSet.contains(t)) 
+                    || getEdge(s, t) != null)
+                continue;
+            
+            Edge reverse = pending.getOrDefault(t, Collections.emptyMap()).get(s);
+            if (pending.getOrDefault(s, Collections.emptyMap()).containsKey(t) 
+                    || (reverse != null && reverse.isUndirected()))
+                continue;
+            
+            pending.computeIfAbsent(s, n -> new HashMap<>()).put(t, edge);
+            newEdges.add(edge);
+        }
+        return newEdges;
+    }
+    
     /**
      * Private method for circumventing the condition restrictions.  Used by 
      * {@link #addPartialGraph(java.util.List, java.util.List)} for simulating 
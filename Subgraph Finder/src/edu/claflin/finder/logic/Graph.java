@@ -5,13 +5,17 @@ import static edu.claflin.finder.Global.getLogger;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 import edu.claflin.finder.log.LogLevel;
+import edu.claflin.finder.struct.ParityDisjointSet;
 
 /**
  * Used to represent a graph in memory. Migrated from matrix form, the graph is
@@ -43,6 +47,38 @@ public class Graph
 	 */
 	private final ArrayList<Edge> edgeList;
 
+	/**
+	 * Hash index from each node in the graph to its position in the nodeList.
+	 * Keeps membership and index queries constant time.
+	 */
+	private final HashMap<Node, Integer> nodeIndex;
+
+	/**
+	 * Hash index from the lower case identifier of a node to the first node in the
+	 * nodeList carrying that identifier. Backs the case insensitive lookup of
+	 * {@link #getNode(java.lang.String)}.
+	 */
+	private final HashMap<String, Node> nodeNames;
+
+	/**
+	 * The outgoing adjacency of each node. Maps every node to the edges stored with
+	 * it as their source, keyed by the target of the edge.
+	 */
+	private final HashMap<Node, Map<Node, Edge>> outEdges;
+
+	/**
+	 * The incoming adjacency of each node. Maps every node to the edges stored with
+	 * it as their target, keyed by the source of the edge.
+	 */
+	private final HashMap<Node, Map<Node, Edge>> inEdges;
+
+	/**
+	 * The two-colouring of the connected components of the graph, built on the
+	 * first bipartite query and kept up to date as nodes and edges are added. Null
+	 * until then or after a removal invalidated it.
+	 */
+	private ParityDisjointSet<Node> partition = null;
+
 	/*
 	 * The total weight of the graph Graph 
 	 */
@@ -64,6 +100,10 @@ public class Graph
 		this.graphName = graphName;
 		this.nodeList = new ArrayList<>();
 		this.edgeList = new ArrayList<>();
+		this.nodeIndex = new HashMap<>();
+		this.nodeNames = new HashMap<>();
+		this.outEdges = new HashMap<>();
+		this.inEdges = new HashMap<>();
 	}
 
 	/**
@@ -112,7 +152,7 @@ public class Graph
 			nodes.stream().forEach(node ->
 			{
 				checkNode(node);
-				nodeList.add(node.duplicate());
+				indexNode(node.duplicate());
 				if (!suppressLog && getLogger() != null)
 				{
 					getLogger().logGraph(LogLevel.VERBOSE, getName() + ": Added Node: \"" + node + "\"");
@@ -122,14 +162,14 @@ public class Graph
 		if (edges != null)
 			edges.stream().forEach(edge ->
 			{
-				if (nodeList.containsAll(Arrays.asList(edge.getSource(), edge.getTarget())) && !edgeList.contains(edge))
+				Node s = this.getNode(edge.getSource());
+				Node t = this.getNode(edge.getTarget());
+				if (s != null && t != null && getEdge(s, t) == null)
 				{
-					Node s = this.getNode(edge.getSource().getIdentifier());
-					Node t = this.getNode(edge.getTarget().getIdentifier());
 					Edge e = edge.duplicate(s, t); // we have to store the edge that has the node with the stats
 					s.addEdge(e); // update stats of node s
 					t.addEdge(e); // update stats of node t
-					edgeList.add(e); // add edge that has nodes with the stats to the list					
+					indexEdge(e); // add edge that has nodes with the stats to the list and indices
 					weight += edge.getData(); // update graph weight
 
 					if (!suppressLog && getLogger() != null)
@@ -142,6 +182,56 @@ public class Graph
 		return true;
 	}
 
+	/**
+	 * Adds nodes and edges produced by a {@link GraphBuilder}. The nodes are taken
+	 * over as they are and must be unique, unattached and absent from the graph;
+	 * the edges must be unique and connect the supplied nodes. None of this is
+	 * verified.
+	 *
+	 * @param nodes the List&lt;Node&gt; containing the nodes to take over.
+	 * @param edges the List&lt;Edge&gt; containing the edges to take over.
+	 */
+	void adoptPartialGraph(List<Node> nodes, List<Edge> edges)
+	{
+		nodes.forEach(this::indexNode);
+		for (Edge e : edges)
+		{
+			e.getSource().attachEdge(e);
+			if (e.getTarget() != e.getSource())
+				e.getTarget().attachEdge(e);
+			indexEdge(e);
+			weight += e.getData();
+		}
+	}
+
+	/**
+	 * Appends a node to the nodeList and registers it with the node indices.
+	 *
+	 * @param node the Node object owned by this graph.
+	 */
+	private void indexNode(Node node)
+	{
+		nodeIndex.put(node, nodeList.size());
+		nodeList.add(node);
+		nodeNames.putIfAbsent(node.getIdentifier().toLowerCase(Locale.ROOT), node);
+		if (partition != null)
+			partition.add(node);
+	}
+
+	/**
+	 * Appends an edge to the edgeList and registers it with the adjacency indices.
+	 *
+	 * @param edge the Edge object owned by this graph.
+	 */
+	private void indexEdge(Edge edge)
+	{
+		outEdges.computeIfAbsent(edge.getSource(), n -> new LinkedHashMap<>()).put(edge.getTarget(), edge);
+		inEdges.computeIfAbsent(edge.getTarget(), n -> new LinkedHashMap<>()).put(edge.getSource(), edge);
+		edgeList.add(edge);
+		if (partition != null)
+			partition.link(edge.getSource(), edge.getTarget());
+	}
+
 	/**
 	 * Returns a subGraph of this graph. Isolates and extracts a subgraph based on
 	 * user supplied values. The new Graph is a separate Graph object.
@@ -208,11 +298,12 @@ public class Graph
 		ArrayList<Node> nodeSubList = new ArrayList<>();
 		ArrayList<Edge> edgeSubList = new ArrayList<>();
 		nodeSubList.addAll(nodes);
+		Set<Node> nodeSet = new HashSet<>(nodes);
 
 		nodes.stream().forEach((Node node) ->
 		{
 			List<Node> adjacency = node.getNeighbors();
-			adjacency.retainAll(nodes);
+			adjacency.retainAll(nodeSet);
 			adjacency.stream().forEach((Node dest) ->
 			{
 				edgeSubList.add(getEdge(node, dest));
@@ -242,6 +333,8 @@ public class Graph
 		Node b = nodeList.get(node2Index);
 		nodeList.set(node2Index, a);
 		nodeList.set(node1Index, b);
+		nodeIndex.put(a, node2Index);
+		nodeIndex.put(b, node1Index);
 
 		if (!suppressLog && getLogger() != null)
 		{
@@ -277,7 +370,7 @@ public class Graph
 	 */
 	public void transpose(Node node1, Node node2)
 	{
-		transpose(nodeList.indexOf(node1), nodeList.indexOf(node2));
+		transpose(getNodeIndex(node1), getNodeIndex(node2));
 	}
 
 	/**
@@ -321,10 +414,13 @@ public class Graph
 	{
 		ArrayList<Node> nodeList = new ArrayList<>();
 		ArrayList<Edge> edgeList = new ArrayList<>();
+		HashMap<Node, Node> duplicates = new HashMap<>();
 
 		this.nodeList.stream().forEach(node ->
 		{
-			nodeList.add(node.duplicate());
+			Node duplicate = node.duplicate();
+			nodeList.add(duplicate);
+			duplicates.put(duplicate, duplicate);
 		});
 		this.edgeList.stream()
 				/*
@@ -335,8 +431,8 @@ public class Graph
 				 */
 				.forEach(edge ->
 				{
-					Node newSource = nodeList.get(nodeList.indexOf(edge.getSource()));
-					Node newDest = nodeList.get(nodeList.indexOf(edge.getTarget()));
+					Node newSource = duplicates.get(edge.getSource());
+					Node newDest = duplicates.get(edge.getTarget());
 					edgeList.add(edge.duplicate(newSource, newDest));
 				});
 
@@ -456,7 +552,7 @@ public class Graph
 	 */
 	public boolean containsNode(Node node)
 	{
-		return nodeList.contains(node);
+		return nodeIndex.containsKey(node);
 	}
 
 	/**
@@ -485,16 +581,35 @@ public class Graph
 	}
 
 	/**
-	 * Removes a node from the set. Only used with the Bron-Kerbosch algorithm right
-	 * now, hopefully doesn't break anything Does NOT affect edges!!!!!!! At time of
-	 * writing may cause issues if you rely on it to do so
+	 * Removes a node from the set. Every edge in which the node participates is
+	 * removed along with it.
 	 *
 	 * @param node the node to remove
 	 */
 	public void removeNode(Node node)
 	{
-		removeEdgesInvolving(node); // remove the Edges involving the Node
-		nodeList.remove(node);
+		Node stored = getNode(node);
+		if (stored == null)
+			return;
+
+		removeEdgesInvolving(stored); // remove the Edges involving the Node
+
+		int index = nodeIndex.remove(stored);
+		nodeList.remove(index);
+		for (int i = index; i < nodeList.size(); i++)
+			nodeIndex.put(nodeList.get(i), i);
+
+		String name = stored.getIdentifier().toLowerCase(Locale.ROOT);
+		if (nodeNames.get(name) == stored)
+		{
+			nodeNames.remove(name);
+			nodeList.stream().filter(n -> n.getIdentifier().equalsIgnoreCase(name)).findFirst()
+					.ifPresent(n -> nodeNames.put(name, n));
+		}
+
+		outEdges.remove(stored);
+		inEdges.remove(stored);
+		partition = null;
 	}
 
 	/**
@@ -533,7 +648,7 @@ public class Graph
 	 */
 	public int getNodeIndex(Node node)
 	{
-		return nodeList.indexOf(node);
+		return nodeIndex.getOrDefault(node, -1);
 	}
 
 	/**
@@ -561,21 +676,26 @@ public class Graph
 	 */
 	public Node getNode(String NodeName)
 	{
-		Node node = null;
-		for (Node n : nodeList)
-		{
-			if (n.getIdentifier().equalsIgnoreCase(NodeName))
-			{
-				node = n;
-				break;
-			}
-		}
-		return node;
+		return nodeNames.get(NodeName.toLowerCase(Locale.ROOT));
 	}
 
 	/**
-	 * Obtains an adjacency list for the supplied node based on the Graph. 
-	 * Very inefficient, try to use the neighbors variable in the Node class instead.
+	 * Gets the instance of a node held by this graph. Nodes of other graphs are
+	 * matched via their equals() implementation.
+	 *
+	 * @param node the Node to search for.
+	 * @return the equivalent Node of this graph or null if the node was not found.
+	 */
+	public Node getNode(Node node)
+	{
+		Integer index = nodeIndex.get(node);
+		return index == null ? null : nodeList.get(index);
+	}
+
+	/**
+	 * Obtains an adjacency list for the supplied node based on the Graph. The list
+	 * holds the targets of the node's outgoing edges followed by the sources of its
+	 * incoming undirected edges.
 	 *
 	 * @param node the Node to obtain the adjacency list for.
 	 * @return the List of Nodes containing the adjacent Nodes.
@@ -584,19 +704,14 @@ public class Graph
 	{
 		List<Node> adjacent = new ArrayList<>();
 
-		Iterator<Edge> edgeIterator = edgeList.iterator();
-		while (edgeIterator.hasNext())
-		{
-			Edge edge = edgeIterator.next();
-			if (edge.getSource().equals(node))
-			{
-				adjacent.add(edge.getTarget());
-			}
-			else if (edge.isUndirected() && edge.getTarget().equals(node))
-			{
-				adjacent.add(edge.getSource());
-			}
-		}
+		Map<Node, Edge> out = outEdges.get(node);
+		if (out != null)
+			adjacent.addAll(out.keySet());
+
+		Map<Node, Edge> in = inEdges.get(node);
+		if (in != null)
+			in.values().stream().filter(edge -> edge.isUndirected() && !edge.getSource().equals(node))
+					.forEach(edge -> adjacent.add(edge.getSource()));
 
 		return adjacent;
 	}
@@ -788,24 +903,32 @@ public class Graph
 	 */
 	public Edge getEdge(Node source, Node destination)
 	{
-		// "fake" access is accessing an edge utilizing only the source and
-		// destination. the equals method on edges do not check for data nor
-		// undirectedness since edges with the same source and destination are
-		// considered equal.
-
-		// Locate un/directed edge via "fake" access.
-		int index = edgeList.indexOf(new Edge(source, destination, 0.0, false));
-		if (index != -1)
-			return edgeList.get(index);
+		// Locate un/directed edge via the outgoing adjacency of the source.
+		Edge edge = lookupEdge(source, destination);
+		if (edge != null)
+			return edge;
 
-		// Locate undirected reversed node edges also via "fake" access.
-		index = edgeList.indexOf(new Edge(destination, source, 0.0, false));
-		if (index != -1 && edgeList.get(index).isUndirected())
-			return edgeList.get(index);
+		// Locate undirected reversed node edges via the adjacency of the destination.
+		edge = lookupEdge(destination, source);
+		if (edge != null && edge.isUndirected())
+			return edge;
 
 		return null;
 	}
 
+	/**
+	 * Locates the edge stored with the exact source and target provided.
+	 *
+	 * @param source the source Node of the edge.
+	 * @param target the target Node of the edge.
+	 * @return the Edge object or null if not found.
+	 */
+	private Edge lookupEdge(Node source, Node target)
+	{
+		Map<Node, Edge> out = outEdges.get(source);
+		return out == null ? null : out.get(target);
+	}
+
 	/**
 	 * Get the list of Edges in which the given Node participates.
 	 * 
@@ -814,18 +937,49 @@ public class Graph
 	 */
 	public List<Edge> getNodeEdges(Node n)
 	{
-		return this.getEdgeList().stream().filter((Edge e) -> n.equals(e.getSource()) || n.equals(e.getTarget()))
-				.collect(Collectors.toList());
+		List<Edge> edges = new ArrayList<>();
+
+		Map<Node, Edge> out = outEdges.get(n);
+		if (out != null)
+			edges.addAll(out.values());
+
+		Map<Node, Edge> in = inEdges.get(n);
+		if (in != null)
+			in.values().stream().filter(e -> !n.equals(e.getSource())).forEach(edges::add);
+
+		return edges;
 	}
 
+	/**
+	 * Removes an edge from the Graph. The edge removed is the one located by
+	 * {@link #getEdge(edu.claflin.finder.logic.Node, edu.claflin.finder.logic.Node)}
+	 * for the source and target of the supplied edge.
+	 *
+	 * @param e the Edge to remove.
+	 */
 	public void removeEdge(Edge e)
 	{
-		Node s = e.getSource();
-		Node t = e.getTarget();
-		s.removeEdge(e);
-		t.removeEdge(e);
-		weight -= e.getData();
-		edgeList.remove(e);
+		Edge stored = getEdge(e.getSource(), e.getTarget());
+		if (stored == null)
+			return;
+
+		Node s = stored.getSource();
+		Node t = stored.getTarget();
+		s.removeEdge(stored);
+		t.removeEdge(stored);
+		weight -= stored.getData();
+
+		outEdges.get(s).remove(t);
+		inEdges.get(t).remove(s);
+		partition = null;
+		for (int i = edgeList.size() - 1; i >= 0; i--)
+		{
+			if (edgeList.get(i) == stored)
+			{
+				edgeList.remove(i);
+				break;
+			}
+		}
 	}
 
 	/**
@@ -835,11 +989,11 @@ public class Graph
 	 */
 	private void removeEdgesInvolving(Node n)
 	{
-		for (Edge e : n.getEdges())
+		for (Edge e : getNodeEdges(n))
 		{
 			this.removeEdge(e);
 		}
-	}	
+	}
 
 	/**
 	 * Gets the list edges of this Graph that involve the nodes in the given list
@@ -849,7 +1003,8 @@ public class Graph
 	 */
 	public List<Edge> getEdgesBack(List<Node> nodes)
 	{
-		return this.getEdgeList().stream().filter(e -> nodes.contains(e.getSource()) && nodes.contains(e.getTarget()))
+		Set<Node> nodeSet = new HashSet<>(nodes);
+		return this.getEdgeList().stream().filter(e -> nodeSet.contains(e.getSource()) && nodeSet.contains(e.getTarget()))
 				.collect(Collectors.toList());
 
 	}
@@ -863,16 +1018,14 @@ public class Graph
 	 */
 	public boolean isClique()
 	{
-		for (Node node : this.getNodeList())
+		for (Node node : nodeList)
 		{
-			List<Node> nodesMinusOne = new ArrayList<>();
-			nodesMinusOne.addAll(this.getNodeList());
-			nodesMinusOne.remove(node);
-
-			List<Node> adjacency = node.getNeighbors();
-			boolean containsAll = adjacency.containsAll(nodesMinusOne);
-			if (!containsAll)
-				return false;
+			Set<Node> adjacency = new HashSet<>(node.getNeighbors());
+			for (Node other : nodeList)
+			{
+				if (other != node && !adjacency.contains(other))
+					return false;
+			}
 		}
 
 		return true;
@@ -882,24 +1035,44 @@ public class Graph
 	// Bipartite Utils	
 
 	/**
-	 * Determines whether the Graph is Bipartite.
+	 * Determines whether the Graph is Bipartite. Edge direction is ignored and the
+	 * graph needs at least one edge between two distinct nodes.
 	 * @return true if the Graph is Bipartite
 	 */
 	public boolean isBipartite()
 	{
-		ArrayList<ArrayList<Node>> ps = getPartiteSets();
-
-		if (ps.isEmpty())
-			return false;
+		ParityDisjointSet<Node> sets = getPartition();
+		return sets.isConsistent() && sets.getMergeCount() > 0;
+	}
 
-		ArrayList<Node> s1 = ps.get(0);
-		ArrayList<Node> s2 = ps.get(1);
+	/**
+	 * Determines whether the Graph would be Bipartite after adding the given nodes
+	 * and edges, without adding them. Runs in time proportional to the size of the
+	 * addition.
+	 *
+	 * @param nodes the List&lt;Node&gt; of nodes that would be added.
+	 * @param edges the List&lt;Edge&gt; of edges that would be added.
+	 * @return true if the extended Graph would be Bipartite
+	 */
+	public boolean isBipartiteAfter(List<Node> nodes, List<Edge> edges)
+	{
+		ParityDisjointSet<Node> sets = getPartition();
+		List<Node> sources = new ArrayList<>(edges.size());
+		List<Node> targets = new ArrayList<>(edges.size());
+		for (Edge edge : edges)
+		{
+			sources.add(edge.getSource());
+			targets.add(edge.getTarget());
+		}
 
-		return !(s1.isEmpty() || s2.isEmpty());
+		int merges = sets.trial(sources, targets);
+		return merges >= 0 && sets.getMergeCount() + merges > 0;
 	}
 
 	/**
-	 * Divides the given graph into two bipartite sets.
+	 * Divides the given graph into two bipartite sets. The first node of every
+	 * connected component, in the order of the node list, belongs to the first
+	 * set and both sets keep the order of the node list.
 	 * 
 	 * @return two lists of nodes, each representing a bipartite set. Both lists
 	 *         are empty if the graph is not a valid bipartite graph.
@@ -907,64 +1080,39 @@ public class Graph
 	public ArrayList<ArrayList<Node>> getPartiteSets()
 	{
 		ArrayList<ArrayList<Node>> result = new ArrayList<ArrayList<Node>>();
+		ParityDisjointSet<Node> sets = getPartition();
 
-		Set<Node> groupA = new HashSet<>();
-		Set<Node> groupB = new HashSet<>();
-
-		for (Node node : this.getNodeList())
+		if (!sets.isConsistent())
 		{
-			if (!isBipartite(node, groupA, groupB))
-			{
-				result.add(new ArrayList<Node>());
-				result.add(new ArrayList<Node>());
-				// Return empty sets if the graph is not bipartite.
-				return result;
-			}
-		}
-
-		ArrayList<Node> arrA = new ArrayList<Node>();
-		for (Node a : groupA)
-		{
-			arrA.add(a);
-		}
-
-		ArrayList<Node> arrB = new ArrayList<Node>();
-		for (Node b : groupB)
-		{
-			arrB.add(b);
+			// Return empty sets if the graph is not bipartite.
+			result.add(new ArrayList<Node>());
+			result.add(new ArrayList<Node>());
+			return result;
 		}
 
-		result.add(arrA);
-		result.add(arrB);
+		for (List<Node> set : sets.getSets(nodeList))
+			result.add(new ArrayList<Node>(set));
 		return result;
 	}
 
 	/**
-	 * Private method for stepping through the adjacency lists and determining if
-	 * the graph is bipartite. Specifically, it uses a Depth-First model for
-	 * exploring the node tree and sorting the nodes into two groups. If it
-	 * successfully sorts the nodes into two groups with no invalidating edges, it
-	 * returns true.
-	 * 
-	 * @param addSet        the current set to add a node to based on the previous.
-	 * @param compareSet    the current set to add adjacent nodes to.
-	 * @param current       the current Node being compared.
-	 * @return true if the structure could be bipartite.
+	 * Gets the two-colouring of the connected components of the graph, building it
+	 * if necessary. Edges are linked regardless of their direction.
+	 *
+	 * @return the ParityDisjointSet over the nodes of the graph.
 	 */
-	private boolean isBipartite(Node current, Set<Node> addSet, Set<Node> compareSet)
+	private ParityDisjointSet<Node> getPartition()
 	{
-		if (!addSet.contains(current) && !compareSet.contains(current))
+		if (partition == null)
 		{
-			addSet.add(current);
-			List<Node> adjacent = current.getNeighbors();
-			for (Node neighbor : adjacent)
-			{
-				if (addSet.contains(neighbor) || !this.isBipartite(neighbor, compareSet, addSet))
-					return false;
-			}
+			ParityDisjointSet<Node> sets = new ParityDisjointSet<>();
+			nodeList.forEach(sets::add);
+			for (Edge edge : edgeList)
+				sets.link(edge.getSource(), edge.getTarget());
+			partition = sets;
 		}
 
-		return true;
+		return partition;
 	}
 
 }
@@ -0,0 +1,279 @@
+package edu.claflin.finder.logic;
+
+import static edu.claflin.finder.Global.getLogger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import edu.claflin.finder.log.LogLevel;
+
+/**
+ * Accumulates nodes and edges for a new Graph in bulk. Duplicate nodes and
+ * edges are discarded through hash lookups as they arrive, so the finished
+ * Graph is assembled in a single pass without the per-addition checks of
+ * {@link Graph#addPartialGraph(java.util.List, java.util.List)}.
+ * <p>
+ * Two edges are duplicates under the same rules the Graph applies: they share
+ * their source and target, or one is undirected and connects the same nodes in
+ * reverse. Adding an edge also adds any of its endpoints missing from the
+ * builder.
+ * <p>
+ * A builder produces a single Graph. The nodes and edges it accumulated are
+ * handed over to that Graph, after which no further additions are accepted.
+ */
+public class GraphBuilder
+{
+	/**
+	 * The name of the Graph to build.
+	 */
+	private final String graphName;
+
+	/**
+	 * The nodes added so far, in order of addition.
+	 */
+	private final ArrayList<Node> nodeList = new ArrayList<>();
+
+	/**
+	 * The edges added so far, in order of addition.
+	 */
+	private final ArrayList<Edge> edgeList = new ArrayList<>();
+
+	/**
+	 * The position of each node in the nodeList keyed by its identifier.
+	 */
+	private final HashMap<String, Integer> nodeIndex = new HashMap<>();
+
+	/**
+	 * The edges added so far keyed by the positions of their source and target.
+	 */
+	private final HashMap<Long, Edge> edgeIndex = new HashMap<>();
+
+	/**
+	 * The Graph produced by this builder or null if it has not been built yet.
+	 */
+	private Graph graph = null;
+
+	/**
+	 * Initializes the builder.
+	 *
+	 * @param graphName the String which represents the name of the Graph.
+	 */
+	public GraphBuilder(String graphName)
+	{
+		this.graphName = graphName;
+	}
+
+	/**
+	 * Adds a node to the builder. The builder keeps its own duplicate of the node.
+	 *
+	 * @param node the Node to add.
+	 * @return the Node held by the builder for the identifier of the node.
+	 */
+	public Node addNode(Node node)
+	{
+		Node existing = getNode(node.getIdentifier());
+		return existing != null ? existing : register(node.duplicate());
+	}
+
+	/**
+	 * Adds a node to the builder based on its identifier.
+	 *
+	 * @param identifier the String identifying the node.
+	 * @return the Node held by the builder for the identifier.
+	 */
+	public Node addNode(String identifier)
+	{
+		Node existing = getNode(identifier);
+		return existing != null ? existing : register(new Node(identifier));
+	}
+
+	/**
+	 * Adds a list of nodes to the builder.
+	 *
+	 * @param nodes the List&lt;Node&gt; containing the nodes to add.
+	 */
+	public void addNodes(List<Node> nodes)
+	{
+		nodes.forEach(this::addNode);
+	}
+
+	/**
+	 * Gets the node held by the builder for an identifier.
+	 *
+	 * @param identifier the String identifying the node.
+	 * @return the Node or null if no node carries the identifier.
+	 */
+	public Node getNode(String identifier)
+	{
+		Integer index = nodeIndex.get(identifier);
+		return index == null ? null : nodeList.get(index);
+	}
+
+	/**
+	 * Adds an edge to the builder. The builder keeps its own duplicate of the edge
+	 * connecting the nodes it holds.
+	 *
+	 * @param edge the Edge to add.
+	 * @return true if the edge was added, false if it duplicates an earlier edge.
+	 */
+	public boolean addEdge(Edge edge)
+	{
+		Node source = addNode(edge.getSource());
+		Node target = addNode(edge.getTarget());
+		return !isDuplicate(source, target) && register(edge.duplicate(source, target));
+	}
+
+	/**
+	 * Adds an edge between two nodes identified by their identifiers.
+	 *
+	 * @param source     the String identifying the source node.
+	 * @param target     the String identifying the target node.
+	 * @param data       the data of the edge.
+	 * @param undirected true if the edge is undirected.
+	 * @return true if the edge was added, false if it duplicates an earlier edge.
+	 */
+	public boolean addEdge(String source, String target, double data, boolean undirected)
+	{
+		Node s = addNode(source);
+		Node t = addNode(target);
+		return !isDuplicate(s, t) && register(new Edge(s, t, data, undirected));
+	}
+
+	/**
+	 * Adds a batch of edges to the builder.
+	 *
+	 * @param edges the List&lt;Edge&gt; containing the edges to add.
+	 * @return the number of edges added.
+	 */
+	public int addEdges(List<Edge> edges)
+	{
+		int added = 0;
+		for (Edge edge : edges)
+		{
+			if (addEdge(edge))
+				added++;
+		}
+		return added;
+	}
+
+	/**
+	 * Gets the number of nodes added so far.
+	 *
+	 * @return the number of nodes.
+	 */
+	public int getNodeCount()
+	{
+		return nodeList.size();
+	}
+
+	/**
+	 * Gets the number of edges added so far.
+	 *
+	 * @return the number of edges.
+	 */
+	public int getEdgeCount()
+	{
+		return edgeList.size();
+	}
+
+	/**
+	 * Produces the Graph holding every node and edge added to the builder.
+	 *
+	 * @return the finished Graph.
+	 */
+	public Graph build()
+	{
+		checkOpen();
+		graph = new Graph(graphName);
+		graph.adoptPartialGraph(nodeList, edgeList);
+
+		if (getLogger() != null)
+		{
+			getLogger().logGraph(LogLevel.NORMAL, graphName + ": Built graph with " + nodeList.size() + " nodes and "
+					+ edgeList.size() + " edges.");
+		}
+
+		return graph;
+	}
+
+	/**
+	 * Produces a compact snapshot of the nodes and edges added to the builder. The
+	 * snapshot may be taken before or after building the Graph and shares its Node
+	 * and Edge objects with that Graph.
+	 *
+	 * @param symmetric true if directed edges should also be reachable from their
+	 *                  target.
+	 * @return the CompactGraph holding the builder's contents.
+	 */
+	public CompactGraph buildCompact(boolean symmetric)
+	{
+		return new CompactGraph(nodeList, edgeList, symmetric);
+	}
+
+	/**
+	 * Determines whether an edge between two nodes of the builder would duplicate
+	 * an earlier edge.
+	 *
+	 * @param source the source Node held by the builder.
+	 * @param target the target Node held by the builder.
+	 * @return true if the edge is a duplicate.
+	 */
+	private boolean isDuplicate(Node source, Node target)
+	{
+		if (edgeIndex.containsKey(key(source, target)))
+			return true;
+
+		Edge reverse = edgeIndex.get(key(target, source));
+		return reverse != null && reverse.isUndirected();
+	}
+
+	/**
+	 * Records a new node of the builder.
+	 *
+	 * @param node the Node owned by the builder.
+	 * @return the node.
+	 */
+	private Node register(Node node)
+	{
+		checkOpen();
+		nodeIndex.put(node.getIdentifier(), nodeList.size());
+		nodeList.add(node);
+		return node;
+	}
+
+	/**
+	 * Records a new edge of the builder.
+	 *
+	 * @param edge the Edge owned by the builder.
+	 * @return true, always.
+	 */
+	private boolean register(Edge edge)
+	{
+		checkOpen();
+		edgeIndex.put(key(edge.getSource(), edge.getTarget()), edge);
+		edgeList.add(edge);
+		return true;
+	}
+
+	/**
+	 * Packs the positions of two nodes of the builder into a single key.
+	 *
+	 * @param source the source Node.
+	 * @param target the target Node.
+	 * @return the key of the ordered pair.
+	 */
+	private long key(Node source, Node target)
+	{
+		return ((long) nodeIndex.get(source.getIdentifier()) << 32) | nodeIndex.get(target.getIdentifier());
+	}
+
+	/**
+	 * Ensures that the builder has not produced its Graph yet.
+	 */
+	private void checkOpen()
+	{
+		if (graph != null)
+			throw new IllegalStateException("The graph " + graphName + " has already been built!");
+	}
+}
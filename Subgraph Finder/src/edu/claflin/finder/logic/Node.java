@@ -127,6 +127,23 @@ public class Node implements Comparable<Node>
 		}
 	}
 
+	/**
+	 * Add an Edge known not to be attached to the Node yet. Skips the duplicate
+	 * check of {@link #addEdge(edu.claflin.finder.logic.Edge)} for bulk loading.
+	 * 
+	 * @param e the Edge to add
+	 */
+	void attachEdge(Edge e)
+	{
+		if (e.includes(this))
+		{
+			edges.add(e);
+			neighbors.add(this.equals(e.getSource()) ? e.getTarget() : e.getSource());
+			degree++;
+			weight += e.getData();
+		}
+	}
+
 	public void removeEdge(Edge e)
 	{
 		if (e.includes(this) && edges.contains(e))
@@ -1,7 +1,12 @@
 package edu.claflin.finder.logic.cond;
 
+import java.util.List;
+
 import edu.claflin.finder.logic.Condition;
+import edu.claflin.finder.logic.ConditionState;
+import edu.claflin.finder.logic.Edge;
 import edu.claflin.finder.logic.Graph;
+import edu.claflin.finder.logic.Node;
 
 /**
  * Represents a bipartite graph as a Condition object.  Used to test for 
@@ -28,9 +33,46 @@ public class BipartiteCondition extends Condition
 			return existingGraph.isBipartite();
 	}	
 
+	/**
+	 * {@inheritDoc }
+	 * <p>
+	 * The state relies on the two-colouring the graph maintains for its
+	 * connected components.
+	 * @param existingGraph the Graph object to summarize.
+	 * @return the BipartiteState of the graph.
+	 */
+	@Override
+	public ConditionState createState(Graph existingGraph)
+	{
+		return new BipartiteState();
+	}
+
 	@Override
 	public String toString()
 	{
 		return "Bipartite Condition";
 	}
+
+	/**
+	 * Incremental state of the BipartiteCondition. The graph keeps its
+	 * two-colouring up to date as it grows, so checking an extension only has to
+	 * try the links of the new edges against it.
+	 */
+	private static class BipartiteState implements ConditionState
+	{
+		@Override
+		public boolean canExtend(Graph current, List<Node> newNodes, List<Edge> newEdges)
+		{
+			if (current.getNodeCount() + newNodes.size() == 1)
+				return true;
+
+			return current.isBipartiteAfter(newNodes, newEdges);
+		}
+
+		@Override
+		public void commit(Graph current, List<Node> newNodes, List<Edge> newEdges)
+		{
+			// the graph updates its two-colouring when the delta is added
+		}
+	}
 }
@@ -1,7 +1,16 @@
 package edu.claflin.finder.logic.cond;
 
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import edu.claflin.finder.logic.Condition;
+import edu.claflin.finder.logic.ConditionState;
+import edu.claflin.finder.logic.Edge;
 import edu.claflin.finder.logic.Graph;
+import edu.claflin.finder.logic.Node;
 
 /**
  * Represents a Clique condition.  Used to enforce a Clique relationship on a 
@@ -32,9 +41,102 @@ public class CliqueCondition extends Condition
 		return existingGraph.isClique();
 	}
 
+	/**
+	 * {@inheritDoc }
+	 * <p>
+	 * The state counts the ordered pairs of distinct nodes lacking an edge from
+	 * the first to the second. The graph is a clique when none are missing.
+	 * @param existingGraph the Graph object to summarize.
+	 * @return the CliqueState of the graph.
+	 */
+	@Override
+	public ConditionState createState(Graph existingGraph)
+	{
+		long covered = 0;
+		for (Node node : existingGraph.getNodeList())
+		{
+			Set<Node> adjacent = new HashSet<>(existingGraph.getAdjacencyList(node));
+			adjacent.remove(node);
+			covered += adjacent.size();
+		}
+
+		long n = existingGraph.getNodeCount();
+		return new CliqueState(n * (n - 1) - covered);
+	}
+
 	@Override
 	public String toString()
 	{
 		return "Clique Condition";
 	}
+
+	/**
+	 * Incremental state of the CliqueCondition. Each extension adds the ordered
+	 * pairs involving a new node to the missing pairs and removes the pairs its
+	 * new edges cover, so checks cost time proportional to the delta.
+	 */
+	private static class CliqueState implements ConditionState
+	{
+		/**
+		 * The number of ordered pairs of distinct nodes lacking an edge.
+		 */
+		private long missing;
+
+		private CliqueState(long missing)
+		{
+			this.missing = missing;
+		}
+
+		@Override
+		public boolean canExtend(Graph current, List<Node> newNodes, List<Edge> newEdges)
+		{
+			return extendedMissing(current, newNodes, newEdges) == 0;
+		}
+
+		@Override
+		public void commit(Graph current, List<Node> newNodes, List<Edge> newEdges)
+		{
+			missing = extendedMissing(current, newNodes, newEdges);
+		}
+
+		/**
+		 * Counts the missing pairs of the graph extended by a delta.
+		 *
+		 * @param current  the Graph before the extension.
+		 * @param newNodes the List&lt;Node&gt; of nodes the delta adds.
+		 * @param newEdges the List&lt;Edge&gt; of edges the delta adds.
+		 * @return the number of ordered pairs lacking an edge afterwards.
+		 */
+		private long extendedMissing(Graph current, List<Node> newNodes, List<Edge> newEdges)
+		{
+			long n = current.getNodeCount();
+			long k = newNodes.size();
+			long result = missing + (n + k) * (n + k - 1) - n * (n - 1);
+
+			Set<Map.Entry<Node, Node>> covered = new HashSet<>();
+			for (Edge edge : newEdges)
+			{
+				result -= cover(current, covered, edge.getSource(), edge.getTarget());
+				if (edge.isUndirected())
+					result -= cover(current, covered, edge.getTarget(), edge.getSource());
+			}
+			return result;
+		}
+
+		/**
+		 * Marks an ordered pair as covered by the delta.
+		 *
+		 * @param current the Graph before the extension.
+		 * @param covered the pairs covered by the delta so far.
+		 * @param from    the Node the edge flows from.
+		 * @param to      the Node the edge flows to.
+		 * @return 1 if the pair was missing so far, 0 otherwise.
+		 */
+		private int cover(Graph current, Set<Map.Entry<Node, Node>> covered, Node from, Node to)
+		{
+			if (from.equals(to) || current.getEdge(from, to) != null)
+				return 0;
+			return covered.add(new SimpleImmutableEntry<>(from, to)) ? 1 : 0;
+		}
+	}
 }
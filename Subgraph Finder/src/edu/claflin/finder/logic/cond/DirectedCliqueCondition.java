@@ -1,6 +1,14 @@
 package edu.claflin.finder.logic.cond;
 
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import edu.claflin.finder.logic.Condition;
+import edu.claflin.finder.logic.ConditionState;
+import edu.claflin.finder.logic.Edge;
 import edu.claflin.finder.logic.Graph;
 import edu.claflin.finder.logic.Node;
 
@@ -53,9 +61,100 @@ public class DirectedCliqueCondition extends Condition
 		return true;
 	}
 
+	/**
+	 * {@inheritDoc }
+	 * <p>
+	 * The state counts the unordered pairs of distinct nodes lacking an edge in
+	 * either direction. The graph is a directed clique when none are missing.
+	 * @param existingGraph the Graph object to summarize.
+	 * @return the DirectedCliqueState of the graph.
+	 */
+	@Override
+	public ConditionState createState(Graph existingGraph)
+	{
+		Set<Map.Entry<Node, Node>> covered = new HashSet<>();
+		for (Edge edge : existingGraph.getEdgeList())
+		{
+			if (!edge.getSource().equals(edge.getTarget()))
+				covered.add(pair(edge.getSource(), edge.getTarget()));
+		}
+
+		long n = existingGraph.getNodeCount();
+		return new DirectedCliqueState(n * (n - 1) / 2 - covered.size());
+	}
+
+	/**
+	 * Creates an order independent key for a pair of nodes.
+	 *
+	 * @param a the first Node.
+	 * @param b the second Node.
+	 * @return the key of the unordered pair.
+	 */
+	private static Map.Entry<Node, Node> pair(Node a, Node b)
+	{
+		return a.compareTo(b) <= 0 ? new SimpleImmutableEntry<>(a, b) : new SimpleImmutableEntry<>(b, a);
+	}
+
 	@Override
 	public String toString()
 	{
 		return "Directed Clique Condition";
 	}
+
+	/**
+	 * Incremental state of the DirectedCliqueCondition. Each extension adds the
+	 * pairs involving a new node to the missing pairs and removes the pairs its
+	 * new edges connect, so checks cost time proportional to the delta.
+	 */
+	private static class DirectedCliqueState implements ConditionState
+	{
+		/**
+		 * The number of unordered pairs of distinct nodes lacking an edge.
+		 */
+		private long missing;
+
+		private DirectedCliqueState(long missing)
+		{
+			this.missing = missing;
+		}
+
+		@Override
+		public boolean canExtend(Graph current, List<Node> newNodes, List<Edge> newEdges)
+		{
+			return extendedMissing(current, newNodes, newEdges) == 0;
+		}
+
+		@Override
+		public void commit(Graph current, List<Node> newNodes, List<Edge> newEdges)
+		{
+			missing = extendedMissing(current, newNodes, newEdges);
+		}
+
+		/**
+		 * Counts the missing pairs of the graph extended by a delta.
+		 *
+		 * @param current  the Graph before the extension.
+		 * @param newNodes the List&lt;Node&gt; of nodes the delta adds.
+		 * @param newEdges the List&lt;Edge&gt; of edges the delta adds.
+		 * @return the number of unordered pairs lacking an edge afterwards.
+		 */
+		private long extendedMissing(Graph current, List<Node> newNodes, List<Edge> newEdges)
+		{
+			long n = current.getNodeCount();
+			long k = newNodes.size();
+			long result = missing + (n + k) * (n + k - 1) / 2 - n * (n - 1) / 2;
+
+			Set<Map.Entry<Node, Node>> covered = new HashSet<>();
+			for (Edge edge : newEdges)
+			{
+				Node s = edge.getSource();
+				Node t = edge.getTarget();
+				if (s.equals(t) || current.getEdge(s, t) != null || current.getEdge(t, s) != null)
+					continue;
+				if (covered.add(pair(s, t)))
+					result--;
+			}
+			return result;
+		}
+	}
 }
@@ -3,6 +3,7 @@ package edu.claflin.finder.logic.processor;
 import static edu.claflin.finder.Global.getLogger;
 
 import java.util.ArrayList;
+import java.util.stream.Stream;
 
 import edu.claflin.finder.log.LogLevel;
 
@@ -53,6 +54,60 @@ public final class BatchProcessor<T, S> {
         return processedData;
     }
     
+    /**
+     * Processes a singular object, handing the results to a sink as they are 
+     * produced rather than collecting them.
+     * 
+     * @param toProcess the T object to process.
+     * @param processor the StreamingProcessable object to process with.
+     * @param sink the ResultSink receiving the results of the processing.
+     */
+    public void processStreaming(T toProcess, StreamingProcessable<T, S> processor, 
+            ResultSink<? super S> sink) {
+        
+        if (getLogger() != null) {
+            getLogger().logInfo(LogLevel.NORMAL, 
+                    String.format("Processing %s object.", 
+                    toProcess.getClass().getCanonicalName()));
+        }
+        
+        processor.process(toProcess, sink);
+        
+        if (getLogger() != null) {
+            getLogger().logInfo(LogLevel.NORMAL, 
+                String.format("Processed %s object.",
+                toProcess.getClass().getCanonicalName()));
+        }
+    }
+    
+    /**
+     * Processes a singular object on a separate thread and returns its results 
+     * as a Stream.  The processing is held back while the given number of 
+     * results waits to be consumed.  A failure of the processing, Errors 
+     * included, ends the Stream and is rethrown by it.
+     * 
+     * @param toProcess the T object to process.
+     * @param processor the StreamingProcessable object to process with.
+     * @param capacity the number of results buffered between the threads.
+     * @return the Stream of results.
+     */
+    public Stream<S> processStream(T toProcess, StreamingProcessable<T, S> processor, 
+            int capacity) {
+        BoundedBufferSink<S> buffer = new BoundedBufferSink<>(capacity);
+        
+        Thread producer = new Thread(() -> {
+            try {
+                processStreaming(toProcess, processor, buffer);
+            } catch (Throwable e) {
+                buffer.fail(e);
+            }
+        }, "BatchProcessor producer");
+        producer.setDaemon(true);
+        producer.start();
+        
+        return buffer.stream();
+    }
+    
     /**
      * Processes multiple files.  This method does so by calling the 
      * processSingular(T, {@link Processable}) method.
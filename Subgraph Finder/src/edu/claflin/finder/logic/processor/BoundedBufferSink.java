@@ -0,0 +1,141 @@
+package edu.claflin.finder.logic.processor;
+
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A {@link ResultSink} that hands results from a producer thread to a 
+ * consumer thread through a buffer of fixed capacity.  The producer blocks 
+ * while the buffer is full, so at most that many results are held at any 
+ * time.  The consumer reads the results through {@link #stream()}.
+ * 
+ * @param <S> the type of the results.
+ */
+public class BoundedBufferSink<S> implements ResultSink<S> {
+    
+    /**
+     * Marks the end of the results in the buffer.
+     */
+    private static final Object END = new Object();
+    
+    /**
+     * The buffered results followed by {@link #END}.
+     */
+    private final BlockingQueue<Object> buffer;
+    
+    /**
+     * The Throwable the producer failed with, if any.
+     */
+    private volatile Throwable failure = null;
+    
+    /**
+     * Constructs a BoundedBufferSink.
+     * 
+     * @param capacity the number of results the buffer holds.
+     */
+    public BoundedBufferSink(int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("The capacity must be positive!");
+        buffer = new ArrayBlockingQueue<>(capacity);
+    }
+    
+    /**
+     * {@inheritDoc }
+     * <br>
+     * Blocks while the buffer is full.
+     */
+    @Override
+    public void accept(S result) {
+        if (result == null)
+            throw new IllegalArgumentException("Results must not be null!");
+        put(result);
+    }
+    
+    @Override
+    public void finish() {
+        put(END);
+    }
+    
+    /**
+     * Ends the results with a failure.  The consumer receives the failure 
+     * once it has read the results buffered before it: unchecked exceptions 
+     * and Errors as they are, checked exceptions wrapped in an 
+     * IllegalStateException.
+     * 
+     * @param e the Throwable the producer failed with.
+     */
+    public void fail(Throwable e) {
+        failure = e;
+        put(END);
+    }
+    
+    /**
+     * Gets the results as a sequential Stream that blocks until the producer 
+     * supplies the next one.  The stream may be consumed once.
+     * 
+     * @return the Stream of results.
+     */
+    public Stream<S> stream() {
+        Spliterator<S> results = new Spliterators.AbstractSpliterator<S>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            
+            private boolean ended = false;
+            
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean tryAdvance(Consumer<? super S> action) {
+                if (ended)
+                    return false;
+                
+                Object next = take();
+                if (next == END) {
+                    ended = true;
+                    if (failure instanceof RuntimeException)
+                        throw (RuntimeException) failure;
+                    if (failure instanceof Error)
+                        throw (Error) failure;
+                    if (failure != null)
+                        throw new IllegalStateException("The producer failed!", failure);
+                    return false;
+                }
+                
+                action.accept((S) next);
+                return true;
+            }
+        };
+        return StreamSupport.stream(results, false);
+    }
+    
+    /**
+     * Puts an element into the buffer, waiting for space.
+     * 
+     * @param element the Object to put.
+     */
+    private void put(Object element) {
+        try {
+            buffer.put(element);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while buffering results!", e);
+        }
+    }
+    
+    /**
+     * Takes the next element from the buffer, waiting for one.
+     * 
+     * @return the next Object.
+     */
+    private Object take() {
+        try {
+            return buffer.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading results!", e);
+        }
+    }
+}
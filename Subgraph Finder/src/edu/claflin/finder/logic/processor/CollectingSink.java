@@ -0,0 +1,30 @@
+package edu.claflin.finder.logic.processor;
+
+import java.util.ArrayList;
+
+/**
+ * A {@link ResultSink} that keeps every result in the order received.
+ * 
+ * @param <S> the type of the results.
+ */
+public class CollectingSink<S> implements ResultSink<S> {
+    
+    /**
+     * The results received so far.
+     */
+    private final ArrayList<S> results = new ArrayList<>();
+    
+    @Override
+    public synchronized void accept(S result) {
+        results.add(result);
+    }
+    
+    /**
+     * Gets the results received so far.
+     * 
+     * @return the ArrayList of results in the order received.
+     */
+    public synchronized ArrayList<S> getResults() {
+        return results;
+    }
+}
@@ -0,0 +1,25 @@
+package edu.claflin.finder.logic.processor;
+
+/**
+ * Receives the results of a processing as they are produced.  A producer hands 
+ * every result to {@link #accept(java.lang.Object)} and calls 
+ * {@link #finish()} once after the last one.  Sinks may block in accept() to 
+ * hold back a producer that runs ahead of its consumer.
+ * 
+ * @param <S> the type of the results.
+ */
+@FunctionalInterface
+public interface ResultSink<S> {
+    
+    /**
+     * Receives a single result.
+     * 
+     * @param result the S type object produced.
+     */
+    void accept(S result);
+    
+    /**
+     * Signals that no further results follow.
+     */
+    default void finish() {}
+}
@@ -0,0 +1,36 @@
+package edu.claflin.finder.logic.processor;
+
+import java.util.ArrayList;
+
+/**
+ * Represents an operation that hands its results to a {@link ResultSink} as 
+ * they are produced instead of returning them all at once.
+ * 
+ * @param <T> the T type object to process.
+ * @param <S> the S type object of the data produced by processing.
+ */
+public interface StreamingProcessable<T, S> extends Processable<T, S> {
+    
+    /**
+     * Processes data, handing every result to the sink and finishing it 
+     * afterwards.
+     * 
+     * @param t the T type object to process.
+     * @param sink the ResultSink receiving the S type objects produced.
+     */
+    void process(T t, ResultSink<? super S> sink);
+    
+    /**
+     * Processes data by collecting the results of 
+     * {@link #process(java.lang.Object, ResultSink)}.
+     * 
+     * @param t the T type object to process.
+     * @return the S type object array produced by the processing.
+     */
+    @Override
+    default ArrayList<S> process(T t) {
+        CollectingSink<S> results = new CollectingSink<>();
+        process(t, results);
+        return results.getResults();
+    }
+}
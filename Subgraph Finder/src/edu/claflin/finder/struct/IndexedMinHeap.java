@@ -0,0 +1,210 @@
+package edu.claflin.finder.struct;
+
+import java.util.Arrays;
+
+/**
+ * A 4-ary min-heap of int ids keyed by doubles, ties going to the smaller id.
+ * The position of every id in the heap is indexed, so that the key of an id is
+ * decreased or increased in logarithmic time. Clearing the heap only visits the
+ * ids still in it, so a heap may be reused by searches that reach few ids.
+ */
+public class IndexedMinHeap
+{
+	private static final int ARITY = 4;
+
+	private final int[] heap; // the ids in heap order
+	private final int[] positions; // position of every id in the heap, -1 if absent
+	private final double[] keys; // key of every id in the heap
+	private int size;
+
+	/**
+	 * Creates an empty heap for the given number of ids.
+	 *
+	 * @param capacity the number of ids, 0 to capacity - 1
+	 */
+	public IndexedMinHeap(int capacity)
+	{
+		heap = new int[capacity];
+		positions = new int[capacity];
+		keys = new double[capacity];
+		Arrays.fill(positions, -1);
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	public boolean contains(int id)
+	{
+		return positions[id] >= 0;
+	}
+
+	/**
+	 * Get the id with the smallest key without removing it.
+	 *
+	 * @return the id, or -1 if the heap is empty
+	 */
+	public int peek()
+	{
+		return size == 0 ? -1 : heap[0];
+	}
+
+	/**
+	 * Get the smallest key.
+	 *
+	 * @return the key of the first id, positive infinity if the heap is empty
+	 */
+	public double peekKey()
+	{
+		return size == 0 ? Double.POSITIVE_INFINITY : keys[heap[0]];
+	}
+
+	/**
+	 * Get the key of an id in the heap.
+	 *
+	 * @param id the id
+	 * @return the key of the id
+	 */
+	public double getKey(int id)
+	{
+		return keys[id];
+	}
+
+	/**
+	 * Add an id or change its key.
+	 *
+	 * @param id  the id
+	 * @param key the new key
+	 */
+	public void set(int id, double key)
+	{
+		if (positions[id] < 0)
+		{
+			heap[size] = id;
+			positions[id] = size++;
+			keys[id] = key;
+			siftUp(positions[id]);
+			return;
+		}
+
+		double old = keys[id];
+		keys[id] = key;
+		if (key < old)
+		{
+			siftUp(positions[id]);
+		}
+		else if (key > old)
+		{
+			siftDown(positions[id]);
+		}
+	}
+
+	/**
+	 * Remove the id with the smallest key.
+	 *
+	 * @return the id, or -1 if the heap is empty
+	 */
+	public int poll()
+	{
+		if (size == 0)
+		{
+			return -1;
+		}
+
+		int first = heap[0];
+		positions[first] = -1;
+		int moved = heap[--size];
+		if (size > 0)
+		{
+			heap[0] = moved;
+			positions[moved] = 0;
+			siftDown(0);
+		}
+		return first;
+	}
+
+	/**
+	 * Remove every id.
+	 */
+	public void clear()
+	{
+		for (int position = 0; position < size; position++)
+		{
+			positions[heap[position]] = -1;
+		}
+		size = 0;
+	}
+
+	private void siftUp(int position)
+	{
+		int id = heap[position];
+		while (position > 0)
+		{
+			int parent = (position - 1) / ARITY;
+			if (!before(id, heap[parent]))
+			{
+				break;
+			}
+			heap[position] = heap[parent];
+			positions[heap[position]] = position;
+			position = parent;
+		}
+		heap[position] = id;
+		positions[id] = position;
+	}
+
+	private void siftDown(int position)
+	{
+		int id = heap[position];
+		while (true)
+		{
+			int first = ARITY * position + 1;
+			if (first >= size)
+			{
+				break;
+			}
+			int best = first;
+			for (int child = first + 1; child < Math.min(first + ARITY, size); child++)
+			{
+				if (before(heap[child], heap[best]))
+				{
+					best = child;
+				}
+			}
+			if (!before(heap[best], id))
+			{
+				break;
+			}
+			heap[position] = heap[best];
+			positions[heap[position]] = position;
+			position = best;
+		}
+		heap[position] = id;
+		positions[id] = position;
+	}
+
+	/**
+	 * Whether id i goes before id j, by smaller key and then smaller id.
+	 */
+	private boolean before(int i, int j)
+	{
+		return keys[i] < keys[j] || (keys[i] == keys[j] && i < j);
+	}
+
+	@Override
+	public String toString()
+	{
+		String result = "[";
+		for (int position = 0; position < size; position++)
+		{
+			result += (position > 0 ? ", " : "") + heap[position] + ": " + keys[heap[position]];
+		}
+		return result + "]";
+	}
+}
@@ -0,0 +1,352 @@
+package edu.claflin.finder.struct;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * A union-find structure whose elements additionally carry a side relative to
+ * the representative of their set. Linking two elements places them in the same
+ * set on opposite sides, so the structure maintains a two-colouring of every set
+ * and detects the first link that cannot be two-coloured. With union by rank and
+ * path compression each operation runs in near-constant amortized time.
+ *
+ * @param <T> the type of the elements. Elements are matched via their equals()
+ *            and hashCode() implementations.
+ */
+public class ParityDisjointSet<T>
+{
+	/**
+	 * The id of every element.
+	 */
+	private final HashMap<T, Integer> ids = new HashMap<>();
+
+	/**
+	 * The elements indexed by id.
+	 */
+	private final ArrayList<T> elements = new ArrayList<>();
+
+	/**
+	 * The parent id of every element, the element itself for representatives.
+	 */
+	private int[] parent = new int[16];
+
+	/**
+	 * The rank of every representative.
+	 */
+	private int[] rank = new int[16];
+
+	/**
+	 * Whether every element sits on the other side than its parent.
+	 */
+	private boolean[] parity = new boolean[16];
+
+	/**
+	 * The number of links that joined two different sets.
+	 */
+	private int mergeCount = 0;
+
+	/**
+	 * Whether every link so far could be satisfied.
+	 */
+	private boolean consistent = true;
+
+	/**
+	 * Adds an element as a singleton set.
+	 *
+	 * @param element the element to add.
+	 * @return true if the element was not in the structure yet.
+	 */
+	public boolean add(T element)
+	{
+		if (ids.containsKey(element))
+			return false;
+
+		id(element);
+		return true;
+	}
+
+	/**
+	 * Determines whether an element is in the structure.
+	 *
+	 * @param element the element to search for.
+	 * @return true if the element was added before.
+	 */
+	public boolean contains(T element)
+	{
+		return ids.containsKey(element);
+	}
+
+	/**
+	 * Gets the number of elements in the structure.
+	 *
+	 * @return the number of elements.
+	 */
+	public int size()
+	{
+		return elements.size();
+	}
+
+	/**
+	 * Places two elements on opposite sides of the same set. Elements missing from
+	 * the structure are added first. A link between two elements already on the
+	 * same side of a set marks the structure as inconsistent.
+	 *
+	 * @param a the first element.
+	 * @param b the second element.
+	 * @return false if the link contradicts the earlier ones.
+	 */
+	public boolean link(T a, T b)
+	{
+		int x = id(a);
+		int y = id(b);
+		int rootX = find(x);
+		int rootY = find(y);
+
+		if (rootX == rootY)
+		{
+			if (parity[x] == parity[y])
+				consistent = false;
+			return parity[x] != parity[y];
+		}
+
+		// the roots must differ by the parity that puts x and y on opposite sides
+		boolean relative = !(parity[x] ^ parity[y]);
+		if (rank[rootX] < rank[rootY])
+		{
+			int swap = rootX;
+			rootX = rootY;
+			rootY = swap;
+		}
+		parent[rootY] = rootX;
+		parity[rootY] = relative;
+		if (rank[rootX] == rank[rootY])
+			rank[rootX]++;
+
+		mergeCount++;
+		return true;
+	}
+
+	/**
+	 * Indicates whether every link so far could be satisfied.
+	 *
+	 * @return true if every set can be two-coloured.
+	 */
+	public boolean isConsistent()
+	{
+		return consistent;
+	}
+
+	/**
+	 * Gets the number of links that joined two different sets.
+	 *
+	 * @return the number of merges.
+	 */
+	public int getMergeCount()
+	{
+		return mergeCount;
+	}
+
+	/**
+	 * Determines whether two elements belong to the same set.
+	 *
+	 * @param a the first element.
+	 * @param b the second element.
+	 * @return true if both elements are in the structure and in the same set.
+	 */
+	public boolean connected(T a, T b)
+	{
+		Integer x = ids.get(a);
+		Integer y = ids.get(b);
+		return x != null && y != null && find(x) == find(y);
+	}
+
+	/**
+	 * Gets the side of an element relative to the representative of its set.
+	 *
+	 * @param element the element.
+	 * @return true if the element sits on the other side than its representative.
+	 */
+	public boolean side(T element)
+	{
+		Integer x = ids.get(element);
+		if (x == null)
+			throw new IllegalArgumentException(element + " is not in the set!");
+
+		find(x);
+		return parity[x];
+	}
+
+	/**
+	 * Splits the given elements into the two sides. The first element of every set
+	 * within the ordering lands in the first list, and every list keeps the order
+	 * of the elements.
+	 *
+	 * @param order the elements to split, all of which must be in the structure.
+	 * @return two lists of elements, one for each side.
+	 */
+	public List<List<T>> getSets(List<T> order)
+	{
+		List<T> first = new ArrayList<>();
+		List<T> second = new ArrayList<>();
+		HashMap<Integer, Boolean> flips = new HashMap<>();
+
+		for (T element : order)
+		{
+			Integer x = ids.get(element);
+			if (x == null)
+				throw new IllegalArgumentException(element + " is not in the set!");
+
+			int root = find(x);
+			boolean flip = flips.computeIfAbsent(root, r -> parity[x]);
+			(parity[x] ^ flip ? second : first).add(element);
+		}
+
+		return Arrays.asList(first, second);
+	}
+
+	/**
+	 * Determines the effect of a batch of links without applying it. The i-th link
+	 * of the batch connects sources[i] with targets[i]; elements missing from the
+	 * structure take part as new singleton sets.
+	 *
+	 * @param sources the first elements of the links.
+	 * @param targets the second elements of the links.
+	 * @return the number of merges the batch would perform or -1 if the structure
+	 *         would be inconsistent afterwards.
+	 */
+	public int trial(List<T> sources, List<T> targets)
+	{
+		if (!consistent)
+			return -1;
+
+		// Scratch union-find over the representatives the batch touches. Existing
+		// sets are keyed by their root id, new elements by negative ids.
+		HashMap<T, Integer> fresh = new HashMap<>();
+		HashMap<Integer, Integer> scratchParent = new HashMap<>();
+		HashMap<Integer, Boolean> scratchParity = new HashMap<>();
+		int merges = 0;
+
+		for (int i = 0; i < sources.size(); i++)
+		{
+			T a = sources.get(i);
+			T b = targets.get(i);
+			int keyA = key(a, fresh);
+			int keyB = key(b, fresh);
+			boolean sideA = ids.containsKey(a) && side(a);
+			boolean sideB = ids.containsKey(b) && side(b);
+
+			scratchParent.putIfAbsent(keyA, keyA);
+			scratchParity.putIfAbsent(keyA, false);
+			scratchParent.putIfAbsent(keyB, keyB);
+			scratchParity.putIfAbsent(keyB, false);
+
+			int rootA = keyA;
+			boolean flipA = false;
+			while (scratchParent.get(rootA) != rootA)
+			{
+				flipA ^= scratchParity.get(rootA);
+				rootA = scratchParent.get(rootA);
+			}
+			int rootB = keyB;
+			boolean flipB = false;
+			while (scratchParent.get(rootB) != rootB)
+			{
+				flipB ^= scratchParity.get(rootB);
+				rootB = scratchParent.get(rootB);
+			}
+
+			// a and b must end up on opposite sides
+			boolean relative = !(sideA ^ flipA ^ sideB ^ flipB);
+			if (rootA == rootB)
+			{
+				if (relative)
+					return -1;
+				continue;
+			}
+
+			scratchParent.put(rootA, rootB);
+			scratchParity.put(rootA, relative);
+			merges++;
+		}
+
+		return merges;
+	}
+
+	/**
+	 * Gets the scratch key of an element for {@link #trial(List, List)}.
+	 *
+	 * @param element the element.
+	 * @param fresh   the negative keys handed out to new elements so far.
+	 * @return the root id of the element or its negative key if it is new.
+	 */
+	private int key(T element, HashMap<T, Integer> fresh)
+	{
+		Integer x = ids.get(element);
+		if (x != null)
+			return find(x);
+		return fresh.computeIfAbsent(element, e -> -1 - fresh.size());
+	}
+
+	/**
+	 * Gets the id of an element, adding it if it is missing.
+	 *
+	 * @param element the element.
+	 * @return the id of the element.
+	 */
+	private int id(T element)
+	{
+		Integer x = ids.get(element);
+		if (x != null)
+			return x;
+
+		int id = elements.size();
+		if (id == parent.length)
+		{
+			parent = Arrays.copyOf(parent, id * 2);
+			rank = Arrays.copyOf(rank, id * 2);
+			parity = Arrays.copyOf(parity, id * 2);
+		}
+		parent[id] = id;
+		ids.put(element, id);
+		elements.add(element);
+		return id;
+	}
+
+	/**
+	 * Finds the representative of an element and compresses its path. Afterwards
+	 * the parity of the element is relative to the representative.
+	 *
+	 * @param x the id of the element.
+	 * @return the id of the representative.
+	 */
+	private int find(int x)
+	{
+		int root = x;
+		while (parent[root] != root)
+			root = parent[root];
+
+		// the parity of a node relative to the root is the sum along its path
+		int current = x;
+		boolean total = false;
+		while (current != root)
+		{
+			total ^= parity[current];
+			current = parent[current];
+		}
+
+		current = x;
+		while (current != root)
+		{
+			int next = parent[current];
+			boolean rest = total ^ parity[current];
+			parent[current] = root;
+			parity[current] = total;
+			total = rest;
+			current = next;
+		}
+
+		return root;
+	}
+}